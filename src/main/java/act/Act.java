@@ -30,7 +30,6 @@ import act.util.*;
 import act.view.ViewManager;
 import act.xio.Network;
 import act.xio.NetworkHandler;
-import act.xio.undertow.UndertowNetwork;
 import org.osgl.$;
 import org.osgl.cache.CacheService;
 import org.osgl.exception.NotAppliedException;
@@ -225,6 +224,10 @@ public final class Act {
         return appManager;
     }
 
+    public static Network network() {
+        return network;
+    }
+
     public static MetricPlugin metricPlugin() {
         return metricPlugin;
     }
@@ -257,6 +260,14 @@ public final class Act {
         start(true, appName, appVersion);
     }
 
+    /**
+     * Returns {@code true} if Act is launched to enhance app classes ahead
+     * of time. See {@link act.boot.app.EnhanceApp}
+     */
+    public static boolean isAotEnhance() {
+        return Boolean.parseBoolean(SysProps.get(AppConfigKey.AOT_ENHANCE.key()));
+    }
+
     public static void shutdownApp(App app) {
         if (!appManager.unload(app)) {
             app.destroy();
@@ -284,6 +295,11 @@ public final class Act {
         } else {
             appManager.scan();
         }
+        if (isAotEnhance()) {
+            // the app classes have been exported once scanned, no need to serve requests
+            Thread.currentThread().setContextClassLoader(Act.class.getClassLoader());
+            return;
+        }
         startNetworkLayer();
         Thread.currentThread().setContextClassLoader(Act.class.getClassLoader());
         App app = app();
@@ -596,7 +612,8 @@ public final class Act {
 
     private static void initNetworkLayer() {
         logger.debug("initializing network layer ...");
-        network = new UndertowNetwork();
+        network = conf.network();
+        logger.debug("network implementation: %s", network.getClass().getName());
     }
 
     private static void destroyNetworkLayer() {
@@ -8,8 +8,10 @@ import act.util.ByteCodeVisitor;
 import act.util.DestroyableBase;
 import org.osgl.$;
 import org.osgl.util.C;
+import org.osgl.util.S;
 
 import javax.enterprise.context.ApplicationScoped;
+import java.util.Collections;
 import java.util.List;
 
 import static act.Destroyable.Util.tryDestroyAll;
@@ -33,6 +35,19 @@ public class BytecodeEnhancerManager extends DestroyableBase {
         appEnhancers.add(enhancer);
     }
 
+    /**
+     * Returns the class names of the app enhancers registered, which
+     * identifies the enhancer set applied to app classes
+     */
+    public String fingerprint() {
+        List<String> names = C.newList();
+        for (AppByteCodeEnhancer e : appEnhancers) {
+            names.add(e.getClass().getName());
+        }
+        Collections.sort(names);
+        return S.join(",", names);
+    }
+
     public ByteCodeVisitor appEnhancer(App app, String className, $.Var<ClassWriter> cw) {
         List<AppByteCodeEnhancer> l = appFilter(app, className);
         return l.isEmpty() ? null : ByteCodeVisitor.chain(cw, l);
@@ -2,6 +2,7 @@ package act;
 
 import act.app.App;
 import act.app.event.AppEventId;
+import act.app.util.PasswordHasher;
 import act.cli.CliContext;
 import act.cli.Command;
 import act.cli.Optional;
@@ -11,6 +12,8 @@ import act.sys.Env;
 import act.util.AnnotatedClassFinder;
 import act.util.Global;
 import act.util.PropertySpec;
+import act.xio.Network;
+import act.xio.NetworkBase;
 import org.joda.time.LocalDateTime;
 import org.osgl.$;
 import org.osgl.storage.impl.SObject;
@@ -25,6 +28,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static act.handler.builtin.controller.RequestHandlerProxy.registerGlobalInterceptor;
 
@@ -97,6 +101,32 @@ public class SysUtilAdmin {
         }
     }
 
+    @Command(name = "act.xio.stat", help = "Print network worker thread and buffer pool usage")
+    public void xioStat(CliContext context) {
+        Network network = Act.network();
+        if (!(network instanceof NetworkBase)) {
+            context.println("network statistics not available");
+            return;
+        }
+        context.println("====== NETWORK INFO ======");
+        for (Map.Entry<String, Object> entry : ((NetworkBase) network).stats().entrySet()) {
+            context.println("%20s: %s", entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Command(name = "act.password.stat", help = "Print password hashing queue depth and thread usage")
+    public void passwordStat(CliContext context) {
+        PasswordHasher hasher = context.app().singleton(PasswordHasher.class);
+        if (null == hasher) {
+            context.println("password hasher not available");
+            return;
+        }
+        context.println("====== PASSWORD HASHER INFO ======");
+        for (Map.Entry<String, Object> entry : hasher.stats().entrySet()) {
+            context.println("%20s: %s", entry.getKey(), entry.getValue());
+        }
+    }
+
     @Command(name = "act.gc", help = "Run GC")
     public void gc(CliContext context) {
         System.gc();
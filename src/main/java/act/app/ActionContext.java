@@ -10,7 +10,7 @@ import act.event.EventBus;
 import act.handler.RequestHandler;
 import act.i18n.LocaleResolver;
 import act.route.Router;
-import act.security.CORS;
+import act.security.CSRF;
 import act.util.ActContext;
 import act.util.PropertySpec;
 import org.osgl.$;
@@ -67,6 +67,7 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
     private LocaleResolver localeResolver;
     private boolean disableCors;
     private boolean disableCsrf;
+    private CSRF.Spec csrfSpec;
 
     @Inject
     private ActionContext(App app, H.Request request, H.Response response) {
@@ -156,6 +157,7 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
     public ActionContext handler(RequestHandler handler) {
         E.NPE(handler);
         this.handler = handler;
+        this.csrfSpec = null;
         return this;
     }
 
@@ -312,24 +314,36 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
 
     public void preCheckCsrf() {
         if (!disableCsrf) {
-            handler().csrfSpec().preCheck(this);
+            csrfSpec().preCheck(this);
         }
     }
 
     public void checkCsrf(H.Session session) {
         if (!disableCsrf) {
-            handler().csrfSpec().check(this, session);
+            csrfSpec().check(this, session);
         }
     }
 
     public void setCsrfCookieAndRenderArgs() {
-        handler().csrfSpec().setCookieAndRenderArgs(this);
+        csrfSpec().setCookieAndRenderArgs(this);
+    }
+
+    // resolve the CSRF spec through the handler delegation chain once per request
+    private CSRF.Spec csrfSpec() {
+        if (null == csrfSpec) {
+            csrfSpec = handler().csrfSpec();
+        }
+        return csrfSpec;
     }
 
     public void disableCORS() {
         this.disableCors = true;
     }
 
+    public boolean corsDisabled() {
+        return disableCors;
+    }
+
     public ActionContext applyContentType
             () {
         H.Request req = req();
@@ -343,29 +357,10 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
     }
 
     public ActionContext applyCorsSpec() {
-        CORS.Spec spec = handler().corsSpec();
-        spec.applyTo(this);
-        applyGlobalCorsSetting();
+        handler().corsSpec().plan(config()).apply(this);
         return this;
     }
 
-    private void applyGlobalCorsSetting() {
-        if (this.disableCors) {
-            return;
-        }
-        AppConfig conf = config();
-        if (!conf.corsEnabled()) {
-            return;
-        }
-        H.Response r = resp();
-        r.addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_ORIGIN, conf.corsAllowOrigin());
-        if (request.method() == H.Method.OPTIONS || !conf.corsOptionCheck()) {
-            r.addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_HEADERS, conf.corsAllowHeaders());
-            r.addHeaderIfNotAdded(ACCESS_CONTROL_EXPOSE_HEADERS, conf.corsExposeHeaders());
-            r.addHeaderIfNotAdded(ACCESS_CONTROL_MAX_AGE, S.string(conf.corsMaxAge()));
-        }
-    }
-
     /**
      * Called by bytecode enhancer to set the name list of the render arguments that is update
      * by the enhancer
@@ -561,6 +556,15 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
         return actionPath;
     }
 
+    /**
+     * Check if template path has been set explicitly via {@link #templatePath(String)}
+     *
+     * @return {@code true} if template path has been set
+     */
+    public boolean hasTemplatePath() {
+        return S.notBlank(super.templatePath());
+    }
+
     /**
      * If {@link #templatePath(String) template path has been set before} then return
      * the template path. Otherwise returns the {@link #actionPath()}
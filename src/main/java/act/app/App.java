@@ -7,6 +7,7 @@ import act.app.data.StringValueResolverManager;
 import act.app.event.AppEventId;
 import act.app.util.AppCrypto;
 import act.app.util.NamedPort;
+import act.app.util.PasswordHasher;
 import act.boot.BootstrapClassLoader;
 import act.cli.CliDispatcher;
 import act.cli.bytecode.CommanderByteCodeScanner;
@@ -29,6 +30,7 @@ import act.inject.param.JsonDTOClassManager;
 import act.inject.param.ParamValueLoaderManager;
 import act.job.AppJobManager;
 import act.job.bytecode.JobByteCodeScanner;
+import act.mail.MailDelivery;
 import act.mail.MailerConfigManager;
 import act.mail.bytecode.MailerByteCodeScanner;
 import act.route.RouteSource;
@@ -81,7 +83,7 @@ public class App extends DestroyableBase {
     private CliDispatcher cliDispatcher;
     private Map<NamedPort, Router> moreRouters;
     private AppConfig<?> config;
-    private AppClassLoader classLoader;
+    private volatile AppClassLoader classLoader;
     private ProjectLayout layout;
     private AppBuilder builder;
     private EventBus eventBus;
@@ -90,6 +92,7 @@ public class App extends DestroyableBase {
     private AppJobManager jobManager;
     private CliServer cliServer;
     private MailerConfigManager mailerConfigManager;
+    private MailDelivery mailDelivery;
     private StringValueResolverManager resolverManager;
     private SingletonRegistry singletonRegistry;
     private BinderManager binderManager;
@@ -102,7 +105,7 @@ public class App extends DestroyableBase {
     private IdGenerator idGenerator;
     private CacheService cache;
     // used in dev mode only
-    private CompilationException compilationException;
+    private volatile CompilationException compilationException;
     private AppEventId currentState;
     private Set<AppEventId> eventEmitted;
     private Thread mainThread;
@@ -301,6 +304,11 @@ public class App extends DestroyableBase {
         if (!Act.isDev()) {
             return;
         }
+        AppClassLoader cl = classLoader;
+        if (null != cl && null == compilationException && !cl.hasChanges()) {
+            // fast path: nothing changed since last check
+            return;
+        }
         synchronized (this) {
             try {
                 detectChanges();
@@ -411,7 +419,9 @@ public class App extends DestroyableBase {
         loadRoutes();
         emit(ROUTER_LOADED);
         initCliDispatcher();
-        initCliServer();
+        if (!Act.isAotEnhance()) {
+            initCliServer();
+        }
 
         initDbServiceManager();
         emit(DB_SVC_LOADED);
@@ -438,6 +448,13 @@ public class App extends DestroyableBase {
         emit(APP_CODE_SCANNED);
         emit(CLASS_LOADED);
 
+        if (Act.isAotEnhance()) {
+            // launched by EnhanceApp, stop once the enhanced classes are exported
+            classLoader().exportEnhancedClasses(RuntimeDirs.enhanced(this));
+            logger.info("App[%s] classes enhanced in %sms", name(), $.ms() - ms);
+            return;
+        }
+
         loadDependencyInjector();
         emit(DEPENDENCY_INJECTOR_LOADED);
         initJsonDTOClassManager();
@@ -550,6 +567,10 @@ public class App extends DestroyableBase {
         return mailerConfigManager;
     }
 
+    public MailDelivery mailDelivery() {
+        return mailDelivery;
+    }
+
     public EventBus eventBus() {
         return eventBus;
     }
@@ -882,6 +903,7 @@ public class App extends DestroyableBase {
     private void initCrypto() {
         crypto = new AppCrypto(config());
         registerSingleton(AppCrypto.class, crypto);
+        registerSingleton(PasswordHasher.class, new PasswordHasher(this));
     }
 
     private void initJobManager() {
@@ -919,6 +941,7 @@ public class App extends DestroyableBase {
 
     private void initMailerConfigManager() {
         mailerConfigManager = new MailerConfigManager(this);
+        mailDelivery = new MailDelivery(this);
     }
 
     private void loadGlobalPlugin() {
@@ -38,8 +38,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
 import java.security.ProtectionDomain;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
 import static act.util.ClassInfoRepository.canonicalName;
 import static org.osgl.$.notNull;
@@ -58,8 +61,13 @@ public class AppClassLoader
             ActClassLoader {
 
     private final static Logger logger = L.get(AppClassLoader.class);
+
     private App app;
-    private Map<String, byte[]> libClsCache = C.newMap();
+    private EnhancedClassStore enhancedClasses;
+    private Map<String, byte[]> libClsCache = new ConcurrentHashMap<>();
+    // the jar files where the library classes can be found, the bytecode is
+    // read on demand instead of being held in libClsCache
+    private Map<String, JarIndex> libClsIndex = new ConcurrentHashMap<>();
     private ClassInfoRepository classInfoRepository;
     private boolean destroyed;
     protected ControllerClassMetaInfoManager controllerInfo;
@@ -117,6 +125,9 @@ public class AppClassLoader
     @Override
     public final void destroy() {
         libClsCache.clear();
+        libClsIndex.clear();
+        // release the mapped jar files, they are mapped again when read
+        JarIndex.clear();
         controllerInfo.destroy();
         mailerInfo.destroy();
         jobInfo.destroy();
@@ -133,6 +144,16 @@ public class AppClassLoader
         classInfoRepository.destroy();
     }
 
+    /**
+     * Check if there might be changes to be detected. This is a cheap
+     * check that allows caller to skip {@link #detectChanges()} call
+     *
+     * @return `true` if {@link #detectChanges()} shall be called
+     */
+    public boolean hasChanges() {
+        return false;
+    }
+
     public void detectChanges() {
         // don't do anything when running in none-dev mode
     }
@@ -197,17 +218,26 @@ public class AppClassLoader
             return super.loadClass(name, resolve);
         }
 
-        c = loadAppClass(name, resolve);
+        // the class loader is parallel capable, thus threads loading
+        // different classes do not block each other
+        synchronized (getClassLoadingLock(name)) {
+            c = findLoadedClass(name);
+            if (c != null) {
+                return c;
+            }
 
-        if (null == c) {
-            return super.loadClass(name, resolve);
-        } else {
-            return c;
+            c = loadAppClass(name, resolve);
+
+            if (null == c) {
+                return super.loadClass(name, resolve);
+            } else {
+                return c;
+            }
         }
     }
 
     protected void scan() {
-        scanByteCode(libClsCache.keySet(), bytecodeLookup);
+        scanByteCode(libClassNames(), bytecodeLookup);
     }
 
     /**
@@ -229,7 +259,7 @@ public class AppClassLoader
             if (null == ba) {
                 throw new NullPointerException();
             }
-            libClsCache.put(className, ba);
+            cacheBytecode(className, ba);
             act.metric.Timer timer = metric.startTimer("act:classload:scan:bytecode:" + className);
             List<ByteCodeVisitor> visitors = C.newList();
             List<AppByteCodeScanner> scanners = C.newList();
@@ -289,7 +319,7 @@ public class AppClassLoader
             }
             ByteCodeVisitor theVisitor = ByteCodeVisitor.chain(visitors);
             byte[] bytes = bytecodeProvider.apply(className);
-            libClsCache.put(className, bytes);
+            cacheBytecode(className, bytes);
             ClassReader cr = new ClassReader(bytes);
             cr.accept(theVisitor, 0);
             for (AppByteCodeScanner scanner : scanners) {
@@ -319,25 +349,86 @@ public class AppClassLoader
     protected void preload() {
         preloadLib();
         preloadClasses();
+        loadEnhancedClasses();
+    }
+
+    private void loadEnhancedClasses() {
+        if (Act.isDev()) {
+            // sources might be changed, always enhance at runtime in dev mode
+            return;
+        }
+        enhancedClasses = EnhancedClassStore.load(RuntimeDirs.enhanced(app), enhancedClassStoreKey());
+    }
+
+    /**
+     * The key of the enhanced classes. The enhanced bytecode of a class
+     * depends not only on its own bytecode, but also on the Act version,
+     * the enhancers and their libraries, and the metadata of other app
+     * classes, e.g. the super class or the interceptors. Any change to
+     * these invalidates all enhanced classes
+     */
+    private String enhancedClassStoreKey() {
+        List<File> jars = FullStackAppBootstrapClassLoader.jars(AppClassLoader.class.getClassLoader());
+        List<String> classNames = C.newList(libClassNames());
+        Collections.sort(classNames);
+        CRC32 crc = new CRC32();
+        for (String className : classNames) {
+            crc.update(className.getBytes(StandardCharsets.UTF_8));
+            byte[] bytecode = libClsCache.get(className);
+            // classes in jar files are covered by the jar fingerprint
+            if (null != bytecode) {
+                crc.update(bytecode);
+            }
+        }
+        return S.fmt("%s|%s|%s|%s", Act.VERSION, Act.enhancerManager().fingerprint(),
+                Jars.fingerprint(jars), Long.toHexString(crc.getValue()));
+    }
+
+    /**
+     * Enhance all app classes and write the enhanced bytecode into the dir
+     * specified so that the enhancing can be skipped when the app is loaded
+     * next time.
+     *
+     * @param dir the dir to write the enhanced classes
+     */
+    public void exportEnhancedClasses(File dir) {
+        logger.info("exporting enhanced classes to %s ...", dir);
+        EnhancedClassStore store = EnhancedClassStore.create(dir, enhancedClassStoreKey());
+        AppConfig config = app().config();
+        for (String className : libClassNames()) {
+            if (!config.needEnhancement(className) || !enhanceEligible(className)) {
+                continue;
+            }
+            byte[] bytecode = libBytecode(className);
+            try {
+                byte[] enhanced = enhance(className, bytecode);
+                if (enhanced != bytecode) {
+                    store.add(className, bytecode, enhanced);
+                }
+            } catch (RuntimeException e) {
+                logger.warn(e, "error enhancing class %s", className);
+            }
+        }
+        store.save();
     }
 
     private void preloadLib() {
-        final Map<String, byte[]> bytecodeIdx = C.newMap();
+        final Map<String, JarIndex> classLocationIdx = C.newMap();
         final Map<String, Properties> jarConf = C.newMap();
         final $.Function<String, Boolean> ignoredClassNames = app().config().appClassTester().negate();
-        Jars.F.JarEntryVisitor classNameIndexBuilder = Jars.F.classNameIndexBuilder(bytecodeIdx, ignoredClassNames);
+        Jars.F.JarEntryVisitor classLocationIndexBuilder = Jars.F.classLocationIndexBuilder(classLocationIdx, ignoredClassNames);
         Jars.F.JarEntryVisitor confIndexBuilder = Jars.F.appConfigFileIndexBuilder(jarConf);
         List<File> jars = FullStackAppBootstrapClassLoader.jars(AppClassLoader.class.getClassLoader());
         for (File jar : jars) {
-            Jars.scan(jar, classNameIndexBuilder, confIndexBuilder);
+            Jars.scan(jar, classLocationIndexBuilder, confIndexBuilder);
         }
-        libClsCache.putAll(bytecodeIdx);
+        libClsIndex.putAll(classLocationIdx);
         AppConfig config = app().config();
         config.loadJarProperties(jarConf);
     }
 
     void loadClasses() {
-        for (String key : libClsCache.keySet()) {
+        for (String key : libClassNames()) {
             try {
                 Class<?> c = loadClass(key, true);
                 cache(c);
@@ -401,7 +492,10 @@ public class AppClassLoader
             }
         }
         try {
-            byte[] baNew = enhance(name, bytecode);
+            byte[] baNew = null == enhancedClasses ? null : enhancedClasses.enhanced(name, bytecode);
+            if (null == baNew) {
+                baNew = enhance(name, bytecode);
+            }
             try {
                 Class<?> c = super.defineClass(name, baNew, 0, baNew.length, DOMAIN);
 
@@ -446,7 +540,31 @@ public class AppClassLoader
     }
 
     protected byte[] appBytecode(String name, boolean loadFromSource) {
-        return libClsCache.get(name);
+        return libBytecode(name);
+    }
+
+    private byte[] libBytecode(String name) {
+        byte[] bytecode = libClsCache.get(name);
+        if (null == bytecode) {
+            JarIndex jar = libClsIndex.get(name);
+            if (null != jar) {
+                bytecode = jar.classBytes(name);
+            }
+        }
+        return bytecode;
+    }
+
+    private void cacheBytecode(String className, byte[] bytecode) {
+        // bytecode in jar files can be read again from the jar index
+        if (!libClsIndex.containsKey(className)) {
+            libClsCache.put(className, bytecode);
+        }
+    }
+
+    private Set<String> libClassNames() {
+        Set<String> names = new HashSet<>(libClsIndex.keySet());
+        names.addAll(libClsCache.keySet());
+        return names;
     }
 
     protected byte[] bytecode(String name) {
@@ -473,7 +591,13 @@ public class AppClassLoader
         return null == bytecode ? null : enhance(name, bytecode);
     }
 
-    private synchronized ClassNode cache(Class<?> c) {
+    /*
+     * Note this method is not synchronized. The node is created through
+     * `ClassInfoRepository.node(String, String)` which is lock free, and
+     * the rest of the operations are idempotent, thus it does not matter
+     * if two threads happen to cache the same class at the same time
+     */
+    private ClassNode cache(Class<?> c) {
         String cname = canonicalName(c);
         if (null == cname) {
             return null;
@@ -515,6 +639,7 @@ public class AppClassLoader
     private static java.security.ProtectionDomain DOMAIN;
 
     static {
+        registerAsParallelCapable();
         DOMAIN = (java.security.ProtectionDomain)
                 java.security.AccessController.doPrivileged(
                         new java.security.PrivilegedAction() {
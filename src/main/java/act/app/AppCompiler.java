@@ -1,10 +1,12 @@
 package act.app;
 
 import act.Act;
+import act.boot.app.FullStackAppBootstrapClassLoader;
 import act.conf.AppConfig;
 import act.metric.Metric;
 import act.metric.Timer;
 import act.util.DestroyableBase;
+import act.util.Jars;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.internal.compiler.*;
 import org.eclipse.jdt.internal.compiler.Compiler;
@@ -21,23 +23,44 @@ import org.osgl.util.C;
 import org.osgl.util.E;
 import org.osgl.util.S;
 
-import java.util.Collection;
-import java.util.Locale;
-import java.util.Map;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.eclipse.jdt.internal.compiler.impl.CompilerOptions.*;
 
 /**
  * Compile App srccode code in memory. Only used when Act is running
  * in DEV mode
+ *
+ * <p>Sources are split into batches (by package) and compiled in parallel
+ * when there are enough of them. Types loaded from libraries are cached
+ * for the life time of the compiler, and compiled byte code is persisted
+ * via {@link CompiledBytecodeCache} so that unchanged sources do not need
+ * to be compiled again after app restarted</p>
  */
 class AppCompiler extends DestroyableBase {
 
-    Map<String, Boolean> packagesCache = C.newMap();
+    /**
+     * The minimum number of sources in a batch for parallel compilation
+     */
+    static final int MIN_BATCH_SIZE = 30;
+
+    Map<String, Boolean> packagesCache = new ConcurrentHashMap<>();
+    // library types never change during the life time of the class loader
+    private ConcurrentMap<String, NameEnvironmentAnswer> libTypeCache = new ConcurrentHashMap<>();
+    private Set<String> libTypeMisses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
     private DevModeClassLoader classLoader;
     private App app;
     private AppConfig conf;
     private CompilerOptions compilerOptions;
+    private CompiledBytecodeCache bytecodeCache;
+    private ExecutorService executor;
     private Metric metric;
 
     AppCompiler(DevModeClassLoader classLoader) {
@@ -46,11 +69,20 @@ class AppCompiler extends DestroyableBase {
         this.conf = app.config();
         this.metric = Act.metricPlugin().metric("act.classload.compile");
         configureCompilerOptions();
+        // library changes might break the byte code compiled against the previous version
+        String classpath = Jars.fingerprint(FullStackAppBootstrapClassLoader.jars(AppClassLoader.class.getClassLoader()));
+        String fingerprint = S.fmt("%s-%s-%s", conf.sourceVersion(), conf.targetVersion(), classpath);
+        this.bytecodeCache = new CompiledBytecodeCache(new File(app.tmpDir(), "bytecode"), fingerprint);
     }
 
     @Override
     protected void releaseResources() {
         packagesCache.clear();
+        libTypeCache.clear();
+        libTypeMisses.clear();
+        if (null != executor) {
+            executor.shutdownNow();
+        }
         super.releaseResources();
     }
 
@@ -69,6 +101,8 @@ class AppCompiler extends DestroyableBase {
         opt(map, OPTION_TargetPlatform, conf.targetVersion());
         opt(map, OPTION_Compliance, conf.sourceVersion());
         compilerOptions = new CompilerOptions(map);
+        // needed to find out the app sources a compilation unit depends on
+        compilerOptions.produceReferenceInfo = true;
     }
 
     private void opt(Map map, String key, String val) {
@@ -77,11 +111,44 @@ class AppCompiler extends DestroyableBase {
 
     public void compile(Collection<Source> sources) {
         Timer timer = metric.startTimer("act:classload:compile:_all");
-        int len = sources.size();
+        try {
+            List<Source> toBeCompiled = C.newList();
+            for (Source source : sources) {
+                if (!bytecodeCache.restore(source, classLoader)) {
+                    toBeCompiled.add(source);
+                }
+            }
+            List<List<Source>> batches = batches(toBeCompiled);
+            if (batches.isEmpty()) {
+                compile(toBeCompiled.toArray(new Source[toBeCompiled.size()]));
+            } else {
+                compileInParallel(batches);
+            }
+        } finally {
+            timer.stop();
+        }
+    }
+
+    public void compile(String className) {
+        Timer timer = metric.startTimer("act:classload:compile:" + className);
+        try {
+            Source source = classLoader.source(className);
+            if (!bytecodeCache.restore(source, classLoader)) {
+                compile(source);
+            }
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private void compile(Source... sources) {
+        int len = sources.length;
+        if (0 == len) {
+            return;
+        }
         ICompilationUnit[] compilationUnits = new ICompilationUnit[len];
-        int i = 0;
-        for (Source source: sources) {
-            compilationUnits[i++] = source.compilationUnit();
+        for (int i = 0; i < len; ++i) {
+            compilationUnits[i] = sources[i].compilationUnit();
         }
         IErrorHandlingPolicy policy = DefaultErrorHandlingPolicies.exitOnFirstError();
         IProblemFactory problemFactory = new DefaultProblemFactory(Locale.ENGLISH);
@@ -94,25 +161,94 @@ class AppCompiler extends DestroyableBase {
         };
 
         jdtCompiler.compile(compilationUnits);
-        timer.stop();
     }
 
-    public void compile(String className) {
-        Timer timer = metric.startTimer("act:classload:compile:" + className);
-        ICompilationUnit[] compilationUnits = new ICompilationUnit[1];
-        compilationUnits[0] = classLoader.source(className).compilationUnit();
-        IErrorHandlingPolicy policy = DefaultErrorHandlingPolicies.exitOnFirstError();
-        IProblemFactory problemFactory = new DefaultProblemFactory(Locale.ENGLISH);
+    private void compileInParallel(List<List<Source>> batches) {
+        List<Future<?>> futures = C.newList();
+        ExecutorService executor = executor();
+        for (final List<Source> batch : batches) {
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    compile(batch.toArray(new Source[batch.size()]));
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw E.unexpected(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw E.unexpected(cause);
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
 
-        org.eclipse.jdt.internal.compiler.Compiler jdtCompiler = new Compiler(
-                nameEnv, policy, compilerOptions, requestor, problemFactory) {
-            @Override
-            protected void handleInternalException(Throwable e, CompilationUnitDeclaration ud, CompilationResult result) {
+    /**
+     * Split sources into batches. Sources in the same package are put
+     * into the same batch as they are more likely to reference each other.
+     * A source referenced across batches is either loaded as binary type
+     * if it has been compiled already, or compiled again by the referencing
+     * batch.
+     *
+     * @return the batches or an empty list if it does not worth to compile in parallel
+     */
+    private List<List<Source>> batches(List<Source> sources) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int n = Math.min(cores, sources.size() / MIN_BATCH_SIZE);
+        if (n < 2) {
+            return C.newList();
+        }
+        Map<String, List<Source>> packages = new TreeMap<>();
+        for (Source source : sources) {
+            String pkg = source.packageName();
+            List<Source> list = packages.get(pkg);
+            if (null == list) {
+                list = C.newList();
+                packages.put(pkg, list);
             }
-        };
+            list.add(source);
+        }
+        List<List<Source>> batches = C.newList();
+        for (int i = 0; i < n; ++i) {
+            batches.add(C.<Source>newList());
+        }
+        int batchSize = (sources.size() + n - 1) / n;
+        int cur = 0;
+        for (List<Source> list : packages.values()) {
+            List<Source> batch = batches.get(cur);
+            batch.addAll(list);
+            if (batch.size() >= batchSize && cur < n - 1) {
+                cur++;
+            }
+        }
+        return batches;
+    }
 
-        jdtCompiler.compile(compilationUnits);
-        timer.stop();
+    private synchronized ExecutorService executor() {
+        if (null == executor) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            executor = Executors.newFixedThreadPool(cores, new AppThreadFactory("compiler", true));
+        }
+        return executor;
+    }
+
+    private byte[] compiledBytes(Source source, String type) {
+        if (type.contains("$")) {
+            // make sure we don't get inner class from a source that are still in compiling
+            return null == source.bytes() ? null : source.bytes(S.afterFirst(type, "$"));
+        }
+        return source.bytes();
     }
 
     private INameEnvironment nameEnv = new INameEnvironment() {
@@ -178,19 +314,36 @@ class AppCompiler extends DestroyableBase {
                 if (Act.isDev()) {
                     source = classLoader.source(type);
                     if (null != source) {
+                        bytes = compiledBytes(source, type);
+                        if (null != bytes) {
+                            // compiled by another batch or loaded from bytecode cache
+                            return new NameEnvironmentAnswer(new ClassFileReader(bytes, type.toCharArray(), true), null);
+                        }
                         return new NameEnvironmentAnswer(source.compilationUnit(), null);
                     }
+                    NameEnvironmentAnswer answer = libTypeCache.get(type);
+                    if (null != answer) {
+                        return answer;
+                    }
+                    if (libTypeMisses.contains(type)) {
+                        return null;
+                    }
                 }
                 bytes = classLoader.enhancedBytecode(type);
                 if (bytes != null) {
                     ClassFileReader classFileReader = new ClassFileReader(bytes, type.toCharArray(), true);
-                    return new NameEnvironmentAnswer(classFileReader, null);
+                    NameEnvironmentAnswer answer = new NameEnvironmentAnswer(classFileReader, null);
+                    if (Act.isDev()) {
+                        libTypeCache.put(type, answer);
+                    }
+                    return answer;
                 } else {
                     if (type.startsWith("org.osgl") || type.startsWith("java.") || type.startsWith("javax.")) {
                         return null;
                     }
                 }
                 if (Act.isDev()) {
+                    libTypeMisses.add(type);
                     return null;
                 }
                 source = classLoader.source(type);
@@ -238,6 +391,8 @@ class AppCompiler extends DestroyableBase {
             }
             // Something has been compiled
             ClassFile[] clazzFiles = result.getClassFiles();
+            Source mainSource = null;
+            byte[] mainBytes = null;
             for (int i = 0; i < clazzFiles.length; i++) {
                 final ClassFile clazzFile = clazzFiles[i];
                 final char[][] compoundName = clazzFile.getCompoundName();
@@ -261,11 +416,42 @@ class AppCompiler extends DestroyableBase {
                 if (name != name0) {
                     String innerName = S.afterFirst(name, "$");
                     source.compiled(innerName, clazzFile.getBytes());
+                } else if (null == mainSource) {
+                    // publish the main byte code after all inner classes
+                    mainSource = source;
+                    mainBytes = clazzFile.getBytes();
                 } else {
                     source.compiled(clazzFile.getBytes());
                 }
             }
+            if (null != mainSource) {
+                mainSource.compiled(mainBytes);
+                bytecodeCache.store(mainSource, dependencies(mainSource, result));
+            }
         }
     };
 
+    /**
+     * Find out the app sources referenced by a compilation unit. This is a
+     * conservative result as it matches all sources with the simple names
+     * referenced in the compilation unit
+     */
+    private List<Source> dependencies(Source source, CompilationResult result) {
+        List<Source> list = C.newList();
+        char[][] simpleNames = result.simpleNameReferences;
+        if (null == simpleNames) {
+            return list;
+        }
+        Set<String> names = C.newSet();
+        for (char[] ca : simpleNames) {
+            names.add(new String(ca));
+        }
+        for (Source dep : classLoader.sources()) {
+            if (dep != source && names.contains(dep.simpleName())) {
+                list.add(dep);
+            }
+        }
+        return list;
+    }
+
 }
@@ -13,6 +13,7 @@ import org.osgl.mvc.result.Result;
 import org.osgl.util.C;
 
 import java.util.Collections;
+import java.util.List;
 
 import static act.handler.builtin.controller.RequestHandlerProxy.insertInterceptor;
 
@@ -52,6 +53,22 @@ public class AppInterceptorManager extends AppServiceBase<AppInterceptorManager>
         return EXCEPTION_INTERCEPTOR.apply(ex, actionContext);
     }
 
+    public List<BeforeInterceptor> beforeInterceptors() {
+        return C.list(beforeInterceptors);
+    }
+
+    public List<AfterInterceptor> afterInterceptors() {
+        return C.list(afterInterceptors);
+    }
+
+    public List<ExceptionInterceptor> exceptionInterceptors() {
+        return C.list(exceptionInterceptors);
+    }
+
+    public List<FinallyInterceptor> finallyInterceptors() {
+        return C.list(finallyInterceptors);
+    }
+
     public void registerInterceptor(BeforeInterceptor interceptor) {
         insertInterceptor(beforeInterceptors, interceptor);
     }
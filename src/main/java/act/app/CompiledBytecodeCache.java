@@ -0,0 +1,221 @@
+package act.app;
+
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Persist the byte code compiled out from app sources into the app
+ * tmp dir so that a source that has not been changed does not need to
+ * be compiled again after app restarted.
+ *
+ * A cached entry is valid only when
+ * - the fingerprint, i.e. the compiler settings and the digest of the
+ *   jars on the classpath, is the same, and
+ * - the digest of the source code and the digest of all app sources it
+ *   references (as recorded by the compiler) remain the same as they
+ *   were when the entry is stored, and
+ * - the cached entries of the referenced sources are valid, so that a
+ *   change to a source invalidates all sources depending on it directly
+ *   or indirectly, e.g. through a super type.
+ *
+ * Entries are written into a temp file and then renamed, so that a
+ * reader never sees a partially written entry.
+ */
+class CompiledBytecodeCache {
+
+    private static final Logger logger = L.get(CompiledBytecodeCache.class);
+
+    private static final int VERSION = 2;
+
+    private final File dir;
+
+    // the compiler settings and the classpath that impact the byte code generated
+    private final String fingerprint;
+
+    // remembers if the cached entry of a class is valid, see #upToDate
+    private final ConcurrentMap<String, Boolean> validity = new ConcurrentHashMap<>();
+
+    CompiledBytecodeCache(File dir, String fingerprint) {
+        this.dir = dir;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Try to restore the compiled byte code of a source from the cache.
+     *
+     * @param source     the source
+     * @param classLoader the class loader to lookup dependency sources
+     * @return {@code true} if the byte code has been restored into the source
+     */
+    boolean restore(Source source, DevModeClassLoader classLoader) {
+        File file = file(source);
+        if (!file.canRead()) {
+            return false;
+        }
+        DataInputStream is = null;
+        try {
+            is = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            Set<String> visiting = C.newSet();
+            visiting.add(source.className());
+            if (!checkHeader(is, source, classLoader, visiting)) {
+                validity.put(source.className(), false);
+                return false;
+            }
+            byte[] bytes = readBytes(is);
+            int n = is.readInt();
+            Map<String, byte[]> innerBytes = C.newMap();
+            for (int i = 0; i < n; ++i) {
+                String innerName = is.readUTF();
+                innerBytes.put(innerName, readBytes(is));
+            }
+            // publish inner classes first as the main byte code
+            // presence indicate the source has been compiled
+            for (Map.Entry<String, byte[]> entry : innerBytes.entrySet()) {
+                source.compiled(entry.getKey(), entry.getValue());
+            }
+            source.compiled(bytes);
+            return true;
+        } catch (IOException e) {
+            logger.warn(e, "error reading compiled byte code cache: %s", file);
+            return false;
+        } finally {
+            IO.close(is);
+        }
+    }
+
+    /**
+     * Check if the cached entry of a source, which is referenced by another
+     * source, is valid. The result is remembered.
+     *
+     * @param source      the source
+     * @param classLoader the class loader to lookup dependency sources
+     * @param visiting    the sources being checked, used to break reference cycles
+     */
+    private boolean upToDate(Source source, DevModeClassLoader classLoader, Set<String> visiting) {
+        String className = source.className();
+        Boolean b = validity.get(className);
+        if (null != b) {
+            return b;
+        }
+        if (!visiting.add(className)) {
+            // in a reference cycle, the validity is decided by the sources already being checked
+            return true;
+        }
+        File file = file(source);
+        if (!file.canRead()) {
+            validity.put(className, false);
+            return false;
+        }
+        DataInputStream is = null;
+        try {
+            is = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            boolean valid = checkHeader(is, source, classLoader, visiting);
+            validity.put(className, valid);
+            return valid;
+        } catch (IOException e) {
+            logger.warn(e, "error reading compiled byte code cache: %s", file);
+            return false;
+        } finally {
+            IO.close(is);
+            visiting.remove(className);
+        }
+    }
+
+    // read the header of the cached entry and check it against the current sources
+    private boolean checkHeader(DataInputStream is, Source source, DevModeClassLoader classLoader, Set<String> visiting) throws IOException {
+        if (VERSION != is.readInt() || !fingerprint.equals(is.readUTF()) || !source.hash().equals(is.readUTF())) {
+            return false;
+        }
+        int n = is.readInt();
+        for (int i = 0; i < n; ++i) {
+            String depClassName = is.readUTF();
+            String depHash = is.readUTF();
+            Source dep = classLoader.source(depClassName);
+            if (null == dep || !depHash.equals(dep.hash()) || !upToDate(dep, classLoader, visiting)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Store the compiled byte code of a source into the cache
+     *
+     * @param source       the source that has been compiled
+     * @param dependencies the app sources referenced by the source
+     */
+    void store(Source source, Iterable<Source> dependencies) {
+        if (!dir.exists() && !dir.mkdirs()) {
+            return;
+        }
+        File file = file(source);
+        File tmp = null;
+        DataOutputStream os = null;
+        try {
+            // sources compiled in parallel batches might store the same entry at the same time
+            tmp = File.createTempFile(source.className(), ".tmp", dir);
+            os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            os.writeInt(VERSION);
+            os.writeUTF(fingerprint);
+            os.writeUTF(source.hash());
+            C.List<Source> deps = C.list(dependencies);
+            os.writeInt(deps.size());
+            for (Source dep : deps) {
+                os.writeUTF(dep.className());
+                os.writeUTF(dep.hash());
+            }
+            writeBytes(os, source.bytes());
+            C.List<String> innerNames = C.list(source.innerClassNames());
+            os.writeInt(innerNames.size());
+            for (String innerName : innerNames) {
+                os.writeUTF(innerName);
+                writeBytes(os, source.bytes(innerName));
+            }
+            os.close();
+            os = null;
+            move(tmp, file);
+            validity.put(source.className(), true);
+        } catch (IOException e) {
+            logger.warn(e, "error writing compiled byte code cache: %s", file);
+        } finally {
+            IO.close(os);
+            if (null != tmp && tmp.exists()) {
+                tmp.delete();
+            }
+        }
+    }
+
+    private static void move(File from, File to) throws IOException {
+        try {
+            java.nio.file.Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            java.nio.file.Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private File file(Source source) {
+        return new File(dir, source.className() + ".bc");
+    }
+
+    private static byte[] readBytes(DataInputStream is) throws IOException {
+        byte[] ba = new byte[is.readInt()];
+        is.readFully(ba);
+        return ba;
+    }
+
+    private static void writeBytes(DataOutputStream os, byte[] ba) throws IOException {
+        os.writeInt(ba.length);
+        os.write(ba);
+    }
+
+}
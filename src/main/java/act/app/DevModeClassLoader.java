@@ -3,9 +3,11 @@ package act.app;
 import act.Act;
 import act.ActComponent;
 import act.controller.meta.ControllerClassMetaInfo;
+import act.i18n.MessageCatalog;
 import act.metric.Timer;
 import act.util.Files;
 import act.util.FsChangeDetector;
+import act.util.FsChangeWatcher;
 import act.util.FsEvent;
 import act.util.FsEventListener;
 import org.osgl.$;
@@ -17,9 +19,11 @@ import org.osgl.util.S;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static act.app.App.F.*;
 
@@ -31,20 +35,37 @@ import static act.app.App.F.*;
 public class DevModeClassLoader extends AppClassLoader {
     private final static Logger logger = L.get(DevModeClassLoader.class);
 
-    private Map<String, Source> sources = C.newMap();
+    static {
+        registerAsParallelCapable();
+    }
+
+    // written by concurrent class loading threads via loadAppClassFromDisk
+    private final ConcurrentMap<String, Source> sources = new ConcurrentHashMap<>();
     private final AppCompiler compiler;
 
     private List<FsChangeDetector> detectors = new ArrayList<>();
 
+    // guards the detectors so that we don't walk through folders unless something changed
+    private FsChangeWatcher watcher;
+
     public DevModeClassLoader(App app) {
         super(app);
         compiler = new AppCompiler(this);
     }
 
+    // for unit test
+    DevModeClassLoader(App app, AppCompiler compiler) {
+        super(app);
+        this.compiler = compiler;
+    }
+
     @Override
     protected void releaseResources() {
         sources.clear();
         compiler.destroy();
+        if (null != watcher) {
+            watcher.destroy();
+        }
         super.releaseResources();
     }
 
@@ -95,6 +116,10 @@ public class DevModeClassLoader extends AppClassLoader {
         return null == bytecode && compileSource ? bytecodeFromSource(name, compileSource) : bytecode;
     }
 
+    Collection<Source> sources() {
+        return sources.values();
+    }
+
     public Source source(String className) {
         if (className.contains("$")) {
             String name0 = S.before(className, "$");
@@ -111,9 +136,6 @@ public class DevModeClassLoader extends AppClassLoader {
                 public void visit(File file) throws $.Break {
                     Source source = Source.ofFile(sourceRoot, file);
                     if (null != source) {
-                        if (null == sources) {
-                            sources = C.newMap();
-                        }
                         sources.put(source.className(), source);
                     }
                 }
@@ -122,18 +144,12 @@ public class DevModeClassLoader extends AppClassLoader {
     }
 
     private void preloadSource(List<File> sourceRoot, String className) {
-        if (null != sources) {
-            Source source = sources.get(className);
-            if (null != source) {
-                return;
-            }
+        if (sources.containsKey(className)) {
+            return;
         }
         Source source = Source.ofClass(sourceRoot, className);
         if (null != source) {
-            if (null == sources) {
-                sources = C.newMap();
-            }
-            sources.put(source.className(), source);
+            sources.putIfAbsent(source.className(), source);
         }
     }
 
@@ -210,8 +226,7 @@ public class DevModeClassLoader extends AppClassLoader {
         }
         byte[] bytes = source.bytes();
         if (null == bytes && compile) {
-            compiler.compile(name);
-            bytes = source.bytes();
+            bytes = compile(source, name);
         }
         if (name.contains("$")) {
             String innerClassName = S.afterFirst(name, "$");
@@ -220,6 +235,18 @@ public class DevModeClassLoader extends AppClassLoader {
         return bytes;
     }
 
+    // the source lock makes sure concurrent loading threads compile a source only once
+    private byte[] compile(Source source, String name) {
+        synchronized (source) {
+            byte[] bytes = source.bytes();
+            if (null == bytes) {
+                compiler.compile(name);
+                bytes = source.bytes();
+            }
+            return bytes;
+        }
+    }
+
     private byte[] bytecodeFromSource(String name, Set<String> embeddedClassNames) {
         Source source = source(name);
         if (null == source) {
@@ -227,8 +254,7 @@ public class DevModeClassLoader extends AppClassLoader {
         }
         byte[] bytes = source.bytes();
         if (null == bytes) {
-            compiler.compile(name);
-            bytes = source.bytes();
+            bytes = compile(source, name);
         }
         if (!name.contains("$")) {
             embeddedClassNames.addAll(C.list(source.innerClassNames()).map(S.F.prepend(name + "$")));
@@ -239,8 +265,19 @@ public class DevModeClassLoader extends AppClassLoader {
         return bytes;
     }
 
+    @Override
+    public boolean hasChanges() {
+        return null == watcher || watcher.isDirty();
+    }
+
     @Override
     public void detectChanges() {
+        if (null != watcher) {
+            if (!watcher.isDirty()) {
+                return;
+            }
+            watcher.reset();
+        }
         for (FsChangeDetector detector : detectors) {
             detectChanges(detector);
         }
@@ -259,6 +296,7 @@ public class DevModeClassLoader extends AppClassLoader {
         List<File> bases = C.newList(appBase);
         bases.addAll(app().config().moduleBases());
         boolean isTest = "test".equals(Act.profile());
+        watcher = FsChangeWatcher.create();
         for (File base : bases) {
             addDetector(layout.source(base), JAVA_SOURCE, sourceChangeListener);
             addDetector(layout.lib(base), JAR_FILE, libChangeListener);
@@ -274,11 +312,17 @@ public class DevModeClassLoader extends AppClassLoader {
                 addDetector(testRsrc, null, resourceChangeListener);
             }
         }
+        if (null != watcher) {
+            watcher.start();
+        }
     }
 
     private void addDetector(File base, $.Predicate<String> predicate, FsEventListener listener) {
         if (null != base && base.isDirectory()) {
             detectors.add(new FsChangeDetector(base, predicate, listener));
+            if (null != watcher) {
+                watcher.watch(base);
+            }
         }
     }
 
@@ -308,6 +352,7 @@ public class DevModeClassLoader extends AppClassLoader {
     private final FsEventListener resourceChangeListener = new FsEventListener() {
         @Override
         public void on(FsEvent... events) {
+            boolean bundleChanged = false;
             int len = events.length;
             for (int i = 0; i < len; ++i) {
                 FsEvent e = events[i];
@@ -318,6 +363,8 @@ public class DevModeClassLoader extends AppClassLoader {
                 for (String path : paths) {
                     if (path.endsWith("/routes") || path.endsWith("\\routes")) {
                         routeChanged = true;
+                    } else if (path.endsWith(".properties")) {
+                        bundleChanged = true;
                     }
                     files[idx++] = new File(path);
                 }
@@ -336,6 +383,14 @@ public class DevModeClassLoader extends AppClassLoader {
                         assert false;
                 }
             }
+            // templates are resources, let cached template lookups to be re-resolved.
+            // This must happen after the target dir is updated, otherwise a request
+            // in between could cache the old template again
+            Act.viewManager().onTemplateChanged();
+            if (bundleChanged) {
+                // resource bundles are properties files, reload i18n messages
+                MessageCatalog.clear();
+            }
         }
     };
 
@@ -0,0 +1,152 @@
+package act.app;
+
+import act.util.ClassNames;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+import org.osgl.util.S;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Store of app classes that has been enhanced ahead of time. See
+ * {@link act.boot.app.EnhanceApp}.
+ *
+ * Each enhanced class is stored along with the fingerprint of the
+ * original bytecode it is enhanced from. The enhanced bytecode will
+ * be used only when the fingerprint matches the bytecode to be loaded,
+ * otherwise the class will be enhanced at runtime as usual.
+ *
+ * The store itself is identified by a key covering everything else the
+ * enhanced bytecode depends on, see `AppClassLoader.enhancedClassStoreKey()`.
+ * The whole store is ignored if the key does not match
+ */
+class EnhancedClassStore {
+
+    private static final Logger logger = L.get(EnhancedClassStore.class);
+
+    static final String MANIFEST = "act.enhanced.list";
+
+    // the line in the manifest file that holds the key of the store
+    private static final String KEY_PREFIX = "#key=";
+
+    private final File dir;
+
+    private final String key;
+
+    // map class name to the fingerprint of the original bytecode
+    private final Map<String, String> manifest;
+
+    private EnhancedClassStore(File dir, String key, Map<String, String> manifest) {
+        this.dir = dir;
+        this.key = key;
+        this.manifest = manifest;
+    }
+
+    boolean isEmpty() {
+        return manifest.isEmpty();
+    }
+
+    /**
+     * Returns the enhanced bytecode of a class if it has been enhanced
+     * from the bytecode specified
+     *
+     * @param className the class name
+     * @param bytecode  the original bytecode
+     * @return the enhanced bytecode or {@code null} if not found or out of date
+     */
+    byte[] enhanced(String className, byte[] bytecode) {
+        String fingerprint = manifest.get(className);
+        if (null == fingerprint || !fingerprint.equals(fingerprint(bytecode))) {
+            return null;
+        }
+        File file = file(className);
+        return file.canRead() ? IO.readContent(file) : null;
+    }
+
+    void add(String className, byte[] bytecode, byte[] enhanced) {
+        File file = file(className);
+        File parent = file.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            logger.warn("cannot create dir: %s", parent);
+            return;
+        }
+        IO.write(enhanced, file);
+        manifest.put(className, fingerprint(bytecode));
+    }
+
+    void save() {
+        StringBuilder sb = S.builder(KEY_PREFIX).append(key).append("\n");
+        for (Map.Entry<String, String> entry : manifest.entrySet()) {
+            sb.append(entry.getKey()).append("=").append(entry.getValue()).append("\n");
+        }
+        IO.writeContent(sb.toString(), new File(dir, MANIFEST));
+    }
+
+    private File file(String className) {
+        return new File(dir, ClassNames.classNameToClassFileName(className, true));
+    }
+
+    private static String fingerprint(byte[] bytecode) {
+        CRC32 crc = new CRC32();
+        crc.update(bytecode);
+        return S.fmt("%s:%s", bytecode.length, Long.toHexString(crc.getValue()));
+    }
+
+    /**
+     * Load the store from a dir.
+     *
+     * @param dir the dir where enhanced classes are stored
+     * @param key the key of the store expected
+     * @return the store or {@code null} if the manifest file is not found in the dir
+     *         or the store has a different key
+     */
+    static EnhancedClassStore load(File dir, String key) {
+        File file = new File(dir, MANIFEST);
+        if (!file.canRead()) {
+            return null;
+        }
+        List<String> lines = IO.readLines(file);
+        if (lines.isEmpty() || !S.eq(KEY_PREFIX + key, lines.get(0))) {
+            logger.warn("ahead-of-time enhanced classes in %s are out of date, classes will be enhanced at runtime", dir);
+            return null;
+        }
+        Map<String, String> manifest = C.newMap();
+        for (String line : lines.subList(1, lines.size())) {
+            if (S.blank(line)) {
+                continue;
+            }
+            manifest.put(S.beforeFirst(line, "="), S.afterFirst(line, "="));
+        }
+        logger.debug("%s ahead-of-time enhanced classes found in %s", manifest.size(), dir);
+        return new EnhancedClassStore(dir, key, manifest);
+    }
+
+    /**
+     * Create an empty store in the dir. Existing enhanced classes in the dir are cleared
+     *
+     * @param dir the dir to store enhanced classes
+     * @param key the key of the store
+     * @return the store
+     */
+    static EnhancedClassStore create(File dir, String key) {
+        delete(dir);
+        dir.mkdirs();
+        return new EnhancedClassStore(dir, key, C.<String, String>newMap());
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (null != files) {
+            for (File f : files) {
+                delete(f);
+            }
+        }
+        file.delete();
+    }
+
+}
@@ -16,6 +16,7 @@ public enum RuntimeDirs {
     public static final String ASSET = "/asset";
     public static final String CLASSES = "/classes";
     public static final String LIB = "/lib";
+    public static final String ENHANCED = "/enhanced";
 
     public static File home(App app) {
         if (Act.isDev()) {
@@ -47,4 +48,11 @@ public enum RuntimeDirs {
         return new File(app.home(), LIB);
     }
 
+    /**
+     * Returns the dir where ahead-of-time enhanced classes are stored
+     */
+    public static File enhanced(App app) {
+        return new File(app.home(), ENHANCED);
+    }
+
 }
@@ -6,10 +6,15 @@ import org.osgl.$;
 import org.osgl.util.*;
 
 import java.io.File;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Encapsulate java srccode unit data including srccode code, byte code etc.
@@ -61,9 +66,13 @@ public class Source {
     private String code;
 
     // The byte code
-    private byte[] bytes;
+    private volatile byte[] bytes;
 
-    private Map<String, byte[]> innerBytes = C.newMap();
+    // inner classes might be compiled by multiple compilation batches in parallel
+    private Map<String, byte[]> innerBytes = new ConcurrentHashMap<>();
+
+    // The digest of srccode code
+    private volatile String hash;
 
     private State state = State.CREATED;
 
@@ -101,6 +110,17 @@ public class Source {
         return code;
     }
 
+    /**
+     * Returns the digest of the source code. Used to identify
+     * whether compiled byte code is still valid for the source
+     */
+    public String hash() {
+        if (null == hash) {
+            hash = Util.hash(code());
+        }
+        return hash;
+    }
+
     public List<String> lines() {
         return C.listOf(code.split("\n"));
     }
@@ -150,6 +170,7 @@ public class Source {
 
     public void refresh() {
         bytes = null;
+        hash = null;
         ts = 0L;
         tryLoadSourceFile();
     }
@@ -273,6 +294,16 @@ public class Source {
             return null;
         }
 
+        public static String hash(String code) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-1");
+                byte[] ba = digest.digest(code.getBytes(StandardCharsets.UTF_8));
+                return new BigInteger(1, ba).toString(16);
+            } catch (NoSuchAlgorithmException e) {
+                throw E.unexpected(e);
+            }
+        }
+
         public static void main(String[] args) throws Exception {
         }
     }
@@ -3,29 +3,127 @@ package act.app.util;
 import act.app.App;
 import act.conf.AppConfig;
 import org.apache.commons.codec.Charsets;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Hex;
 import org.mindrot.jbcrypt.BCrypt;
 import org.osgl.exception.UnexpectedException;
 import org.osgl.logging.Logger;
+import org.osgl.util.C;
 import org.osgl.util.Crypto;
+import org.osgl.util.E;
+import org.osgl.util.S;
 import org.osgl.util.Token;
 
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
 
 public class AppCrypto {
 
     private static Logger logger = App.logger;
-    
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final String HMAC_SHA1 = "HmacSHA1";
+    private static final String AES = "AES";
+
+    // version of the sealed content format, see #seal(String)
+    private static final byte SEAL_VERSION = 1;
+    private static final int KEY_ID_LEN = 4;
+    private static final int IV_LEN = 12;
+    private static final int TAG_BITS = 128;
+    private static final int SEAL_HEADER_LEN = 1 + KEY_ID_LEN + IV_LEN;
+
+    // AES/GCM is not provided by the SunJCE provider before Java 8
+    private static final boolean GCM_SUPPORTED = gcmSupported();
+
     private byte[] secret;
 
-    private SecureRandom secureRandom = new SecureRandom();
-    
+    // SecureRandom synchronizes on each call, keep one per thread so that
+    // sealing sessions does not serialize the requests
+    private final ThreadLocal<SecureRandom> secureRandom = new ThreadLocal<SecureRandom>() {
+        @Override
+        protected SecureRandom initialValue() {
+            return newSecureRandom();
+        }
+    };
+
+    // the bcrypt cost used to hash passwords
+    private int passwordHashCost;
+
+    // the key derived from the current secret, used to sign and seal
+    private Key currentKey;
+
+    // the keys derived from current and retired secrets, used to verify and unseal
+    private Key[] keys;
+
+    private final ThreadLocal<Cipher> gcmCipher = new ThreadLocal<Cipher>() {
+        @Override
+        protected Cipher initialValue() {
+            try {
+                return Cipher.getInstance("AES/GCM/NoPadding");
+            } catch (GeneralSecurityException e) {
+                throw E.unexpected(e, "AES/GCM not supported");
+            }
+        }
+    };
+
+    // the key of the legacy signature, see #sign(String)
+    private SecretKeySpec signKey;
+
+    private final ThreadLocal<Mac> signMac = new ThreadLocal<Mac>() {
+        @Override
+        protected Mac initialValue() {
+            return Key.newMac(signKey);
+        }
+    };
+
+    // the key of the legacy AES encryption, see #encrypt(String). It is
+    // null if the key osgl Crypto uses cannot be determined, in which case
+    // encrypt and decrypt delegate to osgl Crypto
+    private SecretKeySpec aesKey;
+
+    private final ThreadLocal<Cipher> aesEncryptor = aesCipher(Cipher.ENCRYPT_MODE);
+    private final ThreadLocal<Cipher> aesDecryptor = aesCipher(Cipher.DECRYPT_MODE);
+
     public AppCrypto(AppConfig config) {
         secret = config.secret().getBytes(Charsets.UTF_8);
+        signKey = new SecretKeySpec(secret, HMAC_SHA1);
+        aesKey = legacyAesKey(secret);
+        passwordHashCost = config.passwordHashCost();
+        currentKey = new Key(secret);
+        List<Key> list = C.newList();
+        list.add(currentKey);
+        List<String> retired = config.retiredSecrets();
+        if (null != retired) {
+            for (String s : retired) {
+                list.add(new Key(s.getBytes(Charsets.UTF_8)));
+            }
+        }
+        keys = list.toArray(new Key[list.size()]);
+        if (!GCM_SUPPORTED) {
+            logger.warn("AES/GCM not supported by the JRE, sessions are sealed with the legacy sign and encrypt format");
+        }
     }
 
+    /**
+     * Sign a message with HMAC-SHA1 using the secret. The output is the
+     * same as {@link Crypto#sign(String, byte[])} while the {@link Mac}
+     * instance is cached per thread.
+     *
+     * @param message the message
+     * @return the signature in hex string
+     */
     public String sign(String message) {
-        return Crypto.sign(message, secret);
+        return Hex.encodeHexString(signMac.get().doFinal(message.getBytes(Charsets.UTF_8)));
     }
 
     /**
@@ -34,11 +132,15 @@ public class AppCrypto {
      * with `\0` once used.
      *
      * See <a href="http://stackoverflow.com/questions/8881291/why-is-char-preferred-over-string-for-passwords-in-java">This SO for more detail</a>
+     *
+     * Note this method blocks the current thread while hashing the password, use
+     * {@link PasswordHasher#hash(char[])} to hash it on the dedicated thread pool
+     *
      * @param password the password
      * @return the password hash
      */
     public String passwordHash(char[] password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return BCrypt.hashpw(password, BCrypt.gensalt(passwordHashCost, secureRandom.get()));
     }
 
     /**
@@ -47,7 +149,7 @@ public class AppCrypto {
      * @return the password hash
      */
     public String passwordHash(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return BCrypt.hashpw(password, BCrypt.gensalt(passwordHashCost, secureRandom.get()));
     }
 
     public boolean verifyPassword(String password, String hash) {
@@ -66,38 +168,294 @@ public class AppCrypto {
         }
     }
 
+    /**
+     * Encrypt a message with AES using the secret. The output is the same
+     * as {@link Crypto#encryptAES(String, byte[])} while the {@link Cipher}
+     * instance is cached per thread.
+     *
+     * @param message the message
+     * @return the encrypted message in hex string
+     */
     public String encrypt(String message) {
         try {
-            return Crypto.encryptAES(message, secret);
-        } catch (UnexpectedException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof InvalidKeyException) {
-                logger.error("Cannot encrypt/decrypt! Please download Java Crypto Extension pack from Oracle: http://www.oracle.com/technetwork/java/javase/tech/index-jsp-136007.html");
+            if (null == aesKey) {
+                return Crypto.encryptAES(message, secret);
+            }
+            try {
+                return Hex.encodeHexString(aesEncryptor.get().doFinal(message.getBytes(Charsets.UTF_8)));
+            } catch (GeneralSecurityException e) {
+                aesEncryptor.remove();
+                throw E.unexpected(e, "error encrypting message");
             }
+        } catch (UnexpectedException e) {
+            logIfKeyInvalid(e);
             throw e;
         }
     }
 
+    /**
+     * Decrypt a message encrypted by {@link #encrypt(String)}
+     *
+     * @param message the encrypted message in hex string
+     * @return the message
+     */
     public String decrypt(String message) {
         try {
-            return Crypto.decryptAES(message, secret);
-        } catch (UnexpectedException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof InvalidKeyException) {
-                logger.error("Cannot encrypt/decrypt! Please download Java Crypto Extension pack from Oracle: http://www.oracle.com/technetwork/java/javase/tech/index-jsp-136007.html");
+            if (null == aesKey) {
+                return Crypto.decryptAES(message, secret);
+            }
+            try {
+                byte[] ba = Hex.decodeHex(message.toCharArray());
+                return new String(aesDecryptor.get().doFinal(ba), Charsets.UTF_8);
+            } catch (GeneralSecurityException e) {
+                // the cipher might not be reset after a failure
+                aesDecryptor.remove();
+                throw E.unexpected(e, "error decrypting message");
+            } catch (DecoderException e) {
+                throw E.unexpected(e, "invalid encrypted message");
             }
+        } catch (UnexpectedException e) {
+            logIfKeyInvalid(e);
             throw e;
         }
     }
 
     public int generateRandomInt(int max) {
-        return secureRandom.nextInt(max);
+        return secureRandom.get().nextInt(max);
     }
 
     public int generateRandomInt() {
-        return secureRandom.nextInt(Integer.MAX_VALUE);
+        return secureRandom.get().nextInt(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Calculate the HMAC-SHA256 of a message with the key derived from the
+     * current secret. The {@link Mac} instance is cached per thread.
+     *
+     * @param message the message
+     * @return the HMAC in hex string
+     * @see #verifyHmac(String, String)
+     */
+    public String hmac(String message) {
+        return Hex.encodeHexString(currentKey.hmac(message.getBytes(Charsets.UTF_8)));
+    }
+
+    /**
+     * Verify the HMAC of a message with keys derived from current and retired
+     * secrets
+     *
+     * @param message the message
+     * @param hmac the HMAC in hex string
+     * @return {@code true} if the HMAC matches the message
+     * @see #hmac(String)
+     */
+    public boolean verifyHmac(String message, String hmac) {
+        byte[] expected;
+        try {
+            expected = Hex.decodeHex(hmac.toCharArray());
+        } catch (DecoderException e) {
+            return false;
+        }
+        byte[] ba = message.getBytes(Charsets.UTF_8);
+        for (Key key : keys) {
+            if (MessageDigest.isEqual(expected, key.hmac(ba))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Encrypt and authenticate a message with AES-GCM using the key derived
+     * from the current secret. Unlike {@link #encrypt(String)} the sealed
+     * content does not need to be signed separately.
+     *
+     * The sealed content is a URL safe base64 string of
+     * `version | key id | IV | cipher text with tag`
+     *
+     * If AES/GCM is not supported by the JRE, e.g. Java 7, the message is
+     * signed with {@link #sign(String)} and encrypted with {@link #encrypt(String)}
+     * instead, which is the format used before sealing was introduced
+     *
+     * @param message the message
+     * @return the sealed content
+     * @see #unseal(String)
+     */
+    public String seal(String message) {
+        if (!sealSupported()) {
+            return encrypt(S.builder(sign(message)).append("-").append(message).toString());
+        }
+        byte[] iv = new byte[IV_LEN];
+        secureRandom.get().nextBytes(iv);
+        byte[] header = new byte[SEAL_HEADER_LEN];
+        header[0] = SEAL_VERSION;
+        System.arraycopy(currentKey.id, 0, header, 1, KEY_ID_LEN);
+        System.arraycopy(iv, 0, header, 1 + KEY_ID_LEN, IV_LEN);
+        try {
+            Cipher cipher = gcmCipher.get();
+            cipher.init(Cipher.ENCRYPT_MODE, currentKey.encKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(header, 0, 1 + KEY_ID_LEN);
+            byte[] plain = message.getBytes(Charsets.UTF_8);
+            byte[] sealed = new byte[SEAL_HEADER_LEN + cipher.getOutputSize(plain.length)];
+            System.arraycopy(header, 0, sealed, 0, SEAL_HEADER_LEN);
+            int len = cipher.doFinal(plain, 0, plain.length, sealed, SEAL_HEADER_LEN);
+            if (SEAL_HEADER_LEN + len != sealed.length) {
+                sealed = Arrays.copyOf(sealed, SEAL_HEADER_LEN + len);
+            }
+            return Base64.encodeBase64URLSafeString(sealed);
+        } catch (GeneralSecurityException e) {
+            throw E.unexpected(e, "error sealing message");
+        }
     }
 
+    /**
+     * Decrypt the content sealed by {@link #seal(String)}. The key is looked
+     * up in keys derived from current and retired secrets
+     *
+     * @param sealed the sealed content
+     * @return the message or {@code null} if the content cannot be unsealed, e.g.
+     *         it is tampered or the key is not found
+     */
+    public String unseal(String sealed) {
+        if (!sealSupported()) {
+            return unsealLegacy(sealed);
+        }
+        byte[] ba;
+        try {
+            ba = Base64.decodeBase64(sealed);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (null == ba || ba.length < SEAL_HEADER_LEN + TAG_BITS / 8 || SEAL_VERSION != ba[0]) {
+            return null;
+        }
+        Key key = keyById(ba);
+        if (null == key) {
+            return null;
+        }
+        try {
+            Cipher cipher = gcmCipher.get();
+            cipher.init(Cipher.DECRYPT_MODE, key.encKey, new GCMParameterSpec(TAG_BITS, ba, 1 + KEY_ID_LEN, IV_LEN));
+            cipher.updateAAD(ba, 0, 1 + KEY_ID_LEN);
+            byte[] plain = cipher.doFinal(ba, SEAL_HEADER_LEN, ba.length - SEAL_HEADER_LEN);
+            return new String(plain, Charsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if {@link #seal(String)} encrypts with AES/GCM, or
+     * {@code false} if it falls back to the legacy sign and encrypt format
+     */
+    public boolean sealSupported() {
+        return GCM_SUPPORTED;
+    }
+
+    private String unsealLegacy(String sealed) {
+        String data;
+        try {
+            data = decrypt(sealed);
+        } catch (Exception e) {
+            return null;
+        }
+        int firstDashIndex = data.indexOf("-");
+        if (firstDashIndex < 0) {
+            return null;
+        }
+        String sign = data.substring(0, firstDashIndex);
+        data = data.substring(firstDashIndex + 1);
+        return sign.equals(sign(data)) ? data : null;
+    }
+
+    private void logIfKeyInvalid(UnexpectedException e) {
+        if (e.getCause() instanceof InvalidKeyException) {
+            logger.error("Cannot encrypt/decrypt! Please download Java Crypto Extension pack from Oracle: http://www.oracle.com/technetwork/java/javase/tech/index-jsp-136007.html");
+        }
+    }
+
+    private ThreadLocal<Cipher> aesCipher(final int mode) {
+        return new ThreadLocal<Cipher>() {
+            @Override
+            protected Cipher initialValue() {
+                try {
+                    Cipher cipher = Cipher.getInstance(AES);
+                    cipher.init(mode, aesKey);
+                    return cipher;
+                } catch (GeneralSecurityException e) {
+                    throw E.unexpected(e);
+                }
+            }
+        };
+    }
+
+    /*
+     * Find out the AES key osgl Crypto uses for the secret, so that content
+     * encrypted before can still be decrypted. AES in the default ECB mode
+     * is deterministic, thus the key is verified by encrypting a probe
+     * message both ways
+     */
+    private static SecretKeySpec legacyAesKey(byte[] secret) {
+        String probe = "act.crypto.probe";
+        String expected;
+        try {
+            expected = Crypto.encryptAES(probe, secret);
+        } catch (RuntimeException e) {
+            // let encrypt report the error
+            return null;
+        }
+        int len = secret.length;
+        byte[] raw = 16 == len || 24 == len || 32 == len ? secret : Arrays.copyOf(secret, 16);
+        SecretKeySpec key = new SecretKeySpec(raw, AES);
+        try {
+            Cipher cipher = Cipher.getInstance(AES);
+            cipher.init(Cipher.ENCRYPT_MODE, key);
+            if (expected.equals(Hex.encodeHexString(cipher.doFinal(probe.getBytes(Charsets.UTF_8))))) {
+                return key;
+            }
+        } catch (GeneralSecurityException e) {
+            // fall through
+        }
+        logger.debug("AES key cannot be cached, encrypt and decrypt delegate to osgl Crypto");
+        return null;
+    }
+
+    private static boolean gcmSupported() {
+        try {
+            Cipher.getInstance("AES/GCM/NoPadding");
+            return true;
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static SecureRandom newSecureRandom() {
+        try {
+            // seeded once and does not read from the shared native source afterwards
+            return SecureRandom.getInstance("SHA1PRNG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    private Key keyById(byte[] sealed) {
+        for (Key key : keys) {
+            byte[] id = key.id;
+            boolean match = true;
+            for (int i = 0; i < KEY_ID_LEN; ++i) {
+                if (id[i] != sealed[i + 1]) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    // the token format is private to osgl Token, the token methods delegate to it
     public String generateToken(String id, String... payload) {
         return Token.generateToken(secret, id, payload);
     }
@@ -114,4 +472,45 @@ public class AppCrypto {
         return Token.parseToken(secret, tokenString);
     }
 
+    /**
+     * Keys derived from a secret with HMAC-SHA256. The HMAC key
+     * is 256 bits and the AES key is 128 bits so that it works
+     * without the Java Crypto Extension pack
+     */
+    private static class Key {
+        private final byte[] id;
+        private final SecretKeySpec macKey;
+        private final SecretKeySpec encKey;
+        private final ThreadLocal<Mac> mac = new ThreadLocal<Mac>() {
+            @Override
+            protected Mac initialValue() {
+                return newMac(macKey);
+            }
+        };
+
+        Key(byte[] secret) {
+            SecretKeySpec master = new SecretKeySpec(secret, HMAC_SHA256);
+            this.macKey = new SecretKeySpec(derive(master, "act.sign"), HMAC_SHA256);
+            this.encKey = new SecretKeySpec(Arrays.copyOf(derive(master, "act.seal"), 16), "AES");
+            this.id = Arrays.copyOf(derive(master, "act.key_id"), KEY_ID_LEN);
+        }
+
+        byte[] hmac(byte[] message) {
+            return mac.get().doFinal(message);
+        }
+
+        private static byte[] derive(SecretKeySpec master, String label) {
+            return newMac(master).doFinal(label.getBytes(Charsets.UTF_8));
+        }
+
+        private static Mac newMac(SecretKeySpec key) {
+            try {
+                Mac mac = Mac.getInstance(key.getAlgorithm());
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw E.unexpected(e, "%s not supported", key.getAlgorithm());
+            }
+        }
+    }
 }
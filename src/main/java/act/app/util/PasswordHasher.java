@@ -0,0 +1,230 @@
+package act.app.util;
+
+import act.Act;
+import act.app.App;
+import act.app.AppServiceBase;
+import act.app.AppThreadFactory;
+import act.conf.AppConfig;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.Timer;
+import org.mindrot.jbcrypt.BCrypt;
+import org.osgl.$;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Hash and verify passwords with bcrypt on a dedicated bounded thread pool.
+ *
+ * Hashing a password with bcrypt takes tens to hundreds of milliseconds by
+ * design. Running it on the request handling thread means a burst of login
+ * requests could occupy all worker threads. This service runs the bcrypt
+ * jobs on a thread pool with size of `password.hash.pool.size` and a queue
+ * with capacity of `password.hash.queue.size`. When the queue is full the
+ * submit methods throw {@link RejectedExecutionException}, which the app
+ * could translate into a `503 Service Unavailable` response.
+ *
+ * The bcrypt cost is configured with `password.hash.cost`. When the cost is
+ * raised, the password hashed with the old cost will be rehashed transparently
+ * on the next successful verification, see {@link #verify(char[], String, $.Visitor)}.
+ *
+ * The following metrics are collected under `act:password`:
+ * - `hash`: the time spent on hashing a password
+ * - `verify`: the time spent on verifying a password
+ * - `queue`: the time a job waits in the queue
+ * - `queued`: the number of jobs that have to wait in the queue as all threads are busy
+ * - `rejected`: the number of jobs rejected because the queue is full
+ *
+ * The current queue depth and thread usage are reported by {@link #stats()},
+ * which can be printed with the `act.password.stat` CLI command.
+ */
+public class PasswordHasher extends AppServiceBase<PasswordHasher> {
+
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    private final Metric metric;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public PasswordHasher(App app) {
+        this(app, Act.metricPlugin().metric(MetricInfo.PASSWORD));
+    }
+
+    PasswordHasher(App app, Metric metric) {
+        super(app);
+        AppConfig config = app.config();
+        this.cost = config.passwordHashCost();
+        int poolSize = config.passwordHashPoolSize();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(config.passwordHashQueueSize()),
+                new AppThreadFactory("password-hash", true), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.metric = metric;
+    }
+
+    @Override
+    protected void releaseResources() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Hash a password asynchronously. The password char array is cleared
+     * once it is used
+     *
+     * @param password the password
+     * @return the future of the password hash
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public Future<String> hash(final char[] password) {
+        return submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return doHash(password);
+            }
+        });
+    }
+
+    /**
+     * Verify a password against the hash asynchronously. The password char
+     * array is cleared once it is used
+     *
+     * @param password the password
+     * @param hash the password hash
+     * @return the future of the verification result
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public Future<Boolean> verify(char[] password, String hash) {
+        return verify(password, hash, null);
+    }
+
+    /**
+     * Verify a password against the hash asynchronously. If the password matches
+     * and the hash is generated with a cost lower than the current configured
+     * cost, then the password will be rehashed with the current cost and the new
+     * hash is passed to the `rehashHandler` so that the app can save it, e.g.
+     *
+     * ```java
+     * boolean ok = hasher.verify(password, user.passwordHash, new $.Visitor<String>() {
+     *     public void visit(String newHash) {
+     *         user.passwordHash = newHash;
+     *         userDao.save(user);
+     *     }
+     * }).get();
+     * ```
+     *
+     * The password char array is cleared once it is used
+     *
+     * @param password the password
+     * @param hash the password hash
+     * @param rehashHandler the handler of the new hash, could be {@code null}
+     * @return the future of the verification result
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public Future<Boolean> verify(final char[] password, final String hash, final $.Visitor<String> rehashHandler) {
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                boolean rehash = null != rehashHandler && needsRehash(hash);
+                // BCrypt clears the password after used
+                char[] copy = rehash ? password.clone() : null;
+                Timer timer = metric.startTimer(MetricInfo.PASSWORD_VERIFY);
+                boolean matched;
+                try {
+                    matched = BCrypt.checkpw(password, hash);
+                } catch (RuntimeException e) {
+                    matched = false;
+                } finally {
+                    timer.stop();
+                }
+                if (rehash) {
+                    if (matched) {
+                        rehashHandler.visit(doHash(copy));
+                    } else {
+                        Arrays.fill(copy, '\0');
+                    }
+                }
+                return matched;
+            }
+        });
+    }
+
+    /**
+     * Check if a password hash is generated with a cost lower than
+     * the current configured cost
+     *
+     * @param hash the password hash
+     * @return {@code true} if the password shall be rehashed
+     */
+    public boolean needsRehash(String hash) {
+        return costOf(hash) < cost;
+    }
+
+    /**
+     * Returns the number of jobs waiting in the queue
+     */
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Returns the queue depth and thread usage of the hasher
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cost", cost);
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("busy threads", executor.getActiveCount());
+        stats.put("queue depth", queueDepth());
+        stats.put("queue capacity", queueDepth() + executor.getQueue().remainingCapacity());
+        stats.put("completed jobs", executor.getCompletedTaskCount());
+        return stats;
+    }
+
+    private String doHash(char[] password) {
+        Timer timer = metric.startTimer(MetricInfo.PASSWORD_HASH);
+        try {
+            return BCrypt.hashpw(password, BCrypt.gensalt(cost, secureRandom));
+        } finally {
+            timer.stop();
+        }
+    }
+
+    <T> Future<T> submit(final Callable<T> callable) {
+        final Timer queueTimer = metric.startTimer(MetricInfo.PASSWORD_QUEUE);
+        try {
+            Future<T> future = executor.submit(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    queueTimer.stop();
+                    return callable.call();
+                }
+            });
+            if (executor.getActiveCount() >= executor.getMaximumPoolSize() && !executor.getQueue().isEmpty()) {
+                metric.countOnce(MetricInfo.PASSWORD_QUEUED);
+            }
+            return future;
+        } catch (RejectedExecutionException e) {
+            metric.countOnce(MetricInfo.PASSWORD_REJECTED);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the cost (log2 rounds) of a bcrypt hash, e.g. `10` for
+     * `$2a$10$...`, or `-1` if the hash is not valid
+     */
+    static int costOf(String hash) {
+        if (null == hash || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(1) != '2') {
+            return -1;
+        }
+        int off = hash.charAt(2) == '$' ? 3 : 4;
+        try {
+            return Integer.parseInt(hash.substring(off, off + 2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
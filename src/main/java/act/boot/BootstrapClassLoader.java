@@ -9,6 +9,7 @@ import act.util.ActClassLoader;
 import act.util.ByteCodeVisitor;
 import act.util.ClassInfoRepository;
 import act.util.ClassNode;
+import act.util.JarIndex;
 import org.osgl.$;
 import org.osgl.logging.L;
 import org.osgl.logging.Logger;
@@ -126,6 +127,7 @@ public abstract class BootstrapClassLoader extends ClassLoader implements Plugin
             BootstrapClassLoader.class.getName(),
             ClassInfoRepository.class.getName(),
             ClassNode.class.getName(),
+            JarIndex.class.getName(),
             ServerBootstrapClassLoader.class.getName(),
             FullStackAppBootstrapClassLoader.class.getName(),
             ActClassLoader.class.getName(),
@@ -0,0 +1,48 @@
+package act.boot.app;
+
+import act.conf.AppConfigKey;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+
+import java.lang.reflect.Method;
+
+/**
+ * Ahead-of-time bytecode enhancement entry.
+ *
+ * Run this class with the same class path and working directory as the
+ * app in prod mode:
+ *
+ * ```
+ * java -cp <app classpath> act.boot.app.EnhanceApp [scan package]
+ * ```
+ *
+ * It loads the app in prod mode, and once the app classes are scanned,
+ * all app classes are enhanced and written into the `enhanced` dir of the
+ * app home (see {@link act.app.RuntimeDirs#enhanced(act.app.App)}). The app
+ * is not started, i.e. the network, CLI server and jobs are not started.
+ * Then Act is shutdown.
+ *
+ * When the app is started next time in prod mode the enhanced classes
+ * will be loaded directly without running the bytecode enhancers again
+ */
+public class EnhanceApp {
+
+    private static final Logger logger = L.get(EnhanceApp.class);
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("app.mode", "prod");
+        System.setProperty(AppConfigKey.AOT_ENHANCE.key(), "true");
+        try {
+            RunApp.start(args.length > 0 ? args[0] : "");
+            ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            Class<?> actClass = cl.loadClass("act.Act");
+            Method m = actClass.getDeclaredMethod("shutdown");
+            m.invoke(null);
+        } catch (Exception e) {
+            logger.error(e, "error enhancing app classes");
+            System.exit(-1);
+        }
+        System.exit(0);
+    }
+
+}
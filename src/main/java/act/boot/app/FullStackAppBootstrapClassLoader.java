@@ -5,6 +5,7 @@ import act.boot.BootstrapClassLoader;
 import act.util.ActClassLoader;
 import act.util.ClassInfoRepository;
 import act.util.ClassNode;
+import act.util.JarIndex;
 import act.util.Jars;
 import org.osgl.$;
 import org.osgl.util.*;
@@ -50,7 +51,8 @@ public class FullStackAppBootstrapClassLoader extends BootstrapClassLoader imple
 
     private List<File> jars;
     private Long jarsChecksum;
-    private Map<String, byte[]> libBC = C.newMap();
+    // bytecode are loaded from the shared jar index on demand
+    private Map<String, JarIndex> libBC = C.newMap();
     private List<Class<?>> actClasses = C.newList();
     private List<Class<?>> pluginClasses = new ArrayList<Class<?>>();
     private String lineSeparator = OS.get().lineSeparator();
@@ -270,7 +272,7 @@ public class FullStackAppBootstrapClassLoader extends BootstrapClassLoader imple
     }
 
     private void buildIndex() {
-        libBC.putAll(Jars.buildClassNameIndex(jars()));
+        libBC.putAll(Jars.buildClassLocationIndex(jars()));
     }
 
     @Override
@@ -300,7 +302,8 @@ public class FullStackAppBootstrapClassLoader extends BootstrapClassLoader imple
     }
 
     protected Class<?> loadActClass(String name, boolean resolve) {
-        byte[] ba = libBC.remove(name);
+        JarIndex jar = libBC.remove(name);
+        byte[] ba = null == jar ? null : jar.classBytes(name);
 
         if (null == ba) {
             ba = tryLoadResource(name);
@@ -6,6 +6,7 @@ import act.asm.ClassWriter;
 import act.boot.PluginClassProvider;
 import act.boot.app.FullStackAppBootstrapClassLoader;
 import act.util.ByteCodeVisitor;
+import act.util.JarIndex;
 import act.util.Jars;
 import org.osgl.$;
 import org.osgl.logging.L;
@@ -32,8 +33,8 @@ public class ServerBootstrapClassLoader extends ClassLoader implements PluginCla
     private File lib;
     private File plugin;
 
-    private Map<String, byte[]> libBC = C.newMap();
-    private Map<String, byte[]> pluginBC = C.newMap();
+    private Map<String, JarIndex> libBC = C.newMap();
+    private Map<String, JarIndex> pluginBC = C.newMap();
     private List<Class<?>> pluginClasses = C.newList();
 
     public ServerBootstrapClassLoader(ClassLoader parent) {
@@ -84,13 +85,13 @@ public class ServerBootstrapClassLoader extends ClassLoader implements PluginCla
     }
 
     private void buildIndex() {
-        libBC.putAll(Jars.buildClassNameIndex(lib));
-        pluginBC.putAll(Jars.buildClassNameIndex(plugin));
+        libBC.putAll(Jars.buildClassLocationIndex(lib));
+        pluginBC.putAll(Jars.buildClassLocationIndex(plugin));
         File actJar = Jars.probeJarFile(Act.class);
         if (null == actJar) {
             logger.warn("Cannot find jar file for Act");
         } else {
-            pluginBC.putAll(Jars.buildClassNameIndex(C.list(actJar)));
+            pluginBC.putAll(Jars.buildClassLocationIndex(C.list(actJar)));
         }
     }
 
@@ -135,14 +136,15 @@ public class ServerBootstrapClassLoader extends ClassLoader implements PluginCla
 
     protected Class<?> loadActClass(String name, boolean resolve, boolean pluginOnly) {
         boolean fromPlugin = false;
-        byte[] ba = pluginBC.remove(name);
-        if (null == ba) {
+        JarIndex jar = pluginBC.remove(name);
+        if (null == jar) {
             if (!pluginOnly) {
-                ba = libBC.remove(name);
+                jar = libBC.remove(name);
             }
         } else {
             fromPlugin = true;
         }
+        byte[] ba = null == jar ? null : jar.classBytes(name);
 
         if (null == ba) {
             ba = tryLoadResource(name);
@@ -209,6 +211,7 @@ public class ServerBootstrapClassLoader extends ClassLoader implements PluginCla
 
     private static final Set<String> protectedClasses = C.set(
             ServerBootstrapClassLoader.class.getName(),
+            JarIndex.class.getName(),
             FullStackAppBootstrapClassLoader.class.getName(),
             PluginClassProvider.class.getName()
             //Plugin.class.getName(),
@@ -302,6 +302,9 @@ public class CommanderByteCodeScanner extends AppByteCodeScannerBase {
                 } else if ($.eq(AsmTypes.JSON_VIEW.asmType(), type)) {
                     methodInfo.view(CliView.JSON);
                     return super.visitAnnotation(desc, visible);
+                } else if ($.eq(AsmTypes.XML_VIEW.asmType(), type)) {
+                    methodInfo.view(CliView.XML);
+                    return super.visitAnnotation(desc, visible);
                 } else if ($.eq(AsmTypes.PROPERTY_SPEC.asmType(), type)) {
                     final PropertySpec.MetaInfo propSpec = new PropertySpec.MetaInfo();
                     methodInfo.propertySpec(propSpec);
@@ -5,21 +5,23 @@ import act.cli.CliOverHttpContext;
 import act.cli.ascii_table.impl.CollectionASCIITableAware;
 import act.cli.tree.TreeNode;
 import act.cli.util.CliCursor;
-import act.cli.util.MappedFastJsonNameFilter;
 import act.cli.util.TableCursor;
 import act.data.DataPropertyRepository;
+import act.data.util.PropertyAccessor;
 import act.util.ActContext;
 import act.util.DisableFastJsonCircularReferenceDetect;
-import act.util.FastJsonPropertyPreFilter;
 import act.util.PropertySpec;
-import com.alibaba.fastjson.serializer.SerializeFilter;
-import com.alibaba.fastjson.serializer.SerializerFeature;
+import act.util.PropertySpecJsonSerializer;
 import org.osgl.$;
 import org.osgl.util.C;
 import org.osgl.util.E;
 import org.osgl.util.S;
 import org.rythmengine.utils.Escape;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Array;
 import java.util.*;
 
 /**
@@ -142,7 +144,19 @@ public enum CliView {
     XML() {
         @Override
         public String render(Object result, PropertySpec.MetaInfo spec, ActContext context) {
-            throw E.unsupport();
+            StringWriter writer = new StringWriter();
+            write(result, spec, context, writer);
+            return writer.toString();
+        }
+
+        /**
+         * Write the result as XML into the writer with a StAX writer. See
+         * {@link PropertySpecXmlWriter}
+         */
+        @Override
+        public void write(Object result, PropertySpec.MetaInfo spec, ActContext context, Writer writer) {
+            spec = PropertySpec.MetaInfo.withCurrent(spec, context);
+            new PropertySpecXmlWriter(spec, context).write(result, writer);
         }
     },
 
@@ -156,70 +170,13 @@ public enum CliView {
         }
 
         public String render(Object result, PropertySpec.MetaInfo spec, ActContext context, boolean format) {
-            String json;
-            FastJsonPropertyPreFilter propertyFilter;
             spec = PropertySpec.MetaInfo.withCurrent(spec, context);
-            if (null == spec) {
-                propertyFilter = null;
-            } else {
-                propertyFilter = new FastJsonPropertyPreFilter();
-                List<String> outputs = spec.outputFields(context);
-                Set<String> excluded = spec.excludedFields(context);
-                if (excluded.isEmpty()) {
-                    if (outputs.isEmpty()) {
-                        propertyFilter = null; // no filter defined actually
-                    } else {
-                        // output fields only applied when excluded fields not presented
-                        propertyFilter.addIncludes(outputs);
-                        if (FastJsonPropertyPreFilter.hasPattern(outputs)) {
-                            // TODO: handle the case when result is an Iterable
-                            propertyFilter.setFullPaths(context.app().service(DataPropertyRepository.class).propertyListOf(result.getClass()));
-                        }
-                    }
-                } else {
-                    propertyFilter.addExcludes(excluded);
-                    if (FastJsonPropertyPreFilter.hasPattern(excluded)) {
-                        // TODO: handle the case when result is an Iterable
-                        propertyFilter.setFullPaths(context.app().service(DataPropertyRepository.class).propertyListOf(result.getClass()));
-                    }
-                }
+            Boolean b = DisableFastJsonCircularReferenceDetect.option.get();
+            boolean disableCircularReferenceDetect = null != b && b;
+            if (null == spec || null == result) {
+                return PropertySpecJsonSerializer.PLAIN.toJSONString(result, format, disableCircularReferenceDetect);
             }
-
-            List<SerializerFeature> featureList = C.newList();
-            if (format) {
-                featureList.add(SerializerFeature.PrettyFormat);
-            }
-            if (null == propertyFilter) {
-                Boolean b = DisableFastJsonCircularReferenceDetect.option.get();
-                if (null != b && b) {
-                    featureList.add(SerializerFeature.DisableCircularReferenceDetect);
-                }
-                SerializerFeature[] featureArray = new SerializerFeature[featureList.size()];
-                featureArray = featureList.toArray(featureArray);
-                if (format) {
-                    json = com.alibaba.fastjson.JSON.toJSONString(result, featureArray);
-                } else {
-                    json = com.alibaba.fastjson.JSON.toJSONString(result);
-                }
-            } else {
-                // Note: we can't check DisableFastJsonCircularReferenceDetect here because if
-                // that option is set, then FastJson will skip the JsonSerializer.context setting
-                // and there is property filter mechanism will break
-                MappedFastJsonNameFilter nameFilter = new MappedFastJsonNameFilter(spec.labelMapping(context));
-
-                SerializerFeature[] featureArray = new SerializerFeature[featureList.size()];
-                featureArray = featureList.toArray(featureArray);
-
-                if (nameFilter.isEmpty()) {
-                    json = com.alibaba.fastjson.JSON.toJSONString(result, propertyFilter, featureArray);
-                } else {
-                    SerializeFilter[] filters = new SerializeFilter[2];
-                    filters[0] = nameFilter;
-                    filters[1] = propertyFilter;
-                    json = com.alibaba.fastjson.JSON.toJSONString(result, filters, featureArray);
-                }
-            }
-            return json;
+            return spec.jsonSerializer(result, context).toJSONString(result, format, disableCircularReferenceDetect);
         }
 
 
@@ -246,66 +203,88 @@ public enum CliView {
     CSV() {
         @Override
         public String render(Object result, PropertySpec.MetaInfo spec, ActContext context) {
-            if (null == result) {
-                return "no data";
-            }
-            List dataList;
-            Class<?> componentType;
-            if (result instanceof Iterable) {
-                dataList = C.list((Iterable) result);
-            } else if (result instanceof Iterator) {
-                dataList = C.list((Iterator) result);
-            } else if (result instanceof Enumeration) {
-                dataList = C.list((Enumeration) result);
-            } else {
-                dataList = C.list(result);
-            }
-            if (dataList.isEmpty()) {
-                return "no data";
-            }
-            componentType = dataList.get(0).getClass();
-            DataPropertyRepository repo = context.app().service(DataPropertyRepository.class);
-            spec = PropertySpec.MetaInfo.withCurrent(spec, context);
-            if (null == spec) {
-                spec = new PropertySpec.MetaInfo();
-                spec.onValue("-not_exists");
-            }
-            List<String> outputFields = repo.outputFields(spec, componentType, context);
-            StringBuilder sb = S.builder();
-            buildHeaderLine(sb, outputFields, spec.labelMapping());
-            for (Object entity : dataList) {
-                sb.append($.OS.lineSeparator());
-                buildDataLine(sb, entity, outputFields);
+            StringWriter writer = new StringWriter();
+            write(result, spec, context, writer);
+            return writer.toString();
+        }
+
+        /**
+         * Write the result as CSV into the writer. The result is iterated lazily
+         * if it is an {@link Iterable}, an {@link Iterator} or an {@link Enumeration},
+         * and the writer is flushed every {@link #FLUSH_ROWS} rows, thus the memory
+         * used does not grow with the number of rows
+         */
+        @Override
+        public void write(Object result, PropertySpec.MetaInfo spec, ActContext context, Writer writer) {
+            try {
+                Iterator itr = iterator(result);
+                Object first = null;
+                while (null == first && itr.hasNext()) {
+                    first = itr.next();
+                }
+                if (null == first) {
+                    writer.write("no data");
+                    return;
+                }
+                Class<?> componentType = first.getClass();
+                DataPropertyRepository repo = context.app().service(DataPropertyRepository.class);
+                spec = PropertySpec.MetaInfo.withCurrent(spec, context);
+                if (null == spec) {
+                    spec = new PropertySpec.MetaInfo();
+                    spec.onValue("-not_exists");
+                }
+                List<String> outputFields = repo.outputFields(spec, componentType, context);
+                PropertyAccessor[] accessors = new PropertyAccessor[outputFields.size()];
+                for (int i = 0; i < accessors.length; ++i) {
+                    accessors[i] = repo.accessor(componentType, outputFields.get(i));
+                }
+                String lineSeparator = $.OS.lineSeparator();
+                writeHeaderLine(writer, outputFields, spec.labelMapping(context));
+                writer.write(lineSeparator);
+                writeDataLine(writer, first, accessors);
+                int rows = 1;
+                while (itr.hasNext()) {
+                    Object entity = itr.next();
+                    if (null == entity) {
+                        continue;
+                    }
+                    writer.write(lineSeparator);
+                    writeDataLine(writer, entity, accessors);
+                    if (++rows % FLUSH_ROWS == 0) {
+                        writer.flush();
+                    }
+                }
+            } catch (IOException e) {
+                throw E.ioException(e);
             }
-            return sb.toString();
         }
 
-        private void buildDataLine(StringBuilder sb, Object data, List<String> outputFields) {
-            Iterator<String> itr = outputFields.iterator();
-            String prop = itr.next();
-            sb.append(getProperty(data, prop));
-            while (itr.hasNext()) {
-                sb.append(",").append(getProperty(data, itr.next()));
+        private Iterator iterator(Object result) {
+            if (null == result) {
+                return C.list().iterator();
             }
+            Iterator itr = iteratorOf(result);
+            return null == itr ? C.list(result).iterator() : itr;
         }
 
-        private String getProperty(Object data, String prop) {
-            if ("this".equals(prop)) {
-                return (escape(data));
-            } else {
-                return escape($.getProperty(data, prop));
+        private void writeDataLine(Writer writer, Object data, PropertyAccessor[] accessors) throws IOException {
+            for (int i = 0; i < accessors.length; ++i) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(accessors[i].get(data)));
             }
         }
 
-        private void buildHeaderLine(StringBuilder sb, List<String> outputFields, Map<String, String> labels) {
+        private void writeHeaderLine(Writer writer, List<String> outputFields, Map<String, String> labels) throws IOException {
             if (null == labels) {
                 labels = C.newMap();
             }
             Iterator<String> itr = outputFields.iterator();
-            String label = label(itr.next(), labels);
-            sb.append(label);
+            writer.write(escape(label(itr.next(), labels)));
             while (itr.hasNext()) {
-                sb.append(",").append(escape(label(itr.next(), labels)));
+                writer.write(',');
+                writer.write(escape(label(itr.next(), labels)));
             }
         }
 
@@ -315,19 +294,81 @@ public enum CliView {
         }
 
         private String escape(Object o) {
-            return Escape.CSV.apply(o).toString();
+            return null == o ? "" : Escape.CSV.apply(o).toString();
         }
 
     };
 
+    /**
+     * Number of rows after which a streaming view flushes the writer
+     */
+    public static final int FLUSH_ROWS = 1000;
+
     public String render(Object result, PropertySpec.MetaInfo spec, ActContext context) {
         throw E.unsupport();
     }
 
+    /**
+     * Write the result into a writer. By default it writes the string returned
+     * by {@link #render(Object, PropertySpec.MetaInfo, ActContext)}. A view that
+     * supports streaming shall overwrite this method
+     *
+     * @param result the result to be presented
+     * @param spec the property spec
+     * @param context the context
+     * @param writer the writer
+     */
+    public void write(Object result, PropertySpec.MetaInfo spec, ActContext context, Writer writer) {
+        try {
+            writer.write(render(result, spec, context));
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
     public void print(Object result, PropertySpec.MetaInfo spec, CliContext context) {
         context.println(render(result, spec, context));
     }
 
+    /**
+     * Returns an iterator of the result if it is an {@link Iterable}, {@link Iterator},
+     * {@link Enumeration} or an array, or {@code null} otherwise. Enumeration is
+     * iterated lazily
+     */
+    static Iterator iteratorOf(Object result) {
+        if (result instanceof Iterable) {
+            return ((Iterable) result).iterator();
+        } else if (result instanceof Iterator) {
+            return (Iterator) result;
+        } else if (result instanceof Enumeration) {
+            final Enumeration e = (Enumeration) result;
+            return new Iterator() {
+                @Override
+                public boolean hasNext() {
+                    return e.hasMoreElements();
+                }
+
+                @Override
+                public Object next() {
+                    return e.nextElement();
+                }
+
+                @Override
+                public void remove() {
+                    throw E.unsupport();
+                }
+            };
+        } else if (null != result && result.getClass().isArray()) {
+            int len = Array.getLength(result);
+            List list = new ArrayList(len);
+            for (int i = 0; i < len; ++i) {
+                list.add(Array.get(result, i));
+            }
+            return list.iterator();
+        }
+        return null;
+    }
+
     protected List toList(Object result) {
         List dataList;
         if (result instanceof Iterable) {
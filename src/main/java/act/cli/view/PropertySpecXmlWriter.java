@@ -0,0 +1,238 @@
+package act.cli.view;
+
+import act.data.DataPropertyRepository;
+import act.util.ActContext;
+import act.util.PropertySpec;
+import org.osgl.$;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.S;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write an object into XML with a StAX {@link XMLStreamWriter}.
+ *
+ * The output fields and labels of the object (or the elements of the
+ * object if it is a collection) are decided by the {@link PropertySpec}
+ * in the same way as the other views, e.g:
+ *
+ * ```xml
+ * <result>
+ *     <item>
+ *         <firstName>Tom</firstName>
+ *         <contact>
+ *             <email>tom@abc.com</email>
+ *         </contact>
+ *     </item>
+ *     ...
+ * </result>
+ * ```
+ *
+ * Elements of {@link Iterable}, {@link Iterator} and {@link java.util.Enumeration}
+ * results are iterated lazily and the writer is flushed every
+ * {@link CliView#FLUSH_ROWS} items
+ */
+class PropertySpecXmlWriter {
+
+    static final String ROOT = "result";
+    static final String ITEM = "item";
+
+    private static final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+
+    // a node in the tree of output property paths
+    private static class Node {
+        final String path;
+        final String name;
+        final Map<String, Node> children = new LinkedHashMap<>();
+        Node(String path, String name) {
+            this.path = path;
+            this.name = name;
+        }
+    }
+
+    private final DataPropertyRepository repo;
+    private final PropertySpec.MetaInfo spec;
+    private final PropertySpec.MetaInfo allProperties;
+    private final ActContext context;
+    private final Map<String, String> labels;
+
+    // output property trees of this rendering indexed by type, the
+    // first one is for types with spec applied, the second one for
+    // all properties
+    private final Map<Class<?>, Map<String, Node>> specTrees = C.newMap();
+    private final Map<Class<?>, Map<String, Node>> fullTrees = C.newMap();
+
+    PropertySpecXmlWriter(PropertySpec.MetaInfo spec, ActContext context) {
+        this.repo = context.app().service(DataPropertyRepository.class);
+        this.allProperties = new PropertySpec.MetaInfo();
+        this.allProperties.onValue("-not_exists");
+        this.spec = null == spec ? allProperties : spec;
+        this.context = context;
+        this.labels = this.spec.labelMapping(context);
+    }
+
+    void write(Object result, Writer writer) {
+        try {
+            XMLStreamWriter w = factory.createXMLStreamWriter(writer);
+            w.writeStartDocument("UTF-8", "1.0");
+            w.writeStartElement(ROOT);
+            Iterator itr = CliView.iteratorOf(result);
+            if (null == itr) {
+                writeValue(w, result, true);
+            } else {
+                int items = 0;
+                while (itr.hasNext()) {
+                    w.writeStartElement(ITEM);
+                    writeValue(w, itr.next(), true);
+                    w.writeEndElement();
+                    if (++items % CliView.FLUSH_ROWS == 0) {
+                        w.flush();
+                        writer.flush();
+                    }
+                }
+            }
+            w.writeEndElement();
+            w.writeEndDocument();
+            w.flush();
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw E.unexpected(e, "error writing XML");
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    private void writeValue(XMLStreamWriter w, Object o, boolean applySpec) throws XMLStreamException {
+        if (null == o) {
+            return;
+        }
+        Class<?> type = o.getClass();
+        if (isTerminal(type)) {
+            w.writeCharacters(S.string(o));
+        } else if (o instanceof Map) {
+            for (Object entry : ((Map) o).entrySet()) {
+                Map.Entry e = (Map.Entry) entry;
+                w.writeStartElement(elementName(S.string(e.getKey())));
+                writeValue(w, e.getValue(), false);
+                w.writeEndElement();
+            }
+        } else {
+            Iterator itr = CliView.iteratorOf(o);
+            if (null != itr) {
+                while (itr.hasNext()) {
+                    w.writeStartElement(ITEM);
+                    writeValue(w, itr.next(), false);
+                    w.writeEndElement();
+                }
+            } else {
+                writeTree(w, o, tree(type, applySpec));
+            }
+        }
+    }
+
+    private void writeTree(XMLStreamWriter w, Object o, Map<String, Node> tree) throws XMLStreamException {
+        if (tree.isEmpty()) {
+            w.writeCharacters(S.string(o));
+            return;
+        }
+        Class<?> type = o.getClass();
+        for (Node node : tree.values()) {
+            Object v = repo.accessor(type, node.name).get(o);
+            w.writeStartElement(node.children.isEmpty() ? label(node) : elementName(node.name));
+            if (node.children.isEmpty()) {
+                writeValue(w, v, false);
+            } else if (null != v) {
+                Iterator itr = CliView.iteratorOf(v);
+                if (null == itr) {
+                    writeTree(w, v, node.children);
+                } else {
+                    while (itr.hasNext()) {
+                        Object e = itr.next();
+                        w.writeStartElement(ITEM);
+                        if (null != e) {
+                            writeTree(w, e, node.children);
+                        }
+                        w.writeEndElement();
+                    }
+                }
+            }
+            w.writeEndElement();
+        }
+    }
+
+    private String label(Node node) {
+        String label = labels.get(node.path);
+        return elementName(null == label ? node.name : label);
+    }
+
+    private Map<String, Node> tree(Class<?> type, boolean applySpec) {
+        Map<Class<?>, Map<String, Node>> trees = applySpec ? specTrees : fullTrees;
+        Map<String, Node> tree = trees.get(type);
+        if (null == tree) {
+            tree = new LinkedHashMap<>();
+            List<String> fields = repo.outputFields(applySpec ? spec : allProperties, type, context);
+            for (String field : fields) {
+                if ("this".equals(field)) {
+                    continue;
+                }
+                Map<String, Node> level = tree;
+                String path = null;
+                for (String name : field.replace('/', '.').split("\\.")) {
+                    path = null == path ? name : path + "." + name;
+                    Node node = level.get(name);
+                    if (null == node) {
+                        node = new Node(path, name);
+                        level.put(name, node);
+                    }
+                    level = node.children;
+                }
+            }
+            trees.put(type, tree);
+        }
+        return tree;
+    }
+
+    private boolean isTerminal(Class<?> type) {
+        return $.isSimpleType(type) || type.isEnum() || repo.isTerminator(type);
+    }
+
+    /**
+     * Make a valid XML element name out from a string, e.g. a label
+     * with spaces "First name" becomes "First_name"
+     */
+    static String elementName(String s) {
+        if (S.blank(s)) {
+            return "_";
+        }
+        StringBuilder sb = null;
+        for (int i = 0, j = s.length(); i < j; ++i) {
+            char c = s.charAt(i);
+            boolean valid = Character.isLetter(c) || c == '_'
+                    || (i > 0 && (Character.isDigit(c) || c == '-' || c == '.'));
+            if (!valid) {
+                if (null == sb) {
+                    sb = new StringBuilder(s.length() + 1);
+                    sb.append(s, 0, i);
+                }
+                if (i == 0 && (Character.isDigit(c) || c == '-' || c == '.')) {
+                    sb.append('_').append(c);
+                } else {
+                    sb.append('_');
+                }
+            } else if (null != sb) {
+                sb.append(c);
+            }
+        }
+        return null == sb ? s : sb.toString();
+    }
+
+}
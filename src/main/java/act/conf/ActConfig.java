@@ -1,5 +1,7 @@
 package act.conf;
 
+import act.xio.Network;
+import act.xio.undertow.UndertowNetwork;
 import org.osgl.util.E;
 
 import java.io.File;
@@ -8,6 +10,7 @@ import java.util.Map;
 
 import static act.conf.ActConfigKey.APP_BASE;
 import static act.conf.ActConfigKey.HOME;
+import static act.conf.ActConfigKey.NETWORK_SERVER_IMPL;
 
 public class ActConfig extends Config<ActConfigKey> {
 
@@ -57,6 +60,18 @@ public class ActConfig extends Config<ActConfigKey> {
         return appBase;
     }
 
+    private Network network = null;
+
+    public Network network() {
+        if (null == network) {
+            network = get(NETWORK_SERVER_IMPL);
+            if (null == network) {
+                network = new UndertowNetwork();
+            }
+        }
+        return network;
+    }
+
     private static void validateDir(File dir, String conf) {
         if (!dir.exists() || !dir.isDirectory() || !dir.canRead()) {
             E.invalidConfiguration("%s is not a valid directory: %s", conf, dir.getAbsolutePath());
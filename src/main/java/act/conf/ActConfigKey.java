@@ -53,6 +53,13 @@ public enum ActConfigKey implements ConfigKey {
     MODE("mode", Act.Mode.PROD),
     /**
      * {@code act.xio.impl} specifies the implementation for the network stack implementation
+     * <p>Options:</p>
+     * <ul>
+     * <li>{@code act.xio.undertow.UndertowNetwork} - the undertow network stack</li>
+     * <li>{@code act.xio.netty4.NettyNetwork} - the netty 4 network stack. {@code netty-all}
+     * must be put into the class path to use this option</li>
+     * </ul>
+     * <p>Default value: {@code act.xio.undertow.UndertowNetwork}</p>
      */
     NETWORK_SERVER_IMPL("xio.impl");
 
@@ -15,6 +15,7 @@ import act.db.util._SequenceNumberGenerator;
 import act.handler.UnknownHttpMethodProcessor;
 import act.handler.event.ResultEvent;
 import act.security.CSRFProtector;
+import act.sys.Env;
 import act.util.*;
 import act.validation.ValidationMessageInterpolator;
 import act.view.TemplatePathResolver;
@@ -844,6 +845,50 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private int seqGenBlockSize = -1;
+    protected T seqGenBlockSize(int size) {
+        E.illegalArgumentIf(size < 1, "sequence block size not valid: %s", size);
+        this.seqGenBlockSize = size;
+        return me();
+    }
+    public int seqGenBlockSize() {
+        if (-1 == seqGenBlockSize) {
+            Integer I = get(DB_SEQ_GENERATOR_BLOCK_SIZE);
+            if (null == I) {
+                I = 1000;
+            }
+            E.invalidConfigurationIf(I < 1, "sequence block size not valid: %s", I);
+            seqGenBlockSize = I;
+        }
+        return seqGenBlockSize;
+    }
+    private void _mergeSeqGenBlockSize(AppConfig conf) {
+        if (null == get(DB_SEQ_GENERATOR_BLOCK_SIZE)) {
+            seqGenBlockSize = conf.seqGenBlockSize;
+        }
+    }
+
+    private String seqGenFile;
+    protected T seqGenFile(String file) {
+        E.illegalArgumentIf(S.blank(file));
+        seqGenFile = file;
+        return me();
+    }
+    public String seqGenFile() {
+        if (null == seqGenFile) {
+            seqGenFile = get(DB_SEQ_GENERATOR_FILE);
+            if (null == seqGenFile) {
+                seqGenFile = ".act.seq";
+            }
+        }
+        return seqGenFile;
+    }
+    private void _mergeSeqGenFile(AppConfig conf) {
+        if (null == get(DB_SEQ_GENERATOR_FILE)) {
+            seqGenFile = conf.seqGenFile;
+        }
+    }
+
     private ErrorTemplatePathResolver errorTemplatePathResolver = null;
 
     protected T errorTemplatePathResolver(ErrorTemplatePathResolver resolver) {
@@ -1250,6 +1295,54 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean httpGzip = null;
+
+    protected T httpGzip(boolean enabled) {
+        this.httpGzip = enabled;
+        return me();
+    }
+
+    public boolean httpGzip() {
+        if (null == httpGzip) {
+            httpGzip = get(HTTP_GZIP);
+            if (null == httpGzip) {
+                httpGzip = false;
+            }
+        }
+        return httpGzip;
+    }
+
+    private void _mergeHttpGzip(AppConfig conf) {
+        if (null == get(HTTP_GZIP)) {
+            this.httpGzip = conf.httpGzip;
+        }
+    }
+
+    private int httpGzipThreshold = -1;
+
+    protected T httpGzipThreshold(int size) {
+        E.illegalArgumentIf(size < 0, "gzip threshold not valid: %s", size);
+        this.httpGzipThreshold = size;
+        return me();
+    }
+
+    public int httpGzipThreshold() {
+        if (-1 == httpGzipThreshold) {
+            Integer I = get(HTTP_GZIP_THRESHOLD);
+            if (null == I) {
+                I = 1024;
+            }
+            httpGzipThreshold = I;
+        }
+        return httpGzipThreshold;
+    }
+
+    private void _mergeHttpGzipThreshold(AppConfig conf) {
+        if (null == get(HTTP_GZIP_THRESHOLD)) {
+            this.httpGzipThreshold = conf.httpGzipThreshold;
+        }
+    }
+
     private int httpPort = -1;
 
     protected T httpPort(int port) {
@@ -1720,6 +1813,77 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean templateStreaming = null;
+
+    protected T templateStreaming(boolean enabled) {
+        templateStreaming = enabled;
+        return me();
+    }
+
+    public boolean templateStreaming() {
+        if (null == templateStreaming) {
+            templateStreaming = get(AppConfigKey.TEMPLATE_STREAMING);
+            if (null == templateStreaming) {
+                templateStreaming = false;
+            }
+        }
+        return templateStreaming;
+    }
+
+    private void _mergeTemplateStreaming(AppConfig conf) {
+        if (null == get(AppConfigKey.TEMPLATE_STREAMING)) {
+            templateStreaming = conf.templateStreaming;
+        }
+    }
+
+    private Boolean templateWarmUp = null;
+
+    protected T templateWarmUp(boolean enabled) {
+        templateWarmUp = enabled;
+        return me();
+    }
+
+    public boolean templateWarmUp() {
+        if (null == templateWarmUp) {
+            templateWarmUp = get(AppConfigKey.TEMPLATE_WARM_UP);
+            if (null == templateWarmUp) {
+                templateWarmUp = true;
+            }
+        }
+        return templateWarmUp;
+    }
+
+    private void _mergeTemplateWarmUp(AppConfig conf) {
+        if (null == get(AppConfigKey.TEMPLATE_WARM_UP)) {
+            templateWarmUp = conf.templateWarmUp;
+        }
+    }
+
+    private int templateStreamingFlushThreshold = -1;
+
+    protected T templateStreamingFlushThreshold(int size) {
+        E.illegalArgumentIf(size < 1, "template streaming flush threshold not valid: %s", size);
+        templateStreamingFlushThreshold = size;
+        return me();
+    }
+
+    public int templateStreamingFlushThreshold() {
+        if (-1 == templateStreamingFlushThreshold) {
+            Integer I = get(AppConfigKey.TEMPLATE_STREAMING_FLUSH_THRESHOLD);
+            if (null == I) {
+                I = 8192;
+            }
+            templateStreamingFlushThreshold = I;
+        }
+        return templateStreamingFlushThreshold;
+    }
+
+    private void _mergeTemplateStreamingFlushThreshold(AppConfig conf) {
+        if (null == get(AppConfigKey.TEMPLATE_STREAMING_FLUSH_THRESHOLD)) {
+            templateStreamingFlushThreshold = conf.templateStreamingFlushThreshold;
+        }
+    }
+
     private boolean pingPathResolved = false;
     private String pingPath = null;
 
@@ -1979,6 +2143,510 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private List<String> retiredSecrets = null;
+    protected T retiredSecrets(String... secrets) {
+        List<String> list = C.newList();
+        for (String s : secrets) {
+            E.illegalArgumentIf(S.blank(s));
+            list.add(s);
+        }
+        this.retiredSecrets = C.list(list);
+        return me();
+    }
+    public List<String> retiredSecrets() {
+        if (null == retiredSecrets) {
+            String s = get(AppConfigKey.SECRET_RETIRED);
+            List<String> list = C.newList();
+            if (S.notBlank(s)) {
+                for (String secret : s.split(",")) {
+                    secret = secret.trim();
+                    if (secret.length() > 0) {
+                        list.add(secret);
+                    }
+                }
+            }
+            retiredSecrets = C.list(list);
+        }
+        return retiredSecrets;
+    }
+    private void _mergeRetiredSecrets(AppConfig config) {
+        if (null == get(AppConfigKey.SECRET_RETIRED)) {
+            retiredSecrets = config.retiredSecrets;
+        }
+    }
+
+    private int passwordHashCost = -1;
+    protected T passwordHashCost(int cost) {
+        E.illegalArgumentIf(cost < 4 || cost > 30, "password hash cost not valid: %s", cost);
+        this.passwordHashCost = cost;
+        return me();
+    }
+    public int passwordHashCost() {
+        if (-1 == passwordHashCost) {
+            Object o = get(AppConfigKey.PASSWORD_HASH_COST);
+            int cost = null == o ? 10 : Integer.parseInt(S.string(o).trim());
+            E.invalidConfigurationIf(cost < 4 || cost > 30, "password hash cost not valid: %s", cost);
+            passwordHashCost = cost;
+        }
+        return passwordHashCost;
+    }
+    private void _mergePasswordHashCost(AppConfig config) {
+        if (null == get(AppConfigKey.PASSWORD_HASH_COST)) {
+            passwordHashCost = config.passwordHashCost;
+        }
+    }
+
+    private int passwordHashPoolSize = -1;
+    protected T passwordHashPoolSize(int size) {
+        E.illegalArgumentIf(size < 1, "password hash pool size not valid: %s", size);
+        this.passwordHashPoolSize = size;
+        return me();
+    }
+    public int passwordHashPoolSize() {
+        if (-1 == passwordHashPoolSize) {
+            Integer I = get(AppConfigKey.PASSWORD_HASH_POOL_SIZE);
+            if (null == I) {
+                I = Runtime.getRuntime().availableProcessors();
+            }
+            passwordHashPoolSize = I;
+        }
+        return passwordHashPoolSize;
+    }
+    private void _mergePasswordHashPoolSize(AppConfig config) {
+        if (null == get(AppConfigKey.PASSWORD_HASH_POOL_SIZE)) {
+            passwordHashPoolSize = config.passwordHashPoolSize;
+        }
+    }
+
+    private int passwordHashQueueSize = -1;
+    protected T passwordHashQueueSize(int size) {
+        E.illegalArgumentIf(size < 1, "password hash queue size not valid: %s", size);
+        this.passwordHashQueueSize = size;
+        return me();
+    }
+    public int passwordHashQueueSize() {
+        if (-1 == passwordHashQueueSize) {
+            Integer I = get(AppConfigKey.PASSWORD_HASH_QUEUE_SIZE);
+            if (null == I) {
+                I = 256;
+            }
+            passwordHashQueueSize = I;
+        }
+        return passwordHashQueueSize;
+    }
+    private void _mergePasswordHashQueueSize(AppConfig config) {
+        if (null == get(AppConfigKey.PASSWORD_HASH_QUEUE_SIZE)) {
+            passwordHashQueueSize = config.passwordHashQueueSize;
+        }
+    }
+
+    private int mailSenderPoolSize = -1;
+    protected T mailSenderPoolSize(int n) {
+        E.illegalArgumentIf(n < 1, "mail sender pool size not valid: %s", n);
+        this.mailSenderPoolSize = n;
+        return me();
+    }
+    public int mailSenderPoolSize() {
+        if (-1 == mailSenderPoolSize) {
+            Integer I = get(AppConfigKey.MAIL_SENDER_POOL_SIZE);
+            if (null == I) {
+                I = 2;
+            }
+            E.invalidConfigurationIf(I < 1, "mail sender pool size not valid: %s", I);
+            mailSenderPoolSize = I;
+        }
+        return mailSenderPoolSize;
+    }
+    private void _mergeMailSenderPoolSize(AppConfig config) {
+        if (null == get(AppConfigKey.MAIL_SENDER_POOL_SIZE)) {
+            mailSenderPoolSize = config.mailSenderPoolSize;
+        }
+    }
+
+    private int mailQueueSize = -1;
+    protected T mailQueueSize(int n) {
+        E.illegalArgumentIf(n < 1, "mail queue size not valid: %s", n);
+        this.mailQueueSize = n;
+        return me();
+    }
+    public int mailQueueSize() {
+        if (-1 == mailQueueSize) {
+            Integer I = get(AppConfigKey.MAIL_QUEUE_SIZE);
+            if (null == I) {
+                I = 1024;
+            }
+            E.invalidConfigurationIf(I < 1, "mail queue size not valid: %s", I);
+            mailQueueSize = I;
+        }
+        return mailQueueSize;
+    }
+    private void _mergeMailQueueSize(AppConfig config) {
+        if (null == get(AppConfigKey.MAIL_QUEUE_SIZE)) {
+            mailQueueSize = config.mailQueueSize;
+        }
+    }
+
+    private int mailBatchSize = -1;
+    protected T mailBatchSize(int n) {
+        E.illegalArgumentIf(n < 1, "mail batch size not valid: %s", n);
+        this.mailBatchSize = n;
+        return me();
+    }
+    public int mailBatchSize() {
+        if (-1 == mailBatchSize) {
+            Integer I = get(AppConfigKey.MAIL_BATCH_SIZE);
+            if (null == I) {
+                I = 50;
+            }
+            E.invalidConfigurationIf(I < 1, "mail batch size not valid: %s", I);
+            mailBatchSize = I;
+        }
+        return mailBatchSize;
+    }
+    private void _mergeMailBatchSize(AppConfig config) {
+        if (null == get(AppConfigKey.MAIL_BATCH_SIZE)) {
+            mailBatchSize = config.mailBatchSize;
+        }
+    }
+
+    private int mailRetryTimes = -1;
+    protected T mailRetryTimes(int n) {
+        E.illegalArgumentIf(n < 0, "mail retry times not valid: %s", n);
+        this.mailRetryTimes = n;
+        return me();
+    }
+    public int mailRetryTimes() {
+        if (-1 == mailRetryTimes) {
+            Integer I = get(AppConfigKey.MAIL_RETRY_TIMES);
+            if (null == I) {
+                I = 3;
+            }
+            E.invalidConfigurationIf(I < 0, "mail retry times not valid: %s", I);
+            mailRetryTimes = I;
+        }
+        return mailRetryTimes;
+    }
+    private void _mergeMailRetryTimes(AppConfig config) {
+        if (null == get(AppConfigKey.MAIL_RETRY_TIMES)) {
+            mailRetryTimes = config.mailRetryTimes;
+        }
+    }
+
+    private long mailRetryBackoff = -1;
+    protected T mailRetryBackoff(long ms) {
+        E.illegalArgumentIf(ms < 0, "mail retry backoff not valid: %s", ms);
+        this.mailRetryBackoff = ms;
+        return me();
+    }
+    public long mailRetryBackoff() {
+        if (-1 == mailRetryBackoff) {
+            Long ms = get(AppConfigKey.MAIL_RETRY_BACKOFF);
+            if (null == ms) {
+                ms = 1000L;
+            }
+            E.invalidConfigurationIf(ms < 0, "mail retry backoff not valid: %s", ms);
+            mailRetryBackoff = ms;
+        }
+        return mailRetryBackoff;
+    }
+    private void _mergeMailRetryBackoff(AppConfig config) {
+        if (null == get(AppConfigKey.MAIL_RETRY_BACKOFF)) {
+            mailRetryBackoff = config.mailRetryBackoff;
+        }
+    }
+
+    private long mailSendTimeout = -1;
+    protected T mailSendTimeout(long ms) {
+        E.illegalArgumentIf(ms < 1, "mail send timeout not valid: %s", ms);
+        this.mailSendTimeout = ms;
+        return me();
+    }
+    public long mailSendTimeout() {
+        if (-1 == mailSendTimeout) {
+            Long ms = get(AppConfigKey.MAIL_SEND_TIMEOUT);
+            if (null == ms) {
+                ms = 60 * 1000L;
+            }
+            E.invalidConfigurationIf(ms < 1, "mail send timeout not valid: %s", ms);
+            mailSendTimeout = ms;
+        }
+        return mailSendTimeout;
+    }
+    private void _mergeMailSendTimeout(AppConfig config) {
+        if (null == get(AppConfigKey.MAIL_SEND_TIMEOUT)) {
+            mailSendTimeout = config.mailSendTimeout;
+        }
+    }
+
+    private int xioIoThreads = -1;
+    protected T xioIoThreads(int size) {
+        E.illegalArgumentIf(size < 1, "xio io threads not valid: %s", size);
+        this.xioIoThreads = size;
+        return me();
+    }
+    public int xioIoThreads() {
+        if (-1 == xioIoThreads) {
+            Integer I = get(AppConfigKey.XIO_IO_THREADS);
+            if (null == I) {
+                I = Math.max(Env.CPU.count(), 2);
+            }
+            E.invalidConfigurationIf(I < 1, "xio io threads not valid: %s", I);
+            xioIoThreads = I;
+        }
+        return xioIoThreads;
+    }
+    private void _mergeXioIoThreads(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_IO_THREADS)) {
+            xioIoThreads = config.xioIoThreads;
+        }
+    }
+
+    private int xioWorkerThreads = -1;
+    protected T xioWorkerThreads(int size) {
+        E.illegalArgumentIf(size < 1, "xio worker threads not valid: %s", size);
+        this.xioWorkerThreads = size;
+        return me();
+    }
+    public int xioWorkerThreads() {
+        if (-1 == xioWorkerThreads) {
+            Integer I = get(AppConfigKey.XIO_WORKER_THREADS);
+            if (null == I) {
+                I = xioIoThreads() * 8;
+            }
+            E.invalidConfigurationIf(I < 1, "xio worker threads not valid: %s", I);
+            xioWorkerThreads = I;
+        }
+        return xioWorkerThreads;
+    }
+    private void _mergeXioWorkerThreads(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_WORKER_THREADS)) {
+            xioWorkerThreads = config.xioWorkerThreads;
+        }
+    }
+
+    private int xioBacklog = -1;
+    protected T xioBacklog(int size) {
+        E.illegalArgumentIf(size < 1, "xio backlog not valid: %s", size);
+        this.xioBacklog = size;
+        return me();
+    }
+    public int xioBacklog() {
+        if (-1 == xioBacklog) {
+            Integer I = get(AppConfigKey.XIO_BACKLOG);
+            if (null == I) {
+                I = 1024;
+            }
+            E.invalidConfigurationIf(I < 1, "xio backlog not valid: %s", I);
+            xioBacklog = I;
+        }
+        return xioBacklog;
+    }
+    private void _mergeXioBacklog(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_BACKLOG)) {
+            xioBacklog = config.xioBacklog;
+        }
+    }
+
+    private Boolean xioReusePort = null;
+    protected T xioReusePort(boolean enabled) {
+        this.xioReusePort = enabled;
+        return me();
+    }
+    public boolean xioReusePort() {
+        if (null == xioReusePort) {
+            xioReusePort = get(AppConfigKey.XIO_REUSE_PORT);
+            if (null == xioReusePort) {
+                xioReusePort = false;
+            }
+        }
+        return xioReusePort;
+    }
+    private void _mergeXioReusePort(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_REUSE_PORT)) {
+            xioReusePort = config.xioReusePort;
+        }
+    }
+
+    private int xioBufferSize = -1;
+    protected T xioBufferSize(int size) {
+        E.illegalArgumentIf(size < 1, "xio buffer size not valid: %s", size);
+        this.xioBufferSize = size;
+        return me();
+    }
+    public int xioBufferSize() {
+        if (-1 == xioBufferSize) {
+            Integer I = get(AppConfigKey.XIO_BUFFER_SIZE);
+            if (null == I) {
+                long maxMemory = Runtime.getRuntime().maxMemory();
+                // 16k is generally the max amount of data that can be sent in a single write() call
+                I = maxMemory < 64 * 1024 * 1024 ? 512 : maxMemory < 128 * 1024 * 1024 ? 1024 : 1024 * 16;
+            }
+            E.invalidConfigurationIf(I < 1, "xio buffer size not valid: %s", I);
+            xioBufferSize = I;
+        }
+        return xioBufferSize;
+    }
+    private void _mergeXioBufferSize(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_BUFFER_SIZE)) {
+            xioBufferSize = config.xioBufferSize;
+        }
+    }
+
+    private int xioBufferRegionCount = -1;
+    protected T xioBufferRegionCount(int count) {
+        E.illegalArgumentIf(count < 1, "xio buffer region count not valid: %s", count);
+        this.xioBufferRegionCount = count;
+        return me();
+    }
+    public int xioBufferRegionCount() {
+        if (-1 == xioBufferRegionCount) {
+            Integer I = get(AppConfigKey.XIO_BUFFER_REGION_COUNT);
+            if (null == I) {
+                I = Runtime.getRuntime().maxMemory() < 128 * 1024 * 1024 ? 10 : 20;
+            }
+            E.invalidConfigurationIf(I < 1, "xio buffer region count not valid: %s", I);
+            xioBufferRegionCount = I;
+        }
+        return xioBufferRegionCount;
+    }
+    private void _mergeXioBufferRegionCount(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_BUFFER_REGION_COUNT)) {
+            xioBufferRegionCount = config.xioBufferRegionCount;
+        }
+    }
+
+    private Boolean xioBufferDirect = null;
+    protected T xioBufferDirect(boolean enabled) {
+        this.xioBufferDirect = enabled;
+        return me();
+    }
+    public boolean xioBufferDirect() {
+        if (null == xioBufferDirect) {
+            xioBufferDirect = get(AppConfigKey.XIO_BUFFER_DIRECT);
+            if (null == xioBufferDirect) {
+                xioBufferDirect = Runtime.getRuntime().maxMemory() >= 64 * 1024 * 1024;
+            }
+        }
+        return xioBufferDirect;
+    }
+    private void _mergeXioBufferDirect(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_BUFFER_DIRECT)) {
+            xioBufferDirect = config.xioBufferDirect;
+        }
+    }
+
+    private Boolean xioHttp2 = null;
+    protected T xioHttp2(boolean enabled) {
+        this.xioHttp2 = enabled;
+        return me();
+    }
+    public boolean xioHttp2() {
+        if (null == xioHttp2) {
+            xioHttp2 = get(AppConfigKey.XIO_HTTP2);
+            if (null == xioHttp2) {
+                xioHttp2 = false;
+            }
+        }
+        return xioHttp2;
+    }
+    private void _mergeXioHttp2(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_HTTP2)) {
+            xioHttp2 = config.xioHttp2;
+        }
+    }
+
+    private int xioMaxHeaderSize = -1;
+    protected T xioMaxHeaderSize(int size) {
+        E.illegalArgumentIf(size < 1, "xio max header size not valid: %s", size);
+        this.xioMaxHeaderSize = size;
+        return me();
+    }
+    public int xioMaxHeaderSize() {
+        if (-1 == xioMaxHeaderSize) {
+            Integer I = get(AppConfigKey.XIO_MAX_HEADER_SIZE);
+            if (null == I) {
+                I = 1024 * 1024;
+            }
+            E.invalidConfigurationIf(I < 1, "xio max header size not valid: %s", I);
+            xioMaxHeaderSize = I;
+        }
+        return xioMaxHeaderSize;
+    }
+    private void _mergeXioMaxHeaderSize(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_MAX_HEADER_SIZE)) {
+            xioMaxHeaderSize = config.xioMaxHeaderSize;
+        }
+    }
+
+    private long xioMaxEntitySize = -1;
+    protected T xioMaxEntitySize(long size) {
+        E.illegalArgumentIf(size < 1, "xio max entity size not valid: %s", size);
+        this.xioMaxEntitySize = size;
+        return me();
+    }
+    public long xioMaxEntitySize() {
+        if (-1 == xioMaxEntitySize) {
+            Long size = get(AppConfigKey.XIO_MAX_ENTITY_SIZE);
+            if (null == size) {
+                size = 1024L * 1024 * 100;
+            }
+            E.invalidConfigurationIf(size < 1, "xio max entity size not valid: %s", size);
+            xioMaxEntitySize = size;
+        }
+        return xioMaxEntitySize;
+    }
+    private void _mergeXioMaxEntitySize(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_MAX_ENTITY_SIZE)) {
+            xioMaxEntitySize = config.xioMaxEntitySize;
+        }
+    }
+
+    private long xioIdleTimeout = -1;
+    protected T xioIdleTimeout(long ms) {
+        E.illegalArgumentIf(ms < 0, "xio idle timeout not valid: %s", ms);
+        this.xioIdleTimeout = ms;
+        return me();
+    }
+    public long xioIdleTimeout() {
+        if (-1 == xioIdleTimeout) {
+            Long ms = get(AppConfigKey.XIO_IDLE_TIMEOUT);
+            if (null == ms) {
+                ms = 0L;
+            }
+            E.invalidConfigurationIf(ms < 0 || ms > Integer.MAX_VALUE, "xio idle timeout not valid: %s", ms);
+            xioIdleTimeout = ms;
+        }
+        return xioIdleTimeout;
+    }
+    private void _mergeXioIdleTimeout(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_IDLE_TIMEOUT)) {
+            xioIdleTimeout = config.xioIdleTimeout;
+        }
+    }
+
+    private long xioRequestParseTimeout = -1;
+    protected T xioRequestParseTimeout(long ms) {
+        E.illegalArgumentIf(ms < 0, "xio request parse timeout not valid: %s", ms);
+        this.xioRequestParseTimeout = ms;
+        return me();
+    }
+    public long xioRequestParseTimeout() {
+        if (-1 == xioRequestParseTimeout) {
+            Long ms = get(AppConfigKey.XIO_REQUEST_PARSE_TIMEOUT);
+            if (null == ms) {
+                ms = 0L;
+            }
+            E.invalidConfigurationIf(ms < 0 || ms > Integer.MAX_VALUE, "xio request parse timeout not valid: %s", ms);
+            xioRequestParseTimeout = ms;
+        }
+        return xioRequestParseTimeout;
+    }
+    private void _mergeXioRequestParseTimeout(AppConfig config) {
+        if (null == get(AppConfigKey.XIO_REQUEST_PARSE_TIMEOUT)) {
+            xioRequestParseTimeout = config.xioRequestParseTimeout;
+        }
+    }
+
     private List<File> moduleBases;
     public List<File> moduleBases() {
         if (null == moduleBases) {
@@ -2171,11 +2839,15 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergeHttpExternal(conf);
         _mergeHttpExternalPort(conf);
         _mergeHttpExternalSecurePort(conf);
+        _mergeHttpGzip(conf);
+        _mergeHttpGzipThreshold(conf);
         _mergeHttpPort(conf);
         _mergeHttpSecure(conf);
         _mergePorts(conf);
         _mergeContentSuffixAware(conf);
         _mergeSequenceNumberGenerator(conf);
+        _mergeSeqGenBlockSize(conf);
+        _mergeSeqGenFile(conf);
         _mergeErrorTemplatePathResolver(conf);
         _mergeDateFmt(conf);
         _mergeDateTimeFmt(conf);
@@ -2195,6 +2867,9 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergeTargetVersion(conf);
         _mergeTemplatePathResolver(conf);
         _mergeTemplateHome(conf);
+        _mergeTemplateStreaming(conf);
+        _mergeTemplateStreamingFlushThreshold(conf);
+        _mergeTemplateWarmUp(conf);
         _mergeDefaultView(conf);
         _mergeSessionCookiePrefix(conf);
         _mergeSessionCookieName(conf);
@@ -2206,6 +2881,28 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergeSessionKeyUsername(conf);
         _mergeSessionMapper(conf);
         _mergeSecret(conf);
+        _mergeRetiredSecrets(conf);
+        _mergePasswordHashCost(conf);
+        _mergePasswordHashPoolSize(conf);
+        _mergePasswordHashQueueSize(conf);
+        _mergeMailSenderPoolSize(conf);
+        _mergeMailQueueSize(conf);
+        _mergeMailBatchSize(conf);
+        _mergeMailRetryTimes(conf);
+        _mergeMailRetryBackoff(conf);
+        _mergeMailSendTimeout(conf);
+        _mergeXioIoThreads(conf);
+        _mergeXioWorkerThreads(conf);
+        _mergeXioBacklog(conf);
+        _mergeXioReusePort(conf);
+        _mergeXioBufferSize(conf);
+        _mergeXioBufferRegionCount(conf);
+        _mergeXioBufferDirect(conf);
+        _mergeXioHttp2(conf);
+        _mergeXioMaxHeaderSize(conf);
+        _mergeXioMaxEntitySize(conf);
+        _mergeXioIdleTimeout(conf);
+        _mergeXioRequestParseTimeout(conf);
         _mergeCacheServiceProvider(conf);
         _mergeMessageInterpolator(conf);
         _mergeUnknownHttpMethodHandler(conf);
@@ -31,6 +31,19 @@ import java.util.Map;
  */
 public enum AppConfigKey implements ConfigKey {
 
+    /**
+     * {@code aot_enhance.enabled} tells Act to enhance all app classes and
+     * export them into the `enhanced` dir of the app once the app classes
+     * are scanned, and stop there without starting the app.
+     *
+     * Default value: `false`
+     *
+     * **Note** like {@link #PROFILE}, this setting is loaded from the system
+     * properties. It is set by {@link act.boot.app.EnhanceApp} and usually
+     * shall not be set by the app
+     */
+    AOT_ENHANCE("aot_enhance.enabled"),
+
     /**
      * {@code act.basic_authentication.enabled} turn on/off Basic Authentication
      * in Act application.
@@ -299,6 +312,24 @@ public enum AppConfigKey implements ConfigKey {
      */
     DB_SEQ_GENERATOR("db.seq_gen.impl"),
 
+    /**
+     * `act.db.seq_gen.block.size` specifies the number of sequence numbers
+     * reserved from the durable backend at a time by
+     * {@link act.db.util.BlockSequenceNumberGenerator}
+     *
+     * Default value: `1000`
+     */
+    DB_SEQ_GENERATOR_BLOCK_SIZE("db.seq_gen.block.size"),
+
+    /**
+     * `act.db.seq_gen.file` specifies the file used by
+     * {@link act.db.util.MappedFileSequenceNumberGenerator} to persist
+     * the sequence high water marks
+     *
+     * Default value: `.act.seq`
+     */
+    DB_SEQ_GENERATOR_FILE("db.seq_gen.file"),
+
     /**
      * {@code act.encoding} specifies application default encoding
      * <p>Default value: utf-8</p>
@@ -363,6 +394,24 @@ public enum AppConfigKey implements ConfigKey {
      */
     HTTP_EXTERNAL_SECURE_PORT("http.port.external.secure"),
 
+    /**
+     * `act.http.gzip.enabled` turn on/off gzip compression of the response
+     * body. The response is compressed only when the request accepts gzip
+     * encoding, the content type is text, JSON, XML or Javascript and the
+     * body size reaches {@link #HTTP_GZIP_THRESHOLD}
+     *
+     * Default value: `false`
+     */
+    HTTP_GZIP("http.gzip.enabled"),
+
+    /**
+     * `act.http.gzip.threshold.size` specifies the minimum size in bytes of
+     * the response body to be compressed
+     *
+     * Default value: `1024`
+     */
+    HTTP_GZIP_THRESHOLD("http.gzip.threshold.size"),
+
     /**
      * {@code act.http.params.max} specifies the maximum number of http parameters
      * this is to prevent the hash collision DOS attack
@@ -486,6 +535,52 @@ public enum AppConfigKey implements ConfigKey {
      */
     JOB_POOL_SIZE("job.pool.siz"),
 
+    /**
+     * {@code mail.sender.pool.size}
+     * Specifies the number of threads used to deliver emails,
+     * see {@link act.mail.MailDelivery}
+     * <p>Default value: {@code 2}</p>
+     */
+    MAIL_SENDER_POOL_SIZE("mail.sender.pool.size"),
+
+    /**
+     * {@code mail.queue.size}
+     * Specifies the maximum number of emails waiting in the delivery queue
+     * <p>Default value: {@code 1024}</p>
+     */
+    MAIL_QUEUE_SIZE("mail.queue.size"),
+
+    /**
+     * {@code mail.batch.size}
+     * Specifies the maximum number of emails a sender thread sends over
+     * one SMTP connection in a batch
+     * <p>Default value: {@code 50}</p>
+     */
+    MAIL_BATCH_SIZE("mail.batch.size"),
+
+    /**
+     * {@code mail.retry.times}
+     * Specifies the maximum number of retries when failed to deliver an email
+     * <p>Default value: {@code 3}</p>
+     */
+    MAIL_RETRY_TIMES("mail.retry.times"),
+
+    /**
+     * {@code mail.retry.backoff.long}
+     * Specifies the delay in milliseconds before the first retry. The delay
+     * doubles on each subsequent retry
+     * <p>Default value: {@code 1000}</p>
+     */
+    MAIL_RETRY_BACKOFF("mail.retry.backoff.long"),
+
+    /**
+     * {@code mail.send.timeout.long}
+     * Specifies the maximum time in milliseconds a synchronous send waits
+     * for the delivery result, including the time spent on retries
+     * <p>Default value: {@code 60000}</p>
+     */
+    MAIL_SEND_TIMEOUT("mail.send.timeout.long"),
+
     /**
      * {@code act.modules}
      *
@@ -573,6 +668,41 @@ public enum AppConfigKey implements ConfigKey {
      */
     SECRET("secret"),
 
+    /**
+     * {@code secret.retired}
+     * Specifies the retired secret keys separated by comma. Content signed
+     * or sealed with retired keys can still be verified or unsealed, while
+     * new content is always signed or sealed with the {@link #SECRET current key}.
+     * This allows the app to rotate the secret key without invalidating the
+     * sessions issued before
+     * <p>Default value: empty</p>
+     */
+    SECRET_RETIRED("secret.retired"),
+
+    /**
+     * {@code password.hash.cost}
+     * Specifies the bcrypt cost (log2 rounds) used to hash passwords, valid
+     * value is from 4 to 30. Passwords hashed with a lower cost will be
+     * rehashed on successful verification, see {@link act.app.util.PasswordHasher}
+     * <p>Default value: {@code 10}</p>
+     */
+    PASSWORD_HASH_COST("password.hash.cost"),
+
+    /**
+     * {@code password.hash.pool.size}
+     * Specifies the number of threads used to hash and verify passwords
+     * <p>Default value: the number of available processors</p>
+     */
+    PASSWORD_HASH_POOL_SIZE("password.hash.pool.size"),
+
+    /**
+     * {@code password.hash.queue.size}
+     * Specifies the maximum number of password hash/verify jobs waiting
+     * in the queue
+     * <p>Default value: {@code 256}</p>
+     */
+    PASSWORD_HASH_QUEUE_SIZE("password.hash.queue.size"),
+
     /**
      * {@code session.prefix} specifies the prefix to be prepended
      * to the session cookie name. Let's say the default cookie name is
@@ -668,6 +798,34 @@ public enum AppConfigKey implements ConfigKey {
      */
     TEMPLATE_HOME("template.home"),
 
+    /**
+     * {@code template.streaming.enabled} turn on/off streaming template
+     * rendering. When enabled the template output is written into the
+     * response directly instead of being rendered into a string first.
+     * <p>Note streaming rendering is always turned off in dev mode so
+     * that the error page can be displayed when rendering failed</p>
+     * <p>Default value: {@code false}</p>
+     */
+    TEMPLATE_STREAMING("template.streaming.enabled"),
+
+    /**
+     * {@code template.streaming.flush_threshold.size} specifies the number
+     * of characters buffered before the streaming template output is
+     * flushed into the response
+     * <p>Default value: {@code 8192}</p>
+     */
+    TEMPLATE_STREAMING_FLUSH_THRESHOLD("template.streaming.flush_threshold.size"),
+
+    /**
+     * {@code template.warm_up.enabled} turn on/off template warm up. When
+     * enabled, all templates found in the template home are compiled
+     * in parallel before the app started, so that the first requests
+     * does not need to wait for the templates to be compiled.
+     * <p>Note template warm up is always turned off in dev mode</p>
+     * <p>Default value: {@code true}</p>
+     */
+    TEMPLATE_WARM_UP("template.warm_up.enabled"),
+
     /**
      * {@code unknown_http_method_handler} specifies a class/instance that
      * implements {@link UnknownHttpMethodProcessor} that process
@@ -751,6 +909,93 @@ public enum AppConfigKey implements ConfigKey {
 
     X_FORWARD_PROTOCOL("x_forward_protocol"),
 
+    /**
+     * {@code act.xio.io_threads.size} specifies the number of IO threads of
+     * the network layer
+     * <p>Default value: the number of CPUs available to the process, which
+     * respects the CPU quota of the container, but not less than {@code 2}</p>
+     */
+    XIO_IO_THREADS("xio.io_threads.size"),
+
+    /**
+     * {@code act.xio.worker_threads.size} specifies the number of worker threads
+     * handling requests dispatched from IO threads
+     * <p>Default value: {@link #XIO_IO_THREADS} * 8</p>
+     */
+    XIO_WORKER_THREADS("xio.worker_threads.size"),
+
+    /**
+     * {@code act.xio.backlog.size} specifies the maximum length of the queue of
+     * incoming connections waiting to be accepted
+     * <p>Default value: {@code 1024}</p>
+     */
+    XIO_BACKLOG("xio.backlog.size"),
+
+    /**
+     * {@code act.xio.reuse_port.enabled} turn on/off the {@code SO_REUSEPORT} socket
+     * option on the server socket so that multiple processes could listen on the
+     * same port. It is only applied when the platform supports it
+     * <p>Default value: {@code false}</p>
+     */
+    XIO_REUSE_PORT("xio.reuse_port.enabled"),
+
+    /**
+     * {@code act.xio.buffer.size} specifies the size in bytes of the IO buffers
+     * <p>Default value: {@code 512} if max heap is less than 64MB, {@code 1024} if
+     * max heap is less than 128MB, otherwise {@code 16384}</p>
+     */
+    XIO_BUFFER_SIZE("xio.buffer.size"),
+
+    /**
+     * {@code act.xio.buffer.region.count} specifies the number of buffers allocated
+     * in one region of the buffer pool
+     * <p>Default value: {@code 10} if max heap is less than 128MB, otherwise {@code 20}</p>
+     */
+    XIO_BUFFER_REGION_COUNT("xio.buffer.region.count"),
+
+    /**
+     * {@code act.xio.buffer.direct.enabled} specifies whether IO buffers are allocated
+     * outside of the heap
+     * <p>Default value: {@code false} if max heap is less than 64MB, otherwise {@code true}</p>
+     */
+    XIO_BUFFER_DIRECT("xio.buffer.direct.enabled"),
+
+    /**
+     * {@code act.xio.http2.enabled} turn on/off HTTP/2 upgrade on the HTTP listener
+     * <p>Default value: {@code false}</p>
+     */
+    XIO_HTTP2("xio.http2.enabled"),
+
+    /**
+     * {@code act.xio.max_header.size} specifies the maximum size in bytes of the
+     * request headers
+     * <p>Default value: {@code 1048576}, i.e. 1MB</p>
+     */
+    XIO_MAX_HEADER_SIZE("xio.max_header.size"),
+
+    /**
+     * {@code act.xio.max_entity.long} specifies the maximum size in bytes of the
+     * request body. Requests with a larger body are rejected. The netty network
+     * caps the value at {@code Integer.MAX_VALUE} as it aggregates the body in
+     * a single buffer
+     * <p>Default value: {@code 104857600}, i.e. 100MB</p>
+     */
+    XIO_MAX_ENTITY_SIZE("xio.max_entity.long"),
+
+    /**
+     * {@code act.xio.idle_timeout.long} specifies the time in milliseconds a connection
+     * could be idle before it is closed. {@code 0} means no timeout
+     * <p>Default value: {@code 0}</p>
+     */
+    XIO_IDLE_TIMEOUT("xio.idle_timeout.long"),
+
+    /**
+     * {@code act.xio.request_parse_timeout.long} specifies the time in milliseconds
+     * allowed to receive and parse the request headers. {@code 0} means no timeout
+     * <p>Default value: {@code 0}</p>
+     */
+    XIO_REQUEST_PARSE_TIMEOUT("xio.request_parse_timeout.long"),
+
     ;
     private String key;
     private Object defVal;
@@ -8,4 +8,41 @@ import java.util.Set;
 public interface ActionMethodParamAnnotationHandler {
     Set<Class<? extends Annotation>> listenTo();
     void handle(String paramName, Object paramVal, Annotation annotation, ActionContext context);
+
+    /**
+     * Check a parameter value against the constraint of an annotation. The checker
+     * is created once for each action method parameter with everything that can be
+     * resolved from the annotation (e.g. the limit of {@code @Min}, the compiled
+     * regular expression of {@code @Pattern}) prepared up front
+     */
+    interface Checker {
+        void check(Object paramVal, ActionContext context);
+    }
+
+    class Util {
+
+        /**
+         * Create a {@link Checker} of the annotation on a parameter with the handler specified.
+         *
+         * If the handler is an {@link ActionMethodParamAnnotationHandlerPlugin}, then
+         * {@link ActionMethodParamAnnotationHandlerPlugin#compile(String, Annotation)} is
+         * called to create the checker, otherwise the checker delegate to
+         * {@link ActionMethodParamAnnotationHandler#handle(String, Object, Annotation, ActionContext)}
+         */
+        public static Checker compile(final ActionMethodParamAnnotationHandler handler, final String paramName, final Annotation annotation) {
+            if (handler instanceof ActionMethodParamAnnotationHandlerPlugin) {
+                return ((ActionMethodParamAnnotationHandlerPlugin) handler).compile(paramName, annotation);
+            }
+            return delegate(handler, paramName, annotation);
+        }
+
+        static Checker delegate(final ActionMethodParamAnnotationHandler handler, final String paramName, final Annotation annotation) {
+            return new Checker() {
+                @Override
+                public void check(Object paramVal, ActionContext context) {
+                    handler.handle(paramName, paramVal, annotation, context);
+                }
+            };
+        }
+    }
 }
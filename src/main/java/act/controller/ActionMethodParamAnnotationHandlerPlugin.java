@@ -3,9 +3,25 @@ package act.controller;
 import act.Act;
 import act.plugin.Plugin;
 
+import java.lang.annotation.Annotation;
+
 public abstract class ActionMethodParamAnnotationHandlerPlugin implements Plugin, ActionMethodParamAnnotationHandler {
     @Override
     public void register() {
         Act.pluginManager().register(ActionMethodParamAnnotationHandler.class, this);
     }
+
+    /**
+     * Create a {@link Checker} for the annotation on a parameter. Sub class shall
+     * override this method to resolve the constraint from the annotation up front.
+     * The default implementation delegate to
+     * {@link #handle(String, Object, Annotation, act.app.ActionContext)}
+     *
+     * @param paramName the parameter name
+     * @param annotation the annotation instance
+     * @return the checker of the parameter value
+     */
+    public Checker compile(String paramName, Annotation annotation) {
+        return Util.delegate(this, paramName, annotation);
+    }
 }
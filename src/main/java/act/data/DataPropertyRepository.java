@@ -2,6 +2,7 @@ package act.data;
 
 import act.app.App;
 import act.app.AppServiceBase;
+import act.data.util.PropertyAccessor;
 import act.util.ActContext;
 import act.util.PropertySpec;
 import org.joda.time.*;
@@ -12,6 +13,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Keep the property information of Data class
@@ -31,9 +34,14 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
     /**
      * Map a list of property path to class name
      */
-    private Map<String, List<String>> repo = C.newMap();
+    private ConcurrentMap<String, List<String>> repo = new ConcurrentHashMap<>();
 
-    private OutputFieldsCache outputFieldsCache = new OutputFieldsCache();
+    private OutputFieldsCache outputFieldsCache = new OutputFieldsCache(this);
+
+    /**
+     * Map property accessors to class
+     */
+    private ConcurrentMap<Class<?>, ConcurrentMap<String, PropertyAccessor>> accessors = new ConcurrentHashMap<>();
 
     public DataPropertyRepository(App app) {
         super(app, true);
@@ -45,22 +53,52 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
         extendedTerminators.clear();
         terminators.clear();
         repo.clear();
+        accessors.clear();
+        outputFieldsCache.clear();
     }
 
     /**
      * Returns the complete property list of a class
+     *
+     * Note the method is not synchronized. In case two threads build the
+     * property list of the same class at the same time, the first one
+     * put into the repository wins
+     *
      * @param c the class
      * @return the property list of the class
      */
-    public synchronized List<String> propertyListOf(Class<?> c) {
+    public List<String> propertyListOf(Class<?> c) {
         String cn = c.getName();
         List<String> ls = repo.get(cn);
         if (ls != null) {
             return ls;
         }
-        ls = buildPropertyList(c);
-        repo.put(cn, ls);
-        return ls;
+        ls = C.list(buildPropertyList(c));
+        List<String> existing = repo.putIfAbsent(cn, ls);
+        return null == existing ? ls : existing;
+    }
+
+    /**
+     * Returns the accessor of a property path on a class
+     * @param c the class
+     * @param path the property path, e.g. {@code contact.address.city}
+     * @return the property accessor
+     */
+    public PropertyAccessor accessor(Class<?> c, String path) {
+        ConcurrentMap<String, PropertyAccessor> map = accessors.get(c);
+        if (null == map) {
+            map = new ConcurrentHashMap<>();
+            ConcurrentMap<String, PropertyAccessor> existing = accessors.putIfAbsent(c, map);
+            if (null != existing) {
+                map = existing;
+            }
+        }
+        PropertyAccessor accessor = map.get(path);
+        if (null == accessor) {
+            accessor = PropertyAccessor.of(c, path);
+            map.putIfAbsent(path, accessor);
+        }
+        return accessor;
     }
 
     public List<String> outputFields(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
@@ -118,7 +156,7 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
             }
             return;
         }
-        if (terminators.contains(c) || extendedTerminators.contains(c.getName())) {
+        if (isTerminator(c)) {
             repo.add(context + propName);
             return;
         }
@@ -129,6 +167,16 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
         }
     }
 
+    /**
+     * Check if a class can NOT be decomposed in terms of get properties, e.g.
+     * primitive types, {@code String}, date types etc
+     * @param c the class
+     * @return {@code true} if the class is a terminator
+     */
+    public boolean isTerminator(Class<?> c) {
+        return terminators.contains(c) || extendedTerminators.contains(c.getName());
+    }
+
     private static String getPropName(String name) {
         return S.lowerFirst(name.substring(3));
     }
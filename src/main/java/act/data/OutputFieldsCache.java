@@ -1,6 +1,5 @@
 package act.data;
 
-import act.app.App;
 import act.data.util.StringOrPattern;
 import act.util.ActContext;
 import act.util.PropertySpec;
@@ -8,30 +7,34 @@ import org.osgl.$;
 import org.osgl.util.C;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 class OutputFieldsCache {
 
+    // the max number of entries kept in the cache
+    static final int MAX_SIZE = 1024;
+
     // Key to index final output fields. Key includes:
-    // 1. excluded - developer declared excluded field list
-    // 2. outputs - developer declared output field list
-    // 3. component type - the type of the entity where field data get extracted
-    private class K {
-        Set<String> excluded;
-        List<String> outputs;
-        Class<?> componentType;
-        K(Set<String> ss, List<String> ls, Class<?> componentType) {
-            excluded = ss;
-            outputs = ls;
+    // 1. spec id - the interned id of developer declared excluded and output field list
+    // 2. component type - the type of the entity where field data get extracted
+    private static class K {
+        final String specId;
+        final Class<?> componentType;
+        final int hc;
+        K(String specId, Class<?> componentType) {
+            this.specId = specId;
             this.componentType = componentType;
+            this.hc = 31 * specId.hashCode() + componentType.hashCode();
         }
 
         @Override
         public int hashCode() {
-            return $.hc(excluded, outputs, componentType);
+            return hc;
         }
 
         @Override
@@ -41,37 +44,66 @@ class OutputFieldsCache {
             }
             if (obj instanceof K) {
                 K that = (K) obj;
-                return $.eq(that.excluded, this.excluded)
-                        && $.eq(that.outputs, this.outputs)
-                        && $.eq(that.componentType, this.componentType);
+                // spec id is interned
+                return that.specId == this.specId && that.componentType == this.componentType;
             }
             return false;
         }
     }
 
-    private Map<K, List<String>> cache = C.newMap();
+    private final DataPropertyRepository repo;
+
+    private final ConcurrentMap<K, List<String>> cache = new ConcurrentHashMap<>();
+
+    OutputFieldsCache(DataPropertyRepository repo) {
+        this.repo = repo;
+    }
 
     public List<String> getOutputFields(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
-        K k = new K(spec.excludedFields(context), spec.outputFields(context), componentClass);
+        K k = new K(spec.id(context), componentClass);
         List<String> outputs = cache.get(k);
         if (null == outputs) {
-            outputs = calculateOutputs(k);
-            cache.put(k, outputs);
+            outputs = C.list(calculateOutputs(spec.excludedFields(context), spec.outputFields(context), componentClass));
+            List<String> existing = cache.putIfAbsent(k, outputs);
+            if (null != existing) {
+                return existing;
+            }
+            // trim after the entry is added so that concurrent additions
+            // cannot grow the cache beyond the bound
+            while (cache.size() > MAX_SIZE) {
+                evictOne();
+            }
         }
         return outputs;
     }
 
-    List<String> calculateOutputs(K k) {
-        Class<?> type = k.componentType;
-        if ($.isSimpleType(type) && k.excluded.isEmpty() && k.outputs.isEmpty()) {
+    void clear() {
+        cache.clear();
+    }
+
+    // for unit test
+    int size() {
+        return cache.size();
+    }
+
+    // specs created at runtime (see PropertySpec.current) might grow the
+    // cache without limit, thus we drop an arbitrary entry when the cache is full
+    private void evictOne() {
+        Iterator<K> itr = cache.keySet().iterator();
+        if (itr.hasNext()) {
+            itr.next();
+            itr.remove();
+        }
+    }
+
+    List<String> calculateOutputs(Set<String> excluded, List<String> declaredOutputs, Class<?> type) {
+        if ($.isSimpleType(type) && excluded.isEmpty() && declaredOutputs.isEmpty()) {
             return C.list();
         }
         C.List<StringOrPattern> outputs = C.newList();
-        boolean hasPattern = hasPattern(k.outputs, outputs);
-        Set<String> excluded = k.excluded;
+        boolean hasPattern = hasPattern(declaredOutputs, outputs);
         if (hasPattern || outputs.isEmpty()) {
-            DataPropertyRepository repo = App.instance().service(DataPropertyRepository.class);
-            List<String> allFields = repo.propertyListOf(k.componentType);
+            List<String> allFields = repo.propertyListOf(type);
             if (!excluded.isEmpty()) {
                 List<String> finalOutputs;
                 List<StringOrPattern> lsp = C.newList();
@@ -112,7 +144,7 @@ class OutputFieldsCache {
                 return finalOutputs;
             }
         } else {
-            return k.outputs;
+            return declaredOutputs;
         }
     }
 
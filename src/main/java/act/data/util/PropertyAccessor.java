@@ -0,0 +1,155 @@
+package act.data.util;
+
+import org.osgl.$;
+import org.osgl.util.E;
+import org.osgl.util.S;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+/**
+ * Read the value of a property path, e.g. {@code contact.address.city}, from
+ * objects of a certain type.
+ *
+ * The getter methods (or public fields) along the path are resolved once when
+ * the accessor is created, thus reading a property does not need to lookup
+ * the property by name again. In case a path cannot be resolved statically,
+ * e.g. it goes through a {@link Map} or a property declared as {@code Object},
+ * the accessor falls back to {@link $#getProperty(Object, String)}
+ */
+public abstract class PropertyAccessor {
+
+    /**
+     * Returns the property value of the object specified
+     *
+     * @param o the object
+     * @return the property value
+     */
+    public abstract Object get(Object o);
+
+    /**
+     * Accessor of the special property {@code this}, which returns the object itself
+     */
+    public static final PropertyAccessor THIS = new PropertyAccessor() {
+        @Override
+        public Object get(Object o) {
+            return o;
+        }
+    };
+
+    /**
+     * Create an accessor of a property path on a type
+     *
+     * @param type the type of the object on which the property value is read
+     * @param path the property path
+     * @return the accessor
+     */
+    public static PropertyAccessor of(Class<?> type, String path) {
+        if ("this".equals(path)) {
+            return THIS;
+        }
+        String[] sa = path.replace('/', '.').split("\\.");
+        Object[] members = new Object[sa.length];
+        Class<?> c = type;
+        for (int i = 0; i < sa.length; ++i) {
+            Object member = null == c || Map.class.isAssignableFrom(c) ? null : member(c, sa[i]);
+            if (null == member) {
+                return new Fallback(path);
+            }
+            members[i] = member;
+            c = member instanceof Method ? ((Method) member).getReturnType() : ((Field) member).getType();
+        }
+        return new Resolved(type, members, path);
+    }
+
+    private static Object member(Class<?> c, String name) {
+        String suffix = S.capFirst(name);
+        Method m = getter(c, "get" + suffix);
+        if (null == m) {
+            m = getter(c, "is" + suffix);
+        }
+        if (null != m) {
+            return m;
+        }
+        try {
+            Field f = c.getField(name);
+            return Modifier.isStatic(f.getModifiers()) ? null : f;
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    private static Method getter(Class<?> c, String name) {
+        try {
+            Method m = c.getMethod(name);
+            if (Modifier.isStatic(m.getModifiers()) || void.class == m.getReturnType()) {
+                return null;
+            }
+            if (!Modifier.isPublic(m.getDeclaringClass().getModifiers())) {
+                m.setAccessible(true);
+            }
+            return m;
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    private static class Resolved extends PropertyAccessor {
+        private final Class<?> type;
+        private final Object[] members;
+        private final Fallback fallback;
+
+        Resolved(Class<?> type, Object[] members, String path) {
+            this.type = type;
+            this.members = members;
+            this.fallback = new Fallback(path);
+        }
+
+        @Override
+        public Object get(Object o) {
+            if (null == o) {
+                return null;
+            }
+            if (!type.isInstance(o)) {
+                return fallback.get(o);
+            }
+            Object v = o;
+            try {
+                for (Object member : members) {
+                    if (member instanceof Method) {
+                        v = ((Method) member).invoke(v);
+                    } else {
+                        v = ((Field) member).get(v);
+                    }
+                    if (null == v) {
+                        return null;
+                    }
+                }
+                return v;
+            } catch (IllegalAccessException e) {
+                return fallback.get(o);
+            } catch (InvocationTargetException e) {
+                throw E.unexpected(e.getCause(), "error reading property %s", fallback.path);
+            }
+        }
+    }
+
+    private static class Fallback extends PropertyAccessor {
+        private final String path;
+
+        Fallback(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public Object get(Object o) {
+            return $.getProperty(o, path);
+        }
+    }
+
+}
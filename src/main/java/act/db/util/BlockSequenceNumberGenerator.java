@@ -0,0 +1,146 @@
+package act.db.util;
+
+import act.app.DbServiceManager;
+import act.conf.AppConfig;
+import org.osgl.util.E;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class of sequence number generators that reserve sequence numbers
+ * from a durable backend in blocks.
+ *
+ * For each sequence the generator reserves a block of
+ * `act.db.seq_gen.block.size` numbers by advancing the high water mark
+ * persisted in the backend, and then hands out the numbers in the block from
+ * memory with a single atomic increment. The backend is accessed only when
+ * the current block is used up, thus {@link #next(String)} costs nanoseconds
+ * in most cases.
+ *
+ * Durability semantics:
+ *
+ * - A block is handed out only after its high water mark has been persisted,
+ *   so a number will never be generated twice, even if the process crashed
+ * - Numbers of a sequence are strictly increasing, including across restarts
+ * - Numbers reserved but not handed out before shutdown or crash are lost,
+ *   i.e. there could be a gap of up to one block in the sequence after restart
+ * - Within one process numbers are unique, but they are not necessarily
+ *   handed out in the order of the calls made by different threads
+ *
+ * The backend must not be shared by multiple processes unless
+ * {@link #reserve(String, int)} is implemented atomically across processes
+ */
+public abstract class BlockSequenceNumberGenerator implements _SequenceNumberGenerator {
+
+    private final ConcurrentMap<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    private volatile int blockSize = 1000;
+
+    @Override
+    public long next(String name) {
+        Sequence seq = sequence(name);
+        for (;;) {
+            Block block = seq.block;
+            if (null != block) {
+                long n = block.cursor.getAndIncrement();
+                if (n < block.end) {
+                    return n;
+                }
+            }
+            seq.refill(block);
+        }
+    }
+
+    @Override
+    public long get(String name) {
+        Sequence seq = sequences.get(name);
+        Block block = null == seq ? null : seq.block;
+        if (null == block) {
+            return highWaterMark(name);
+        }
+        long n = block.cursor.get();
+        return n < block.end ? n : highWaterMark(name);
+    }
+
+    @Override
+    public void configure(AppConfig config, DbServiceManager dbManager) {
+        blockSize(config.seqGenBlockSize());
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    protected void blockSize(int size) {
+        E.illegalArgumentIf(size < 1, "sequence block size not valid: %s", size);
+        this.blockSize = size;
+    }
+
+    /**
+     * Advance the high water mark of a sequence by `size` and return the
+     * high water mark before advancing. The new high water mark must be
+     * persisted before this method returns.
+     *
+     * For a sequence that has never been reserved, the high water mark
+     * starts from `0`
+     *
+     * @param name the sequence name
+     * @param size the number of sequence numbers to reserve
+     * @return the first number of the reserved block
+     */
+    protected abstract long reserve(String name, int size);
+
+    /**
+     * Returns the persisted high water mark of a sequence, i.e. the first
+     * number of the next block to be reserved, or `0` if the sequence has
+     * never been reserved
+     *
+     * @param name the sequence name
+     * @return the high water mark of the sequence
+     */
+    protected abstract long highWaterMark(String name);
+
+    private Sequence sequence(String name) {
+        Sequence seq = sequences.get(name);
+        if (null == seq) {
+            Sequence seq0 = new Sequence(name);
+            seq = sequences.putIfAbsent(name, seq0);
+            if (null == seq) {
+                seq = seq0;
+            }
+        }
+        return seq;
+    }
+
+    private final class Sequence {
+        private final String name;
+        private volatile Block block;
+
+        Sequence(String name) {
+            this.name = name;
+        }
+
+        synchronized void refill(Block exhausted) {
+            if (exhausted != block) {
+                // another thread has refilled the block
+                return;
+            }
+            int size = blockSize;
+            long start = reserve(name, size);
+            block = new Block(start, start + size);
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong cursor;
+        private final long end;
+
+        Block(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+package act.db.util;
+
+import act.app.DbServiceManager;
+import act.conf.AppConfig;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * A {@link BlockSequenceNumberGenerator} that persists the high water marks
+ * of sequences in a local memory mapped file, specified by `act.db.seq_gen.file`.
+ *
+ * The file starts with a 64 bytes header followed by 64 bytes slots, one for
+ * each sequence:
+ *
+ * - bytes `0-7`: the high water mark
+ * - bytes `8-9`: the length of the sequence name in UTF-8, `0` means the slot is free
+ * - bytes `10-63`: the sequence name in UTF-8
+ *
+ * Each reservation updates the high water mark in place and then forces the
+ * change to the storage device before the block is handed out. As the high
+ * water mark is an aligned 8 bytes value it will not be torn by a crash.
+ *
+ * The file is locked exclusively while it is opened, thus it cannot be shared
+ * by multiple processes.
+ *
+ * To use this generator, set `act.db.seq_gen.impl` to
+ * `act.db.util.MappedFileSequenceNumberGenerator`
+ */
+public class MappedFileSequenceNumberGenerator extends BlockSequenceNumberGenerator {
+
+    private static final Logger logger = L.get(MappedFileSequenceNumberGenerator.class);
+
+    private static final int MAGIC = 0x41435453; // "ACTS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 64;
+    private static final int NAME_OFFSET = 10;
+    private static final int MAX_NAME_LEN = SLOT_SIZE - NAME_OFFSET;
+    private static final int INITIAL_SLOTS = 256;
+
+    private File file;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private FileLock lock;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private Map<String, Integer> slots = C.newMap();
+
+    public MappedFileSequenceNumberGenerator() {
+    }
+
+    public MappedFileSequenceNumberGenerator(File file) {
+        open(file);
+    }
+
+    @Override
+    public void configure(AppConfig config, DbServiceManager dbManager) {
+        super.configure(config, dbManager);
+        open(new File(config.seqGenFile()));
+        if (null != dbManager) {
+            dbManager.app().jobManager().beforeAppStop(new Runnable() {
+                @Override
+                public void run() {
+                    close();
+                }
+            });
+        }
+    }
+
+    /**
+     * Open the sequence file. Create the file if it does not exist
+     *
+     * @param file the sequence file
+     */
+    public synchronized void open(File file) {
+        close();
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (null == lock) {
+                throw E.unexpected("sequence file is locked by another process: %s", file.getAbsolutePath());
+            }
+            this.file = file;
+            boolean init = channel.size() < HEADER_SIZE;
+            map(init ? INITIAL_SLOTS : (int) ((channel.size() - HEADER_SIZE) / SLOT_SIZE));
+            if (init) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.force();
+            } else {
+                E.unexpectedIf(MAGIC != buffer.getInt(0), "invalid sequence file: %s", file.getAbsolutePath());
+                E.unexpectedIf(VERSION != buffer.getInt(4), "unsupported sequence file version: %s", buffer.getInt(4));
+                loadSlots();
+            }
+        } catch (IOException e) {
+            close();
+            throw E.ioException(e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Release the lock on the sequence file and close it
+     */
+    public synchronized void close() {
+        if (null != lock) {
+            try {
+                lock.release();
+            } catch (IOException e) {
+                logger.warn(e, "error releasing lock on sequence file %s", file);
+            }
+        }
+        IO.close(channel);
+        IO.close(raf);
+        lock = null;
+        channel = null;
+        raf = null;
+        buffer = null;
+        capacity = 0;
+        slots.clear();
+    }
+
+    @Override
+    protected synchronized long reserve(String name, int size) {
+        E.illegalStateIf(null == buffer, "sequence file not opened");
+        Integer slot = slots.get(name);
+        if (null == slot) {
+            slot = allocate(name);
+        }
+        int pos = offset(slot);
+        long mark = buffer.getLong(pos);
+        buffer.putLong(pos, mark + size);
+        buffer.force();
+        return mark;
+    }
+
+    @Override
+    protected synchronized long highWaterMark(String name) {
+        E.illegalStateIf(null == buffer, "sequence file not opened");
+        Integer slot = slots.get(name);
+        return null == slot ? 0 : buffer.getLong(offset(slot));
+    }
+
+    private int allocate(String name) {
+        byte[] ba = name.getBytes(StandardCharsets.UTF_8);
+        E.illegalArgumentIf(0 == ba.length || ba.length > MAX_NAME_LEN,
+                "sequence name length shall be between 1 and %s bytes in UTF-8: %s", MAX_NAME_LEN, name);
+        int slot = slots.size();
+        if (slot >= capacity) {
+            try {
+                map(capacity * 2);
+            } catch (IOException e) {
+                throw E.ioException(e);
+            }
+        }
+        int pos = offset(slot);
+        buffer.putLong(pos, 0L);
+        for (int i = 0; i < ba.length; ++i) {
+            buffer.put(pos + NAME_OFFSET + i, ba[i]);
+        }
+        // write the name length at last so that the slot is
+        // not visible in the file before it is fully written
+        buffer.putShort(pos + 8, (short) ba.length);
+        slots.put(name, slot);
+        return slot;
+    }
+
+    private void loadSlots() {
+        for (int slot = 0; slot < capacity; ++slot) {
+            int pos = offset(slot);
+            int len = buffer.getShort(pos + 8);
+            if (len <= 0 || len > MAX_NAME_LEN) {
+                break;
+            }
+            byte[] ba = new byte[len];
+            for (int i = 0; i < len; ++i) {
+                ba[i] = buffer.get(pos + NAME_OFFSET + i);
+            }
+            slots.put(new String(ba, StandardCharsets.UTF_8), slot);
+        }
+    }
+
+    private void map(int slots) throws IOException {
+        capacity = Math.max(slots, 1);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+}
@@ -36,13 +36,25 @@ public class SequenceNumberGenerator {
         public _SequenceNumberGenerator get() {
             if (generators.size() > 1) {
                 for (_SequenceNumberGenerator gen: generators) {
-                    if (!_SequenceNumberGenerator.InMemorySequenceNumberGenerator.class.isInstance(gen)) {
+                    if (!isBuiltIn(gen)) {
                         return gen;
                     }
                 }
             }
+            for (_SequenceNumberGenerator gen: generators) {
+                if (_SequenceNumberGenerator.InMemorySequenceNumberGenerator.class.isInstance(gen)) {
+                    return gen;
+                }
+            }
             return generators.get(0);
         }
+
+        // built-in generators other than the in memory one
+        // must be enabled explicitly with `act.db.seq_gen.impl`
+        private static boolean isBuiltIn(_SequenceNumberGenerator gen) {
+            return _SequenceNumberGenerator.InMemorySequenceNumberGenerator.class.isInstance(gen)
+                    || MappedFileSequenceNumberGenerator.class.isInstance(gen);
+        }
     }
 
     @SuppressWarnings("unused")
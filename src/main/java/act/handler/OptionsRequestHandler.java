@@ -17,8 +17,13 @@ public class OptionsRequestHandler extends FastRequestHandler {
         return this.corsSpec;
     }
 
+    /**
+     * Write the preflight response headers. The headers are prepared
+     * once in the {@link CORS.Plan} of the spec and reused for all
+     * OPTIONS requests to the same path
+     */
     @Override
     public void handle(ActionContext context) {
-        context.applyCorsSpec();
+        corsSpec.plan(context.config()).apply(context);
     }
 }
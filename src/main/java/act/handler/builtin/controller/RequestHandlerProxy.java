@@ -32,8 +32,11 @@ import org.osgl.util.S;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import java.util.Collection;
+import java.lang.reflect.Method;
 import java.util.Collections;
+import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -100,10 +103,12 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
 
     private boolean sessionFree;
 
-    final GroupInterceptorWithResult BEFORE_INTERCEPTOR = new GroupInterceptorWithResult(beforeInterceptors);
-    final GroupAfterInterceptor AFTER_INTERCEPTOR = new GroupAfterInterceptor(afterInterceptors);
-    final GroupFinallyInterceptor FINALLY_INTERCEPTOR = new GroupFinallyInterceptor(finallyInterceptors);
-    final GroupExceptionInterceptor EXCEPTION_INTERCEPTOR = new GroupExceptionInterceptor(exceptionInterceptors);
+    // bumped whenever a global or app level interceptor is registered or released
+    // so that the compiled interceptor chains get rebuilt
+    private static final AtomicInteger interceptorsVersion = new AtomicInteger();
+
+    // the global, app level and action level interceptors flattened into arrays
+    private volatile InterceptorChain chain;
 
     @Inject
     public RequestHandlerProxy(String actionMethodName, App app) {
@@ -129,6 +134,7 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
             actionHandler.destroy();
             actionHandler = null;
         }
+        chain = null;
         releaseGlobalResources();
     }
 
@@ -142,6 +148,7 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
     private static void _releaseResourceCollections(Collection<? extends Destroyable> col) {
         Destroyable.Util.destroyAll(col, null);
         col.clear();
+        interceptorsVersion.incrementAndGet();
     }
 
     public String controller() {
@@ -160,16 +167,16 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
                 onResult(result, context);
                 return;
             }
-            ensureAgentsReady();
+            InterceptorChain chain = chain();
             saveActionPath(context);
             context.startIntercepting();
-            result = handleBefore(context);
+            result = chain.handleBefore(context);
             if (null == result) {
                 context.startHandling();
                 result = _handle(context);
             }
             context.startIntercepting();
-            Result afterResult = handleAfter(result, context);
+            Result afterResult = chain.handleAfter(result, context);
             if (null != afterResult) {
                 result = afterResult;
             }
@@ -180,7 +187,7 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
         } catch (Exception e) {
             logger.error(e, "Error handling request");
             try {
-                result = handleException(e, context);
+                result = currentChain().handleException(e, context);
             } catch (Exception e0) {
                 logger.error(e0, "Error invoking exception handler");
             }
@@ -195,7 +202,7 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
             }
         } finally {
             try {
-                handleFinally(context);
+                currentChain().handleFinally(context);
             } catch (Exception e) {
                 logger.error(e, "Error invoking final handler");
             } finally {
@@ -379,17 +386,6 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
         return actionHandler.corsSpec();
     }
 
-    private Result handleBefore(ActionContext actionContext) throws Exception {
-        Result r = GLOBAL_BEFORE_INTERCEPTOR.apply(actionContext);
-        if (null == r) {
-            r = appInterceptor.handleBefore(actionContext);
-        }
-        if (null == r) {
-            r = BEFORE_INTERCEPTOR.apply(actionContext);
-        }
-        return r;
-    }
-
     private Result _handle(ActionContext actionContext) throws Exception {
         try {
             return actionHandler.handle(actionContext);
@@ -398,28 +394,157 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
         }
     }
 
-    private Result handleAfter(Result result, ActionContext actionContext) throws Exception {
-        result = AFTER_INTERCEPTOR.apply(result, actionContext);
-        result = appInterceptor.handleAfter(result, actionContext);
-        result = GLOBAL_AFTER_INTERCEPTOR.apply(result, actionContext);
-        return result;
-    }
+    private InterceptorChain chain() {
+        ensureAgentsReady();
+        InterceptorChain chain = this.chain;
+        if (null == chain || chain.outdated()) {
+            synchronized (this) {
+                chain = this.chain;
+                if (null == chain || chain.outdated()) {
+                    chain = compileChain();
+                    this.chain = chain;
+                }
+            }
+        }
+        return chain;
+    }
+
+    // returns the chain compiled. In case the action handler failed
+    // to generate, returns a chain of app and global interceptors
+    private InterceptorChain currentChain() {
+        InterceptorChain chain = this.chain;
+        if (null == chain) {
+            chain = new InterceptorChain(app.interceptorManager(),
+                    C.<BeforeInterceptor>list(), C.<AfterInterceptor>list(),
+                    C.<ExceptionInterceptor>list(), C.<FinallyInterceptor>list());
+        }
+        return chain;
+    }
+
+    private InterceptorChain compileChain() {
+        return new InterceptorChain(appInterceptor,
+                beforeInterceptors, afterInterceptors, exceptionInterceptors, finallyInterceptors);
+    }
+
+    /**
+     * Global, app level and action level interceptors flattened into arrays
+     * in the order they shall be called:
+     *
+     * * before: global, app, action
+     * * after: action, app, global
+     * * exception: action, app, global
+     * * finally: action, app, global
+     *
+     * After interceptors that does not overwrite {@link AfterInterceptor#handle(Result, ActionContext)}
+     * are left out, they are no-op as they always return the result passed in
+     */
+    static final class InterceptorChain {
+        final int version;
+        final BeforeInterceptor[] before;
+        final AfterInterceptor[] after;
+        final ExceptionInterceptor[] exception;
+        final FinallyInterceptor[] finallies;
+
+        InterceptorChain(AppInterceptorManager appInterceptor,
+                         List<BeforeInterceptor> localBefore, List<AfterInterceptor> localAfter,
+                         List<ExceptionInterceptor> localException, List<FinallyInterceptor> localFinally) {
+            // read the version before the interceptors so that a concurrent
+            // registration leads to another compilation instead of being missed
+            this.version = interceptorsVersion.get();
+            List<BeforeInterceptor> beforeList = C.newList();
+            addAll(beforeList, globalBeforeInterceptors);
+            addAll(beforeList, appInterceptor.beforeInterceptors());
+            addAll(beforeList, localBefore);
+            before = beforeList.toArray(new BeforeInterceptor[beforeList.size()]);
+
+            List<AfterInterceptor> afterList = C.newList();
+            addAll(afterList, localAfter);
+            addAll(afterList, appInterceptor.afterInterceptors());
+            addAll(afterList, globalAfterInterceptors);
+            after = afterList.toArray(new AfterInterceptor[afterList.size()]);
+
+            List<ExceptionInterceptor> exceptionList = C.newList();
+            addAll(exceptionList, localException);
+            addAll(exceptionList, appInterceptor.exceptionInterceptors());
+            addAll(exceptionList, globalExceptionInterceptors);
+            exception = exceptionList.toArray(new ExceptionInterceptor[exceptionList.size()]);
+
+            List<FinallyInterceptor> finallyList = C.newList();
+            addAll(finallyList, localFinally);
+            addAll(finallyList, appInterceptor.finallyInterceptors());
+            addAll(finallyList, globalFinallyInterceptors);
+            finallies = finallyList.toArray(new FinallyInterceptor[finallyList.size()]);
+        }
+
+        Result handleBefore(ActionContext actionContext) throws Exception {
+            BeforeInterceptor[] interceptors = before;
+            try {
+                for (int i = 0, j = interceptors.length; i < j; ++i) {
+                    Result r = interceptors[i].handle(actionContext);
+                    if (null != r) {
+                        return r;
+                    }
+                }
+                return null;
+            } catch (Result r) {
+                return r;
+            }
+        }
 
-    private void handleFinally(ActionContext actionContext) throws Exception {
-        FINALLY_INTERCEPTOR.apply(actionContext);
-        appInterceptor.handleFinally(actionContext);
-        GLOBAL_FINALLY_INTERCEPTOR.apply(actionContext);
-    }
+        Result handleAfter(Result result, ActionContext actionContext) throws Exception {
+            AfterInterceptor[] interceptors = after;
+            for (int i = 0, j = interceptors.length; i < j; ++i) {
+                result = interceptors[i].handle(result, actionContext);
+            }
+            return result;
+        }
 
-    private Result handleException(Exception ex, ActionContext actionContext) throws Exception {
-        Result r = EXCEPTION_INTERCEPTOR.apply(ex, actionContext);
-        if (null == r) {
-            r = appInterceptor.handleException(ex, actionContext);
+        void handleFinally(ActionContext actionContext) throws Exception {
+            FinallyInterceptor[] interceptors = finallies;
+            for (int i = 0, j = interceptors.length; i < j; ++i) {
+                interceptors[i].handle(actionContext);
+            }
         }
-        if (null == r) {
-            r = GLOBAL_EXCEPTION_INTERCEPTOR.apply(ex, actionContext);
+
+        Result handleException(Exception ex, ActionContext actionContext) throws Exception {
+            ExceptionInterceptor[] interceptors = exception;
+            try {
+                for (int i = 0, j = interceptors.length; i < j; ++i) {
+                    Result r = interceptors[i].handle(ex, actionContext);
+                    if (null != r) {
+                        return r;
+                    }
+                }
+                return null;
+            } catch (Result r) {
+                return r;
+            }
+        }
+
+        /**
+         * Returns `true` if a global or app level interceptor has been registered
+         * or released since the chain was compiled
+         */
+        boolean outdated() {
+            return version != interceptorsVersion.get();
+        }
+
+        private static <T extends Handler> void addAll(List<T> list, Collection<? extends T> interceptors) {
+            for (T interceptor : interceptors) {
+                if (!(interceptor instanceof AfterInterceptor && isNoop((AfterInterceptor) interceptor))) {
+                    list.add(interceptor);
+                }
+            }
+        }
+
+        private static boolean isNoop(AfterInterceptor interceptor) {
+            try {
+                Method m = interceptor.getClass().getMethod("handle", Result.class, ActionContext.class);
+                return AfterInterceptor.class == m.getDeclaringClass();
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
         }
-        return r;
     }
 
     @Override
@@ -463,6 +588,7 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
     }
 
     public static <T extends Handler> void insertInterceptor(C.List<T> list, T i) {
+        interceptorsVersion.incrementAndGet();
         int sz = list.size();
         if (0 == sz) {
             list.add(i);
@@ -0,0 +1,73 @@
+package act.handler.builtin.controller.impl;
+
+import act.app.AppClassLoader;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invoke a handler method directly.
+ *
+ * The implementation of the invoker is generated for each handler method
+ * by {@link MethodInvokerGenerator}. The generated code cast the parameters
+ * to the declared types (unbox primitive parameters) and then call the
+ * method with `invokevirtual` or `invokestatic` instruction, thus there is
+ * no reflection or index dispatching involved in the invocation.
+ *
+ * Unlike {@link Method#invoke(Object, Object...)} the exception raised by
+ * the handler method is thrown out directly without wrapping into
+ * {@link java.lang.reflect.InvocationTargetException}
+ */
+public abstract class MethodInvoker {
+
+    private static final Logger LOGGER = LogManager.get(MethodInvoker.class);
+
+    /**
+     * Invoke the handler method
+     *
+     * @param host the controller instance, or {@code null} if the method is static
+     * @param params the method parameters
+     * @return the value returned from the method, or {@code null} if method is {@code void}.
+     *         Primitive return value is boxed
+     * @throws Exception any exception raised by the handler method
+     */
+    public abstract Object invoke(Object host, Object[] params) throws Exception;
+
+    /**
+     * Create an invoker for the method specified.
+     *
+     * @param method the handler method
+     * @param classLoader the app class loader
+     * @return the invoker of the method or {@code null} if the invoker cannot
+     *         be generated for the method, in which case the caller shall
+     *         fall back to reflection
+     */
+    public static MethodInvoker of(Method method, AppClassLoader classLoader) {
+        int modifiers = method.getModifiers();
+        if (Modifier.isPrivate(modifiers)) {
+            // private method can't be called from the invoker class
+            return null;
+        }
+        Class<?> host = method.getDeclaringClass();
+        if (host.getClassLoader() != classLoader
+                && (!Modifier.isPublic(host.getModifiers()) || !Modifier.isPublic(modifiers))) {
+            // the invoker is defined by the app class loader, thus it is in a
+            // different runtime package and can only access public members of
+            // classes loaded by other class loaders. Note the access check is
+            // done when the method is called first time, which cannot be
+            // caught by the try block below
+            return null;
+        }
+        try {
+            return new MethodInvokerGenerator(method, classLoader).generate().newInstance();
+        } catch (Exception e) {
+            LOGGER.warn(e, "Cannot generate invoker for %s, fall back to reflection", method);
+            return null;
+        } catch (LinkageError e) {
+            LOGGER.warn(e, "Cannot generate invoker for %s, fall back to reflection", method);
+            return null;
+        }
+    }
+}
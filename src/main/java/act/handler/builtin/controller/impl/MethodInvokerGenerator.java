@@ -0,0 +1,124 @@
+package act.handler.builtin.controller.impl;
+
+import act.app.AppClassLoader;
+import act.asm.ClassWriter;
+import act.asm.MethodVisitor;
+import act.asm.Opcodes;
+import act.asm.Type;
+import org.osgl.$;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generate {@link MethodInvoker} implementation for a handler method
+ */
+class MethodInvokerGenerator implements Opcodes {
+
+    private static final String INVOKER_CLASS = Type.getInternalName(MethodInvoker.class);
+    private static final String INVOKE_DESC = "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+    private static final AtomicInteger seq = new AtomicInteger();
+
+    private Method method;
+    private AppClassLoader classLoader;
+    private String className;
+    private ClassWriter cw;
+
+    MethodInvokerGenerator(Method method, AppClassLoader classLoader) {
+        this.method = method;
+        this.classLoader = classLoader;
+        // put the invoker in the same package of the host class so that
+        // it can access package private controller classes
+        this.className = Type.getInternalName(method.getDeclaringClass())
+                + "$$ActInvoker$" + method.getName() + "$" + seq.incrementAndGet();
+        this.cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    }
+
+    Class<? extends MethodInvoker> generate() {
+        byte[] ba = generateByteCode();
+        return $.cast(classLoader.defineClass(className.replace('/', '.'), ba, 0, ba.length, true));
+    }
+
+    byte[] generateByteCode() {
+        cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER + ACC_SYNTHETIC, className, null, INVOKER_CLASS, null);
+        generateConstructor();
+        generateInvoke();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private void generateConstructor() {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, INVOKER_CLASS, "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateInvoke() {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "invoke", INVOKE_DESC, null, new String[]{"java/lang/Exception"});
+        mv.visitCode();
+        Class<?> host = method.getDeclaringClass();
+        String hostName = Type.getInternalName(host);
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (!isStatic) {
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, hostName);
+        }
+        Class<?>[] paramTypes = method.getParameterTypes();
+        for (int i = 0; i < paramTypes.length; ++i) {
+            mv.visitVarInsn(ALOAD, 2);
+            pushInt(mv, i);
+            mv.visitInsn(AALOAD);
+            unbox(mv, paramTypes[i]);
+        }
+        String desc = Type.getMethodDescriptor(method);
+        if (isStatic) {
+            mv.visitMethodInsn(INVOKESTATIC, hostName, method.getName(), desc, host.isInterface());
+        } else if (host.isInterface()) {
+            mv.visitMethodInsn(INVOKEINTERFACE, hostName, method.getName(), desc, true);
+        } else {
+            mv.visitMethodInsn(INVOKEVIRTUAL, hostName, method.getName(), desc, false);
+        }
+        box(mv, method.getReturnType());
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void pushInt(MethodVisitor mv, int i) {
+        if (i <= 5) {
+            mv.visitInsn(ICONST_0 + i);
+        } else if (i <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, i);
+        } else {
+            mv.visitIntInsn(SIPUSH, i);
+        }
+    }
+
+    private static void unbox(MethodVisitor mv, Class<?> type) {
+        if (!type.isPrimitive()) {
+            if (Object.class != type) {
+                mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+            }
+            return;
+        }
+        String wrapper = Type.getInternalName($.wrapperClassOf(type));
+        mv.visitTypeInsn(CHECKCAST, wrapper);
+        mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, type.getName() + "Value", "()" + Type.getDescriptor(type), false);
+    }
+
+    private static void box(MethodVisitor mv, Class<?> type) {
+        if (void.class == type) {
+            mv.visitInsn(ACONST_NULL);
+        } else if (type.isPrimitive()) {
+            String wrapper = Type.getInternalName($.wrapperClassOf(type));
+            String desc = "(" + Type.getDescriptor(type) + ")L" + wrapper + ";";
+            mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf", desc, false);
+        }
+    }
+}
@@ -34,8 +34,9 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implement handler using
@@ -49,9 +50,16 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
     private ControllerClassMetaInfo controller;
     private Class<?> controllerClass;
     private MethodAccess methodAccess;
+    // the generated invoker calling the handler method directly, see MethodInvoker
+    private MethodInvoker methodInvoker;
+    // the handler method declared to return Result, no need to infer the result
+    private boolean returnsResult;
     private M handler;
     private int handlerIndex;
-    private Map<H.Format, Boolean> templateCache = C.newMap();
+    // templates resolved for the action indexed by accept format
+    private ConcurrentMap<H.Format, $.Option<Template>> templateCache = new ConcurrentHashMap<>();
+    // the template version when the cache is populated, see ViewManager#templateVersion()
+    private volatile int templateCacheVersion;
     protected Method method; //
     private ParamValueLoaderService paramLoaderService;
     private JsonDTOClassManager jsonDTOClassManager;
@@ -82,7 +90,11 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
             throw E.unexpected(e);
         }
         this.isStatic = handlerMetaInfo.isStatic();
-        if (!this.isStatic) {
+        this.returnsResult = Result.class.isAssignableFrom(method.getReturnType());
+        this.methodInvoker = MethodInvoker.of(method, app.classLoader());
+        if (null != methodInvoker) {
+            // the generated invoker is used, no need to prepare for reflection
+        } else if (!this.isStatic) {
             //constructorAccess = ConstructorAccess.get(controllerClass);
             methodAccess = MethodAccess.get(controllerClass);
             handlerIndex = methodAccess.getIndex(handlerMetaInfo.name(), paramTypes);
@@ -115,6 +127,7 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         controllerClass = null;
         method = null;
         methodAccess = null;
+        methodInvoker = null;
         handler.destroy();
         handler = null;
         super.releaseResources();
@@ -135,8 +148,11 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
     }
 
     public Result handle(ActionContext actionContext) throws Exception {
-        actionContext.attribute("reflected_handler", this);
-        ensureJsonDTOGenerated(actionContext);
+        if (0 != fieldsAndParamsCount && actionContext.jsonEncoded()) {
+            // JsonParamValueLoader need this to lookup the JSON DTO
+            actionContext.attribute("reflected_handler", this);
+            ensureJsonDTOGenerated(actionContext);
+        }
         Object ctrl = controllerInstance(actionContext);
         Object[] params = params(actionContext);
         return invoke(handler, actionContext, ctrl, params);
@@ -293,7 +309,13 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
 
     private Result invoke(M handlerMetaInfo, ActionContext context, Object controller, Object[] params) throws Exception {
         Object result;
-        if (null != methodAccess) {
+        if (null != methodInvoker) {
+            try {
+                result = methodInvoker.invoke(controller, params);
+            } catch (Result r) {
+                return r;
+            }
+        } else if (null != methodAccess) {
             try {
                 result = methodAccess.invoke(controller, handlerIndex, params);
             } catch (Result r) {
@@ -319,6 +341,10 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
             // and the return type is **NOT** Result
             return ActNotFound.create(method);
         }
+        if (returnsResult && null != result && !(result instanceof RenderAny)) {
+            // no need to check template or infer the result
+            return (Result) result;
+        }
         boolean hasTemplate = checkTemplate(context);
         if (hasTemplate && result instanceof RenderAny) {
             result = RenderTemplate.INSTANCE;
@@ -326,23 +352,36 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         return Controller.Util.inferResult(handlerMetaInfo, result, context, hasTemplate);
     }
 
-    private synchronized boolean checkTemplate(ActionContext context) {
+    private boolean checkTemplate(ActionContext context) {
         if (!context.state().isHandling()) {
             // we don't check template on interceptors
             return false;
         }
         H.Format fmt = context.accept();
-        Boolean hasTemplate = templateCache.get(fmt);
-        if (null == hasTemplate || Act.isDev()) {
-            if (!TemplatePathResolver.isAcceptFormatSupported(fmt)) {
-                hasTemplate = false;
-            } else {
-                Template t = Act.viewManager().load(context);
-                hasTemplate = t != null;
-            }
-            templateCache.put(fmt, hasTemplate);
+        if (!TemplatePathResolver.isAcceptFormatSupported(fmt)) {
+            return false;
+        }
+        ViewManager vm = Act.viewManager();
+        if (context.hasTemplatePath()) {
+            // the template path is specified by app at runtime
+            return null != vm.load(context);
+        }
+        int version = vm.templateVersion();
+        if (version != templateCacheVersion) {
+            templateCache.clear();
+            templateCacheVersion = version;
+        }
+        $.Option<Template> cached = templateCache.get(fmt);
+        if (null == cached) {
+            Template t = vm.load(context);
+            templateCache.putIfAbsent(fmt, null == t ? $.<Template>none() : $.some(t));
+            return null != t;
+        }
+        if (cached.isDefined()) {
+            context.cacheTemplate(cached.get());
+            return true;
         }
-        return hasTemplate;
+        return false;
     }
 
     private Object[] params(ActionContext context) {
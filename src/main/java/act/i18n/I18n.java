@@ -1,17 +1,12 @@
 package act.i18n;
 
 import act.Act;
-import org.osgl.$;
-import org.osgl.logging.LogManager;
-import org.osgl.logging.Logger;
 import org.osgl.util.S;
 
 import java.util.*;
 
 public class I18n {
 
-    private static final Logger logger = LogManager.get(I18n.class);
-
     public static final String DEF_RESOURCE_BUNDLE_NAME = "messages";
 
     public static String i18n(String msgId, Object ... args) {
@@ -31,17 +26,7 @@ public class I18n {
     }
 
     public static String i18n(Locale locale, String bundleName, String msgId, Object... args) {
-        ResourceBundle bundle = ResourceBundle.getBundle(bundleName, $.notNull(locale));
-        String msg = msgId;
-        try {
-            msg = bundle.getString(msgId);
-        } catch (MissingResourceException e) {
-            logger.warn("Cannot find i18n message key: %s", msgId);
-        }
-        if (args.length > 0) {
-            msg = S.fmt(msg, args);
-        }
-        return msg;
+        return MessageCatalog.of(bundleName, locale).format(msgId, args);
     }
 
     public static String i18n(Enum<?> msgId) {
@@ -0,0 +1,219 @@
+package act.i18n;
+
+import org.osgl.$;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.S;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A message catalog contains all messages of a resource bundle for a locale.
+ *
+ * The resource bundle is loaded once when the catalog is created and all
+ * messages (including those inherited from the parent bundles) are copied
+ * into an immutable hash map, so looking up a message does not go through
+ * {@link ResourceBundle} again. Each message is compiled into a
+ * {@link Message} which format the arguments without parsing the message
+ * pattern again.
+ *
+ * Missing message keys are remembered so that the warning is logged only
+ * once for each key.
+ *
+ * Catalogs are cached by bundle name and locale. The cache is cleared by
+ * {@link #clear()} when a resource file is changed in dev mode
+ */
+public class MessageCatalog {
+
+    private static final Logger logger = LogManager.get(MessageCatalog.class);
+
+    private static final ConcurrentMap<String, MessageCatalog> catalogs = new ConcurrentHashMap<>();
+
+    private final String bundleName;
+    private final Locale locale;
+    private final Map<String, Message> messages;
+    private final Set<String> missing = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private MessageCatalog(String bundleName, Locale locale, ResourceBundle bundle) {
+        this.bundleName = bundleName;
+        this.locale = locale;
+        Map<String, Message> map = new HashMap<>();
+        for (String key : bundle.keySet()) {
+            Object o = bundle.getObject(key);
+            if (o instanceof String) {
+                map.put(key, Message.compile((String) o));
+            }
+        }
+        this.messages = Collections.unmodifiableMap(map);
+    }
+
+    public String bundleName() {
+        return bundleName;
+    }
+
+    public Locale locale() {
+        return locale;
+    }
+
+    /**
+     * Check if the catalog contains message for the key specified
+     *
+     * @param key the message key
+     * @return {@code true} if the message exists
+     */
+    public boolean hasMessage(String key) {
+        return messages.containsKey(key);
+    }
+
+    /**
+     * Returns the message of the key specified formatted with the arguments.
+     *
+     * If the message does not exist then the key is used as the message
+     * pattern. If no arguments supplied then the message is returned as it is
+     *
+     * @param key the message key
+     * @param args the format arguments
+     * @return the formatted message
+     */
+    public String format(String key, Object... args) {
+        Message msg = messages.get(key);
+        if (null == msg) {
+            if (missing.add(key)) {
+                logger.warn("Cannot find i18n message key: %s", key);
+            }
+            return args.length > 0 ? S.fmt(key, args) : key;
+        }
+        return msg.format(args);
+    }
+
+    /**
+     * Returns the catalog of the bundle and locale specified
+     *
+     * @param bundleName the resource bundle name
+     * @param locale the locale
+     * @return the message catalog
+     * @throws MissingResourceException if the bundle cannot be found
+     */
+    public static MessageCatalog of(String bundleName, Locale locale) {
+        $.notNull(locale);
+        String cacheKey = S.builder(bundleName).append('|').append(locale).toString();
+        MessageCatalog catalog = catalogs.get(cacheKey);
+        if (null == catalog) {
+            catalog = new MessageCatalog(bundleName, locale, ResourceBundle.getBundle(bundleName, locale));
+            MessageCatalog catalog0 = catalogs.putIfAbsent(cacheKey, catalog);
+            if (null != catalog0) {
+                catalog = catalog0;
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Clear all cached catalogs. Resource bundles will be reloaded on next lookup
+     */
+    public static void clear() {
+        catalogs.clear();
+        ResourceBundle.clearCache();
+    }
+
+    /**
+     * A compiled message pattern.
+     *
+     * Message patterns use the format of {@link S#fmt(String, Object...)}. Patterns
+     * without format specifiers or with only `%s` and `%%` specifiers are compiled into
+     * segments; other patterns are formatted with {@link S#fmt(String, Object...)}
+     */
+    abstract static class Message {
+
+        abstract String format(Object[] args);
+
+        static Message compile(String pattern) {
+            if (pattern.indexOf('%') < 0) {
+                return new Constant(pattern);
+            }
+            List<String> segments = C.newList();
+            StringBuilder sb = new StringBuilder();
+            int len = pattern.length();
+            for (int i = 0; i < len; ++i) {
+                char c = pattern.charAt(i);
+                if (c != '%') {
+                    sb.append(c);
+                    continue;
+                }
+                char next = i + 1 < len ? pattern.charAt(i + 1) : 0;
+                if ('%' == next) {
+                    sb.append('%');
+                } else if ('s' == next) {
+                    segments.add(sb.toString());
+                    sb.setLength(0);
+                } else {
+                    return new Formatted(pattern);
+                }
+                i++;
+            }
+            segments.add(sb.toString());
+            return new Segmented(pattern, segments.toArray(new String[segments.size()]));
+        }
+
+        private static class Constant extends Message {
+            private final String msg;
+
+            Constant(String msg) {
+                this.msg = msg;
+            }
+
+            @Override
+            String format(Object[] args) {
+                return msg;
+            }
+        }
+
+        private static class Formatted extends Message {
+            private final String pattern;
+
+            Formatted(String pattern) {
+                this.pattern = pattern;
+            }
+
+            @Override
+            String format(Object[] args) {
+                return args.length > 0 ? S.fmt(pattern, args) : pattern;
+            }
+        }
+
+        private static class Segmented extends Formatted {
+            // there is always one more segment than the number of `%s`
+            private final String[] segments;
+            private final int capacity;
+
+            Segmented(String pattern, String[] segments) {
+                super(pattern);
+                this.segments = segments;
+                int n = 0;
+                for (String s : segments) {
+                    n += s.length();
+                }
+                this.capacity = n + 16 * (segments.length - 1);
+            }
+
+            @Override
+            String format(Object[] args) {
+                int params = segments.length - 1;
+                if (0 == args.length || args.length < params) {
+                    // keep the same behavior with S.fmt for missing arguments
+                    return super.format(args);
+                }
+                StringBuilder sb = new StringBuilder(capacity);
+                sb.append(segments[0]);
+                for (int i = 0; i < params; ++i) {
+                    sb.append(args[i]).append(segments[i + 1]);
+                }
+                return sb.toString();
+            }
+        }
+    }
+
+}
@@ -16,6 +16,7 @@ import act.inject.genie.RequestScope;
 import act.inject.genie.SessionScope;
 import act.util.ActContext;
 import act.util.DestroyableBase;
+import act.validation.ValidationPlan;
 import org.osgl.$;
 import org.osgl.inject.BeanSpec;
 import org.osgl.inject.InjectException;
@@ -75,7 +76,6 @@ public abstract class ParamValueLoaderService extends DestroyableBase {
     ConcurrentMap<Class, Map<Field, ParamValueLoader>> fieldRegistry = new ConcurrentHashMap<Class, Map<Field, ParamValueLoader>>();
     ConcurrentMap<Class, ParamValueLoader> classRegistry = new ConcurrentHashMap<Class, ParamValueLoader>();
     private ConcurrentMap<$.T2<Type, Annotation[]>, ParamValueLoader> paramRegistry = new ConcurrentHashMap<$.T2<Type, Annotation[]>, ParamValueLoader>();
-    private ConcurrentMap<BeanSpec, Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler>> annoHandlers = new ConcurrentHashMap<BeanSpec, Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler>>();
     private Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> allAnnotationHandlers;
 
     public ParamValueLoaderService(App app) {
@@ -472,17 +472,13 @@ public abstract class ParamValueLoaderService extends DestroyableBase {
             boolean useJsonDecorator
     ) {
         final ParamValueLoader jsonDecorated = useJsonDecorator ? new JsonParamValueLoader(loader, spec, injector) : loader;
-        final Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> handlers = paramAnnoHandlers(spec);
-        final ParamValueLoader annoHandlerDecorated = new ParamValueLoader() {
+        final ValidationPlan validationPlan = ValidationPlan.of(spec.name(), spec.allAnnotations(), allAnnotationHandlers);
+        final ParamValueLoader annoHandlerDecorated = null == validationPlan ? jsonDecorated : new ParamValueLoader() {
             @Override
             public Object load(Object bean, ActContext<?> context, boolean noDefaultValue) {
                 Object object = jsonDecorated.load(bean, context, noDefaultValue);
-                if (!(context instanceof ActionContext) || null == handlers) {
-                    return object;
-                }
-                for (Map.Entry<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> entry : handlers.entrySet()) {
-                    Annotation ann = filter(annotations, entry.getKey());
-                    entry.getValue().handle(spec.name(), object, ann, (ActionContext) context);
+                if (context instanceof ActionContext) {
+                    validationPlan.validate(object, (ActionContext) context);
                 }
                 return object;
             }
@@ -490,23 +486,6 @@ public abstract class ParamValueLoaderService extends DestroyableBase {
         return new ScopedParamValueLoader(annoHandlerDecorated, spec, scopeCacheSupport(annotations));
     }
 
-    private Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> paramAnnoHandlers(BeanSpec spec) {
-        Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> handlers = annoHandlers.get(spec);
-        if (null != handlers) {
-            return handlers;
-        }
-        handlers = new HashMap<Class<? extends Annotation>, ActionMethodParamAnnotationHandler>();
-        for (Annotation annotation : spec.allAnnotations()) {
-            Class<? extends Annotation> c = annotation.annotationType();
-            ActionMethodParamAnnotationHandler h = allAnnotationHandlers.get(c);
-            if (null != h) {
-                handlers.put(c, h);
-            }
-        }
-        annoHandlers.putIfAbsent(spec, handlers);
-        return handlers;
-    }
-
     private static ScopeCacheSupport scopeCacheSupport(Annotation[] annotations) {
         if (null != filter(annotations, RequestScoped.class) ||
                 null != filter(annotations, org.osgl.inject.annotation.RequestScoped.class)) {
@@ -0,0 +1,428 @@
+package act.mail;
+
+import act.Act;
+import act.app.App;
+import act.app.AppServiceBase;
+import act.app.AppThreadFactory;
+import act.conf.AppConfig;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.Timer;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+
+import javax.mail.*;
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deliver emails asynchronously over pooled SMTP connections.
+ *
+ * Emails submitted are put into a queue with capacity of `mail.queue.size`.
+ * A fixed number (`mail.sender.pool.size`) of sender threads take emails
+ * from the queue in batches of up to `mail.batch.size` and send them over
+ * SMTP connections kept alive in a pool for each {@link MailerConfig}, so
+ * that the connection, TLS handshake and authentication are not repeated
+ * for every email.
+ *
+ * An email failed to be delivered is retried up to `mail.retry.times` times.
+ * The first retry is scheduled after `mail.retry.backoff.long` milliseconds,
+ * and the delay doubles on each subsequent retry. An email rejected by the
+ * SMTP server because of invalid addresses is not retried. Emails still in
+ * the queue or waiting for retry when the service is destroyed are failed.
+ *
+ * The following metrics are collected under `act:mail`:
+ * - `send`: the time spent on sending an email over the connection
+ * - `connect`: the time spent on opening a new SMTP connection
+ * - `queue`: the time an email waits in the queue
+ * - `retry`: the number of retries
+ * - `failed`: the number of emails failed to be delivered
+ * - `rejected`: the number of emails rejected because the queue is full
+ */
+public class MailDelivery extends AppServiceBase<MailDelivery> {
+
+    private static final Logger logger = LogManager.get(MailDelivery.class);
+
+    private final int senders;
+    private final int batchSize;
+    private final int retryTimes;
+    private final long retryBackoff;
+    private final BlockingQueue<Delivery> queue;
+    private final ConcurrentMap<MailerConfig, TransportPool> pools = new ConcurrentHashMap<>();
+    private final Metric metric;
+    private final AtomicBoolean started = new AtomicBoolean();
+    // deliveries waiting in the retry scheduler, they are failed on shutdown
+    private final Set<Delivery> retrying = Collections.newSetFromMap(new ConcurrentHashMap<Delivery, Boolean>());
+    private volatile boolean closed;
+    private volatile ExecutorService executor;
+    private volatile ScheduledExecutorService retryScheduler;
+
+    public MailDelivery(App app) {
+        this(app, Act.metricPlugin().metric(MetricInfo.MAILER));
+    }
+
+    MailDelivery(App app, Metric metric) {
+        super(app);
+        AppConfig config = app.config();
+        this.senders = config.mailSenderPoolSize();
+        this.batchSize = config.mailBatchSize();
+        this.retryTimes = config.mailRetryTimes();
+        this.retryBackoff = config.mailRetryBackoff();
+        this.queue = new ArrayBlockingQueue<>(config.mailQueueSize());
+        this.metric = metric;
+    }
+
+    @Override
+    protected void releaseResources() {
+        closed = true;
+        if (null != executor) {
+            executor.shutdownNow();
+            // the retry tasks returned are not run, fail the deliveries
+            // instead so that the threads waiting on them are released
+            retryScheduler.shutdownNow();
+        }
+        for (Delivery delivery : retrying) {
+            delivery.done(false);
+        }
+        retrying.clear();
+        List<Delivery> pending = C.newList();
+        queue.drainTo(pending);
+        for (Delivery delivery : pending) {
+            delivery.done(false);
+        }
+        for (TransportPool pool : pools.values()) {
+            pool.close();
+        }
+        pools.clear();
+    }
+
+    /**
+     * Submit an email for delivery
+     *
+     * @param config the mailer config
+     * @param message the email message
+     * @return the future of the delivery result
+     * @throws RejectedExecutionException if the queue is full or the delivery is shut down
+     */
+    public Future<Boolean> submit(MailerConfig config, MimeMessage message) {
+        if (closed) {
+            throw new RejectedExecutionException("mail delivery is shut down");
+        }
+        start();
+        Delivery delivery = new Delivery(config, message, metric.startTimer(MetricInfo.MAIL_QUEUE));
+        if (!queue.offer(delivery)) {
+            metric.countOnce(MetricInfo.MAIL_REJECTED);
+            throw new RejectedExecutionException("mail queue is full");
+        }
+        return delivery;
+    }
+
+    /**
+     * Returns the number of emails waiting in the queue
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of emails waiting to be retried
+     */
+    public int retryDepth() {
+        return retrying.size();
+    }
+
+    // start sender threads on first email
+    private void start() {
+        if (started.get() || !started.compareAndSet(false, true)) {
+            return;
+        }
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(new AppThreadFactory("mail-retry", true));
+        executor = Executors.newFixedThreadPool(senders, new AppThreadFactory("mail-sender", true));
+        for (int i = 0; i < senders; ++i) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            });
+        }
+    }
+
+    private void work() {
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                send(batch);
+            } catch (RuntimeException e) {
+                // failures are handled per email in send, keep the sender alive
+                logger.error(e, "Unexpected error sending emails");
+            }
+            batch.clear();
+        }
+    }
+
+    private void send(List<Delivery> batch) {
+        Map<MailerConfig, List<Delivery>> groups = C.newMap();
+        for (Delivery delivery : batch) {
+            delivery.queueTimer.stop();
+            List<Delivery> group = groups.get(delivery.config);
+            if (null == group) {
+                group = C.newList();
+                groups.put(delivery.config, group);
+            }
+            group.add(delivery);
+        }
+        for (Map.Entry<MailerConfig, List<Delivery>> entry : groups.entrySet()) {
+            List<Delivery> group = entry.getValue();
+            TransportPool pool;
+            try {
+                pool = pool(entry.getKey());
+            } catch (RuntimeException e) {
+                for (Delivery delivery : group) {
+                    retry(delivery, e);
+                }
+                continue;
+            }
+            send(pool, group);
+        }
+    }
+
+    /**
+     * Send a group of emails over one connection. Each email is either done
+     * or handed over to {@link #retry(Delivery, Exception)} exactly once
+     */
+    private void send(TransportPool pool, List<Delivery> group) {
+        Transport transport = null;
+        int size = group.size();
+        try {
+            for (int i = 0; i < size; ++i) {
+                Delivery delivery = group.get(i);
+                if (null == transport) {
+                    Timer timer = metric.startTimer(MetricInfo.MAIL_CONNECT);
+                    try {
+                        transport = pool.acquire();
+                    } catch (MessagingException | RuntimeException e) {
+                        // the server is not available, retry the whole group later
+                        for (int j = i; j < size; ++j) {
+                            retry(group.get(j), e);
+                        }
+                        return;
+                    } finally {
+                        timer.stop();
+                    }
+                }
+                MimeMessage message = delivery.message;
+                Timer timer = metric.startTimer(MetricInfo.MAIL_SEND);
+                try {
+                    transport.sendMessage(message, message.getAllRecipients());
+                    delivery.done(true);
+                } catch (SendFailedException e) {
+                    if (permanent(e)) {
+                        metric.countOnce(MetricInfo.MAIL_FAILED);
+                        logger.error(e, "Error sending email: %s", subject(message));
+                        delivery.done(false);
+                    } else {
+                        pool.discard(transport);
+                        transport = null;
+                        retry(delivery, e);
+                    }
+                } catch (MessagingException | RuntimeException e) {
+                    // the state of the connection is unknown, do not reuse it
+                    pool.discard(transport);
+                    transport = null;
+                    retry(delivery, e);
+                } finally {
+                    timer.stop();
+                }
+            }
+        } finally {
+            if (null != transport) {
+                pool.release(transport);
+            }
+        }
+    }
+
+    private void retry(final Delivery delivery, Exception cause) {
+        if (closed) {
+            delivery.done(false);
+            return;
+        }
+        if (delivery.attempts >= retryTimes) {
+            metric.countOnce(MetricInfo.MAIL_FAILED);
+            logger.error(cause, "Error sending email after %s retries: %s", delivery.attempts, subject(delivery.message));
+            delivery.done(false);
+            return;
+        }
+        long delay = retryBackoff << Math.min(delivery.attempts, 20);
+        delivery.attempts++;
+        metric.countOnce(MetricInfo.MAIL_RETRY);
+        logger.warn("Error sending email: %s, will retry in %sms", cause.getMessage(), delay);
+        retrying.add(delivery);
+        try {
+            retryScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!retrying.remove(delivery)) {
+                        // failed by shutdown
+                        return;
+                    }
+                    if (closed || !queue.offer(delivery)) {
+                        metric.countOnce(MetricInfo.MAIL_REJECTED);
+                        delivery.done(false);
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            retrying.remove(delivery);
+            delivery.done(false);
+        }
+    }
+
+    private TransportPool pool(MailerConfig config) {
+        TransportPool pool = pools.get(config);
+        if (null == pool) {
+            TransportPool pool0 = new TransportPool(config.session(), senders);
+            pool = pools.putIfAbsent(config, pool0);
+            if (null == pool) {
+                pool = pool0;
+            }
+        }
+        return pool;
+    }
+
+    // the email is rejected because of invalid addresses, retry will not help
+    private static boolean permanent(SendFailedException e) {
+        Address[] invalid = e.getInvalidAddresses();
+        Address[] validUnsent = e.getValidUnsentAddresses();
+        return null != invalid && invalid.length > 0 && (null == validUnsent || validUnsent.length == 0);
+    }
+
+    private static String subject(MimeMessage message) {
+        try {
+            return message.getSubject();
+        } catch (MessagingException e) {
+            return message.toString();
+        }
+    }
+
+    /**
+     * Keeps connected {@link Transport transports} of a mail session
+     */
+    private static class TransportPool {
+        private final Session session;
+        private final BlockingDeque<Transport> idle;
+
+        TransportPool(Session session, int maxIdle) {
+            this.session = session;
+            this.idle = new LinkedBlockingDeque<>(maxIdle);
+        }
+
+        Transport acquire() throws MessagingException {
+            Transport transport;
+            while (null != (transport = idle.pollFirst())) {
+                // SMTPTransport.isConnected() sends NOOP to check if the
+                // connection is still alive
+                if (transport.isConnected()) {
+                    return transport;
+                }
+                discard(transport);
+            }
+            transport = session.getTransport("smtp");
+            transport.connect();
+            return transport;
+        }
+
+        void release(Transport transport) {
+            if (!idle.offerFirst(transport)) {
+                discard(transport);
+            }
+        }
+
+        void discard(Transport transport) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.debug(e, "Error closing mail transport");
+            }
+        }
+
+        void close() {
+            Transport transport;
+            while (null != (transport = idle.pollFirst())) {
+                discard(transport);
+            }
+        }
+    }
+
+    /**
+     * An email to be delivered and the future of the delivery result
+     */
+    static class Delivery implements Future<Boolean> {
+        final MailerConfig config;
+        final MimeMessage message;
+        final Timer queueTimer;
+        int attempts;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile boolean result;
+
+        Delivery(MailerConfig config, MimeMessage message, Timer queueTimer) {
+            this.config = config;
+            this.message = message;
+            this.queueTimer = queueTimer;
+        }
+
+        void done(boolean result) {
+            this.result = result;
+            latch.countDown();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return 0 == latch.getCount();
+        }
+
+        @Override
+        public Boolean get() throws InterruptedException {
+            latch.await();
+            return result;
+        }
+
+        @Override
+        public Boolean get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+            if (!latch.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return result;
+        }
+
+        static Delivery of(boolean result) {
+            Delivery delivery = new Delivery(null, null, null);
+            delivery.done(result);
+            return delivery;
+        }
+    }
+}
@@ -10,7 +10,6 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.List;
-import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 
 /**
@@ -68,16 +67,11 @@ public @interface Mailer {
             return _ctx.get();
         }
 
-        public static Future<Boolean> doSendWithoutLoadThreadLocal(final MailerContext context) {
-            return context.app().jobManager().now(new Callable<Boolean>() {
-                @Override
-                public Boolean call() throws Exception {
-                    return context.send();
-                }
-            });
+        public static Future<Boolean> doSendWithoutLoadThreadLocal(MailerContext context) {
+            return context.sendAsync();
         }
 
-        public static Future<Boolean> doSend(final MailerContext context) {
+        public static Future<Boolean> doSend(MailerContext context) {
             SimpleContext ctx = _ctx.get();
             if (null != ctx) {
                 if (S.notBlank(ctx.from)) {
@@ -97,12 +91,7 @@ public @interface Mailer {
                 }
                 _ctx.remove();
             }
-            return context.app().jobManager().now(new Callable<Boolean>() {
-                @Override
-                public Boolean call() throws Exception {
-                    return context.send();
-                }
-            });
+            return context.sendAsync();
         }
 
         private static final ThreadLocal<SimpleContext> _ctx = new ThreadLocal<SimpleContext>() {
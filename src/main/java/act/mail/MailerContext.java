@@ -20,6 +20,9 @@ import javax.mail.*;
 import javax.mail.internet.*;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static act.app.App.logger;
 
@@ -249,21 +252,51 @@ public class MailerContext extends ActContext.Base<MailerContext> {
         return this;
     }
 
+    /**
+     * Send the email and wait for the delivery result.
+     *
+     * Note the calling thread is blocked until the email is delivered or all
+     * retries failed, which takes the sum of the retry delays at least, e.g.
+     * 1s + 2s + 4s with the default settings of `mail.retry.times` and
+     * `mail.retry.backoff.long`. The wait is bounded by `mail.send.timeout.long`,
+     * in which case `false` is returned while the email might still be
+     * delivered later. Use {@link #sendAsync()} to avoid blocking
+     *
+     * @return {@code true} if the email is delivered successfully
+     */
     public boolean send() {
+        try {
+            return sendAsync().get(app().config().mailSendTimeout(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Timeout waiting for email delivery: %s", this);
+            return false;
+        } catch (Exception e) {
+            logger.error(e, "Error sending email: %s", this);
+            return false;
+        }
+    }
+
+    /**
+     * Render the email on the current thread and submit it to the
+     * {@link MailDelivery mail delivery engine}
+     *
+     * @return the future of the delivery result
+     */
+    public Future<Boolean> sendAsync() {
         try {
             MimeMessage message = createMessage();
             if (!mailerConfig().mock()) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("Sending email\n%sEnd email\n", debug(message));
                 }
-                Transport.send(message);
+                return app().mailDelivery().submit(mailerConfig(), message);
             } else {
                 logger.info("Sending email\n%sEnd email\n", debug(message));
             }
-            return true;
+            return MailDelivery.Delivery.of(true);
         } catch (Exception e) {
             logger.error(e, "Error sending email: %s", this);
-            return false;
+            return MailDelivery.Delivery.of(false);
         }
     }
 
@@ -10,8 +10,23 @@ public class MetricInfo {
     public static final String JOB_HANDLER = "act:job";
     public static final String CLI_HANDLER = "act:cli";
     public static final String MAILER = "act:mail";
+    public static final String MAIL_QUEUE = "act:mail:queue";
+    public static final String MAIL_SEND = "act:mail:send";
+    public static final String MAIL_CONNECT = "act:mail:connect";
+    public static final String MAIL_RETRY = "act:mail:retry";
+    public static final String MAIL_FAILED = "act:mail:failed";
+    public static final String MAIL_REJECTED = "act:mail:rejected";
+    public static final String PASSWORD = "act:password";
+    public static final String PASSWORD_HASH = "act:password:hash";
+    public static final String PASSWORD_VERIFY = "act:password:verify";
+    public static final String PASSWORD_QUEUE = "act:password:queue";
+    public static final String PASSWORD_QUEUED = "act:password:queued";
+    public static final String PASSWORD_REJECTED = "act:password:rejected";
     public static final String EVENT_HANDLER = "act:event";
     public static final String ROUTING = "act:routing";
+    public static final String XIO = "act:xio";
+    public static final String XIO_BUFFER_REGION = "act:xio:buffer:region";
+    public static final String XIO_WORKER_SATURATED = "act:xio:worker:saturated";
     public static final String PATH_SEPARATOR = Metric.PATH_SEPARATOR;
 
     private String name;
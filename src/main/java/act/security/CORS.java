@@ -2,6 +2,7 @@ package act.security;
 
 import act.Act;
 import act.app.ActionContext;
+import act.conf.AppConfig;
 import org.osgl.$;
 import org.osgl.Osgl;
 import org.osgl.http.H;
@@ -14,6 +15,7 @@ import java.lang.annotation.*;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.List;
 
 import static org.osgl.http.H.Header.Names.*;
 
@@ -139,6 +141,7 @@ public class CORS {
         private String allowHeaders;
         private int maxAge = -1;
         private boolean effective = false;
+        private volatile Plan plan;
 
         private Spec(Collection<H.Method> methodSet) {
             E.illegalArgumentIf(methodSet.isEmpty());
@@ -202,32 +205,57 @@ public class CORS {
         }
 
         public void applyTo(ActionContext context) throws Osgl.Break {
-            if (!effective) {
+            if (!effective()) {
                 return;
             }
-            if (disableCORS) {
-                context.disableCORS();
+            plan(context.config()).applySpec(context);
+        }
+
+        /**
+         * Returns the {@link Plan} of this spec combined with the global CORS
+         * setting of the app config specified. The plan is created once and
+         * cached in this spec
+         *
+         * @param config the app config
+         * @return the CORS header plan
+         */
+        public Plan plan(AppConfig config) {
+            Plan plan = this.plan;
+            if (null == plan || plan.config != config) {
+                plan = new Plan(this, config);
+                this.plan = plan;
+            }
+            return plan;
+        }
+
+        /**
+         * Collect the header name/value pairs of this spec
+         *
+         * @param headers the headers added to all responses
+         * @param preflightHeaders the headers added to OPTIONS responses
+         */
+        protected void collect(List<String> headers, List<String> preflightHeaders) {
+            if (!effective() || disableCORS) {
                 return;
             }
-            H.Response r = context.resp();
             if (null != origin) {
-                r.addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+                add(headers, ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+                add(preflightHeaders, ACCESS_CONTROL_ALLOW_ORIGIN, origin);
             }
-            if (context.isOptionsMethod()) {
-                if (null != methods) {
-                    r.addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_METHODS, methods);
-                }
-                if (null != exposeHeaders) {
-                    r.addHeaderIfNotAdded(ACCESS_CONTROL_EXPOSE_HEADERS, exposeHeaders);
-                }
-                if (null != allowHeaders) {
-                    r.addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_HEADERS, allowHeaders);
-                }
-                if (-1 < maxAge) {
-                    r.addHeaderIfNotAdded(ACCESS_CONTROL_MAX_AGE, S.string(maxAge));
-                }
+            if (null != methods) {
+                add(preflightHeaders, ACCESS_CONTROL_ALLOW_METHODS, methods);
+            }
+            if (null != exposeHeaders) {
+                add(preflightHeaders, ACCESS_CONTROL_EXPOSE_HEADERS, exposeHeaders);
+            }
+            if (null != allowHeaders) {
+                add(preflightHeaders, ACCESS_CONTROL_ALLOW_HEADERS, allowHeaders);
+            }
+            if (-1 < maxAge) {
+                add(preflightHeaders, ACCESS_CONTROL_MAX_AGE, S.string(maxAge));
             }
         }
+
         public Spec chain(final Spec next) {
             if (!next.effective()) {
                 return this;
@@ -249,13 +277,115 @@ public class CORS {
                 }
 
                 @Override
-                public void applyTo(ActionContext context) throws Osgl.Break {
-                    me.visit(context);
-                    next.visit(context);
+                protected void collect(List<String> headers, List<String> preflightHeaders) {
+                    me.collect(headers, preflightHeaders);
+                    next.collect(headers, preflightHeaders);
                 }
-
             };
         }
     }
 
+    /**
+     * The CORS headers to be added to the response of a route, combined from the
+     * {@link Spec} of the route and the global CORS setting.
+     *
+     * Header values are formatted when the plan is created, applying the plan to
+     * a response only adds the prepared headers. Like the per request logic it
+     * replaces, a header is not added if the response already has it, and a header
+     * set by the route spec takes precedence over the global setting
+     */
+    public static final class Plan {
+
+        private static final String[] NONE = new String[0];
+
+        private final AppConfig config;
+        private final boolean disabled;
+        // header name/value pairs
+        private final String[] headers;
+        private final String[] preflightHeaders;
+        private final String[] globalHeaders;
+        private final String[] globalPreflightHeaders;
+
+        private Plan(Spec spec, AppConfig config) {
+            this.config = config;
+            this.disabled = spec.effective() && spec.disabled();
+            List<String> headers = C.newList();
+            List<String> preflightHeaders = C.newList();
+            spec.collect(headers, preflightHeaders);
+            this.headers = dedup(headers, NONE);
+            this.preflightHeaders = dedup(preflightHeaders, NONE);
+            if (!config.corsEnabled()) {
+                this.globalHeaders = NONE;
+                this.globalPreflightHeaders = NONE;
+                return;
+            }
+            List<String> global = C.newList();
+            add(global, ACCESS_CONTROL_ALLOW_ORIGIN, config.corsAllowOrigin());
+            List<String> globalPreflight = C.newList();
+            globalPreflight.addAll(global);
+            add(globalPreflight, ACCESS_CONTROL_ALLOW_HEADERS, config.corsAllowHeaders());
+            add(globalPreflight, ACCESS_CONTROL_EXPOSE_HEADERS, config.corsExposeHeaders());
+            add(globalPreflight, ACCESS_CONTROL_MAX_AGE, S.string(config.corsMaxAge()));
+            this.globalPreflightHeaders = dedup(globalPreflight, this.preflightHeaders);
+            this.globalHeaders = config.corsOptionCheck() ? dedup(global, this.headers) : dedup(globalPreflight, this.headers);
+        }
+
+        /**
+         * Apply the CORS headers of the route and the global setting to the response
+         *
+         * @param context the action context
+         */
+        public void apply(ActionContext context) {
+            if (disabled) {
+                context.disableCORS();
+                return;
+            }
+            boolean preflight = context.isOptionsMethod();
+            H.Response r = context.resp();
+            add(r, preflight ? preflightHeaders : headers);
+            if (!context.corsDisabled()) {
+                add(r, preflight ? globalPreflightHeaders : globalHeaders);
+            }
+        }
+
+        void applySpec(ActionContext context) {
+            if (disabled) {
+                context.disableCORS();
+                return;
+            }
+            add(context.resp(), context.isOptionsMethod() ? preflightHeaders : headers);
+        }
+
+        private static void add(H.Response r, String[] headers) {
+            for (int i = 0, len = headers.length; i < len; i += 2) {
+                r.addHeaderIfNotAdded(headers[i], headers[i + 1]);
+            }
+        }
+
+        // remove the headers that has been added before or in the exclusion list
+        private static String[] dedup(List<String> headers, String[] excludes) {
+            List<String> names = C.newList();
+            for (int i = 0; i < excludes.length; i += 2) {
+                names.add(excludes[i]);
+            }
+            List<String> result = C.newList();
+            for (int i = 0, len = headers.size(); i < len; i += 2) {
+                String name = headers.get(i);
+                if (!names.contains(name)) {
+                    names.add(name);
+                    result.add(name);
+                    result.add(headers.get(i + 1));
+                }
+            }
+            return result.toArray(new String[result.size()]);
+        }
+    }
+
+    private static void add(List<String> headers, String name, String value) {
+        if (null != value) {
+            headers.add(name);
+            headers.add(value);
+        }
+    }
+
 }
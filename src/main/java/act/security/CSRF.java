@@ -105,6 +105,7 @@ public class CSRF {
         private String headerName;
         private String cookieName;
         private String cookieDomain;
+        private boolean cookieSecure;
         private CSRFProtector csrfProtector;
 
         private Spec() {this(null);}
@@ -121,6 +122,7 @@ public class CSRF {
             this.headerName = config.csrfHeaderName();
             this.cookieName = config.csrfCookieName();
             this.cookieDomain = config.cookieDomain();
+            this.cookieSecure = config.sessionSecure();
             this.csrfProtector = config.csrfProtector();
         }
 
@@ -187,7 +189,7 @@ public class CSRF {
                 csrfProtector.clearExistingToken(session, cookieName);
                 token = app.encrypt(csrfProtector.generateToken(session, app));
                 H.Cookie cookie = new H.Cookie(cookieName, token);
-                cookie.secure(context.config().sessionSecure());
+                cookie.secure(cookieSecure);
                 cookie.domain(cookieDomain);
                 cookie.path("/");
                 context.resp().addCookie(cookie);
@@ -7,6 +7,7 @@ import org.rythmengine.utils.S;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.annotation.*;
@@ -153,4 +154,82 @@ public final class Env {
         }
     }
 
+    /**
+     * Provides the number of processors available to this process.
+     *
+     * `Runtime.availableProcessors()` reports the number of host CPUs on JVMs
+     * that are not container aware. This class checks the CPU quota of the
+     * cgroup (v2 `cpu.max` or v1 `cpu.cfs_quota_us`) and returns the smaller
+     * number
+     */
+    public static class CPU {
+
+        private static int count = getCount();
+
+        private static int getCount() {
+            int cpus = Runtime.getRuntime().availableProcessors();
+            int quota = cgroupV2Quota();
+            if (quota < 1) {
+                quota = cgroupV1Quota();
+            }
+            return quota < 1 ? cpus : Math.min(cpus, quota);
+        }
+
+        // the content of cpu.max is "$MAX $PERIOD", where $MAX could be "max"
+        private static int cgroupV2Quota() {
+            String s = readLine("/sys/fs/cgroup/cpu.max");
+            if (null == s) {
+                return -1;
+            }
+            String[] sa = s.trim().split("\\s+");
+            if (sa.length != 2 || "max".equals(sa[0])) {
+                return -1;
+            }
+            return quota(sa[0], sa[1]);
+        }
+
+        private static int cgroupV1Quota() {
+            String quota = readLine("/sys/fs/cgroup/cpu/cpu.cfs_quota_us");
+            String period = readLine("/sys/fs/cgroup/cpu/cpu.cfs_period_us");
+            if (null == quota || null == period) {
+                return -1;
+            }
+            return quota(quota.trim(), period.trim());
+        }
+
+        private static int quota(String quota, String period) {
+            try {
+                long q = Long.parseLong(quota);
+                long p = Long.parseLong(period);
+                if (q <= 0 || p <= 0) {
+                    return -1;
+                }
+                return (int) Math.max(1, (q + p - 1) / p);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private static String readLine(String path) {
+            File file = new File(path);
+            if (!file.canRead()) {
+                return null;
+            }
+            try {
+                BufferedReader rd = new BufferedReader(new FileReader(file));
+                try {
+                    return rd.readLine();
+                } finally {
+                    rd.close();
+                }
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        public static int count() {
+            return count;
+        }
+    }
+
 }
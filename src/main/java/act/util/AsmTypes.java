@@ -47,6 +47,7 @@ public enum AsmTypes implements Opcodes {
     public static AsmType<JsonView> JSON_VIEW = new AsmType<JsonView>(JsonView.class);
     public static AsmType<TreeView> TREE_VIEW = new AsmType<TreeView>(TreeView.class);
     public static AsmType<CsvView> CSV_VIEW = new AsmType<CsvView>(CsvView.class);
+    public static AsmType<XmlView> XML_VIEW = new AsmType<XmlView>(XmlView.class);
 
     public static AsmType<SubClassFinder> SUB_CLASS_FINDER = new AsmType<SubClassFinder>(SubClassFinder.class);
     public static AsmType<AnnotatedClassFinder> ANN_CLASS_FINDER = new AsmType<AnnotatedClassFinder>(AnnotatedClassFinder.class);
@@ -41,7 +41,7 @@ public class ClassInfoRepository extends DestroyableBase {
 
     public ClassNode node(String name, String canonicalName) {
         String cname = canonicalName(name);
-        ClassNode node = classes.get(name);
+        ClassNode node = classes.get(cname);
         if (null == node) {
             ClassNode newNode = new ClassNode(name.replace('/', '.'), canonicalName, this);
             node = classes.putIfAbsent(cname, newNode);
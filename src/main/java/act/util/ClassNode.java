@@ -5,19 +5,22 @@ import org.osgl.util.C;
 import org.osgl.util.E;
 
 import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ClassNode extends DestroyableBase {
 
     private transient ClassInfoRepository infoBase;
     private String name;
     private String canonicalName;
-    private int modifiers;
-    private ClassNode parent;
-    private transient Set<ClassNode> children = C.newSet();
-    Set<ClassNode> interfaces = C.newSet();
-    Set<ClassNode> annotations = C.newSet();
-    Set<ClassNode> annotated = C.newSet();
+    private volatile int modifiers;
+    private volatile ClassNode parent;
+    // class nodes might be built up by multiple class loading threads
+    private transient Set<ClassNode> children = newSet();
+    Set<ClassNode> interfaces = newSet();
+    Set<ClassNode> annotations = newSet();
+    Set<ClassNode> annotated = newSet();
 
     ClassNode(String name, int modifiers, ClassInfoRepository infoBase) {
         this(name, name.replace('$', '.'), modifiers, infoBase);
@@ -360,4 +363,9 @@ public class ClassNode extends DestroyableBase {
         children.add(node);
         return this;
     }
+
+    private static Set<ClassNode> newSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<ClassNode, Boolean>());
+    }
+
 }
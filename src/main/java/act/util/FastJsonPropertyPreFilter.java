@@ -8,6 +8,7 @@ import org.osgl.util.FastStr;
 import org.osgl.util.S;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -167,7 +168,8 @@ public class FastJsonPropertyPreFilter implements PropertyPreFilter {
         return S.join("", paths).contains("*");
     }
 
-    private static Map<Collection<String>, List<StringOrPattern>> spCache = C.newMap();
+    // filters are shared by concurrent requests, see PropertySpecJsonSerializer
+    private static Map<Collection<String>, List<StringOrPattern>> spCache = new ConcurrentHashMap<>();
 
     private boolean patternMatches(Set<String> paths, String path, boolean exclude) {
         List<StringOrPattern> spList = spList(paths);
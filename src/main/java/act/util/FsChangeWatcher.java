@@ -0,0 +1,162 @@
+package act.util;
+
+import act.app.AppThreadFactory;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * {@code FsChangeWatcher} watches a set of folders (and all their sub folders)
+ * via {@link WatchService} on a background thread, and maintains a volatile dirty
+ * flag that tells if anything has been changed since last {@link #reset()}.
+ *
+ * Bursts of events (e.g. IDE saving multiple files) are debounced: the dirty flag
+ * is raised only after no more events come in for {@link #DEBOUNCE_MILLIS}.
+ *
+ * The watcher does not tell what has been changed. It is used to guard the
+ * {@link FsChangeDetector}s so that the expensive directory walk happens only
+ * when something did change
+ */
+public class FsChangeWatcher extends DestroyableBase implements Runnable {
+
+    protected static Logger logger = L.get(FsChangeWatcher.class);
+
+    public static final long DEBOUNCE_MILLIS = 100;
+
+    private final WatchService watchService;
+    private final Thread thread;
+    private List<File> pending = C.newList();
+    private volatile boolean dirty;
+    private volatile boolean broken;
+
+    private FsChangeWatcher(WatchService watchService) {
+        this.watchService = watchService;
+        this.thread = new AppThreadFactory("fs-watcher", true).newThread(this);
+    }
+
+    /**
+     * Register a folder and all its sub folders to be watched. Must be called
+     * before {@link #start()}
+     *
+     * @param dir the folder to be watched
+     */
+    public void watch(File dir) {
+        if (null != dir && dir.isDirectory()) {
+            pending.add(dir);
+        }
+    }
+
+    public void start() {
+        for (File dir : pending) {
+            register(dir.toPath());
+        }
+        pending = null;
+        // cover the changes happened before the folders get registered
+        dirty = true;
+        thread.start();
+    }
+
+    /**
+     * Check if any change has been captured since last call to {@link #reset()}
+     */
+    public boolean isDirty() {
+        return dirty || broken;
+    }
+
+    /**
+     * Clear the dirty flag. This shall be called before the change detecting
+     * walk-through so that changes happened during the walk-through will not
+     * be lost
+     */
+    public void reset() {
+        dirty = false;
+    }
+
+    @Override
+    public void run() {
+        while (!isDestroyed()) {
+            try {
+                WatchKey key = watchService.take();
+                process(key);
+                // debounce: drain events until the file system is quiet
+                while (null != (key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS))) {
+                    process(key);
+                }
+                dirty = true;
+            } catch (InterruptedException e) {
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected void releaseResources() {
+        thread.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn(e, "error closing watch service");
+        }
+    }
+
+    private void process(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == ENTRY_CREATE) {
+                Path path = dir.resolve((Path) event.context());
+                if (java.nio.file.Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    register(path);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private void register(Path root) {
+        try {
+            java.nio.file.Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (dir.getFileName().toString().startsWith(".")) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn(e, "error registering watch on %s", root);
+            // we can't trust the watcher any more
+            broken = true;
+        }
+    }
+
+    /**
+     * Create a watcher on the default file system.
+     *
+     * @return the watcher or {@code null} if watch service is not available
+     *         on the platform
+     */
+    public static FsChangeWatcher create() {
+        try {
+            return new FsChangeWatcher(FileSystems.getDefault().newWatchService());
+        } catch (IOException e) {
+            logger.warn(e, "watch service not available, fall back to directory walk through");
+            return null;
+        } catch (UnsupportedOperationException e) {
+            logger.warn("watch service not available, fall back to directory walk through");
+            return null;
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package act.util;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.osgl.$;
 import org.osgl.util.E;
 import org.osgl.util.IO;
 import org.osgl.util.S;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Generate unique ID in a cluster
@@ -109,16 +113,70 @@ public class IdGenerator {
     public interface SequenceProvider {
         long seqId();
 
-        class AtomicLongSeq implements SequenceProvider {
+        class AtomicLongSeq implements BatchSequenceProvider {
             private final AtomicLong seq = new AtomicLong(0);
 
             @Override
             public long seqId() {
                 return (seq.incrementAndGet());
             }
+
+            @Override
+            public long seqIds(int n) {
+                return seq.addAndGet(n) - n + 1;
+            }
+        }
+
+        /**
+         * A sequence provider that spread the sequence generation on several
+         * stripes so that threads generating IDs at high rate do not contend
+         * on a single atomic counter. Stripe `i` of `N` stripes generates sequence
+         * `i + N`, `i + 2N`, ..., thus the IDs are unique but not in order
+         */
+        class StripedSeq implements SequenceProvider {
+            // the counters are placed 8 longs (64 bytes) away from each other
+            // to avoid false sharing
+            private static final int PADDING = 8;
+            private final int stripes;
+            private final int mask;
+            private final AtomicLongArray counters;
+
+            public StripedSeq() {
+                this(Runtime.getRuntime().availableProcessors() * 2);
+            }
+
+            public StripedSeq(int stripes) {
+                E.illegalArgumentIf(stripes < 1, "stripes shall be positive: %s", stripes);
+                int n = Integer.highestOneBit(stripes);
+                if (n < stripes) {
+                    n <<= 1;
+                }
+                this.stripes = n;
+                this.mask = n - 1;
+                this.counters = new AtomicLongArray(n * PADDING);
+            }
+
+            @Override
+            public long seqId() {
+                int stripe = (int) Thread.currentThread().getId() & mask;
+                return counters.incrementAndGet(stripe * PADDING) * stripes + stripe;
+            }
         }
     }
 
+    /**
+     * A {@link SequenceProvider} that can allocate a block of consecutive
+     * sequence IDs at once
+     */
+    public interface BatchSequenceProvider extends SequenceProvider {
+        /**
+         * Allocate `n` consecutive sequence IDs
+         * @param n the number of IDs to be allocated
+         * @return the first sequence ID of the block
+         */
+        long seqIds(int n);
+    }
+
     public interface NodeIdProvider {
         long nodeId();
 
@@ -179,19 +237,37 @@ public class IdGenerator {
 
         abstract class LongEncoderBase implements LongEncoder {
 
+            /**
+             * The maximum number of chars of an encoded long value
+             */
+            public static final int MAX_LEN = 65;
+
             private final char[] digits;
             private final int MAX_RADIX;
             public LongEncoderBase(char[] digits) {
                 this.digits = digits;
                 this.MAX_RADIX = digits.length;
             }
+            public String longToStr(long l) {
+                char[] buf = new char[MAX_LEN];
+                int charPos = encode(l, buf, MAX_LEN);
+                return new String(buf, charPos, (MAX_LEN - charPos));
+            }
+
             /**
+             * Encode a long value into the char buffer backward, the last
+             * char is put at `end - 1`.
+             *
              * Code copied from JDK Long.toString(long, String)
+             *
+             * @param l the long value
+             * @param buf the buffer, at least {@link #MAX_LEN} chars shall be available before `end`
+             * @param end the position after the last char
+             * @return the position of the first char
              */
-            public String longToStr(long l) {
+            public int encode(long l, char[] buf, int end) {
                 int radix = MAX_RADIX;
-                char[] buf = new char[65];
-                int charPos = 64;
+                int charPos = end - 1;
                 boolean negative = (l < 0);
 
                 if (!negative) {
@@ -208,7 +284,7 @@ public class IdGenerator {
                     buf[--charPos] = '-';
                 }
 
-                return new String(buf, charPos, (65 - charPos));
+                return charPos;
             }
         }
     }
@@ -269,11 +345,32 @@ public class IdGenerator {
     public static final LongEncoder SAFE_ENCODER = new SafeLongEncoder();
     public static final LongEncoder UNSAFE_ENCODER = new UnsafeLongEncoder();
 
+    /**
+     * The origin (2016-05-10T00:00Z) of the timestamp part of the binary IDs.
+     * It is fixed in UTC so that IDs generated on nodes in different time zones
+     * stay comparable
+     */
+    public static final long EPOCH = new DateTime(2016, 5, 10, 0, 0, DateTimeZone.UTC).getMillis();
+
+    // layout of the binary ID: 41 bits timestamp | 10 bits node | 12 bits sequence
+    private static final int NODE_BITS = 10;
+    private static final int SEQ_BITS = 12;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+    private static final long SEQ_MASK = (1L << SEQ_BITS) - 1;
+
     private final NodeIdProvider nodeIdProvider;
     private final StartIdProvider startIdProvider;
     private final SequenceProvider sequenceProvider;
     private LongEncoder longEncoder;
 
+    // the encoded node ID and start ID, which never change
+    private char[] prefix;
+    private String prefixStr;
+    // the buffer to encode IDs, only used when the encoder is a LongEncoderBase
+    private ThreadLocal<char[]> buffer;
+    // the timestamp and sequence of the last binary ID generated
+    private final AtomicLong binaryState = new AtomicLong();
+
     /**
      * Create a default IdGenerator with following configuration:
      * <ul>
@@ -314,6 +411,7 @@ public class IdGenerator {
         this.startIdProvider = $.notNull(startIdProvider);
         this.sequenceProvider = $.notNull(sequenceProvider);
         this.longEncoder = $.notNull(longEncoder);
+        init();
     }
 
     /**
@@ -329,6 +427,7 @@ public class IdGenerator {
         this.startIdProvider = new StartIdProvider.DefaultStartIdProvider();
         this.sequenceProvider = new SequenceProvider.AtomicLongSeq();
         this.longEncoder = SAFE_ENCODER;
+        init();
     }
 
     /**
@@ -344,6 +443,7 @@ public class IdGenerator {
         this.startIdProvider = new StartIdProvider.DefaultStartIdProvider(startIdFile);
         this.sequenceProvider = new SequenceProvider.AtomicLongSeq();
         this.longEncoder = SAFE_ENCODER;
+        init();
     }
 
     /**
@@ -359,6 +459,22 @@ public class IdGenerator {
         this.startIdProvider = new StartIdProvider.DefaultStartIdProvider(startIdFile);
         this.sequenceProvider = new SequenceProvider.AtomicLongSeq();
         this.longEncoder = SAFE_ENCODER;
+        init();
+    }
+
+    private void init() {
+        prefixStr = S.builder(longEncoder.longToStr(nodeIdProvider.nodeId()))
+                .append(longEncoder.longToStr(startIdProvider.startId())).toString();
+        prefix = prefixStr.toCharArray();
+        if (longEncoder instanceof LongEncoder.LongEncoderBase) {
+            final int len = prefix.length + LongEncoder.LongEncoderBase.MAX_LEN;
+            buffer = new ThreadLocal<char[]>() {
+                @Override
+                protected char[] initialValue() {
+                    return new char[len];
+                }
+            };
+        }
     }
 
     /**
@@ -366,11 +482,88 @@ public class IdGenerator {
      * @return
      */
     public String genId() {
-        StringBuilder sb = S.builder();
-        sb.append(longEncoder.longToStr(nodeIdProvider.nodeId()))
-                .append(longEncoder.longToStr(startIdProvider.startId()))
-                .append(longEncoder.longToStr(sequenceProvider.seqId()));
-        return sb.toString();
+        return genId(sequenceProvider.seqId());
+    }
+
+    /**
+     * Generate `n` unique IDs across the cluster. If the sequence provider
+     * is a {@link BatchSequenceProvider}, the sequence IDs are allocated
+     * in one call
+     *
+     * @param n the number of IDs to be generated
+     * @return a list of `n` IDs
+     */
+    public List<String> genIds(int n) {
+        E.illegalArgumentIf(n < 0, "n shall not be negative: %s", n);
+        List<String> ids = new ArrayList<String>(n);
+        if (0 == n) {
+            return ids;
+        }
+        if (sequenceProvider instanceof BatchSequenceProvider) {
+            long seq = ((BatchSequenceProvider) sequenceProvider).seqIds(n);
+            for (int i = 0; i < n; ++i) {
+                ids.add(genId(seq + i));
+            }
+        } else {
+            for (int i = 0; i < n; ++i) {
+                ids.add(genId(sequenceProvider.seqId()));
+            }
+        }
+        return ids;
+    }
+
+    private String genId(long seq) {
+        if (null == buffer) {
+            return prefixStr.concat(longEncoder.longToStr(seq));
+        }
+        char[] buf = buffer.get();
+        int start = ((LongEncoder.LongEncoderBase) longEncoder).encode(seq, buf, buf.length) - prefix.length;
+        System.arraycopy(prefix, 0, buf, start, prefix.length);
+        return new String(buf, start, buf.length - start);
+    }
+
+    /**
+     * Generate a unique ID in `long` type. The ID is time ordered and thus
+     * suitable to be used as database primary key. The layout of the ID is:
+     *
+     * * 41 bits: milliseconds since {@link #EPOCH}
+     * * 10 bits: lower 10 bits of the node ID
+     * * 12 bits: sequence within the millisecond
+     *
+     * When more than 4096 IDs are generated within one millisecond on a node,
+     * the timestamp part moves ahead of the clock so the IDs remain unique and
+     * ordered on the node. Note the IDs are unique across the cluster only if
+     * the lower 10 bits of the node IDs are unique
+     *
+     * @return a unique ID
+     */
+    public long genLongId() {
+        long now = $.ms() - EPOCH;
+        for (;;) {
+            long prev = binaryState.get();
+            long next = (prev >>> SEQ_BITS) < now ? now << SEQ_BITS : prev + 1;
+            if (binaryState.compareAndSet(prev, next)) {
+                return ((next >>> SEQ_BITS) << (NODE_BITS + SEQ_BITS))
+                        | ((nodeIdProvider.nodeId() & NODE_MASK) << SEQ_BITS)
+                        | (next & SEQ_MASK);
+            }
+        }
+    }
+
+    /**
+     * Generate a unique ID as 8 bytes in big endian order of {@link #genLongId()},
+     * thus the byte array IDs are time ordered when compared byte by byte
+     *
+     * @return a unique ID in byte array
+     */
+    public byte[] genBinaryId() {
+        long l = genLongId();
+        byte[] ba = new byte[8];
+        for (int i = 7; i >= 0; --i) {
+            ba[i] = (byte) (l & 0xFF);
+            l >>>= 8;
+        }
+        return ba;
     }
 
 }
@@ -0,0 +1,482 @@
+package act.util;
+
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A read only index of a jar file.
+ *
+ * The jar file is memory mapped once and its central directory is parsed
+ * into a compact table. Stored entries are copied straight out of the mapped
+ * buffer, deflated entries are inflated directly into an array of the
+ * exact entry size.
+ *
+ * Indexes are shared by all class loaders via {@link #of(File)}. An index is
+ * rebuilt when the jar file has been changed since it was indexed.
+ *
+ * In case the jar file cannot be mapped or parsed (e.g. zip64 or encrypted
+ * entries), the index fall back to {@link ZipFile}
+ *
+ * Reading a mapped file that is overwritten in place crashes the JVM with
+ * SIGBUS. To narrow the window, the mapping is released by {@link #close()}
+ * (called for all indexes by {@link #clear()} when the app is destroyed) and
+ * when the jar file is found changed. A closed index maps the jar file again
+ * on next read, thus it is safe to keep a reference to it.
+ */
+public class JarIndex {
+
+    private static final Logger logger = L.get(JarIndex.class);
+
+    private static final Map<String, JarIndex> registry = new ConcurrentHashMap<>();
+
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int LOC_HEADER_SIZE = 30;
+    private static final int CEN_HEADER_SIZE = 46;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final ThreadLocal<Inflater> inflater = new ThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater(true);
+        }
+    };
+
+    private static final ThreadLocal<byte[]> inputBuffer = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[8192];
+        }
+    };
+
+    private final File file;
+    private volatile long lastModified;
+    private volatile long length;
+
+    // the compact central directory table
+    private String[] names;
+    private int[] offsets;
+    private int[] compressedSizes;
+    private int[] sizes;
+    private boolean[] deflated;
+    private volatile Map<String, Integer> lookup;
+
+    private MappedByteBuffer buffer;
+    // fallback when the jar file cannot be mapped
+    private ZipFile zipFile;
+
+    // reads hold the read lock so that the mapping is not released under them
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    private JarIndex(File file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    private void open() throws IOException {
+        this.lastModified = file.lastModified();
+        this.length = file.length();
+        this.lookup = null;
+        try {
+            map();
+        } catch (IOException e) {
+            logger.debug(e, "cannot map jar file %s, fall back to zip file", file);
+            unmap();
+            fallback();
+        } catch (UnsupportedOperationException e) {
+            logger.debug("cannot map jar file %s: %s, fall back to zip file", file, e.getMessage());
+            unmap();
+            fallback();
+        }
+        closed = false;
+    }
+
+    /**
+     * Release the mapping or the zip file of the jar file. The jar file will
+     * be opened again if an entry is read after the index is closed
+     */
+    public void close() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            doClose();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void doClose() {
+        closed = true;
+        unmap();
+        if (null != zipFile) {
+            IO.close(zipFile);
+            zipFile = null;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed || isStale()) {
+            reopen();
+        }
+    }
+
+    // opens the jar file again if it has been closed or changed, must be
+    // called without holding the read lock
+    private void reopen() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            if (!closed && !isStale()) {
+                return;
+            }
+            doClose();
+            open();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public File file() {
+        return file;
+    }
+
+    /**
+     * Returns number of entries (including directory entries) in the jar file
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the entry at index {@code i}
+     */
+    public String name(int i) {
+        return names[i];
+    }
+
+    public boolean isDirectory(int i) {
+        return names[i].endsWith("/");
+    }
+
+    /**
+     * Returns index of the entry by name or {@code -1} if not found
+     */
+    public int indexOf(String name) {
+        Map<String, Integer> map = lookup;
+        if (null == map) {
+            map = C.newMap();
+            for (int i = 0, j = names.length; i < j; ++i) {
+                map.put(names[i], i);
+            }
+            lookup = map;
+        }
+        Integer I = map.get(name);
+        return null == I ? -1 : I;
+    }
+
+    /**
+     * Returns content of an entry as a read only buffer. The content is
+     * copied out of the mapped jar file as the mapping could be released
+     * by {@link #close()}
+     */
+    public ByteBuffer buffer(int i) {
+        return ByteBuffer.wrap(bytes(i)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns content of an entry
+     */
+    public byte[] bytes(int i) {
+        Lock readLock = lock.readLock();
+        while (true) {
+            ensureOpen();
+            readLock.lock();
+            try {
+                if (!closed) {
+                    return null == buffer ? zipBytes(i) : mappedBytes(i);
+                }
+            } finally {
+                readLock.unlock();
+            }
+        }
+    }
+
+    private byte[] mappedBytes(int i) {
+        ByteBuffer data = data(i);
+        byte[] ba = new byte[sizes[i]];
+        if (!deflated[i]) {
+            data.get(ba);
+            return ba;
+        }
+        int csize = compressedSizes[i];
+        byte[] in = inputBuffer.get();
+        if (in.length < csize) {
+            in = new byte[csize];
+            inputBuffer.set(in);
+        }
+        data.get(in, 0, csize);
+        Inflater inf = inflater.get();
+        inf.reset();
+        inf.setInput(in, 0, csize);
+        try {
+            int n = 0;
+            while (n < ba.length && !inf.finished()) {
+                int len = inf.inflate(ba, n, ba.length - n);
+                if (0 == len && (inf.needsInput() || inf.needsDictionary())) {
+                    break;
+                }
+                n += len;
+            }
+            if (n != ba.length) {
+                throw E.unexpected("error reading entry %s from %s", names[i], file);
+            }
+        } catch (DataFormatException e) {
+            throw E.unexpected("error reading entry %s from %s", names[i], file);
+        }
+        return ba;
+    }
+
+    public byte[] bytes(String name) {
+        // the entry table is rebuilt if the jar file has been changed
+        ensureOpen();
+        int i = indexOf(name);
+        return -1 == i ? null : bytes(i);
+    }
+
+    /**
+     * Returns bytecode of a class
+     *
+     * @param className the class name, e.g. {@code com.abc.Foo$Bar}
+     * @return the bytecode or {@code null} if the class cannot be found in the jar file
+     */
+    public byte[] classBytes(String className) {
+        return bytes(className.replace('.', '/').concat(".class"));
+    }
+
+    public InputStream inputStream(int i) {
+        return new ByteArrayInputStream(bytes(i));
+    }
+
+    private ByteBuffer data(int i) {
+        ByteBuffer buf = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int loc = offsets[i];
+        if (buf.getInt(loc) != LOC_SIG) {
+            throw E.unexpected("error reading entry %s from %s", names[i], file);
+        }
+        int start = loc + LOC_HEADER_SIZE + (buf.getShort(loc + 26) & 0xFFFF) + (buf.getShort(loc + 28) & 0xFFFF);
+        int len = deflated[i] ? compressedSizes[i] : sizes[i];
+        buf.limit(start + len).position(start);
+        return buf.slice().asReadOnlyBuffer();
+    }
+
+    private void map() throws IOException {
+        buffer = null;
+        if (length > Integer.MAX_VALUE) {
+            throw new UnsupportedOperationException("jar file too large");
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } finally {
+            IO.close(raf);
+        }
+        ByteBuffer buf = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int end = findEndOfCentralDirectory(buf);
+        int total = buf.getShort(end + 10) & 0xFFFF;
+        long cenOffset = buf.getInt(end + 16) & 0xFFFFFFFFL;
+        if (total == 0xFFFF || cenOffset == 0xFFFFFFFFL) {
+            throw new UnsupportedOperationException("zip64 not supported");
+        }
+        names = new String[total];
+        offsets = new int[total];
+        compressedSizes = new int[total];
+        sizes = new int[total];
+        deflated = new boolean[total];
+        int pos = (int) cenOffset;
+        byte[] nameBuf = new byte[256];
+        for (int i = 0; i < total; ++i) {
+            if (buf.getInt(pos) != CEN_SIG) {
+                throw new IOException("invalid central directory header");
+            }
+            int flag = buf.getShort(pos + 8) & 0xFFFF;
+            if ((flag & 1) != 0) {
+                throw new UnsupportedOperationException("encrypted entry not supported");
+            }
+            int method = buf.getShort(pos + 10) & 0xFFFF;
+            if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED) {
+                throw new UnsupportedOperationException("compression method not supported: " + method);
+            }
+            long csize = buf.getInt(pos + 20) & 0xFFFFFFFFL;
+            long size = buf.getInt(pos + 24) & 0xFFFFFFFFL;
+            long offset = buf.getInt(pos + 42) & 0xFFFFFFFFL;
+            if (csize >= Integer.MAX_VALUE || size >= Integer.MAX_VALUE || offset >= Integer.MAX_VALUE) {
+                throw new UnsupportedOperationException("zip64 not supported");
+            }
+            int nameLen = buf.getShort(pos + 28) & 0xFFFF;
+            int extraLen = buf.getShort(pos + 30) & 0xFFFF;
+            int commentLen = buf.getShort(pos + 32) & 0xFFFF;
+            if (nameBuf.length < nameLen) {
+                nameBuf = new byte[nameLen];
+            }
+            buf.position(pos + CEN_HEADER_SIZE);
+            buf.get(nameBuf, 0, nameLen);
+            names[i] = new String(nameBuf, 0, nameLen, StandardCharsets.UTF_8);
+            offsets[i] = (int) offset;
+            compressedSizes[i] = (int) csize;
+            sizes[i] = (int) size;
+            deflated[i] = method == ZipEntry.DEFLATED;
+            pos += CEN_HEADER_SIZE + nameLen + extraLen + commentLen;
+        }
+    }
+
+    private int findEndOfCentralDirectory(ByteBuffer buf) throws IOException {
+        int limit = buf.limit();
+        int min = Math.max(0, limit - END_HEADER_SIZE - MAX_COMMENT_SIZE);
+        for (int pos = limit - END_HEADER_SIZE; pos >= min; --pos) {
+            if (buf.getInt(pos) == END_SIG) {
+                return pos;
+            }
+        }
+        throw new IOException("end of central directory not found");
+    }
+
+    private void fallback() throws IOException {
+        buffer = null;
+        zipFile = new ZipFile(file);
+        List<String> list = C.newList();
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            list.add(entries.nextElement().getName());
+        }
+        names = list.toArray(new String[list.size()]);
+    }
+
+    private byte[] zipBytes(int i) {
+        ZipEntry entry = zipFile.getEntry(names[i]);
+        InputStream is = null;
+        try {
+            is = zipFile.getInputStream(entry);
+            long size = entry.getSize();
+            if (size < 0) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                IO.copy(is, baos);
+                return baos.toByteArray();
+            }
+            byte[] ba = new byte[(int) size];
+            new DataInputStream(is).readFully(ba);
+            return ba;
+        } catch (IOException e) {
+            throw E.ioException(e);
+        } finally {
+            IO.close(is);
+        }
+    }
+
+    private boolean isStale() {
+        return file.lastModified() != lastModified || file.length() != length;
+    }
+
+    private void unmap() {
+        MappedByteBuffer buf = buffer;
+        buffer = null;
+        if (null != buf) {
+            release(buf);
+        }
+    }
+
+    /*
+     * Release the mapping right away instead of waiting for the buffer to be
+     * garbage collected. There is no public API for this: Java 8 and earlier
+     * expose the cleaner of the buffer, later versions `Unsafe.invokeCleaner`.
+     * If neither works the mapping is left to the garbage collector
+     */
+    private static void release(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (null != cleaner) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+            return;
+        } catch (Exception e) {
+            // try Java 9+ way
+        }
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field f = unsafeClass.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            Object unsafe = f.get(null);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(unsafe, buffer);
+        } catch (Exception e) {
+            logger.debug(e, "cannot release mapped buffer");
+        }
+    }
+
+    /**
+     * Returns the shared index of the jar file
+     *
+     * @param file the jar file
+     * @return the index
+     * @throws IOException if the jar file cannot be read
+     */
+    public static JarIndex of(File file) throws IOException {
+        String key = file.getCanonicalPath();
+        JarIndex index = registry.get(key);
+        if (null == index || index.isStale()) {
+            synchronized (registry) {
+                index = registry.get(key);
+                if (null == index || index.isStale()) {
+                    if (null != index) {
+                        index.close();
+                    }
+                    index = new JarIndex(file);
+                    registry.put(key, index);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Close all indexes and remove them from the shared registry
+     */
+    public static void clear() {
+        synchronized (registry) {
+            for (JarIndex index : registry.values()) {
+                index.close();
+            }
+            registry.clear();
+        }
+    }
+
+}
@@ -9,13 +9,14 @@ import org.osgl.logging.Logger;
 import org.osgl.util.*;
 
 import java.io.*;
+import java.math.BigInteger;
 import java.net.URL;
-import java.util.Enumeration;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 
 /**
  * Provides utilities manipulating jar files
@@ -47,6 +48,56 @@ public enum Jars {
         return idx;
     }
 
+    /**
+     * Build an index that maps class name to the {@link JarIndex} where the
+     * class bytecode can be found. Unlike {@link #buildClassNameIndex(List)}
+     * the bytecode is not loaded until {@link JarIndex#classBytes(String)}
+     * is called
+     */
+    public static Map<String, JarIndex> buildClassLocationIndex(List<File> jars) {
+        final Map<String, JarIndex> idx = C.newMap();
+        scanList(jars, F.classLocationIndexBuilder(idx, $.F.FALSE));
+        return idx;
+    }
+
+    /**
+     * Build an index that maps class name to the {@link JarIndex} of jar
+     * files in the dir specified
+     *
+     * @see #buildClassLocationIndex(List)
+     */
+    public static Map<String, JarIndex> buildClassLocationIndex(File dir) {
+        final Map<String, JarIndex> idx = C.newMap();
+        scanDir(dir, F.classLocationIndexBuilder(idx, $.F.FALSE));
+        return idx;
+    }
+
+    /**
+     * Returns a digest of the jar files identified by their path, size and
+     * last modified time. The digest changes when a jar is added to or
+     * removed from the list, or a jar file is replaced
+     *
+     * @param jars the jar files
+     * @return the digest in hex string
+     */
+    public static String fingerprint(List<File> jars) {
+        StringBuilder sb = S.builder();
+        if (null != jars) {
+            for (File jar : jars) {
+                sb.append(jar.getAbsolutePath()).append(':')
+                        .append(jar.length()).append(':')
+                        .append(jar.lastModified()).append('\n');
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] ba = digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return new BigInteger(1, ba).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            throw E.unexpected(e);
+        }
+    }
+
     /**
      * If the class is loaded from a Jar file, then return that file. Otherwise
      * return {@code null}
@@ -107,45 +158,30 @@ public enum Jars {
 
     private static void scanFile(File file, F.JarEntryVisitor... visitors) throws IOException {
         try {
-            JarFile jar = new JarFile(file);
-            try {
-                Enumeration<JarEntry> entries = jar.entries();
-                while (entries.hasMoreElements()) {
-                    JarEntry entry = entries.nextElement();
-                    String name = entry.getName();
-                    if (entry.isDirectory()) {
-                        continue;
-                    }
-                    for (F.JarEntryVisitor visitor : visitors) {
-                        if (name.endsWith(visitor.suffixRequired())) {
-                            visitor.apply(jar, entry);
-                        }
+            JarIndex jar = JarIndex.of(file);
+            for (int i = 0, n = jar.size(); i < n; ++i) {
+                if (jar.isDirectory(i)) {
+                    continue;
+                }
+                String name = jar.name(i);
+                for (F.JarEntryVisitor visitor : visitors) {
+                    if (name.endsWith(visitor.suffixRequired())) {
+                        visitor.apply(jar, i);
                     }
                 }
-            } finally {
-                jar.close();
             }
         } catch (IOException e) {
             logger.error(e, "error scan file: %s", file.getAbsolutePath());
         }
     }
 
-    private static byte[] getBytes(JarFile jar, JarEntry entry) throws IOException {
-        InputStream is = jar.getInputStream(entry);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        IO.copy(is, baos);
-        return baos.toByteArray();
-    }
-
-    private static String readContent(JarFile jar, JarEntry entry) throws IOException {
-        InputStream is = jar.getInputStream(entry);
-        return IO.readContentAsString(is);
-    }
-
     public enum F {
         ;
 
-        public static abstract class JarEntryVisitor extends $.F2<JarFile, JarEntry, Void> {
+        /**
+         * Visit a jar entry specified by the {@link JarIndex} and the entry index
+         */
+        public static abstract class JarEntryVisitor extends $.F2<JarIndex, Integer, Void> {
             public String suffixRequired() {
                 return ".class";
             }
@@ -154,14 +190,23 @@ public enum Jars {
         public static JarEntryVisitor classNameIndexBuilder(final Map<String, byte[]> map, final $.Function<String, Boolean> ignoredClassNames) {
             return new F.JarEntryVisitor() {
                 @Override
-                public Void apply(JarFile jarFile, JarEntry entry) throws NotAppliedException, $.Break {
-                    try {
-                        String className = ClassNames.classFileNameToClassName(entry.getName());
-                        if (!ignoredClassNames.apply(className)) {
-                            map.put(className, getBytes(jarFile, entry));
-                        }
-                    } catch (IOException e) {
-                        throw E.ioException(e);
+                public Void apply(JarIndex jar, Integer entry) throws NotAppliedException, $.Break {
+                    String className = ClassNames.classFileNameToClassName(jar.name(entry));
+                    if (!ignoredClassNames.apply(className)) {
+                        map.put(className, jar.bytes(entry));
+                    }
+                    return null;
+                }
+            };
+        }
+
+        public static JarEntryVisitor classLocationIndexBuilder(final Map<String, JarIndex> map, final $.Function<String, Boolean> ignoredClassNames) {
+            return new F.JarEntryVisitor() {
+                @Override
+                public Void apply(JarIndex jar, Integer entry) throws NotAppliedException, $.Break {
+                    String className = ClassNames.classFileNameToClassName(jar.name(entry));
+                    if (!ignoredClassNames.apply(className)) {
+                        map.put(className, jar);
                     }
                     return null;
                 }
@@ -184,9 +229,9 @@ public enum Jars {
                 }
 
                 @Override
-                public Void apply(JarFile jarFile, JarEntry jarEntry) throws NotAppliedException, Osgl.Break {
+                public Void apply(JarIndex jar, Integer entry) throws NotAppliedException, Osgl.Break {
+                    String fileName = jar.name(entry);
                     try {
-                        String fileName = jarEntry.getName();
                         if (fileName.startsWith("conf/")) {
                             FastStr fs = FastStr.of(fileName).afterFirst('/');
                             String env = ConfLoader.common();
@@ -198,13 +243,13 @@ public enum Jars {
                                 p = new Properties();
                                 map.put(env, p);
                             }
-                            InputStream is = jarFile.getInputStream(jarEntry);
+                            InputStream is = jar.inputStream(entry);
                             Properties p2 = new Properties();
                             p2.load(is);
                             p.putAll(p2);
                         }
                     } catch (IOException e) {
-                        logger.warn(e, "Unable to load properties file from jar entry %s", jarEntry.getName());
+                        logger.warn(e, "Unable to load properties file from jar entry %s", fileName);
                     }
                     return null;
                 }
@@ -15,6 +15,8 @@ import java.lang.annotation.Target;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 /**
@@ -143,6 +145,27 @@ public @interface PropertySpec {
                 return _1.isEmpty() && _2.isEmpty() && _3.isEmpty();
             }
 
+            // the interned identifier of the spec content, see #id()
+            private volatile String id;
+
+            /**
+             * Returns an interned string identifies the output and excluded
+             * fields of this spec. Two specs with the same content share the
+             * same id instance
+             */
+            String id() {
+                String s = id;
+                if (null == s) {
+                    s = S.builder(S.join(",", _1)).append("|").append(S.join(",", _2)).toString().intern();
+                    id = s;
+                }
+                return s;
+            }
+
+            // JSON serializers compiled out from this spec, indexed by the runtime
+            // types of the result, see PropertySpecJsonSerializer#types(Object)
+            private ConcurrentMap<Set<Class<?>>, PropertySpecJsonSerializer> jsonSerializers = new ConcurrentHashMap<>();
+
         }
 
         private static Spec newSpec() {
@@ -172,6 +195,8 @@ public @interface PropertySpec {
         }
 
         private void _on(String string, Spec spec) {
+            spec.id = null;
+            spec.jsonSerializers.clear();
             String[] sa = string.split("[,;:]+");
             for (String s: sa) {
                 s = s.trim();
@@ -223,11 +248,48 @@ public @interface PropertySpec {
             return C.set(spec(context).excluded());
         }
 
+        /**
+         * Returns an interned id of the output and excluded fields that applied
+         * to the context. The id can be used as a key to cache data calculated
+         * from the spec, e.g. the final output fields
+         *
+         * @param context the context
+         * @return the spec id
+         */
+        public String id(ActContext context) {
+            return spec(context).id();
+        }
+
         public String label(String field, ActContext context) {
             String lbl = spec(context).labels().get(field);
             return null == lbl ? field : lbl;
         }
 
+        /**
+         * Returns the JSON serializer compiled out from this spec for the result
+         * specified. The serializer is compiled once per context type (http or cli)
+         * and runtime type of the result. For a collection the runtime types of
+         * all elements are taken into account, thus a collection mixing different
+         * element types does not get the serializer compiled for its first element
+         *
+         * @param result the result to be serialized
+         * @param context the context
+         * @return the serializer for the result
+         */
+        public PropertySpecJsonSerializer jsonSerializer(Object result, ActContext context) {
+            Set<Class<?>> types = PropertySpecJsonSerializer.types(result);
+            ConcurrentMap<Set<Class<?>>, PropertySpecJsonSerializer> serializers = spec(context).jsonSerializers;
+            PropertySpecJsonSerializer serializer = serializers.get(types);
+            if (null == serializer) {
+                serializer = PropertySpecJsonSerializer.compile(this, types, context);
+                PropertySpecJsonSerializer existing = serializers.putIfAbsent(types, serializer);
+                if (null != existing) {
+                    serializer = existing;
+                }
+            }
+            return serializer;
+        }
+
         private Spec spec(ActContext context) {
             if (context instanceof ActionContext) {
                 return null == http || http.isEmpty() ? common : http;
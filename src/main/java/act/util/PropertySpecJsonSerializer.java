@@ -0,0 +1,184 @@
+package act.util;
+
+import act.cli.util.MappedFastJsonNameFilter;
+import act.data.DataPropertyRepository;
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import org.osgl.util.E;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A JSON serializer compiled out from a {@link PropertySpec} for
+ * certain result types.
+ *
+ * The include/exclude property filter and the label mapping are resolved
+ * once when the serializer is created, and the serializer is cached in
+ * the {@link PropertySpec.MetaInfo} it is compiled from. See
+ * {@link PropertySpec.MetaInfo#jsonSerializer(Object, ActContext)}.
+ *
+ * The serializer is immutable and can be shared by concurrent requests.
+ */
+public class PropertySpecJsonSerializer {
+
+    private static final Charset UTF_8 = StandardCharsets.UTF_8;
+
+    private static final SerializerFeature[] NO_FEATURE = new SerializerFeature[0];
+
+    /**
+     * The serializer without property filter and label mapping
+     */
+    public static final PropertySpecJsonSerializer PLAIN = new PropertySpecJsonSerializer(null, null);
+
+    private final FastJsonPropertyPreFilter propertyFilter;
+    private final MappedFastJsonNameFilter nameFilter;
+
+    private PropertySpecJsonSerializer(FastJsonPropertyPreFilter propertyFilter, MappedFastJsonNameFilter nameFilter) {
+        this.propertyFilter = propertyFilter;
+        this.nameFilter = nameFilter;
+    }
+
+    /**
+     * Write the JSON string of the object specified into an output stream.
+     *
+     * The JSON string is written into a {@link SerializeWriter}, whose buffer is
+     * recycled by fastjson per thread, and then encoded into the output stream
+     * directly without creating an intermediate {@code String}
+     *
+     * @param result the object to be serialized
+     * @param os the output stream
+     * @param format output pretty format JSON if {@code true}
+     * @param disableCircularReferenceDetect see {@link DisableFastJsonCircularReferenceDetect}
+     */
+    public void write(Object result, OutputStream os, boolean format, boolean disableCircularReferenceDetect) {
+        SerializeWriter out = new SerializeWriter(features(format, disableCircularReferenceDetect));
+        try {
+            serialize(result, out);
+            out.writeTo(os, UTF_8);
+        } catch (IOException e) {
+            throw E.ioException(e);
+        } finally {
+            out.close();
+        }
+    }
+
+    public String toJSONString(Object result, boolean format, boolean disableCircularReferenceDetect) {
+        SerializeWriter out = new SerializeWriter(features(format, disableCircularReferenceDetect));
+        try {
+            serialize(result, out);
+            return out.toString();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void serialize(Object result, SerializeWriter out) {
+        JSONSerializer serializer = new JSONSerializer(out);
+        if (null != nameFilter) {
+            serializer.getNameFilters().add(nameFilter);
+        }
+        if (null != propertyFilter) {
+            serializer.getPropertyPreFilters().add(propertyFilter);
+        }
+        serializer.write(result);
+    }
+
+    private SerializerFeature[] features(boolean format, boolean disableCircularReferenceDetect) {
+        // Note: we can't apply DisableFastJsonCircularReferenceDetect when there is a
+        // property filter because if that option is set, then FastJson will skip the
+        // JsonSerializer.context setting and the property filter mechanism will break
+        boolean disableCircularRef = disableCircularReferenceDetect && null == propertyFilter;
+        if (format) {
+            return disableCircularRef ?
+                    new SerializerFeature[]{SerializerFeature.PrettyFormat, SerializerFeature.DisableCircularReferenceDetect} :
+                    new SerializerFeature[]{SerializerFeature.PrettyFormat};
+        }
+        return disableCircularRef ? new SerializerFeature[]{SerializerFeature.DisableCircularReferenceDetect} : NO_FEATURE;
+    }
+
+    /**
+     * Returns the types used to compile the serializer for a result. For a non empty
+     * collection they are the distinct runtime types of the elements, otherwise it is
+     * the type of the result itself
+     *
+     * @param result the result to be serialized
+     * @return the types the serializer is compiled for
+     */
+    static Set<Class<?>> types(Object result) {
+        if (result instanceof Collection) {
+            Class<?> first = null;
+            Set<Class<?>> types = null;
+            for (Object o : (Collection) result) {
+                if (null == o) {
+                    continue;
+                }
+                Class<?> type = o.getClass();
+                if (null == first) {
+                    first = type;
+                } else if (type != first) {
+                    if (null == types) {
+                        types = new HashSet<>();
+                        types.add(first);
+                    }
+                    types.add(type);
+                }
+            }
+            if (null != types) {
+                return types;
+            }
+            if (null != first) {
+                return Collections.<Class<?>>singleton(first);
+            }
+        }
+        return Collections.<Class<?>>singleton(result.getClass());
+    }
+
+    static PropertySpecJsonSerializer compile(PropertySpec.MetaInfo spec, Set<Class<?>> types, ActContext context) {
+        FastJsonPropertyPreFilter propertyFilter = new FastJsonPropertyPreFilter();
+        List<String> outputs = spec.outputFields(context);
+        Set<String> excluded = spec.excludedFields(context);
+        if (excluded.isEmpty()) {
+            if (outputs.isEmpty()) {
+                propertyFilter = null; // no filter defined actually
+            } else {
+                // output fields only applied when excluded fields not presented
+                propertyFilter.addIncludes(outputs);
+                if (FastJsonPropertyPreFilter.hasPattern(outputs)) {
+                    propertyFilter.setFullPaths(fullPaths(types, context));
+                }
+            }
+        } else {
+            propertyFilter.addExcludes(excluded);
+            if (FastJsonPropertyPreFilter.hasPattern(excluded)) {
+                propertyFilter.setFullPaths(fullPaths(types, context));
+            }
+        }
+        MappedFastJsonNameFilter nameFilter = null;
+        if (null != propertyFilter) {
+            nameFilter = new MappedFastJsonNameFilter(spec.labelMapping(context));
+            if (nameFilter.isEmpty()) {
+                nameFilter = null;
+            }
+        }
+        return new PropertySpecJsonSerializer(propertyFilter, nameFilter);
+    }
+
+    // the property paths of all types, in case of a collection of mixed element types
+    private static List<String> fullPaths(Set<Class<?>> types, ActContext context) {
+        DataPropertyRepository repo = context.app().service(DataPropertyRepository.class);
+        if (1 == types.size()) {
+            return repo.propertyListOf(types.iterator().next());
+        }
+        Set<String> paths = new LinkedHashSet<>();
+        for (Class<?> type : types) {
+            paths.addAll(repo.propertyListOf(type));
+        }
+        return new ArrayList<>(paths);
+    }
+
+}
@@ -3,6 +3,7 @@ package act.util;
 import act.Act;
 import act.app.ActionContext;
 import act.app.App;
+import act.app.util.AppCrypto;
 import act.conf.AppConfig;
 import act.plugin.Plugin;
 import org.apache.commons.codec.Charsets;
@@ -241,23 +242,18 @@ public class SessionManager extends DestroyableBase {
         void resolveFromCookieContent(H.KV<?> kv, String content, boolean isSession) {
             String data = Codec.decodeUrl(content, Charsets.UTF_8);
             if (isSession) {
-                if (encryptSession) {
-                    try {
-                        data = app.decrypt(data);
-                    } catch (Exception e) {
+                AppCrypto crypto = app.crypto();
+                String plain = encryptSession ? crypto.unseal(data) : verifyHmac(data);
+                if (null == plain && (!encryptSession || crypto.sealSupported())) {
+                    // might be a cookie issued before, which is signed with the legacy
+                    // way and encrypted separately. Note unseal already reads the legacy
+                    // format if AES/GCM is not supported
+                    plain = resolveLegacyCookieContent(data);
+                    if (null == plain) {
                         return;
                     }
                 }
-                int firstDashIndex = data.indexOf("-");
-                if (firstDashIndex < 0) {
-                    return;
-                }
-                String sign = data.substring(0, firstDashIndex);
-                data = data.substring(firstDashIndex + 1);
-                String sign1 = app.sign(data);
-                if (!sign.equals(sign1)) {
-                    return;
-                }
+                data = plain;
             }
             List<char[]> pairs = split(data.toCharArray(), '\u0000');
             if (pairs.isEmpty()) return;
@@ -277,6 +273,34 @@ public class SessionManager extends DestroyableBase {
             }
         }
 
+        private String verifyHmac(String data) {
+            int firstDashIndex = data.indexOf("-");
+            if (firstDashIndex < 0) {
+                return null;
+            }
+            String sign = data.substring(0, firstDashIndex);
+            String content = data.substring(firstDashIndex + 1);
+            return app.crypto().verifyHmac(content, sign) ? content : null;
+        }
+
+        private String resolveLegacyCookieContent(String data) {
+            if (encryptSession) {
+                try {
+                    data = app.decrypt(data);
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+            int firstDashIndex = data.indexOf("-");
+            if (firstDashIndex < 0) {
+                return null;
+            }
+            String sign = data.substring(0, firstDashIndex);
+            data = data.substring(firstDashIndex + 1);
+            String sign1 = app.sign(data);
+            return sign.equals(sign1) ? data : null;
+        }
+
         private List<char[]> split(char[] content, char separator) {
             int len = content.length;
             if (0 == len) {
@@ -321,10 +345,13 @@ public class SessionManager extends DestroyableBase {
             }
             String data = sb.toString();
             if (isSession) {
-                String sign = app.sign(data);
-                data = S.builder(sign).append("-").append(data).toString();
+                AppCrypto crypto = app.crypto();
                 if (encryptSession) {
-                    data = app.encrypt(data);
+                    // sealed content is authenticated, no need to sign it
+                    data = crypto.seal(data);
+                } else {
+                    String sign = crypto.hmac(data);
+                    data = S.builder(sign).append("-").append(data).toString();
                 }
             }
             data = Codec.encodeUrl(data, Charsets.UTF_8);
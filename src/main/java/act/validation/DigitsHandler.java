@@ -10,10 +10,14 @@ import java.lang.annotation.Annotation;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 @ActComponent
 public class DigitsHandler extends ActionMethodParamAnnotationHandlerPlugin {
 
+    // separators allowed in the integral part, e.g. "1,000"
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s,]+");
+
     @Override
     public Set<Class<? extends Annotation>> listenTo() {
         Set<Class<? extends Annotation>> set = C.newSet();
@@ -46,7 +50,7 @@ public class DigitsHandler extends ActionMethodParamAnnotationHandlerPlugin {
             if (val.contains(".")) {
                 String[] sa = val.split("\\.");
                 if (sa.length == 2) {
-                    violated = (sa[0].replaceAll("[\\,\\s]+", "").length() != integer || sa[1].length() != fraction);
+                    violated = (SEPARATORS.matcher(sa[0]).replaceAll("").length() != integer || sa[1].length() != fraction);
                 } else {
                     violated = true;
                 }
@@ -57,7 +61,7 @@ public class DigitsHandler extends ActionMethodParamAnnotationHandlerPlugin {
             if (val.contains(".")) {
                 violated = true;
             } else {
-                violated = val.replaceAll("[\\s\\,]+", "").length() != integer;
+                violated = SEPARATORS.matcher(val).replaceAll("").length() != integer;
             }
         }
         if (violated) {
@@ -21,18 +21,28 @@ public class MinHandler extends ActionMethodParamAnnotationHandlerPlugin {
 
     @Override
     public void handle(String paramName, Object paramVal, Annotation annotation, ActionContext context) {
-        if (null == paramVal) {
-            return;
-        }
-        long num = toLong(paramVal);
-        Min theAnno = (Min) annotation;
-        long limit = theAnno.value();
-        if (limit > num) {
-            context.addViolation(new ActionMethodParamConstraintViolation<Object>(paramVal, theAnno.message(), theAnno, context));
-        }
+        compile(paramName, annotation).check(paramVal, context);
+    }
+
+    @Override
+    public Checker compile(String paramName, Annotation annotation) {
+        final Min theAnno = (Min) annotation;
+        final long limit = theAnno.value();
+        return new Checker() {
+            @Override
+            public void check(Object paramVal, ActionContext context) {
+                if (null == paramVal) {
+                    return;
+                }
+                long num = toLong(paramVal);
+                if (limit > num) {
+                    context.addViolation(new ActionMethodParamConstraintViolation<Object>(paramVal, theAnno.message(), theAnno, context));
+                }
+            }
+        };
     }
 
-    private long toLong(Object val) {
+    private static long toLong(Object val) {
         if (val instanceof Number) {
             return ((Number) val).longValue();
         } else {
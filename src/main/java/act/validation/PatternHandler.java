@@ -9,9 +9,16 @@ import org.osgl.util.E;
 import javax.validation.constraints.Pattern;
 import java.lang.annotation.Annotation;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @ActComponent
 public class PatternHandler extends ActionMethodParamAnnotationHandlerPlugin {
+
+    // checkers used by handle(), indexed by the annotation so that the
+    // regular expression is not compiled on every call
+    private final ConcurrentMap<Pattern, Checker> checkers = new ConcurrentHashMap<>();
+
     @Override
     public Set<Class<? extends Annotation>> listenTo() {
         Set<Class<? extends Annotation>> set = C.newSet();
@@ -21,24 +28,44 @@ public class PatternHandler extends ActionMethodParamAnnotationHandlerPlugin {
 
     @Override
     public void handle(String paramName, Object paramVal, Annotation annotation, ActionContext context) {
-        if (null == paramVal) {
-            return;
-        }
-        if (!(paramVal instanceof CharSequence)) {
-            throw E.unexpected("Invalid param type. expected: CharSequence, found: %s", paramVal.getClass());
-        }
-        String val = paramVal.toString();
         Pattern theAnno = (Pattern) annotation;
-        String pattern = theAnno.regexp();
-        Pattern.Flag[] flags = theAnno.flags();
-        int flag = 0;
-        for (Pattern.Flag f: flags) {
-            flag &= f.getValue();
+        Checker checker = checkers.get(theAnno);
+        if (null == checker) {
+            checker = compile(paramName, theAnno);
+            Checker existing = checkers.putIfAbsent(theAnno, checker);
+            if (null != existing) {
+                checker = existing;
+            }
         }
-        java.util.regex.Pattern P = java.util.regex.Pattern.compile(pattern, flag);
-        if (!P.matcher(val).matches()) {
-            context.addViolation(new ActionMethodParamConstraintViolation<Object>(paramVal, theAnno.message(), theAnno, context));
+        checker.check(paramVal, context);
+    }
+
+    @Override
+    public Checker compile(String paramName, Annotation annotation) {
+        final Pattern theAnno = (Pattern) annotation;
+        final java.util.regex.Pattern P = java.util.regex.Pattern.compile(theAnno.regexp(), flags(theAnno));
+        return new Checker() {
+            @Override
+            public void check(Object paramVal, ActionContext context) {
+                if (null == paramVal) {
+                    return;
+                }
+                if (!(paramVal instanceof CharSequence)) {
+                    throw E.unexpected("Invalid param type. expected: CharSequence, found: %s", paramVal.getClass());
+                }
+                if (!P.matcher((CharSequence) paramVal).matches()) {
+                    context.addViolation(new ActionMethodParamConstraintViolation<Object>(paramVal, theAnno.message(), theAnno, context));
+                }
+            }
+        };
+    }
+
+    private static int flags(Pattern theAnno) {
+        int flag = 0;
+        for (Pattern.Flag f: theAnno.flags()) {
+            flag |= f.getValue();
         }
+        return flag;
     }
 
 }
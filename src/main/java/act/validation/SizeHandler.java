@@ -26,17 +26,29 @@ public class SizeHandler extends ActionMethodParamAnnotationHandlerPlugin {
 
     @Override
     public void handle(String paramName, Object paramVal, Annotation annotation, ActionContext context) {
-        if (null == paramVal) {
-            return;
-        }
-        int size = sizeOf(paramVal);
-        Size theAnno = (Size) annotation;
-        if (size < theAnno.min() || size > theAnno.max()) {
-            context.addViolation(new ActionMethodParamConstraintViolation<Object>(paramVal, theAnno.message(), theAnno, context));
-        }
+        compile(paramName, annotation).check(paramVal, context);
+    }
+
+    @Override
+    public Checker compile(String paramName, Annotation annotation) {
+        final Size theAnno = (Size) annotation;
+        final int min = theAnno.min();
+        final int max = theAnno.max();
+        return new Checker() {
+            @Override
+            public void check(Object paramVal, ActionContext context) {
+                if (null == paramVal) {
+                    return;
+                }
+                int size = sizeOf(paramVal);
+                if (size < min || size > max) {
+                    context.addViolation(new ActionMethodParamConstraintViolation<Object>(paramVal, theAnno.message(), theAnno, context));
+                }
+            }
+        };
     }
 
-    private int sizeOf(Object val) {
+    private static int sizeOf(Object val) {
         if (val instanceof CharSequence) {
             return ((CharSequence)val).length();
         } else if (val instanceof Collection) {
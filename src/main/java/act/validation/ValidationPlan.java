@@ -0,0 +1,66 @@
+package act.validation;
+
+import act.app.ActionContext;
+import act.controller.ActionMethodParamAnnotationHandler;
+import org.osgl.util.C;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The validation plan of an action method parameter.
+ *
+ * The plan is built once when the param value loader is created. It resolves
+ * the {@link ActionMethodParamAnnotationHandler handlers} of the annotations on
+ * the parameter and compiles each of them into a
+ * {@link ActionMethodParamAnnotationHandler.Checker checker}, so that validating
+ * a parameter value is a single pass over an array of checkers, without looking
+ * up handlers or annotations
+ */
+public final class ValidationPlan {
+
+    private final ActionMethodParamAnnotationHandler.Checker[] checkers;
+
+    private ValidationPlan(List<ActionMethodParamAnnotationHandler.Checker> checkers) {
+        this.checkers = checkers.toArray(new ActionMethodParamAnnotationHandler.Checker[checkers.size()]);
+    }
+
+    /**
+     * Validate the parameter value. Violations are added to the context
+     *
+     * @param paramVal the parameter value
+     * @param context the action context
+     */
+    public void validate(Object paramVal, ActionContext context) {
+        for (ActionMethodParamAnnotationHandler.Checker checker : checkers) {
+            checker.check(paramVal, context);
+        }
+    }
+
+    /**
+     * Build the validation plan of a parameter
+     *
+     * @param paramName the parameter name
+     * @param annotations the annotations on the parameter
+     * @param handlers all annotation handlers indexed by the annotation type
+     * @return the validation plan or {@code null} if there is no annotation to be handled
+     */
+    public static ValidationPlan of(
+            String paramName,
+            Annotation[] annotations,
+            Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> handlers
+    ) {
+        List<ActionMethodParamAnnotationHandler.Checker> checkers = C.newList();
+        Set<Class<? extends Annotation>> handled = C.newSet();
+        for (Annotation annotation : annotations) {
+            Class<? extends Annotation> type = annotation.annotationType();
+            ActionMethodParamAnnotationHandler handler = handlers.get(type);
+            if (null != handler && handled.add(type)) {
+                checkers.add(ActionMethodParamAnnotationHandler.Util.compile(handler, paramName, annotation));
+            }
+        }
+        return checkers.isEmpty() ? null : new ValidationPlan(checkers);
+    }
+}
@@ -1,23 +1,44 @@
 package act.view;
 
-import act.cli.view.CliView;
 import act.util.ActContext;
+import act.util.DisableFastJsonCircularReferenceDetect;
 import act.util.PropertySpec;
+import act.util.PropertySpecJsonSerializer;
 import org.osgl.http.H;
-import org.osgl.mvc.result.RenderContent;
+import org.osgl.mvc.result.Result;
 
 /**
  * An enhanced version of {@link org.osgl.mvc.result.RenderJSON} that
  * allows {@link act.util.PropertySpec} to be applied to control the
  * output fields
+ *
+ * The JSON string is written into the response output stream directly
+ * with the serializer compiled out from the property spec. See
+ * {@link PropertySpecJsonSerializer}
  */
-public class FilteredRenderJSON extends RenderContent {
+public class FilteredRenderJSON extends Result {
+
+    private final Object v;
+    private final PropertySpecJsonSerializer serializer;
+    private final boolean disableCircularReferenceDetect;
 
     public FilteredRenderJSON(Object v, PropertySpec.MetaInfo spec, ActContext context) {
-        super(render(v, spec, context), H.Format.JSON);
+        super(H.Status.OK);
+        this.v = v;
+        // the spec and the fastjson option are bound to the current thread
+        // thus we need to resolve them before the result is applied
+        spec = PropertySpec.MetaInfo.withCurrent(spec, context);
+        this.serializer = null == spec || null == v ? PropertySpecJsonSerializer.PLAIN : spec.jsonSerializer(v, context);
+        Boolean b = DisableFastJsonCircularReferenceDetect.option.get();
+        this.disableCircularReferenceDetect = null != b && b;
     }
 
-    private static String render(Object v, PropertySpec.MetaInfo spec, ActContext context) {
-        return CliView.JSON.render(v, spec, context);
+    @Override
+    public void apply(H.Request req, H.Response resp) {
+        applyStatus(resp);
+        resp.contentType(H.Format.JSON.contentType());
+        applyBeforeCommitHandler(req, resp);
+        serializer.write(v, resp.outputStream(), false, disableCircularReferenceDetect);
+        applyAfterCommitHandler(req, resp);
     }
 }
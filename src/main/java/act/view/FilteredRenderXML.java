@@ -4,20 +4,51 @@ import act.cli.view.CliView;
 import act.util.ActContext;
 import act.util.PropertySpec;
 import org.osgl.http.H;
-import org.osgl.mvc.result.RenderContent;
+import org.osgl.mvc.result.Result;
+import org.osgl.util.E;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * An enhanced version of {@link org.osgl.mvc.result.RenderXML} that
  * allows {@link PropertySpec} to be applied to control the
  * output fields
+ *
+ * The XML content is streamed into the response when the result is applied
  */
-public class FilteredRenderXML extends RenderContent {
+public class FilteredRenderXML extends Result {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Object v;
+    private final PropertySpec.MetaInfo spec;
+    private final ActContext context;
 
     public FilteredRenderXML(Object v, PropertySpec.MetaInfo spec, ActContext context) {
-        super(render(v, spec, context), H.Format.XML);
+        super(H.Status.OK);
+        this.v = v;
+        // the current spec is bound to the current thread, resolve it
+        // before the result is applied
+        this.spec = PropertySpec.MetaInfo.withCurrent(spec, context);
+        this.context = context;
     }
 
-    private static String render(Object v, PropertySpec.MetaInfo spec, ActContext context) {
-        return CliView.XML.render(v, spec, context);
+    @Override
+    public void apply(H.Request req, H.Response resp) {
+        applyStatus(resp);
+        resp.contentType(H.Format.XML.contentType());
+        applyBeforeCommitHandler(req, resp);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(resp.outputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+        CliView.XML.write(v, spec, context, writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        applyAfterCommitHandler(req, resp);
     }
 }
@@ -4,21 +4,51 @@ import act.cli.view.CliView;
 import act.util.ActContext;
 import act.util.PropertySpec;
 import org.osgl.http.H;
-import org.osgl.mvc.result.RenderContent;
+import org.osgl.mvc.result.Result;
+import org.osgl.util.E;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Render object as CSV
+ *
+ * The CSV content is streamed into the response. If the object is an
+ * {@link Iterable}, {@link java.util.Iterator} or {@link java.util.Enumeration}
+ * the rows are iterated lazily when the result is applied
  */
-public class RenderCSV extends RenderContent {
+public class RenderCSV extends Result {
+
+    private static final int BUFFER_SIZE = 8192;
 
-    private ActContext context;
+    private final Object v;
+    private final PropertySpec.MetaInfo spec;
+    private final ActContext context;
 
     public RenderCSV(Object v, PropertySpec.MetaInfo spec, ActContext context) {
-        super(render(v, spec, context), H.Format.CSV);
+        super(H.Status.OK);
+        this.v = v;
+        // the current spec is bound to the current thread, resolve it
+        // before the result is applied
+        this.spec = PropertySpec.MetaInfo.withCurrent(spec, context);
         this.context = context;
     }
 
-    private static String render(Object v, PropertySpec.MetaInfo spec, ActContext context) {
-        return CliView.CSV.render(v, spec, context);
+    @Override
+    public void apply(H.Request req, H.Response resp) {
+        applyStatus(resp);
+        resp.contentType(H.Format.CSV.contentType());
+        applyBeforeCommitHandler(req, resp);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(resp.outputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+        CliView.CSV.write(v, spec, context, writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        applyAfterCommitHandler(req, resp);
     }
 }
@@ -2,11 +2,16 @@ package act.view;
 
 import act.Act;
 import act.app.ActionContext;
+import act.conf.AppConfig;
 import act.mail.MailerContext;
 import org.apache.commons.codec.Charsets;
 import org.osgl.http.H;
+import org.osgl.util.E;
 import org.osgl.util.IO;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.Map;
 
@@ -22,7 +27,12 @@ public abstract class TemplateBase implements Template {
         Map<String, Object> renderArgs = context.renderArgs();
         exposeImplicitVariables(renderArgs, context);
         beforeRender(context);
-        merge(renderArgs, context.resp());
+        AppConfig config = context.config();
+        if (supportStreaming() && config.templateStreaming() && !Act.isDev()) {
+            merge(renderArgs, context.resp(), config.templateStreamingFlushThreshold());
+        } else {
+            merge(renderArgs, context.resp());
+        }
     }
 
     @Override
@@ -59,12 +69,61 @@ public abstract class TemplateBase implements Template {
 
     protected void merge(Map<String, Object> renderArgs, H.Response response) {
         String result = render(renderArgs);
-        byte[] bytes = result.getBytes(UTF8);
+        byte[] bytes = result.getBytes(charset(response));
         IO.write(bytes, response.outputStream());
     }
 
+    /**
+     * Render the template into the response directly. The output is flushed
+     * into the response every time the buffered characters reached the
+     * threshold, thus the response is sent in chunks. The characters are
+     * encoded with the character encoding of the response
+     *
+     * @param renderArgs the render arguments
+     * @param response the response
+     * @param flushThreshold the number of characters buffered before flushing
+     */
+    protected void merge(Map<String, Object> renderArgs, H.Response response, int flushThreshold) {
+        Writer writer = new FlushingWriter(new OutputStreamWriter(response.outputStream(), charset(response)), flushThreshold);
+        render(renderArgs, writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
     protected abstract String render(Map<String, Object> renderArgs);
 
+    /**
+     * Sub class that support streaming rendering shall overwrite this method
+     * and {@link #render(Map, Writer)}
+     *
+     * @return {@code true} if the template can be rendered into a writer
+     */
+    protected boolean supportStreaming() {
+        return false;
+    }
+
+    /**
+     * Render the template into a writer
+     *
+     * @param renderArgs the render arguments
+     * @param writer the writer
+     */
+    protected void render(Map<String, Object> renderArgs, Writer writer) {
+        try {
+            writer.write(render(renderArgs));
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    private static Charset charset(H.Response response) {
+        String encoding = response.characterEncoding();
+        return null == encoding ? UTF8 : Charset.forName(encoding);
+    }
+
     private void exposeImplicitVariables(Map<String, Object> renderArgs, ActionContext context) {
         for (ActionViewVarDef var : Act.viewManager().implicitActionViewVariables()) {
             Object val = var.eval(context);
@@ -83,4 +142,73 @@ public abstract class TemplateBase implements Template {
             }
         }
     }
+
+    /**
+     * Buffers the characters and flushes them into the response once the
+     * buffer is full. Unlike {@link java.io.BufferedWriter} the underlying
+     * stream is flushed as well, otherwise the encoded content would stay
+     * in the encoder of the {@link OutputStreamWriter}
+     */
+    private static class FlushingWriter extends Writer {
+        private final Writer out;
+        private final char[] buf;
+        private int pos;
+
+        FlushingWriter(Writer out, int threshold) {
+            E.illegalArgumentIf(threshold < 1, "flush threshold shall be positive: %s", threshold);
+            this.out = out;
+            this.buf = new char[threshold];
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            buf[pos++] = (char) c;
+            if (pos == buf.length) {
+                flush();
+            }
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, buf.length - pos);
+                System.arraycopy(cbuf, off, buf, pos, n);
+                pos += n;
+                off += n;
+                len -= n;
+                if (pos == buf.length) {
+                    flush();
+                }
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, buf.length - pos);
+                str.getChars(off, off + n, buf, pos);
+                pos += n;
+                off += n;
+                len -= n;
+                if (pos == buf.length) {
+                    flush();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (pos > 0) {
+                out.write(buf, 0, pos);
+                pos = 0;
+            }
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the response output stream is closed when the response is committed
+            flush();
+        }
+    }
 }
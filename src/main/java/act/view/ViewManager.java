@@ -11,9 +11,9 @@ import org.osgl.util.E;
 import org.osgl.util.S;
 
 import javax.enterprise.context.ApplicationScoped;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static act.Destroyable.Util.tryDestroyAll;
 
@@ -25,8 +25,10 @@ public class ViewManager extends DestroyableBase {
     private C.List<View> viewList = C.newList();
     private C.List<ActionViewVarDef> implicitActionViewVariables = C.newList();
     private C.List<MailerViewVarDef> implicitMailerViewVariables = C.newList();
-    private Map<String, View> preferredViews = new HashMap<String, View>();
+    private Map<String, View> preferredViews = new ConcurrentHashMap<String, View>();
     private boolean multiViews = false;
+    // bumped whenever template files changed, see #onTemplateChanged()
+    private volatile int templateVersion;
 
     void register(View view) {
         E.NPE(view);
@@ -65,6 +67,23 @@ public class ViewManager extends DestroyableBase {
         }
     }
 
+    /**
+     * Returns the version of templates. Components caching the templates
+     * resolved shall drop the cache once the version changed
+     */
+    public int templateVersion() {
+        return templateVersion;
+    }
+
+    /**
+     * Notify the view manager that template files have been changed, e.g.
+     * created, updated or deleted in dev mode
+     */
+    public void onTemplateChanged() {
+        preferredViews.clear();
+        templateVersion++;
+    }
+
     public View view(String name) {
         $.Option<View> viewBag = findViewByName(name);
         return viewBag.isDefined() ? viewBag.get() : null;
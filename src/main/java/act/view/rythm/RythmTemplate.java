@@ -8,6 +8,7 @@ import org.rythmengine.RythmEngine;
 import org.rythmengine.resource.ITemplateResource;
 import org.rythmengine.template.ITemplate;
 
+import java.io.Writer;
 import java.util.Locale;
 import java.util.Map;
 
@@ -41,6 +42,16 @@ public class RythmTemplate extends TemplateBase {
         return t.render();
     }
 
+    @Override
+    protected boolean supportStreaming() {
+        return true;
+    }
+
+    @Override
+    protected void render(Map<String, Object> renderArgs, Writer writer) {
+        template(renderArgs).render(writer);
+    }
+
     private org.rythmengine.template.ITemplate template(Map<String, Object> renderArgs) {
         return engine.getTemplate(path, renderArgs);
     }
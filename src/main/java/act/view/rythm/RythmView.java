@@ -2,11 +2,19 @@ package act.view.rythm;
 
 import act.Act;
 import act.app.App;
+import act.app.AppThreadFactory;
+import act.app.event.AppEventId;
 import act.conf.AppConfig;
 import act.util.ActContext;
+import act.util.JarIndex;
 import act.view.Template;
+import act.view.TemplatePathResolver;
 import act.view.VarDef;
 import act.view.View;
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
 import org.osgl.util.C;
 import org.rythmengine.Rythm;
 import org.rythmengine.RythmEngine;
@@ -16,11 +24,12 @@ import org.rythmengine.resource.ClasspathResourceLoader;
 import org.rythmengine.template.ITemplate;
 
 import java.io.File;
-import java.util.List;
-import java.util.Map;
-import java.util.Properties;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
 
 import static org.rythmengine.conf.RythmConfigurationKey.*;
 
@@ -31,10 +40,15 @@ public class RythmView extends View {
 
     public static final String ID = "rythm";
 
+    // the root of templates in the classpath
+    private static final String CLASSPATH_TEMPLATE_ROOT = "rythm";
+
     ConcurrentMap<App, RythmEngine> engines = new ConcurrentHashMap<App, RythmEngine>();
     ConcurrentMap<String, Template> templates = new ConcurrentHashMap<String, Template>();
     ConcurrentMap<String, String> missings = new ConcurrentHashMap<String, String>();
 
+    private static final Logger LOGGER = LogManager.get(RythmView.class);
+
     private boolean isDev;
 
     public RythmView() {
@@ -66,6 +80,144 @@ public class RythmView extends View {
         return template;
     }
 
+    @Override
+    protected void init(final App app) {
+        if (!isDev && app.config().templateWarmUp()) {
+            app.jobManager().on(AppEventId.PRE_START, new Runnable() {
+                @Override
+                public void run() {
+                    warmUp(app);
+                }
+            });
+        }
+    }
+
+    /**
+     * Compile all templates found in the template home and in the `rythm`
+     * dir of the classpath in parallel, and put them into the template cache.
+     *
+     * The compiled template classes are cached by Rythm engine in the
+     * temp home (see {@link #createTempHome(App)}) indexed by the hash of
+     * the template source, thus restarting the app with unchanged templates
+     * will load the classes from the cache instead of compiling them again
+     */
+    private void warmUp(App app) {
+        Set<String> paths = new HashSet<>();
+        File root = templateRootDir();
+        if (root.isDirectory()) {
+            collectTemplatePaths(root, "/", paths);
+        }
+        collectClasspathTemplatePaths(app.classLoader(), paths);
+        if (paths.isEmpty()) {
+            return;
+        }
+        final RythmEngine engine = getEngine(app);
+        List<Callable<Boolean>> tasks = C.newSizedList(paths.size());
+        for (final String path : paths) {
+            tasks.add(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    try {
+                        Template template = RythmTemplate.find(engine, path);
+                        if (null == template) {
+                            return false;
+                        }
+                        engine.getTemplate(path);
+                        templates.putIfAbsent(path, template);
+                        missings.remove(path);
+                        return true;
+                    } catch (RuntimeException e) {
+                        LOGGER.warn(e, "error warming up template: %s", path);
+                        return false;
+                    }
+                }
+            });
+        }
+        int threads = Math.min(paths.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new AppThreadFactory("template-warm-up", true));
+        long ts = $.ms();
+        int compiled = 0;
+        try {
+            for (Future<Boolean> future : executor.invokeAll(tasks)) {
+                if (future.get()) {
+                    compiled++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.warn(e.getCause(), "error warming up templates");
+        } finally {
+            executor.shutdown();
+        }
+        LOGGER.info("%s of %s templates warmed up in %sms", compiled, paths.size(), $.ms() - ts);
+    }
+
+    /**
+     * Collect the template paths in the form of `/path/to/template.html`,
+     * which is the same as the request path passed to
+     * {@link #loadTemplate(String, ActContext)}
+     */
+    private static void collectTemplatePaths(File dir, String prefix, Collection<String> paths) {
+        File[] files = dir.listFiles();
+        if (null == files) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(".")) {
+                continue;
+            }
+            if (file.isDirectory()) {
+                collectTemplatePaths(file, prefix + name + "/", paths);
+            } else if (isTemplate(name)) {
+                paths.add(prefix + name);
+            }
+        }
+    }
+
+    private static void collectClasspathTemplatePaths(ClassLoader classLoader, Collection<String> paths) {
+        Enumeration<URL> urls;
+        try {
+            urls = classLoader.getResources(CLASSPATH_TEMPLATE_ROOT);
+        } catch (IOException e) {
+            LOGGER.warn(e, "error looking up templates in classpath");
+            return;
+        }
+        String prefix = CLASSPATH_TEMPLATE_ROOT + "/";
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            try {
+                String protocol = url.getProtocol();
+                if ("file".equals(protocol)) {
+                    collectTemplatePaths(new File(url.toURI()), "/", paths);
+                } else if ("jar".equals(protocol)) {
+                    URL jarFileUrl = ((JarURLConnection) url.openConnection()).getJarFileURL();
+                    JarIndex jar = JarIndex.of(new File(jarFileUrl.toURI()));
+                    for (int i = 0, j = jar.size(); i < j; ++i) {
+                        String name = jar.name(i);
+                        if (name.startsWith(prefix) && !jar.isDirectory(i) && isTemplate(name)) {
+                            paths.add(name.substring(CLASSPATH_TEMPLATE_ROOT.length()));
+                        }
+                    }
+                }
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                LOGGER.warn(e, "error looking up templates in %s", url);
+            }
+        }
+    }
+
+    // a template file name ends with the suffix of a supported format, e.g. `.html`
+    private static boolean isTemplate(String name) {
+        int pos = name.lastIndexOf('.');
+        int slash = name.lastIndexOf('/');
+        if (pos < 0 || pos < slash || name.charAt(slash + 1) == '.') {
+            return false;
+        }
+        H.Format fmt = H.Format.of(name.substring(pos + 1));
+        return null != fmt && H.Format.UNKNOWN != fmt && TemplatePathResolver.isAcceptFormatSupported(fmt);
+    }
+
     public RythmEngine getEngine(App app) {
         RythmEngine engine = engines.get(app);
         if (null == engine) {
@@ -135,7 +287,7 @@ public class RythmView extends View {
         });
 
         RythmEngine engine = new RythmEngine(p);
-        engine.resourceManager().addResourceLoader(new ClasspathResourceLoader(engine, "rythm"));
+        engine.resourceManager().addResourceLoader(new ClasspathResourceLoader(engine, CLASSPATH_TEMPLATE_ROOT));
 
         Tags tags = app.getInstance(Tags.class);
         tags.register(engine);
@@ -0,0 +1,296 @@
+package act.xio;
+
+import org.osgl.util.S;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An output stream that compress the response body in gzip format.
+ *
+ * The stream buffers the content until it reaches the threshold. If the
+ * stream is closed before that, the content is written out uncompressed.
+ * Otherwise, or if the stream get flushed before reaching the threshold,
+ * e.g. by a streaming result, the stream checks if the response is
+ * {@link #compressible() compressible}, and once decided to compress,
+ * it calls {@link #beforeCompress()} so that the implementation can
+ * update the response headers before anything is written into the
+ * response, and then compress the content on the fly.
+ *
+ * {@link Deflater} instances are pooled and shared among the responses
+ */
+public abstract class GzipResponseStream extends OutputStream {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final byte[] HEADER = {
+            (byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private static final int BUF_SIZE = 8192;
+
+    private enum State {
+        BUFFERING, RAW, COMPRESSING, CLOSED
+    }
+
+    private final OutputStream os;
+    private final int threshold;
+    private State state = State.BUFFERING;
+    private byte[] buf;
+    private int count;
+    private Deflater deflater;
+    private CRC32 crc;
+
+    public GzipResponseStream(OutputStream os, int threshold) {
+        this.os = os;
+        this.threshold = threshold;
+        this.buf = new byte[Math.max(threshold, 1)];
+    }
+
+    /**
+     * Check if the response could be compressed, e.g. the content type
+     * is compressible and the response is not encoded yet
+     */
+    protected abstract boolean compressible();
+
+    /**
+     * Called before the compressed content is written, the implementation
+     * shall set the `Content-Encoding` header and remove the `Content-Length`
+     * header of the response
+     */
+    protected abstract void beforeCompress();
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        switch (state) {
+            case BUFFERING:
+                if (count + len <= threshold) {
+                    System.arraycopy(b, off, buf, count, len);
+                    count += len;
+                    return;
+                }
+                decide();
+                write(b, off, len);
+                return;
+            case RAW:
+                os.write(b, off, len);
+                return;
+            case COMPRESSING:
+                crc.update(b, off, len);
+                deflater.setInput(b, off, len);
+                while (!deflater.needsInput()) {
+                    deflate(Deflater.NO_FLUSH);
+                }
+                return;
+            default:
+                throw new IOException("stream closed");
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        switch (state) {
+            case BUFFERING:
+                if (0 == count) {
+                    return;
+                }
+                decide();
+                flush();
+                return;
+            case COMPRESSING:
+                int len;
+                do {
+                    len = deflate(Deflater.SYNC_FLUSH);
+                } while (len == buf.length);
+                os.flush();
+                return;
+            case RAW:
+                os.flush();
+                return;
+            default:
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (State.CLOSED == state) {
+            return;
+        }
+        try {
+            if (State.BUFFERING == state) {
+                // the content is smaller than the threshold, no need to compress
+                state = State.RAW;
+                os.write(buf, 0, count);
+            } else if (State.COMPRESSING == state) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflate(Deflater.NO_FLUSH);
+                }
+                writeTrailer();
+            }
+            os.close();
+        } finally {
+            state = State.CLOSED;
+            if (null != deflater) {
+                DeflaterPool.release(deflater);
+                deflater = null;
+            }
+            buf = null;
+        }
+    }
+
+    private void decide() throws IOException {
+        byte[] buffered = buf;
+        int len = count;
+        count = 0;
+        if (compressible()) {
+            beforeCompress();
+            state = State.COMPRESSING;
+            deflater = DeflaterPool.acquire();
+            crc = new CRC32();
+            buf = buffered.length < BUF_SIZE ? new byte[BUF_SIZE] : buffered;
+            os.write(HEADER);
+            if (len > 0) {
+                // buf might be the same array of buffered, so copy the content out
+                byte[] content = buffered == buf ? copy(buffered, len) : buffered;
+                write(content, 0, len);
+            }
+        } else {
+            state = State.RAW;
+            buf = null;
+            os.write(buffered, 0, len);
+        }
+    }
+
+    private int deflate(int flush) throws IOException {
+        int len = deflater.deflate(buf, 0, buf.length, flush);
+        if (len > 0) {
+            os.write(buf, 0, len);
+        }
+        return len;
+    }
+
+    private void writeTrailer() throws IOException {
+        byte[] trailer = new byte[8];
+        writeInt((int) crc.getValue(), trailer, 0);
+        writeInt(deflater.getTotalIn(), trailer, 4);
+        os.write(trailer);
+    }
+
+    private static void writeInt(int i, byte[] b, int offset) {
+        b[offset] = (byte) (i & 0xff);
+        b[offset + 1] = (byte) ((i >> 8) & 0xff);
+        b[offset + 2] = (byte) ((i >> 16) & 0xff);
+        b[offset + 3] = (byte) ((i >> 24) & 0xff);
+    }
+
+    private static byte[] copy(byte[] ba, int len) {
+        byte[] copy = new byte[len];
+        System.arraycopy(ba, 0, copy, 0, len);
+        return copy;
+    }
+
+    /**
+     * Check if gzip encoding is accepted by the `Accept-Encoding` header value
+     *
+     * @param acceptEncoding the `Accept-Encoding` header value
+     * @return {@code true} if gzip is acceptable
+     */
+    public static boolean acceptGzip(String acceptEncoding) {
+        if (S.blank(acceptEncoding)) {
+            return false;
+        }
+        boolean accepted = false;
+        for (String s : acceptEncoding.split(",")) {
+            String coding = s.trim();
+            String q = null;
+            int pos = coding.indexOf(';');
+            if (pos > -1) {
+                q = coding.substring(pos + 1).trim();
+                coding = coding.substring(0, pos).trim();
+            }
+            boolean gzip = "gzip".equalsIgnoreCase(coding);
+            if (gzip || "*".equals(coding)) {
+                boolean rejected = null != q && q.matches("q\\s*=\\s*0(\\.0*)?");
+                if (gzip) {
+                    // explicit gzip setting overwrites wildcard
+                    return !rejected;
+                }
+                accepted = !rejected;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Check if a response carries a body that could be compressed. The
+     * response to a `HEAD` request, informational responses and `204`/`304`
+     * responses have no body
+     *
+     * @param head   {@code true} if the request method is `HEAD`
+     * @param status the response status code
+     * @return {@code true} if the response has a body
+     */
+    public static boolean hasBody(boolean head, int status) {
+        return !head && status >= 200 && status != 204 && status != 304;
+    }
+
+    /**
+     * Check if a content type is compressible. Text, JSON, XML and Javascript
+     * content is considered to be compressible
+     *
+     * @param contentType the content type
+     * @return {@code true} if the content type is compressible
+     */
+    public static boolean compressible(String contentType) {
+        if (S.blank(contentType)) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        int pos = type.indexOf(';');
+        if (pos > -1) {
+            type = type.substring(0, pos).trim();
+        }
+        return type.startsWith("text/")
+                || type.endsWith("/json") || type.endsWith("+json")
+                || type.endsWith("/xml") || type.endsWith("+xml")
+                || type.endsWith("/javascript") || type.endsWith("/x-javascript");
+    }
+
+    /**
+     * Pool of {@link Deflater} instances
+     */
+    private static class DeflaterPool {
+        private static final int MAX_SIZE = Runtime.getRuntime().availableProcessors() * 4;
+        private static final Queue<Deflater> pool = new ConcurrentLinkedQueue<>();
+        private static final AtomicInteger size = new AtomicInteger();
+
+        static Deflater acquire() {
+            Deflater deflater = pool.poll();
+            if (null == deflater) {
+                return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            }
+            size.decrementAndGet();
+            return deflater;
+        }
+
+        static void release(Deflater deflater) {
+            if (size.incrementAndGet() > MAX_SIZE) {
+                size.decrementAndGet();
+                deflater.end();
+                return;
+            }
+            deflater.reset();
+            pool.offer(deflater);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package act.xio;
 
 import act.Act;
 import act.Destroyable;
+import act.app.App;
+import act.conf.AppConfig;
 import act.util.DestroyableBase;
 import org.osgl.logging.LogManager;
 import org.osgl.logging.Logger;
@@ -65,6 +67,24 @@ public abstract class NetworkBase extends DestroyableBase implements Network {
         }
     }
 
+    /**
+     * Returns the runtime statistics of the network, e.g. the usage of
+     * the worker threads and buffer pool
+     *
+     * @return a map of statistic name to value
+     */
+    public Map<String, Object> stats() {
+        return C.newMap();
+    }
+
+    /**
+     * Returns the config of the app if it is loaded, otherwise the default config
+     */
+    protected AppConfig config() {
+        App app = Act.app();
+        return null == app ? new AppConfig() : app.config();
+    }
+
     protected abstract void setUpClient(NetworkHandler client, int port) throws IOException;
 
     protected abstract void bootUp();
@@ -0,0 +1,126 @@
+package act.xio.netty4;
+
+import act.Act;
+import act.app.ActionContext;
+import act.app.App;
+import act.conf.AppConfig;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.Timer;
+import act.xio.NetworkHandler;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.timeout.IdleStateEvent;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.E;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatch netty request to Act application.
+ *
+ * The handler is added to the pipeline with an event executor group so
+ * that the application logic does not block the IO threads. All events
+ * of a channel are handled by the same executor in order, thus responses
+ * to pipelined HTTP/1.1 requests are written in the order of the requests.
+ */
+@ChannelHandler.Sharable
+public class ActNettyHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    private static final Logger logger = L.get(ActNettyHandler.class);
+
+    private final NetworkHandler client;
+    private Metric metric;
+    private final AtomicInteger busyWorkers;
+    private final int workerThreads;
+
+    public ActNettyHandler(NetworkHandler client) {
+        this(client, new AtomicInteger(), Integer.MAX_VALUE);
+    }
+
+    ActNettyHandler(NetworkHandler client, AtomicInteger busyWorkers, int workerThreads) {
+        E.NPE(client, busyWorkers);
+        this.client = client;
+        this.metric = Act.metricPlugin().metric("act.http");
+        this.busyWorkers = busyWorkers;
+        this.workerThreads = workerThreads;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext nc, FullHttpRequest request) throws Exception {
+        if (!request.decoderResult().isSuccess()) {
+            DefaultFullHttpResponse resp = new DefaultFullHttpResponse(request.protocolVersion(), HttpResponseStatus.BAD_REQUEST, Unpooled.EMPTY_BUFFER);
+            nc.writeAndFlush(resp).addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
+        if (busyWorkers.incrementAndGet() >= workerThreads) {
+            // all executors are busy, requests of other channels have to wait
+            metric.countOnce(MetricInfo.XIO_WORKER_SATURATED);
+        }
+        Timer timer = metric.startTimer(MetricInfo.CREATE_CONTEXT);
+        App app = client.app();
+        AppConfig config = app.config();
+        NettyResponse resp = new NettyResponse(request, nc, config);
+        ActionContext ctx = ActionContext.create(app, new NettyRequest(request, nc, config), resp);
+        timer.stop();
+        try {
+            client.handle(ctx);
+            resp.commit();
+        } catch (Exception | Error e) {
+            logger.error(e, "Error handling request on channel %s", nc.channel());
+            if (resp.responseStarted()) {
+                // part of the response has been sent, the only option left is to drop the connection
+                nc.close();
+            } else {
+                sendErrorAndClose(nc, request.protocolVersion());
+            }
+        } finally {
+            // release the content not sent in case commit failed
+            resp.freeResources();
+            busyWorkers.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext nc, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            nc.close();
+        } else {
+            super.userEventTriggered(nc, evt);
+        }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext nc, Throwable cause) throws Exception {
+        if (cause instanceof IOException) {
+            // usually the client closed the connection
+            logger.debug(cause, "IO error on channel %s", nc.channel());
+        } else {
+            logger.error(cause, "Error handling request on channel %s", nc.channel());
+            if (nc.channel().isActive()) {
+                sendErrorAndClose(nc, HttpVersion.HTTP_1_1);
+                return;
+            }
+        }
+        nc.close();
+    }
+
+    private static void sendErrorAndClose(ChannelHandlerContext nc, HttpVersion version) {
+        DefaultFullHttpResponse resp = new DefaultFullHttpResponse(version, HttpResponseStatus.INTERNAL_SERVER_ERROR, Unpooled.EMPTY_BUFFER);
+        HttpUtil.setContentLength(resp, 0);
+        resp.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+        nc.writeAndFlush(resp).addListener(ChannelFutureListener.CLOSE);
+    }
+}
@@ -1,12 +1,33 @@
 package act.xio.netty4;
 
-import io.netty.handler.codec.http.Cookie;
+import io.netty.handler.codec.http.cookie.Cookie;
+import io.netty.handler.codec.http.cookie.DefaultCookie;
 import org.osgl.http.H;
 
+import java.util.Date;
+
 enum CookieConverter {
     ;
 
     public static H.Cookie netty2osgl(Cookie nc) {
-        return new H.Cookie(nc.getName(), nc.getValue(), (int) nc.getMaxAge(), nc.isSecure(), nc.getPath(), nc.getDomain(), nc.isHttpOnly());
+        return new H.Cookie(nc.name(), nc.value(), (int) nc.maxAge(), nc.isSecure(), nc.path(), nc.domain(), nc.isHttpOnly());
+    }
+
+    public static Cookie osgl2netty(H.Cookie hc) {
+        DefaultCookie nc = new DefaultCookie(hc.name(), hc.value());
+        nc.setPath(hc.path());
+        nc.setDomain(hc.domain());
+        int maxAge = hc.maxAge();
+        if (maxAge >= 0) {
+            nc.setMaxAge(maxAge);
+        } else {
+            Date expires = hc.expires();
+            if (null != expires) {
+                nc.setMaxAge(Math.max(0, (expires.getTime() - System.currentTimeMillis()) / 1000));
+            }
+        }
+        nc.setSecure(hc.secure());
+        nc.setHttpOnly(hc.httpOnly());
+        return nc;
     }
 }
@@ -0,0 +1,167 @@
+package act.xio.netty4;
+
+import act.conf.AppConfig;
+import act.xio.Network;
+import act.xio.NetworkBase;
+import act.xio.NetworkHandler;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.*;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.E;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implement {@link Network} using netty 4.
+ *
+ * The native epoll transport is used when it is available on the platform,
+ * otherwise it falls back to the NIO transport. Buffers are allocated from
+ * the pooled allocator.
+ *
+ * Requests are decoded by {@link HttpServerCodec}, which accepts pipelined
+ * HTTP/1.1 requests, and aggregated into full requests before dispatched
+ * to the {@link ActNettyHandler} running on a separate executor group.
+ *
+ * The thread pools and socket options are configured with the `act.xio.*`
+ * settings of the app config. The buffer pool and HTTP/2 settings apply to
+ * the undertow network only.
+ *
+ * To use this network implementation, add `netty-all` to the class path and
+ * set `act.xio.impl` to `act.xio.netty4.NettyNetwork`
+ */
+public class NettyNetwork extends NetworkBase {
+
+    private static final Logger logger = L.get(NettyNetwork.class);
+
+    static final int MAX_INITIAL_LINE_LENGTH = 4096;
+    static final int MAX_CHUNK_SIZE = 8192;
+
+    private int ioThreads;
+    private int workerThreads;
+    private int backlog;
+    private boolean reusePort;
+    private int maxHeaderSize;
+    private int maxContentLength;
+    private long idleTimeout;
+    private boolean epoll;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private EventExecutorGroup executorGroup;
+    private List<Channel> channels;
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+
+    @Override
+    protected void bootUp() {
+        try {
+            AppConfig config = config();
+            epoll = Epoll.isAvailable();
+            ioThreads = config.xioIoThreads();
+            workerThreads = config.xioWorkerThreads();
+            backlog = config.xioBacklog();
+            reusePort = config.xioReusePort();
+            maxHeaderSize = config.xioMaxHeaderSize();
+            // netty aggregates the request body into a single buffer which cannot exceed 2GB
+            maxContentLength = (int) Math.min(config.xioMaxEntitySize(), Integer.MAX_VALUE);
+            idleTimeout = config.xioIdleTimeout();
+            if (epoll) {
+                bossGroup = new EpollEventLoopGroup(1);
+                workerGroup = new EpollEventLoopGroup(ioThreads);
+            } else {
+                bossGroup = new NioEventLoopGroup(1);
+                workerGroup = new NioEventLoopGroup(ioThreads);
+            }
+            executorGroup = new DefaultEventExecutorGroup(workerThreads);
+            channels = C.newList();
+            logger.debug("netty network booted up with %s transport", epoll ? "epoll" : "nio");
+        } catch (Exception e) {
+            throw E.unexpected(e, "Error booting up Netty service: %s", e.getMessage());
+        }
+    }
+
+    @Override
+    protected void setUpClient(NetworkHandler client, int port) throws IOException {
+        final ActNettyHandler handler = new ActNettyHandler(client, busyWorkers, workerThreads);
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class)
+                .option(ChannelOption.SO_BACKLOG, backlog)
+                .option(ChannelOption.SO_REUSEADDR, true)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) throws Exception {
+                        ChannelPipeline pipeline = ch.pipeline();
+                        if (idleTimeout > 0) {
+                            pipeline.addLast("idle", new IdleStateHandler(0, 0, idleTimeout, TimeUnit.MILLISECONDS));
+                        }
+                        pipeline.addLast("codec", new HttpServerCodec(MAX_INITIAL_LINE_LENGTH, maxHeaderSize, MAX_CHUNK_SIZE));
+                        pipeline.addLast("aggregator", new HttpObjectAggregator(maxContentLength));
+                        pipeline.addLast(executorGroup, "act", handler);
+                    }
+                });
+        if (reusePort) {
+            if (epoll) {
+                bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            } else {
+                logger.warn("act.xio.reuse_port requires epoll transport, ignored");
+            }
+        }
+        ChannelFuture future = bootstrap.bind(new InetSocketAddress(port)).awaitUninterruptibly();
+        if (!future.isSuccess()) {
+            Throwable cause = future.cause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+        channels.add(future.channel());
+    }
+
+    @Override
+    protected void close() {
+        if (null == channels) {
+            // not booted yet
+            return;
+        }
+        for (Channel channel : channels) {
+            channel.close().awaitUninterruptibly();
+        }
+        channels.clear();
+        bossGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+        workerGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+        executorGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the worker thread usage of the network
+     */
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("transport", epoll ? "epoll" : "nio");
+        stats.put("io threads", ioThreads);
+        stats.put("worker threads", workerThreads);
+        stats.put("busy worker threads", busyWorkers.get());
+        return stats;
+    }
+}
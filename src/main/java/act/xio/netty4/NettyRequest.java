@@ -2,25 +2,29 @@ package act.xio.netty4;
 
 import act.RequestImplBase;
 import act.conf.AppConfig;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.http.Cookie;
-import io.netty.handler.codec.http.CookieDecoder;
 import io.netty.handler.codec.http.FullHttpRequest;
-import io.netty.handler.codec.http.multipart.DefaultHttpDataFactory;
-import io.netty.handler.codec.http.multipart.HttpDataFactory;
-import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.codec.http.cookie.Cookie;
+import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
 import org.osgl.http.H;
 import org.osgl.util.E;
+import org.osgl.util.S;
 
 import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class NettyRequest extends RequestImplBase<NettyRequest> {
 
     private FullHttpRequest nr;
     private ChannelHandlerContext nc;
-    private HttpPostRequestDecoder postDecoder;
-    private final HttpDataFactory fact = new DefaultHttpDataFactory(DefaultHttpDataFactory.MINSIZE);
+    private Map<String, List<String>> queryParams;
 
     public NettyRequest(FullHttpRequest nettyRequest, ChannelHandlerContext nettyContext, AppConfig config) {
         super(config);
@@ -56,35 +60,57 @@ public class NettyRequest extends RequestImplBase<NettyRequest> {
 
     @Override
     protected String _ip() {
-        return nc.channel().remoteAddress().toString();
+        SocketAddress sa = nc.channel().remoteAddress();
+        if (!(sa instanceof InetSocketAddress)) {
+            return null == sa ? "" : sa.toString();
+        }
+        InetSocketAddress sourceAddress = (InetSocketAddress) sa;
+        InetAddress address = sourceAddress.getAddress();
+        return null == address ? sourceAddress.getHostString() : address.getHostAddress();
     }
 
     @Override
     protected void _initCookieMap() {
-        Set<Cookie> cookies = CookieDecoder.decode(header(H.Header.Names.COOKIE));
+        String s = header(H.Header.Names.COOKIE);
+        if (S.blank(s)) {
+            return;
+        }
+        Set<Cookie> cookies = ServerCookieDecoder.STRICT.decode(s);
         for (Cookie c : cookies) {
-            _setCookie(c.getName(), CookieConverter.netty2osgl(c));
+            _setCookie(c.name(), CookieConverter.netty2osgl(c));
         }
     }
 
+    /**
+     * Returns a stream reads directly from the aggregated request content.
+     * The content is released after the request is handled
+     */
     @Override
     public InputStream createInputStream() throws IllegalStateException {
-        E.illegalStateIf(!H.Method.POST.equals(method()), "inputStream not supported on %s request", method());
-        throw E.tbd();
+        return new ByteBufInputStream(nr.content().duplicate());
     }
 
     @Override
     public String paramVal(String name) {
-        throw E.tbd();
+        List<String> list = queryParams().get(name);
+        return null == list || list.isEmpty() ? null : list.get(0);
     }
 
     @Override
     public String[] paramVals(String name) {
-        throw E.tbd();
+        List<String> list = queryParams().get(name);
+        return null == list ? null : list.toArray(new String[list.size()]);
     }
 
     @Override
     public Iterable<String> paramNames() {
-        throw E.tbd();
+        return queryParams().keySet();
+    }
+
+    private Map<String, List<String>> queryParams() {
+        if (null == queryParams) {
+            queryParams = new QueryStringDecoder(nr.uri()).parameters();
+        }
+        return queryParams;
     }
 }
@@ -0,0 +1,422 @@
+package act.xio.netty4;
+
+import act.ResponseImplBase;
+import act.conf.AppConfig;
+import act.xio.GzipResponseStream;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
+import io.netty.util.CharsetUtil;
+import org.osgl.http.H;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+
+/**
+ * Implement {@link H.Response} on top of a Netty channel.
+ *
+ * Content written to the response is accumulated in pooled buffers allocated
+ * from the channel. Byte arrays are written into the buffers directly and
+ * strings are encoded into the buffers, so there is no intermediate copy. If
+ * the response is committed with less than {@link #CHUNK_SIZE} bytes, the
+ * content is sent in one {@link FullHttpResponse} with `Content-Length` set;
+ * otherwise the headers are sent as soon as the content exceeds that size and
+ * the rest of the content follows in chunks.
+ *
+ * The buffers are handed over to Netty when written and released by the
+ * HTTP encoder once they are flushed to the socket
+ */
+public class NettyResponse extends ResponseImplBase<NettyResponse> {
+
+    static final int BUF_SIZE = 1024 * 16;
+    static final int CHUNK_SIZE = 1024 * 64;
+    private static final int MAX_COMPONENTS = 64;
+
+    @Override
+    protected Class<NettyResponse> _impl() {
+        return NettyResponse.class;
+    }
+
+    private final ChannelHandlerContext nc;
+    private final HttpVersion version;
+    private final HttpHeaders headers = new DefaultHttpHeaders(false);
+    private HttpResponseStatus status = HttpResponseStatus.OK;
+    private boolean keepAlive;
+    private boolean head;
+    private boolean gzip;
+    private int gzipThreshold;
+    private List<H.Cookie> cookies;
+    private ContentStream stream;
+
+    public NettyResponse(FullHttpRequest request, ChannelHandlerContext nettyContext, AppConfig config) {
+        super(config);
+        E.NPE(request, nettyContext);
+        nc = nettyContext;
+        version = request.protocolVersion();
+        keepAlive = HttpUtil.isKeepAlive(request);
+        head = HttpMethod.HEAD.equals(request.method());
+        gzip = config.httpGzip() && GzipResponseStream.acceptGzip(request.headers().get(ACCEPT_ENCODING));
+        gzipThreshold = config.httpGzipThreshold();
+    }
+
+    @Override
+    public void addCookie(H.Cookie cookie) {
+        if (null == cookies) {
+            cookies = C.newList();
+        }
+        cookies.add(cookie);
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.contains(name);
+    }
+
+    @Override
+    public NettyResponse contentLength(long len) {
+        headers.set(CONTENT_LENGTH, len);
+        return this;
+    }
+
+    @Override
+    public NettyResponse writeContent(String s) {
+        if (gzip || writerCreated() || null != outputStream) {
+            // keep the order with content already written and let the
+            // gzip stream decide whether to compress
+            try {
+                outputStream().write(s.getBytes(charset()));
+            } catch (IOException e) {
+                throw E.ioException(e);
+            }
+        } else {
+            stream().append(ByteBufUtil.encodeString(nc.alloc(), CharBuffer.wrap(s), charset()));
+        }
+        return this;
+    }
+
+    @Override
+    protected OutputStream createOutputStream() {
+        OutputStream os = stream();
+        if (gzip) {
+            return new GzipResponseStream(os, gzipThreshold) {
+                @Override
+                protected boolean compressible() {
+                    return GzipResponseStream.hasBody(head, status.code())
+                            && !headers.contains(CONTENT_ENCODING)
+                            && GzipResponseStream.compressible(headers.get(CONTENT_TYPE));
+                }
+
+                @Override
+                protected void beforeCompress() {
+                    headers.remove(CONTENT_LENGTH);
+                    headers.set(CONTENT_ENCODING, HttpHeaderValues.GZIP);
+                    headers.add(VARY, ACCEPT_ENCODING);
+                }
+            };
+        }
+        return os;
+    }
+
+    @Override
+    protected void _setContentType(String type) {
+        headers.set(CONTENT_TYPE, type);
+    }
+
+    @Override
+    protected void _setLocale(Locale loc) {
+        if (responseStarted()) {
+            return;
+        }
+        locale = loc;
+        headers.set(CONTENT_LANGUAGE, loc.getLanguage() + "-" + loc.getCountry());
+    }
+
+    @Override
+    public Locale locale() {
+        return locale;
+    }
+
+    /**
+     * Flush the writer or output stream and send all remaining content to
+     * the client. Calling this method more than once has no effect
+     */
+    @Override
+    public void commit() {
+        try {
+            if (null != writer) {
+                IO.close(writer);
+            } else if (null != outputStream) {
+                IO.close(outputStream);
+            }
+        } finally {
+            stream().close();
+        }
+    }
+
+    @Override
+    public NettyResponse sendError(int sc, String msg) {
+        status(sc);
+        writeContent(msg);
+        return this;
+    }
+
+    @Override
+    public NettyResponse sendError(int sc) {
+        return status(sc);
+    }
+
+    @Override
+    public NettyResponse sendRedirect(String location) {
+        status(HttpResponseStatus.FOUND.code());
+        headers.set(LOCATION, location);
+        return this;
+    }
+
+    @Override
+    public NettyResponse header(String name, String value) {
+        headers.set(name, value);
+        return this;
+    }
+
+    @Override
+    public NettyResponse status(int sc) {
+        status = HttpResponseStatus.valueOf(sc);
+        return this;
+    }
+
+    @Override
+    public NettyResponse addHeader(String name, String value) {
+        headers.add(name, value);
+        return this;
+    }
+
+    /**
+     * Release the buffers that have not been sent, e.g. when the channel
+     * is closed before the response is committed
+     */
+    public void freeResources() {
+        if (null != stream) {
+            stream.release();
+        }
+    }
+
+    /**
+     * Returns `true` if the status line and headers have been sent to the client
+     */
+    boolean responseStarted() {
+        return null != stream && stream.headerSent;
+    }
+
+    private Charset charset() {
+        String s = characterEncoding();
+        return null == s || "UTF-8".equalsIgnoreCase(s) ? CharsetUtil.UTF_8 : Charset.forName(s);
+    }
+
+    private ContentStream stream() {
+        if (null == stream) {
+            stream = new ContentStream(nc.alloc());
+        }
+        return stream;
+    }
+
+    private void prepareHeaders(boolean chunked) {
+        if (null != cookies) {
+            for (H.Cookie cookie : cookies) {
+                headers.add(SET_COOKIE, ServerCookieEncoder.STRICT.encode(CookieConverter.osgl2netty(cookie)));
+            }
+        }
+        if (chunked) {
+            if (HttpVersion.HTTP_1_1 == version) {
+                headers.set(TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+            } else {
+                // HTTP/1.0 client reads the content until the connection closed
+                keepAlive = false;
+            }
+        }
+        if (keepAlive && headers.contains(CONNECTION, HttpHeaderValues.CLOSE, true)) {
+            keepAlive = false;
+        }
+        if (!keepAlive) {
+            headers.set(CONNECTION, HttpHeaderValues.CLOSE);
+        } else if (HttpVersion.HTTP_1_0 == version) {
+            headers.set(CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+        }
+    }
+
+    /**
+     * Accumulates the content in pooled buffers and writes them into the
+     * channel
+     */
+    private final class ContentStream extends OutputStream {
+        private final ByteBufAllocator alloc;
+        private CompositeByteBuf pending;
+        private ByteBuf current;
+        private boolean headerSent;
+        private boolean closed;
+
+        ContentStream(ByteBufAllocator alloc) {
+            this.alloc = alloc;
+        }
+
+        @Override
+        public void write(int b) {
+            ensureOpen();
+            current().writeByte(b);
+            if (!current.isWritable()) {
+                sealAndCheck();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureOpen();
+            while (len > 0) {
+                ByteBuf buf = current();
+                int n = Math.min(len, buf.writableBytes());
+                buf.writeBytes(b, off, n);
+                off += n;
+                len -= n;
+                if (!buf.isWritable()) {
+                    sealAndCheck();
+                }
+            }
+        }
+
+        /**
+         * Add a buffer to the content without copying. The ownership of
+         * the buffer is transferred to this stream
+         */
+        void append(ByteBuf buf) {
+            ensureOpen();
+            seal();
+            pending().addComponent(true, buf);
+            checkChunk();
+        }
+
+        @Override
+        public void flush() {
+            if (closed) {
+                return;
+            }
+            seal();
+            if (null != pending && pending.isReadable()) {
+                writeChunk(false);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            seal();
+            ChannelFuture future;
+            if (!headerSent) {
+                headerSent = true;
+                ByteBuf content = null == pending ? Unpooled.EMPTY_BUFFER : pending;
+                pending = null;
+                if (!headers.contains(CONTENT_LENGTH)) {
+                    headers.set(CONTENT_LENGTH, content.readableBytes());
+                }
+                prepareHeaders(false);
+                future = nc.writeAndFlush(new DefaultFullHttpResponse(version, status, content, headers, EmptyHttpHeaders.INSTANCE));
+            } else {
+                future = writeChunk(true);
+            }
+            if (!keepAlive) {
+                future.addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+
+        void release() {
+            closed = true;
+            if (null != current) {
+                current.release();
+                current = null;
+            }
+            if (null != pending) {
+                pending.release();
+                pending = null;
+            }
+        }
+
+        private ChannelFuture writeChunk(boolean last) {
+            if (!headerSent) {
+                headerSent = true;
+                prepareHeaders(!headers.contains(CONTENT_LENGTH));
+                nc.write(new DefaultHttpResponse(version, status, headers));
+            }
+            ByteBuf content = null == pending ? Unpooled.EMPTY_BUFFER : pending;
+            pending = null;
+            HttpContent chunk = last ? new DefaultLastHttpContent(content, false) : new DefaultHttpContent(content);
+            ChannelFuture future = nc.writeAndFlush(chunk);
+            if (!last && !nc.channel().isWritable()) {
+                // the client is slow, wait until the chunk is sent so that
+                // a large response does not pile up in memory
+                future.awaitUninterruptibly();
+            }
+            return future;
+        }
+
+        private ByteBuf current() {
+            if (null == current) {
+                current = alloc.buffer(BUF_SIZE, BUF_SIZE);
+            }
+            return current;
+        }
+
+        private CompositeByteBuf pending() {
+            if (null == pending) {
+                pending = alloc.compositeBuffer(MAX_COMPONENTS);
+            }
+            return pending;
+        }
+
+        private void sealAndCheck() {
+            seal();
+            checkChunk();
+        }
+
+        // send the pending content once it reaches the chunk size
+        private void checkChunk() {
+            if (pending.readableBytes() >= CHUNK_SIZE) {
+                writeChunk(false);
+            }
+        }
+
+        // move the current buffer into the pending content
+        private void seal() {
+            if (null == current) {
+                return;
+            }
+            if (current.isReadable()) {
+                pending().addComponent(true, current);
+            } else {
+                current.release();
+            }
+            current = null;
+        }
+
+        private void ensureOpen() {
+            E.illegalStateIf(closed, "response already committed");
+        }
+    }
+
+}
@@ -13,6 +13,8 @@ import io.undertow.server.HttpServerExchange;
 import org.osgl.http.H;
 import org.osgl.util.E;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Dispatch undertow request to Act application
  */
@@ -20,11 +22,27 @@ public class ActHttpHandler implements HttpHandler {
 
     private final NetworkHandler client;
     private Metric metric;
+    private final AtomicInteger busyWorkers;
+    private final int workerThreads;
 
     public ActHttpHandler(NetworkHandler client) {
-        E.NPE(client);
+        this(client, new AtomicInteger(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Construct the handler with the counter of busy worker threads shared
+     * by all handlers of the network
+     *
+     * @param client the network handler
+     * @param busyWorkers the number of worker threads handling requests
+     * @param workerThreads the size of the worker thread pool
+     */
+    ActHttpHandler(NetworkHandler client, AtomicInteger busyWorkers, int workerThreads) {
+        E.NPE(client, busyWorkers);
         this.client = client;
         this.metric = Act.metricPlugin().metric("act.http");
+        this.busyWorkers = busyWorkers;
+        this.workerThreads = workerThreads;
     }
 
     @Override
@@ -32,10 +50,18 @@ public class ActHttpHandler implements HttpHandler {
         if (exchange.isInIoThread()) {
             exchange.dispatch(this);
         } else {
-            Timer timer = metric.startTimer(MetricInfo.CREATE_CONTEXT);
-            ActionContext ctx = createActionContext(exchange);
-            timer.stop();
-            client.handle(ctx);
+            if (busyWorkers.incrementAndGet() >= workerThreads) {
+                // all worker threads are busy, new requests have to wait in the queue
+                metric.countOnce(MetricInfo.XIO_WORKER_SATURATED);
+            }
+            try {
+                Timer timer = metric.startTimer(MetricInfo.CREATE_CONTEXT);
+                ActionContext ctx = createActionContext(exchange);
+                timer.stop();
+                client.handle(ctx);
+            } finally {
+                busyWorkers.decrementAndGet();
+            }
         }
     }
 
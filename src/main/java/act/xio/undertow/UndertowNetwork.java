@@ -1,13 +1,17 @@
 package act.xio.undertow;
 
-import act.app.App;
+import act.Act;
 import act.conf.AppConfig;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.MetricPlugin;
 import act.xio.Network;
 import act.xio.NetworkBase;
 import act.xio.NetworkHandler;
 import io.undertow.UndertowOptions;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.protocol.http.HttpOpenListener;
+import io.undertow.server.protocol.http2.Http2UpgradeHandler;
 import org.osgl.logging.L;
 import org.osgl.logging.Logger;
 import org.osgl.util.C;
@@ -19,10 +23,18 @@ import org.xnio.channels.AcceptingChannel;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Implement {@link Network} using undertow
+ * Implement {@link Network} using undertow.
+ *
+ * The worker threads, buffer pool and socket options are configured with the
+ * `act.xio.*` settings of the app config, starting from
+ * {@link act.conf.AppConfigKey#XIO_IO_THREADS}
  */
 public class UndertowNetwork extends NetworkBase {
 
@@ -30,22 +42,27 @@ public class UndertowNetwork extends NetworkBase {
 
     private Xnio xnio;
     private int ioThreads;
+    private int workerThreads;
     private XnioWorker worker;
+    private int bufferSize;
     private int buffersPerRegion;
-    private Pool<ByteBuffer> buffers;
+    private MonitoredBufferPool buffers;
     private boolean directBuffers;
+    private boolean http2;
     private OptionMap socketOptions;
     private OptionMap undertowOptions;
     private List<AcceptingChannel<? extends StreamConnection>> channels;
+    private final AtomicInteger busyWorkers = new AtomicInteger();
 
     @Override
     protected void bootUp() {
         try {
+            AppConfig config = config();
             xnio = Xnio.getInstance();
-            worker = createWorker();
-            buffers = createBuffer();
-            socketOptions = createSocketOptions();
-            undertowOptions = OptionMap.builder().set(UndertowOptions.BUFFER_PIPELINED_DATA, true).getMap();
+            worker = createWorker(config);
+            buffers = createBuffer(config);
+            socketOptions = createSocketOptions(config);
+            undertowOptions = createUndertowOptions(config);
             channels = C.newList();
         } catch (Exception e) {
             throw E.unexpected(e, "Error booting up Undertow service: %s", e.getMessage());
@@ -54,17 +71,10 @@ public class UndertowNetwork extends NetworkBase {
 
     @Override
     protected void setUpClient(NetworkHandler client, int port) throws IOException {
-        App app = client.app();
-        AppConfig config = app.config();
-//        InetAddress addr;
-//        try {
-//            addr = Inet4Address.getByName("localhost");
-//        } catch (UnknownHostException e) {
-//            logger.error(e, "Cannot start app[%s]:", app.home());
-//            return;
-//        }
-
-        HttpHandler handler = new ActHttpHandler(client);
+        HttpHandler handler = new ActHttpHandler(client, busyWorkers, workerThreads);
+        if (http2) {
+            handler = new Http2UpgradeHandler(handler);
+        }
         HttpOpenListener openListener = new HttpOpenListener(buffers, undertowOptions);
         openListener.setRootHandler(handler);
         ChannelListener<AcceptingChannel<StreamConnection>> acceptListener = ChannelListeners.openListenerAdapter(openListener);
@@ -87,47 +97,165 @@ public class UndertowNetwork extends NetworkBase {
         worker.shutdownNow();
     }
 
-    private XnioWorker createWorker() throws IOException {
-        ioThreads = Math.max(Runtime.getRuntime().availableProcessors(), 2);
-        int workerThreads = ioThreads * 8;
+    /**
+     * Returns the worker thread and buffer pool usage of the network
+     */
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("io threads", ioThreads);
+        stats.put("worker threads", workerThreads);
+        stats.put("busy worker threads", busyWorkers.get());
+        if (null != buffers) {
+            stats.put("buffer size", bufferSize);
+            stats.put("buffers per region", buffersPerRegion);
+            stats.put("direct buffers", directBuffers);
+            stats.put("buffers in use", buffers.inUse());
+            stats.put("peak buffers in use", buffers.peak());
+            stats.put("buffer allocations", buffers.allocations());
+        }
+        return stats;
+    }
+
+    private XnioWorker createWorker(AppConfig config) throws IOException {
+        ioThreads = config.xioIoThreads();
+        workerThreads = config.xioWorkerThreads();
         return xnio.createWorker(OptionMap.builder().set(Options.WORKER_IO_THREADS, ioThreads)
                 .set(Options.WORKER_TASK_CORE_THREADS, workerThreads)
                 .set(Options.WORKER_TASK_MAX_THREADS, workerThreads)
                 .set(Options.TCP_NODELAY, true).getMap());
     }
 
-    private Pool<ByteBuffer> createBuffer() {
-        long maxMemory = Runtime.getRuntime().maxMemory();
-        int bufferSize;
-        //smaller than 64mb of ram we use 512b buffers
-        if (maxMemory < 64 * 1024 * 1024) {
-            //use 512b buffers
-            directBuffers = false;
-            bufferSize = 512;
-            buffersPerRegion = 10;
-        } else if (maxMemory < 128 * 1024 * 1024) {
-            //use 1k buffers
-            directBuffers = true;
-            bufferSize = 1024;
-            buffersPerRegion = 10;
-        } else {
-            //use 16k buffers for best performance
-            //as 16k is generally the max amount of data that can be sent in a single write() call
-            directBuffers = true;
-            bufferSize = 1024 * 16;
-            buffersPerRegion = 20;
-        }
-        return new ByteBufferSlicePool(directBuffers ? BufferAllocator.DIRECT_BYTE_BUFFER_ALLOCATOR : BufferAllocator.BYTE_BUFFER_ALLOCATOR, bufferSize, bufferSize * buffersPerRegion);
+    private MonitoredBufferPool createBuffer(AppConfig config) {
+        bufferSize = config.xioBufferSize();
+        buffersPerRegion = config.xioBufferRegionCount();
+        directBuffers = config.xioBufferDirect();
+        BufferAllocator<ByteBuffer> allocator = directBuffers ? BufferAllocator.DIRECT_BYTE_BUFFER_ALLOCATOR : BufferAllocator.BYTE_BUFFER_ALLOCATOR;
+        Pool<ByteBuffer> pool = new ByteBufferSlicePool(allocator, bufferSize, bufferSize * buffersPerRegion);
+        return new MonitoredBufferPool(pool, buffersPerRegion, metric());
     }
 
-    private OptionMap createSocketOptions() {
+    private OptionMap createSocketOptions(AppConfig config) {
+        if (config.xioReusePort()) {
+            // XNIO does not support SO_REUSEPORT
+            logger.warn("act.xio.reuse_port is not supported by undertow network, ignored");
+        }
         OptionMap socketOptions = OptionMap.builder()
                 .set(Options.WORKER_IO_THREADS, ioThreads)
                 .set(Options.TCP_NODELAY, true)
                 .set(Options.REUSE_ADDRESSES, true)
+                .set(Options.BACKLOG, config.xioBacklog())
                 .set(Options.BALANCING_TOKENS, 1)
                 .set(Options.BALANCING_CONNECTIONS, 2)
                 .getMap();
         return socketOptions;
     }
+
+    private OptionMap createUndertowOptions(AppConfig config) {
+        http2 = config.xioHttp2();
+        OptionMap.Builder builder = OptionMap.builder()
+                .set(UndertowOptions.BUFFER_PIPELINED_DATA, true)
+                .set(UndertowOptions.MAX_HEADER_SIZE, config.xioMaxHeaderSize())
+                .set(UndertowOptions.MAX_ENTITY_SIZE, config.xioMaxEntitySize())
+                .set(UndertowOptions.ENABLE_HTTP2, http2);
+        long idleTimeout = config.xioIdleTimeout();
+        if (idleTimeout > 0) {
+            builder.set(UndertowOptions.IDLE_TIMEOUT, (int) idleTimeout);
+        }
+        long parseTimeout = config.xioRequestParseTimeout();
+        if (parseTimeout > 0) {
+            builder.set(UndertowOptions.REQUEST_PARSE_TIMEOUT, (int) parseTimeout);
+        }
+        return builder.getMap();
+    }
+
+    private static Metric metric() {
+        MetricPlugin plugin = Act.metricPlugin();
+        return null == plugin ? Metric.NULL_METRIC : plugin.metric(MetricInfo.XIO);
+    }
+
+    /**
+     * Count the buffers allocated from and returned to the pool
+     */
+    static class MonitoredBufferPool implements Pool<ByteBuffer> {
+        private final Pool<ByteBuffer> pool;
+        private final int buffersPerRegion;
+        private final Metric metric;
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+        private final AtomicLong allocations = new AtomicLong();
+
+        MonitoredBufferPool(Pool<ByteBuffer> pool, int buffersPerRegion, Metric metric) {
+            this.pool = pool;
+            this.buffersPerRegion = buffersPerRegion;
+            this.metric = metric;
+        }
+
+        @Override
+        public Pooled<ByteBuffer> allocate() {
+            final Pooled<ByteBuffer> pooled = pool.allocate();
+            allocations.incrementAndGet();
+            int n = inUse.incrementAndGet();
+            int max;
+            while (n > (max = peak.get())) {
+                if (peak.compareAndSet(max, n)) {
+                    // the pool has to allocate a new region for every
+                    // `buffersPerRegion` buffers above the previous peak
+                    for (int i = regions(n) - regions(max); i > 0; --i) {
+                        metric.countOnce(MetricInfo.XIO_BUFFER_REGION);
+                    }
+                    break;
+                }
+            }
+            return new Pooled<ByteBuffer>() {
+                private boolean released;
+
+                @Override
+                public void discard() {
+                    release();
+                    pooled.discard();
+                }
+
+                @Override
+                public void free() {
+                    release();
+                    pooled.free();
+                }
+
+                @Override
+                public ByteBuffer getResource() throws IllegalStateException {
+                    return pooled.getResource();
+                }
+
+                @Override
+                public void close() {
+                    free();
+                }
+
+                private void release() {
+                    if (!released) {
+                        released = true;
+                        inUse.decrementAndGet();
+                    }
+                }
+            };
+        }
+
+        // the number of regions needed to hold the buffers
+        private int regions(int buffers) {
+            return (buffers + buffersPerRegion - 1) / buffersPerRegion;
+        }
+
+        int inUse() {
+            return inUse.get();
+        }
+
+        int peak() {
+            return peak.get();
+        }
+
+        long allocations() {
+            return allocations.get();
+        }
+    }
 }
@@ -3,14 +3,17 @@ package act.xio.undertow;
 import act.ResponseImplBase;
 import act.app.ActionContext;
 import act.conf.AppConfig;
+import act.xio.GzipResponseStream;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.HeaderMap;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
+import io.undertow.util.Methods;
 import org.osgl.http.H;
 import org.osgl.util.E;
 import org.osgl.util.IO;
 
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.util.Locale;
@@ -25,12 +28,16 @@ public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
     private ActionContext ctx;
     private volatile OutputStream os;
     private volatile Writer w;
+    private boolean gzip;
+    private int gzipThreshold;
 
 
     public UndertowResponse(HttpServerExchange exchange, AppConfig config) {
         super(config);
         E.NPE(exchange);
         hse = exchange;
+        gzip = config.httpGzip();
+        gzipThreshold = config.httpGzipThreshold();
     }
 
     @Override
@@ -57,13 +64,44 @@ public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
 
     @Override
     public UndertowResponse writeContent(String s) {
-        hse.getResponseSender().send(s);
+        if (gzipAccepted() || writerCreated() || null != outputStream) {
+            // go through the output stream so that the content could be
+            // compressed and the order with content already written is kept
+            try {
+                String encoding = characterEncoding();
+                outputStream().write(s.getBytes(null == encoding ? "UTF-8" : encoding));
+            } catch (IOException e) {
+                throw E.ioException(e);
+            }
+        } else {
+            hse.getResponseSender().send(s);
+        }
         return this;
     }
 
     @Override
     protected OutputStream createOutputStream() {
-        return hse.getOutputStream();
+        OutputStream os = hse.getOutputStream();
+        if (gzipAccepted()) {
+            return new GzipResponseStream(os, gzipThreshold) {
+                @Override
+                protected boolean compressible() {
+                    HeaderMap headers = hse.getResponseHeaders();
+                    return GzipResponseStream.hasBody(Methods.HEAD.equals(hse.getRequestMethod()), hse.getStatusCode())
+                            && !headers.contains(Headers.CONTENT_ENCODING)
+                            && GzipResponseStream.compressible(headers.getFirst(Headers.CONTENT_TYPE));
+                }
+
+                @Override
+                protected void beforeCompress() {
+                    HeaderMap headers = hse.getResponseHeaders();
+                    headers.remove(Headers.CONTENT_LENGTH);
+                    headers.put(Headers.CONTENT_ENCODING, "gzip");
+                    headers.add(Headers.VARY, H.Header.Names.ACCEPT_ENCODING);
+                }
+            };
+        }
+        return os;
     }
 
     @Override
@@ -147,4 +185,8 @@ public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
         return hse.isResponseStarted();
     }
 
+    private boolean gzipAccepted() {
+        return gzip && GzipResponseStream.acceptGzip(hse.getRequestHeaders().getFirst(Headers.ACCEPT_ENCODING));
+    }
+
 }
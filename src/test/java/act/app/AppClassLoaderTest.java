@@ -0,0 +1,159 @@
+package act.app;
+
+import act.TestBase;
+import act.asm.ClassWriter;
+import act.asm.MethodVisitor;
+import act.asm.Opcodes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.*;
+
+public class AppClassLoaderTest extends TestBase {
+
+    private static final int THREADS = 64;
+    private static final String COLD_CLASS = "foo.Cold";
+
+    /**
+     * An app class loader loads classes from the byte code registered
+     */
+    static class ColdClassLoader extends AppClassLoader {
+        static {
+            registerAsParallelCapable();
+        }
+
+        private final Map<String, byte[]> bytecodes = new ConcurrentHashMap<>();
+        final AtomicInteger reads = new AtomicInteger();
+
+        ColdClassLoader(App app) {
+            super(app);
+        }
+
+        void register(String className) {
+            bytecodes.put(className, classBytes(className));
+        }
+
+        @Override
+        protected byte[] loadAppClassFromDisk(String name) {
+            byte[] bytes = bytecodes.get(name);
+            if (null != bytes) {
+                reads.incrementAndGet();
+            }
+            return bytes;
+        }
+    }
+
+    private ExecutorService executor;
+    private File srcRoot;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+        if (null != srcRoot) {
+            File pkg = new File(srcRoot, "foo");
+            new File(pkg, "Cold.java").delete();
+            pkg.delete();
+            srcRoot.delete();
+        }
+    }
+
+    @Test
+    public void concurrentLoadShallDefineClassOnce() throws Exception {
+        ColdClassLoader classLoader = new ColdClassLoader(mockApp);
+        classLoader.register(COLD_CLASS);
+        Class<?> c = loadConcurrently(classLoader, COLD_CLASS);
+        eq(COLD_CLASS, c.getName());
+        same(classLoader, c.getClassLoader());
+        eq(1, classLoader.reads.get());
+    }
+
+    @Test
+    public void concurrentLoadShallCompileSourceOnce() throws Exception {
+        srcRoot = java.nio.file.Files.createTempDirectory("act-src").toFile();
+        File pkg = new File(srcRoot, "foo");
+        yes(pkg.mkdirs());
+        IO.writeContent("package foo; public class Cold {}", new File(pkg, "Cold.java"));
+        when(mockApp.sourceDirs()).thenReturn(C.list(srcRoot));
+
+        final AtomicInteger compiled = new AtomicInteger();
+        AppCompiler compiler = mock(AppCompiler.class);
+        final DevModeClassLoader classLoader = new DevModeClassLoader(mockApp, compiler);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                compiled.incrementAndGet();
+                // give other threads a chance to race on the source
+                Thread.sleep(50);
+                String className = (String) invocation.getArguments()[0];
+                classLoader.source(className).compiled(classBytes(className));
+                return null;
+            }
+        }).when(compiler).compile(anyString());
+
+        Class<?> c = loadConcurrently(classLoader, COLD_CLASS);
+        same(classLoader, c.getClassLoader());
+        eq(1, compiled.get());
+        verify(compiler, times(1)).compile(COLD_CLASS);
+    }
+
+    // load the class in all threads at the same time and make sure they get the same class
+    private Class<?> loadConcurrently(final AppClassLoader classLoader, final String className) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Class<?>>> futures = C.newList();
+        for (int i = 0; i < THREADS; ++i) {
+            futures.add(executor.submit(new Callable<Class<?>>() {
+                @Override
+                public Class<?> call() throws Exception {
+                    start.await();
+                    return classLoader.loadClass(className);
+                }
+            }));
+        }
+        start.countDown();
+        Class<?> c = null;
+        for (Future<Class<?>> future : futures) {
+            Class<?> c0 = future.get(10, TimeUnit.SECONDS);
+            if (null == c) {
+                c = c0;
+            } else {
+                same(c, c0);
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Generate the byte code of an empty public class
+     */
+    static byte[] classBytes(String className) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC + Opcodes.ACC_SUPER, className.replace('.', '/'), null, "java/lang/Object", null);
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+}
@@ -0,0 +1,102 @@
+package act.app;
+
+import act.BenchmarkBase;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.osgl.util.C;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Measure the warm-up throughput when 64 threads hit cold routes at the
+ * same time, i.e. each thread loads a set of app classes not loaded yet.
+ *
+ * `parallelCapable` runs with the parallel capable {@link AppClassLoader};
+ * `serialized` emulates the previous loader which serialized all class
+ * loading on the class loader instance
+ */
+@BenchmarkOptions(warmupRounds = 5, benchmarkRounds = 50, concurrency = 1)
+@Ignore
+public class ColdClassLoadingBenchmark extends BenchmarkBase {
+
+    private static final int THREADS = 64;
+    private static final int CLASSES_PER_THREAD = 20;
+    private static final int SHARED_CLASSES = 20;
+
+    static class SerializedClassLoader extends AppClassLoaderTest.ColdClassLoader {
+        SerializedClassLoader(App app) {
+            super(app);
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    private ExecutorService executor;
+    private int round;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void parallelCapable() throws Exception {
+        loadAll(new AppClassLoaderTest.ColdClassLoader(mockApp));
+    }
+
+    @Test
+    public void serialized() throws Exception {
+        loadAll(new SerializedClassLoader(mockApp));
+    }
+
+    private void loadAll(final AppClassLoaderTest.ColdClassLoader classLoader) throws Exception {
+        // class names are unique per round so that every round starts cold
+        final String prefix = "cold.r" + round++ + ".";
+        for (int i = 0; i < SHARED_CLASSES; ++i) {
+            classLoader.register(prefix + "Shared" + i);
+        }
+        for (int t = 0; t < THREADS; ++t) {
+            for (int i = 0; i < CLASSES_PER_THREAD; ++i) {
+                classLoader.register(prefix + "T" + t + "C" + i);
+            }
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = C.newList();
+        for (int t = 0; t < THREADS; ++t) {
+            final int thread = t;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    // classes every route needs, e.g. the base controller and models
+                    for (int i = 0; i < SHARED_CLASSES; ++i) {
+                        classLoader.loadClass(prefix + "Shared" + i);
+                    }
+                    // classes specific to the route
+                    for (int i = 0; i < CLASSES_PER_THREAD; ++i) {
+                        classLoader.loadClass(prefix + "T" + thread + "C" + i);
+                    }
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+}
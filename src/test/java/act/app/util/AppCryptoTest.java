@@ -0,0 +1,104 @@
+package act.app.util;
+
+import act.TestBase;
+import act.conf.AppConfig;
+import org.apache.commons.codec.Charsets;
+import org.junit.Test;
+import org.osgl.util.C;
+import org.osgl.util.Crypto;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.mockito.Mockito.*;
+
+public class AppCryptoTest extends TestBase {
+
+    private static final String SECRET = "secret";
+    private static final String SECRET_16 = "0123456789abcdef";
+    private static final String MESSAGE = "username\u0001tom\u0000role\u0001admin \u4e2d\u6587";
+
+    @Test
+    public void signShallBeSameAsOsglCrypto() {
+        AppCrypto crypto = crypto(SECRET);
+        eq(Crypto.sign(MESSAGE, SECRET.getBytes(Charsets.UTF_8)), crypto.sign(MESSAGE));
+        eq(Crypto.sign("", SECRET.getBytes(Charsets.UTF_8)), crypto.sign(""));
+        // the cached Mac is reset after each call
+        eq(crypto.sign(MESSAGE), crypto.sign(MESSAGE));
+    }
+
+    @Test
+    public void encryptShallBeSameAsOsglCrypto() {
+        verifyEncryption(SECRET);
+        verifyEncryption(SECRET_16);
+    }
+
+    @Test
+    public void decryptShallFailOnTamperedContent() {
+        AppCrypto crypto = crypto(SECRET_16);
+        String encrypted = crypto.encrypt(MESSAGE);
+        String tampered = encrypted.substring(0, encrypted.length() - 2) + "00";
+        try {
+            String s = crypto.decrypt(tampered);
+            no(MESSAGE.equals(s));
+        } catch (RuntimeException e) {
+            // expected
+        }
+        // the cached cipher still works after a failure
+        eq(MESSAGE, crypto.decrypt(encrypted));
+        try {
+            crypto.decrypt("not hex");
+            fail("expected exception");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void cachedInstancesShallBeThreadSafe() throws Exception {
+        final AppCrypto crypto = crypto(SECRET_16);
+        final String sign = Crypto.sign(MESSAGE, SECRET_16.getBytes(Charsets.UTF_8));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = C.newList();
+            for (int i = 0; i < 8; ++i) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int j = 0; j < 1000; ++j) {
+                            if (!sign.equals(crypto.sign(MESSAGE))) {
+                                return false;
+                            }
+                            if (!MESSAGE.equals(crypto.decrypt(crypto.encrypt(MESSAGE)))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                yes(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void verifyEncryption(String secret) {
+        AppCrypto crypto = crypto(secret);
+        byte[] key = secret.getBytes(Charsets.UTF_8);
+        String encrypted = crypto.encrypt(MESSAGE);
+        eq(Crypto.encryptAES(MESSAGE, key), encrypted);
+        eq(MESSAGE, crypto.decrypt(encrypted));
+        eq(MESSAGE, Crypto.decryptAES(encrypted, key));
+        eq(MESSAGE, crypto.decrypt(Crypto.encryptAES(MESSAGE, key)));
+    }
+
+    private static AppCrypto crypto(String secret) {
+        AppConfig config = mock(AppConfig.class);
+        when(config.secret()).thenReturn(secret);
+        return new AppCrypto(config);
+    }
+
+}
@@ -0,0 +1,122 @@
+package act.app.util;
+
+import act.TestBase;
+import act.app.App;
+import act.conf.AppConfig;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.Timer;
+import org.junit.After;
+import org.junit.Test;
+import org.mindrot.jbcrypt.BCrypt;
+import org.osgl.$;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.*;
+
+public class PasswordHasherTest extends TestBase {
+
+    private Metric metric;
+    private PasswordHasher hasher;
+
+    @After
+    public void cleanup() {
+        if (null != hasher) {
+            hasher.destroy();
+        }
+    }
+
+    @Test
+    public void testCostOf() {
+        eq(4, PasswordHasher.costOf(BCrypt.hashpw("secret", BCrypt.gensalt(4))));
+        eq(12, PasswordHasher.costOf("$2a$12$abcdefghijklmnopqrstuv"));
+        eq(10, PasswordHasher.costOf("$2$10$abcdefghijklmnopqrstuv"));
+        eq(-1, PasswordHasher.costOf("plain"));
+        eq(-1, PasswordHasher.costOf(null));
+    }
+
+    @Test
+    public void testHashAndVerify() throws Exception {
+        hasher = hasher(4, 2, 10);
+        String hash = hasher.hash("secret".toCharArray()).get(10, TimeUnit.SECONDS);
+        eq(4, PasswordHasher.costOf(hash));
+        yes(BCrypt.checkpw("secret", hash));
+        yes(hasher.verify("secret".toCharArray(), hash).get(10, TimeUnit.SECONDS));
+        no(hasher.verify("guess".toCharArray(), hash).get(10, TimeUnit.SECONDS));
+        no(hasher.verify("secret".toCharArray(), "plain").get(10, TimeUnit.SECONDS));
+        verify(metric).startTimer(MetricInfo.PASSWORD_HASH);
+        verify(metric, times(3)).startTimer(MetricInfo.PASSWORD_VERIFY);
+    }
+
+    @Test
+    public void testRehashOnVerifyWhenCostRaised() throws Exception {
+        hasher = hasher(5, 1, 10);
+        String oldHash = BCrypt.hashpw("secret", BCrypt.gensalt(4));
+        yes(hasher.needsRehash(oldHash));
+        final AtomicReference<String> newHash = new AtomicReference<>();
+        $.Visitor<String> rehashHandler = new $.Visitor<String>() {
+            @Override
+            public void visit(String hash) {
+                newHash.set(hash);
+            }
+        };
+
+        no(hasher.verify("guess".toCharArray(), oldHash, rehashHandler).get(10, TimeUnit.SECONDS));
+        assertNull(newHash.get());
+
+        yes(hasher.verify("secret".toCharArray(), oldHash, rehashHandler).get(10, TimeUnit.SECONDS));
+        assertNotNull(newHash.get());
+        eq(5, PasswordHasher.costOf(newHash.get()));
+        no(hasher.needsRehash(newHash.get()));
+        yes(BCrypt.checkpw("secret", newHash.get()));
+    }
+
+    @Test
+    public void testRejectWhenQueueIsFull() throws Exception {
+        hasher = hasher(4, 1, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Callable<Boolean> blocker = new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                started.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            }
+        };
+        // occupy the only thread and wait until it is running
+        Future<Boolean> running = hasher.submit(blocker);
+        yes(started.await(10, TimeUnit.SECONDS));
+        // fill the queue
+        Future<String> queued = hasher.hash("secret".toCharArray());
+        eq(1, hasher.queueDepth());
+        eq(1, hasher.stats().get("queue depth"));
+        verify(metric).countOnce(MetricInfo.PASSWORD_QUEUED);
+        try {
+            hasher.verify("secret".toCharArray(), "$2a$04$abcdefghijklmnopqrstuv");
+            fail("expected RejectedExecutionException");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        verify(metric).countOnce(MetricInfo.PASSWORD_REJECTED);
+
+        release.countDown();
+        yes(running.get(10, TimeUnit.SECONDS));
+        eq(4, PasswordHasher.costOf(queued.get(10, TimeUnit.SECONDS)));
+        eq(0, hasher.queueDepth());
+    }
+
+    private PasswordHasher hasher(int cost, int poolSize, int queueSize) {
+        AppConfig config = mock(AppConfig.class);
+        when(config.passwordHashCost()).thenReturn(cost);
+        when(config.passwordHashPoolSize()).thenReturn(poolSize);
+        when(config.passwordHashQueueSize()).thenReturn(queueSize);
+        App app = mock(App.class);
+        when(app.config()).thenReturn(config);
+        metric = mock(Metric.class);
+        when(metric.startTimer(anyString())).thenReturn(mock(Timer.class));
+        return new PasswordHasher(app, metric);
+    }
+
+}
@@ -0,0 +1,211 @@
+package act.cli.view;
+
+import act.TestBase;
+import act.data.DataPropertyRepository;
+import act.util.PropertySpec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.util.C;
+import testapp.model.Address;
+import testapp.model.Person;
+
+import java.io.StringWriter;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.mockito.Mockito.when;
+
+public class CsvViewTest extends TestBase {
+
+    private static final String LN = $.OS.lineSeparator();
+
+    private DataPropertyRepository repo;
+    private PropertySpec.MetaInfo spec;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        repo = new DataPropertyRepository(mockApp);
+        when(mockApp.service(DataPropertyRepository.class)).thenReturn(repo);
+        spec = new PropertySpec.MetaInfo();
+        spec.onValue("firstName,lastName,address.city");
+    }
+
+    @After
+    public void cleanup() {
+        PropertySpec.current.remove();
+    }
+
+    @Test
+    public void headerAndRowsShallBeWritten() {
+        List<Person> people = C.list(person("Tom", "Green", "Sydney"), person("Peter", "Smith", "Melbourne"));
+        eq(lines("firstName,lastName,address.city", "Tom,Green,Sydney", "Peter,Smith,Melbourne"), render(people));
+    }
+
+    @Test
+    public void labelsShallBeUsedInHeader() {
+        spec = new PropertySpec.MetaInfo();
+        spec.onValue("firstName as First Name,address.city as City");
+        eq(lines("First Name,City", "Tom,Sydney"), render(C.list(person("Tom", "Green", "Sydney"))));
+    }
+
+    @Test
+    public void currentSpecShallOverrideBuiltInSpec() {
+        PropertySpec.current.set("lastName");
+        eq(lines("lastName", "Green"), render(C.list(person("Tom", "Green", "Sydney"))));
+    }
+
+    @Test
+    public void valuesAndLabelsShallBeEscaped() {
+        spec = new PropertySpec.MetaInfo();
+        spec.onValue("firstName as Name \"first\",lastName");
+        Person p = person("Tom, Jr.", "O\"Neil", "Sydney");
+        eq(lines("\"Name \"\"first\"\"\",lastName", "\"Tom, Jr.\",\"O\"\"Neil\""), render(C.list(p)));
+    }
+
+    @Test
+    public void nullValueShallBeEmpty() {
+        Person p = new Person("Tom", null, null, 20);
+        eq(lines("firstName,lastName,address.city", "Tom,,"), render(C.list(p)));
+    }
+
+    @Test
+    public void nullRowsShallBeSkipped() {
+        List<Person> people = C.newList();
+        people.add(null);
+        people.add(person("Tom", "Green", "Sydney"));
+        people.add(null);
+        people.add(person("Peter", "Smith", "Melbourne"));
+        eq(lines("firstName,lastName,address.city", "Tom,Green,Sydney", "Peter,Smith,Melbourne"), render(people));
+    }
+
+    @Test
+    public void noData() {
+        eq("no data", render(null));
+        eq("no data", render(C.list()));
+    }
+
+    @Test
+    public void singleObjectShallBeWrittenAsOneRow() {
+        eq(lines("firstName,lastName,address.city", "Tom,Green,Sydney"), render(person("Tom", "Green", "Sydney")));
+    }
+
+    @Test
+    public void arrayShallBeWritten() {
+        Person[] people = {person("Tom", "Green", "Sydney"), person("Peter", "Smith", "Melbourne")};
+        eq(lines("firstName,lastName,address.city", "Tom,Green,Sydney", "Peter,Smith,Melbourne"), render(people));
+    }
+
+    @Test
+    public void iteratorShallBeConsumedLazily() {
+        LazySource source = new LazySource(3 * CliView.FLUSH_ROWS);
+        CliView.CSV.write(source, spec, mockActionContext, source.writer);
+        eq(3 * CliView.FLUSH_ROWS, source.produced);
+        eq(3, source.writer.flushes);
+    }
+
+    @Test
+    public void iterableShallBeConsumedLazily() {
+        final LazySource source = new LazySource(100);
+        // not a collection, the only way to get the rows is to iterate
+        Iterable<Person> iterable = new Iterable<Person>() {
+            @Override
+            public Iterator<Person> iterator() {
+                return source;
+            }
+        };
+        CliView.CSV.write(iterable, spec, mockActionContext, source.writer);
+        eq(100, source.produced);
+    }
+
+    @Test
+    public void enumerationShallBeConsumedLazily() {
+        final LazySource source = new LazySource(100);
+        Enumeration<Person> enumeration = new Enumeration<Person>() {
+            @Override
+            public boolean hasMoreElements() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Person nextElement() {
+                return source.next();
+            }
+        };
+        CliView.CSV.write(enumeration, spec, mockActionContext, source.writer);
+        eq(100, source.produced);
+    }
+
+    private String render(Object result) {
+        return CliView.CSV.render(result, spec, mockActionContext);
+    }
+
+    private static String lines(String... lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            if (sb.length() > 0) {
+                sb.append(LN);
+            }
+            sb.append(line);
+        }
+        return sb.toString();
+    }
+
+    private static Person person(String firstName, String lastName, String city) {
+        return new Person(firstName, lastName, new Address("1", "George St", city), 30);
+    }
+
+    private static class CountingWriter extends StringWriter {
+        int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+            super.flush();
+        }
+    }
+
+    /**
+     * Produces rows on demand and fails if a row is pulled before the
+     * previous one has been written, i.e. if the rows are materialized
+     */
+    private static class LazySource implements Iterator<Person> {
+        final CountingWriter writer = new CountingWriter();
+        final int rows;
+        int produced;
+        private int written;
+
+        LazySource(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return produced < rows;
+        }
+
+        @Override
+        public Person next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int len = writer.getBuffer().length();
+            if (produced > 0 && len <= written) {
+                throw new IllegalStateException("rows are materialized before written");
+            }
+            written = len;
+            produced++;
+            return person("p" + produced, "l" + produced, "c" + produced);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
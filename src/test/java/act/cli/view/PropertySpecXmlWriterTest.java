@@ -0,0 +1,172 @@
+package act.cli.view;
+
+import act.TestBase;
+import act.data.DataPropertyRepository;
+import act.util.PropertySpec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+import testapp.model.Address;
+import testapp.model.Person;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+
+public class PropertySpecXmlWriterTest extends TestBase {
+
+    private PropertySpec.MetaInfo spec;
+    private Person tom;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        DataPropertyRepository repo = new DataPropertyRepository(mockApp);
+        when(mockApp.service(DataPropertyRepository.class)).thenReturn(repo);
+        tom = new Person("Tom", "Green", new Address("1", "George St", "Sydney"), 30);
+    }
+
+    @After
+    public void cleanup() {
+        PropertySpec.current.remove();
+    }
+
+    @Test
+    public void includedFieldsShallBeWrittenInOrder() {
+        spec("firstName,address.city");
+        eq("<result><firstName>Tom</firstName><address><city>Sydney</city></address></result>", render(tom));
+    }
+
+    @Test
+    public void excludedFieldsShallBeLeftOut() {
+        spec("-age,-lastName,-address.streetNo");
+        String xml = render(tom);
+        yes(xml.contains("<firstName>Tom</firstName>"));
+        yes(xml.contains("<city>Sydney</city>"));
+        yes(xml.contains("<streetName>George St</streetName>"));
+        no(xml.contains("<age>"));
+        no(xml.contains("<lastName>"));
+        no(xml.contains("<streetNo>"));
+    }
+
+    @Test
+    public void labelsShallBeUsedAsElementNames() {
+        spec("firstName as First Name,address.city as City");
+        eq("<result><First_Name>Tom</First_Name><address><City>Sydney</City></address></result>", render(tom));
+    }
+
+    @Test
+    public void collectionShallBeWrittenAsItems() {
+        spec("firstName");
+        Person peter = new Person("Peter", "Smith", null, 20);
+        eq("<result><item><firstName>Tom</firstName></item><item><firstName>Peter</firstName></item></result>",
+                render(C.list(tom, peter)));
+    }
+
+    @Test
+    public void nestedCollectionShallBeWrittenAsItems() {
+        spec("name,addresses.city");
+        Customer customer = new Customer("ACME", new Address("1", "George St", "Sydney"), new Address("2", "Collins St", "Melbourne"));
+        eq("<result><name>ACME</name><addresses><item><city>Sydney</city></item><item><city>Melbourne</city></item></addresses></result>",
+                render(customer));
+    }
+
+    @Test
+    public void mapShallBeWrittenAsElements() {
+        spec("firstName,tags");
+        Map<String, Object> tags = C.newMap();
+        tags.put("vip", true);
+        tags.put("first name", "Tom");
+        Tagged tagged = new Tagged(tags);
+        String xml = render(tagged);
+        yes(xml.contains("<tags><vip>true</vip><first_name>Tom</first_name></tags>")
+                || xml.contains("<tags><first_name>Tom</first_name><vip>true</vip></tags>"));
+    }
+
+    @Test
+    public void contentShallBeEscaped() {
+        spec("firstName,lastName");
+        Person p = new Person("Tom & <Jerry>", "O'Neil \"Jr\"", null, 30);
+        String xml = render(p);
+        yes(xml.contains("<firstName>Tom &amp; &lt;Jerry"));
+        no(xml.contains("<Jerry>"));
+        yes(xml.contains("O'Neil"));
+    }
+
+    @Test
+    public void nullValueShallBeEmptyElement() {
+        spec("firstName,address.city");
+        String xml = render(new Person("Tom", "Green", null, 30));
+        yes(xml.startsWith("<result><firstName>Tom</firstName><address"));
+        no(xml.contains("<city>"));
+    }
+
+    @Test
+    public void currentSpecShallOverrideBuiltInSpec() {
+        spec("firstName");
+        PropertySpec.current.set("lastName");
+        eq("<result><lastName>Green</lastName></result>", render(tom));
+    }
+
+    @Test
+    public void simpleValueShallBeWrittenAsText() {
+        eq("<result>abc</result>", render("abc"));
+    }
+
+    @Test
+    public void elementNameShallBeValid() {
+        eq("firstName", PropertySpecXmlWriter.elementName("firstName"));
+        eq("First_Name", PropertySpecXmlWriter.elementName("First Name"));
+        eq("_1st", PropertySpecXmlWriter.elementName("1st"));
+        eq("a-b.c", PropertySpecXmlWriter.elementName("a-b.c"));
+        eq("_", PropertySpecXmlWriter.elementName(" "));
+    }
+
+    private void spec(String value) {
+        spec = new PropertySpec.MetaInfo();
+        spec.onValue(value);
+    }
+
+    private String render(Object result) {
+        String xml = CliView.XML.render(result, spec, mockActionContext);
+        yes(xml.startsWith("<?xml"));
+        return xml.substring(xml.indexOf("<" + PropertySpecXmlWriter.ROOT));
+    }
+
+    public static class Customer {
+        private final String name;
+        private final List<Address> addresses;
+
+        Customer(String name, Address... addresses) {
+            this.name = name;
+            this.addresses = C.listOf(addresses);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<Address> getAddresses() {
+            return addresses;
+        }
+    }
+
+    public static class Tagged {
+        private final Map<String, Object> tags;
+
+        Tagged(Map<String, Object> tags) {
+            this.tags = tags;
+        }
+
+        public String getFirstName() {
+            return "Tom";
+        }
+
+        public Map<String, Object> getTags() {
+            return tags;
+        }
+    }
+
+}
@@ -1,8 +1,10 @@
 package act.data;
 
 import act.TestBase;
+import act.data.util.PropertyAccessor;
 import org.junit.Before;
 import org.junit.Test;
+import testapp.model.Address;
 import testapp.model.Person;
 
 import java.util.List;
@@ -27,4 +29,19 @@ public class DataPropertyRepositoryTest extends TestBase {
         yes(ls.contains("address.city"));
     }
 
+    @Test
+    public void accessorShallBeCached() {
+        PropertyAccessor accessor = repo.accessor(Person.class, "address.city");
+        same(accessor, repo.accessor(Person.class, "address.city"));
+        no(accessor == repo.accessor(Person.class, "firstName"));
+        no(accessor == repo.accessor(Address.class, "address.city"));
+    }
+
+    @Test
+    public void accessorCacheShallBeClearedOnDestroy() {
+        PropertyAccessor accessor = repo.accessor(Person.class, "firstName");
+        repo.releaseResources();
+        no(accessor == repo.accessor(Person.class, "firstName"));
+    }
+
 }
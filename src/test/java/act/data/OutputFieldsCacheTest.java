@@ -0,0 +1,135 @@
+package act.data;
+
+import act.TestBase;
+import act.util.PropertySpec;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+import testapp.model.Address;
+import testapp.model.Person;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+public class OutputFieldsCacheTest extends TestBase {
+
+    private DataPropertyRepository repo;
+    private OutputFieldsCache cache;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        repo = new DataPropertyRepository(mockApp);
+        cache = new OutputFieldsCache(repo);
+    }
+
+    @Test
+    public void outputFieldsShallBeCached() {
+        PropertySpec.MetaInfo spec = spec("firstName,lastName");
+        List<String> fields = cache.getOutputFields(spec, Person.class, mockActionContext);
+        eq(2, fields.size());
+        eq("firstName", fields.get(0));
+        eq("lastName", fields.get(1));
+        same(fields, cache.getOutputFields(spec, Person.class, mockActionContext));
+        // specs with the same content share the entry
+        same(fields, cache.getOutputFields(spec("firstName,lastName"), Person.class, mockActionContext));
+        eq(1, cache.size());
+    }
+
+    @Test
+    public void componentTypesShallNotCollide() {
+        PropertySpec.MetaInfo spec = spec("-streetNo");
+        List<String> personFields = cache.getOutputFields(spec, Person.class, mockActionContext);
+        List<String> addressFields = cache.getOutputFields(spec, Address.class, mockActionContext);
+        yes(personFields.contains("firstName"));
+        no(addressFields.contains("firstName"));
+        yes(addressFields.contains("city"));
+        no(addressFields.contains("streetNo"));
+        same(personFields, cache.getOutputFields(spec, Person.class, mockActionContext));
+        same(addressFields, cache.getOutputFields(spec, Address.class, mockActionContext));
+        eq(2, cache.size());
+    }
+
+    @Test
+    public void concurrentLookupsShallReturnTheSameList() throws Exception {
+        final PropertySpec.MetaInfo spec = spec("-age");
+        int threads = 16;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> futures = C.newList();
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() throws Exception {
+                        start.await();
+                        return cache.getOutputFields(spec, Person.class, mockActionContext);
+                    }
+                }));
+            }
+            start.countDown();
+            List<String> first = futures.get(0).get();
+            for (Future<List<String>> future : futures) {
+                same(first, future.get());
+            }
+            same(first, cache.getOutputFields(spec, Person.class, mockActionContext));
+            eq(1, cache.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sizeShallBeBounded() {
+        for (int i = 0; i < OutputFieldsCache.MAX_SIZE + 100; ++i) {
+            PropertySpec.MetaInfo spec = spec("f" + i);
+            List<String> fields = cache.getOutputFields(spec, Person.class, mockActionContext);
+            eq(1, fields.size());
+            eq("f" + i, fields.get(0));
+            yes(cache.size() <= OutputFieldsCache.MAX_SIZE);
+        }
+        eq(OutputFieldsCache.MAX_SIZE, cache.size());
+    }
+
+    @Test
+    public void sizeShallBeBoundedUnderConcurrentAdditions() throws Exception {
+        int threads = 8;
+        final int perThread = OutputFieldsCache.MAX_SIZE / 2;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = C.newList();
+            for (int t = 0; t < threads; ++t) {
+                final int thread = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int i = 0; i < perThread; ++i) {
+                            String field = "t" + thread + "f" + i;
+                            List<String> fields = cache.getOutputFields(spec(field), Person.class, mockActionContext);
+                            if (fields.size() != 1 || !field.equals(fields.get(0))) {
+                                throw new IllegalStateException("unexpected fields: " + fields);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            yes(cache.size() <= OutputFieldsCache.MAX_SIZE);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static PropertySpec.MetaInfo spec(String value) {
+        PropertySpec.MetaInfo spec = new PropertySpec.MetaInfo();
+        spec.onValue(value);
+        return spec;
+    }
+
+}
@@ -0,0 +1,99 @@
+package act.data.util;
+
+import act.TestBase;
+import org.junit.Test;
+import org.osgl.util.C;
+import testapp.model.Address;
+import testapp.model.Person;
+
+import java.util.Map;
+
+public class PropertyAccessorTest extends TestBase {
+
+    private Person tom = new Person("Tom", "Green", new Address("1", "George St", "Sydney"), 30);
+
+    @Test
+    public void getterShallBeRead() {
+        eq("Tom", PropertyAccessor.of(Person.class, "firstName").get(tom));
+        eq(30, PropertyAccessor.of(Person.class, "age").get(tom));
+    }
+
+    @Test
+    public void nestedPathShallBeRead() {
+        eq("Sydney", PropertyAccessor.of(Person.class, "address.city").get(tom));
+        eq("Sydney", PropertyAccessor.of(Person.class, "address/city").get(tom));
+    }
+
+    @Test
+    public void nullAlongThePathShallReturnNull() {
+        PropertyAccessor accessor = PropertyAccessor.of(Person.class, "address.city");
+        assertNull(accessor.get(new Person("Tom", "Green", null, 30)));
+        assertNull(accessor.get(null));
+    }
+
+    @Test
+    public void publicFieldAndBooleanGetterShallBeRead() {
+        Bean bean = new Bean();
+        eq("field", PropertyAccessor.of(Bean.class, "name").get(bean));
+        eq(true, PropertyAccessor.of(Bean.class, "active").get(bean));
+    }
+
+    @Test
+    public void thisShallReturnTheObject() {
+        same(PropertyAccessor.THIS, PropertyAccessor.of(Person.class, "this"));
+        same(tom, PropertyAccessor.THIS.get(tom));
+    }
+
+    @Test
+    public void mapShallFallback() {
+        Map<String, Object> map = C.newMap();
+        map.put("name", "Tom");
+        eq("Tom", PropertyAccessor.of(Map.class, "name").get(map));
+        Bean bean = new Bean();
+        bean.attributes.put("color", "red");
+        eq("red", PropertyAccessor.of(Bean.class, "attributes.color").get(bean));
+    }
+
+    @Test
+    public void unknownTypeShallFallback() {
+        Bean bean = new Bean();
+        bean.value = new Address("1", "George St", "Sydney");
+        // value is declared as Object, thus the path cannot be resolved statically
+        eq("Sydney", PropertyAccessor.of(Bean.class, "value.city").get(bean));
+    }
+
+    @Test
+    public void objectOfOtherTypeShallFallback() {
+        PropertyAccessor accessor = PropertyAccessor.of(Bean.class, "name");
+        eq("field", accessor.get(new Bean()));
+        Map<String, Object> map = C.newMap();
+        map.put("name", "map");
+        eq("map", accessor.get(map));
+    }
+
+    @Test
+    public void getterOfNonPublicClassShallBeRead() {
+        eq("hidden", PropertyAccessor.of(Hidden.class, "name").get(new Hidden()));
+    }
+
+    public static class Bean {
+        public String name = "field";
+        public Object value;
+        public Map<String, Object> attributes = C.newMap();
+
+        public boolean isActive() {
+            return true;
+        }
+
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+
+    static class Hidden {
+        public String getName() {
+            return "hidden";
+        }
+    }
+
+}
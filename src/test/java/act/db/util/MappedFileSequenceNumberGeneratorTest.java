@@ -0,0 +1,100 @@
+package act.db.util;
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.exception.UnexpectedException;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+public class MappedFileSequenceNumberGeneratorTest extends TestBase {
+
+    private File file;
+    private MappedFileSequenceNumberGenerator gen;
+
+    @Before
+    public void prepare() throws Exception {
+        file = File.createTempFile("act-seq", ".seq");
+        file.delete();
+        gen = generator(10);
+    }
+
+    @After
+    public void cleanup() {
+        gen.close();
+        file.delete();
+    }
+
+    @Test
+    public void sequenceShallStartFromZero() {
+        for (long i = 0; i < 25; ++i) {
+            eq(i, gen.next("foo"));
+        }
+        eq(25L, gen.get("foo"));
+        eq(0L, gen.get("bar"));
+        eq(0L, gen.next("bar"));
+    }
+
+    @Test
+    public void sequenceShallContinueFromHighWaterMarkAfterReopen() {
+        for (int i = 0; i < 15; ++i) {
+            gen.next("foo");
+        }
+        gen.next("bar");
+        gen.close();
+        gen = generator(10);
+        eq(20L, gen.get("foo"));
+        eq(20L, gen.next("foo"));
+        eq(10L, gen.next("bar"));
+    }
+
+    @Test
+    public void fileShallGrowWhenSlotsUsedUp() {
+        for (int i = 0; i < 1000; ++i) {
+            eq(0L, gen.next("seq" + i));
+        }
+        gen.close();
+        gen = generator(10);
+        for (int i = 0; i < 1000; ++i) {
+            eq(10L, gen.next("seq" + i));
+        }
+    }
+
+    @Test(expected = UnexpectedException.class)
+    public void fileShallNotBeOpenedTwice() {
+        new MappedFileSequenceNumberGenerator(file);
+    }
+
+    @Test
+    public void numbersShallBeUniqueAmongThreads() throws Exception {
+        final int threads = 8;
+        final int times = 10000;
+        final Set<Long> numbers = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; ++i) {
+            new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < times; ++j) {
+                        numbers.add(gen.next("foo"));
+                    }
+                    latch.countDown();
+                }
+            }.start();
+        }
+        latch.await();
+        eq(threads * times, numbers.size());
+        eq((long) threads * times, gen.get("foo"));
+    }
+
+    private MappedFileSequenceNumberGenerator generator(int blockSize) {
+        MappedFileSequenceNumberGenerator gen = new MappedFileSequenceNumberGenerator(file);
+        gen.blockSize(blockSize);
+        return gen;
+    }
+}
@@ -0,0 +1,252 @@
+package act.handler.builtin.controller;
+
+import act.TestBase;
+import act.app.ActionContext;
+import act.app.AppInterceptorManager;
+import act.handler.builtin.controller.RequestHandlerProxy.InterceptorChain;
+import act.security.CORS;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.mvc.result.Result;
+import org.osgl.util.C;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InterceptorChainTest extends TestBase {
+
+    private List<String> log;
+    private AppInterceptorManager appInterceptor;
+    private ActionContext ctx;
+
+    @Before
+    public void prepare() {
+        log = C.newList();
+        appInterceptor = mock(AppInterceptorManager.class);
+        when(appInterceptor.beforeInterceptors()).thenReturn(C.<BeforeInterceptor>list(new Before_("app", 0)));
+        when(appInterceptor.afterInterceptors()).thenReturn(C.<AfterInterceptor>list(new After_("app", 0)));
+        when(appInterceptor.exceptionInterceptors()).thenReturn(C.<ExceptionInterceptor>list(new Exception_("app", 0)));
+        when(appInterceptor.finallyInterceptors()).thenReturn(C.<FinallyInterceptor>list(new Finally_("app", 0)));
+        RequestHandlerProxy.registerGlobalInterceptor(new Before_("global", 0));
+        RequestHandlerProxy.registerGlobalInterceptor(new After_("global", 0));
+        RequestHandlerProxy.registerGlobalInterceptor(new Exception_("global", 0));
+        RequestHandlerProxy.registerGlobalInterceptor(new Finally_("global", 0));
+        ctx = mock(ActionContext.class);
+    }
+
+    @After
+    public void cleanup() {
+        RequestHandlerProxy.releaseGlobalResources();
+    }
+
+    @Test
+    public void beforeInterceptorsShallBeCalledFromGlobalToAction() throws Exception {
+        assertNull(chain().handleBefore(ctx));
+        logged("before:global", "before:app", "before:action");
+    }
+
+    @Test
+    public void afterInterceptorsShallBeCalledFromActionToGlobal() throws Exception {
+        Result result = mock(Result.class);
+        same(result, chain().handleAfter(result, ctx));
+        logged("after:action", "after:app", "after:global");
+    }
+
+    @Test
+    public void exceptionInterceptorsShallBeCalledFromActionToGlobal() throws Exception {
+        assertNull(chain().handleException(new RuntimeException(), ctx));
+        logged("exception:action", "exception:app", "exception:global");
+    }
+
+    @Test
+    public void finallyInterceptorsShallBeCalledFromActionToGlobal() throws Exception {
+        chain().handleFinally(ctx);
+        logged("finally:action", "finally:app", "finally:global");
+    }
+
+    @Test
+    public void beforeInterceptorResultShallStopTheChain() throws Exception {
+        final Result result = mock(Result.class);
+        BeforeInterceptor stop = new Before_("stop", 0) {
+            @Override
+            public Result handle(ActionContext actionContext) throws Exception {
+                super.handle(actionContext);
+                return result;
+            }
+        };
+        InterceptorChain chain = new InterceptorChain(appInterceptor,
+                C.<BeforeInterceptor>list(stop, new Before_("action", 0)),
+                C.<AfterInterceptor>list(), C.<ExceptionInterceptor>list(), C.<FinallyInterceptor>list());
+        same(result, chain.handleBefore(ctx));
+        logged("before:global", "before:app", "before:stop");
+    }
+
+    @Test
+    public void noopAfterInterceptorShallBeLeftOut() {
+        RequestHandlerProxy.registerGlobalInterceptor(new AfterInterceptor(0) {
+            @Override
+            public boolean sessionFree() {
+                return true;
+            }
+
+            @Override
+            public CORS.Spec corsSpec() {
+                return CORS.Spec.DUMB;
+            }
+        });
+        eq(3, chain().after.length);
+    }
+
+    @Test
+    public void chainShallBeOutdatedWhenGlobalInterceptorsChanged() throws Exception {
+        InterceptorChain chain = chain();
+        no(chain.outdated());
+
+        RequestHandlerProxy.registerGlobalInterceptor(new Before_("late", 1));
+        yes(chain.outdated());
+        chain.handleBefore(ctx);
+        no(log.contains("before:late"));
+
+        InterceptorChain rebuilt = chain();
+        no(rebuilt.outdated());
+        rebuilt.handleBefore(ctx);
+        yes(log.contains("before:late"));
+
+        RequestHandlerProxy.releaseGlobalResources();
+        yes(rebuilt.outdated());
+        eq(2, chain().before.length);
+    }
+
+    private void logged(String... expected) {
+        eq(expected.length, log.size());
+        for (int i = 0; i < expected.length; ++i) {
+            eq(expected[i], log.get(i));
+        }
+    }
+
+    private InterceptorChain chain() {
+        return new InterceptorChain(appInterceptor,
+                C.<BeforeInterceptor>list(new Before_("action", 0)),
+                C.<AfterInterceptor>list(new After_("action", 0)),
+                C.<ExceptionInterceptor>list(new Exception_("action", 0)),
+                C.<FinallyInterceptor>list(new Finally_("action", 0)));
+    }
+
+    private class Before_ extends BeforeInterceptor {
+        private final String name;
+
+        Before_(String name, int priority) {
+            super(priority);
+            this.name = name;
+        }
+
+        @Override
+        public Result handle(ActionContext actionContext) throws Exception {
+            log.add("before:" + name);
+            return null;
+        }
+
+        @Override
+        public boolean sessionFree() {
+            return true;
+        }
+
+        @Override
+        public CORS.Spec corsSpec() {
+            return CORS.Spec.DUMB;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this;
+        }
+    }
+
+    private class After_ extends AfterInterceptor {
+        private final String name;
+
+        After_(String name, int priority) {
+            super(priority);
+            this.name = name;
+        }
+
+        @Override
+        public Result handle(Result result, ActionContext actionContext) throws Exception {
+            log.add("after:" + name);
+            return result;
+        }
+
+        @Override
+        public boolean sessionFree() {
+            return true;
+        }
+
+        @Override
+        public CORS.Spec corsSpec() {
+            return CORS.Spec.DUMB;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this;
+        }
+    }
+
+    private class Exception_ extends ExceptionInterceptor {
+        private final String name;
+
+        Exception_(String name, int priority) {
+            super(priority);
+            this.name = name;
+        }
+
+        @Override
+        protected Result internalHandle(Exception e, ActionContext actionContext) throws Exception {
+            log.add("exception:" + name);
+            return null;
+        }
+
+        @Override
+        public boolean sessionFree() {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this;
+        }
+    }
+
+    private class Finally_ extends FinallyInterceptor {
+        private final String name;
+
+        Finally_(String name, int priority) {
+            super(priority);
+            this.name = name;
+        }
+
+        @Override
+        public void handle(ActionContext actionContext) throws Exception {
+            log.add("finally:" + name);
+        }
+
+        @Override
+        public boolean sessionFree() {
+            return true;
+        }
+
+        @Override
+        public CORS.Spec corsSpec() {
+            return CORS.Spec.DUMB;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this;
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package act.handler.builtin.controller.impl;
+
+import act.TestBase;
+import act.app.AppClassLoader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+public class MethodInvokerTest extends TestBase {
+
+    public static class Controller {
+        String name = "ctrl";
+        int calls;
+
+        public String hello(String who) {
+            return "hello " + who + " from " + name;
+        }
+
+        public static long add(int a, long b) {
+            return a + b;
+        }
+
+        public double scale(double d, float f, short s, byte b, char c, boolean neg) {
+            double v = d * f + s + b + c;
+            return neg ? -v : v;
+        }
+
+        public void touch() {
+            calls++;
+        }
+
+        public static void staticVoid() {
+        }
+
+        public String fail(String msg) throws IOException {
+            throw new IOException(msg);
+        }
+
+        protected String protectedMethod() {
+            return "protected";
+        }
+
+        String packagePrivateMethod() {
+            return "package private";
+        }
+
+        private String privateMethod() {
+            return "private";
+        }
+    }
+
+    static class PackagePrivateController {
+        public String hello() {
+            return "hello";
+        }
+    }
+
+    private AppClassLoader classLoader;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        classLoader = new AppClassLoader(mockApp) {
+            @Override
+            protected byte[] loadAppClassFromDisk(String name) {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void instanceMethod() throws Exception {
+        MethodInvoker invoker = invoker(Controller.class, "hello", String.class);
+        eq("hello world from ctrl", invoker.invoke(new Controller(), new Object[]{"world"}));
+    }
+
+    @Test
+    public void staticMethodWithPrimitives() throws Exception {
+        MethodInvoker invoker = invoker(Controller.class, "add", int.class, long.class);
+        eq(5L, invoker.invoke(null, new Object[]{2, 3L}));
+    }
+
+    @Test
+    public void allPrimitiveTypes() throws Exception {
+        MethodInvoker invoker = invoker(Controller.class, "scale",
+                double.class, float.class, short.class, byte.class, char.class, boolean.class);
+        Object[] params = {1.5d, 2f, (short) 3, (byte) 4, (char) 5, true};
+        eq(-15.0d, invoker.invoke(new Controller(), params));
+    }
+
+    @Test
+    public void voidMethodShallReturnNull() throws Exception {
+        Controller controller = new Controller();
+        MethodInvoker invoker = invoker(Controller.class, "touch");
+        assertNull(invoker.invoke(controller, new Object[0]));
+        invoker.invoke(controller, new Object[0]);
+        eq(2, controller.calls);
+        assertNull(invoker(Controller.class, "staticVoid").invoke(null, new Object[0]));
+    }
+
+    @Test
+    public void checkedExceptionShallNotBeWrapped() throws Exception {
+        MethodInvoker invoker = invoker(Controller.class, "fail", String.class);
+        try {
+            invoker.invoke(new Controller(), new Object[]{"boom"});
+            fail("expected IOException");
+        } catch (IOException e) {
+            eq("boom", e.getMessage());
+        }
+    }
+
+    @Test
+    public void nonPublicMethodOfParentLoadedClassShallFallBack() throws Exception {
+        assertNull(MethodInvoker.of(method(Controller.class, "protectedMethod"), classLoader));
+        assertNull(MethodInvoker.of(method(Controller.class, "packagePrivateMethod"), classLoader));
+    }
+
+    @Test
+    public void privateMethodShallFallBack() throws Exception {
+        assertNull(MethodInvoker.of(method(Controller.class, "privateMethod"), classLoader));
+    }
+
+    @Test
+    public void nonPublicClassOfParentLoaderShallFallBack() throws Exception {
+        assertNull(MethodInvoker.of(method(PackagePrivateController.class, "hello"), classLoader));
+    }
+
+    private MethodInvoker invoker(Class<?> host, String name, Class<?>... paramTypes) throws Exception {
+        MethodInvoker invoker = MethodInvoker.of(method(host, name, paramTypes), classLoader);
+        assertNotNull(invoker);
+        return invoker;
+    }
+
+    private static Method method(Class<?> host, String name, Class<?>... paramTypes) throws Exception {
+        return host.getDeclaredMethod(name, paramTypes);
+    }
+
+}
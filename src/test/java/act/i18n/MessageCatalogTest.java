@@ -0,0 +1,60 @@
+package act.i18n;
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Locale;
+
+public class MessageCatalogTest extends TestBase {
+
+    private static final String BUNDLE = "i18n_test";
+
+    @After
+    public void cleanup() {
+        MessageCatalog.clear();
+    }
+
+    @Test
+    public void testFormat() {
+        MessageCatalog catalog = MessageCatalog.of(BUNDLE, Locale.ENGLISH);
+        eq("Hello world", catalog.format("hello", "world"));
+        eq("Hello %s", catalog.format("hello"));
+        eq("Plain message", catalog.format("plain", "x"));
+        eq("100% of x", catalog.format("percent", "x"));
+    }
+
+    @Test
+    public void messageShallBeInheritedFromParentBundle() {
+        MessageCatalog catalog = MessageCatalog.of(BUNDLE, Locale.CHINESE);
+        eq("你好 world", catalog.format("hello", "world"));
+        eq("Plain message", catalog.format("plain"));
+    }
+
+    @Test
+    public void missingKeyShallBeUsedAsPattern() {
+        MessageCatalog catalog = MessageCatalog.of(BUNDLE, Locale.ENGLISH);
+        no(catalog.hasMessage("missing %s"));
+        eq("missing x", catalog.format("missing %s", "x"));
+        eq("missing %s", catalog.format("missing %s"));
+    }
+
+    @Test
+    public void catalogShallBeCached() {
+        same(MessageCatalog.of(BUNDLE, Locale.ENGLISH), MessageCatalog.of(BUNDLE, Locale.ENGLISH));
+    }
+
+    @Test
+    public void compiledMessageShallMatchFmt() {
+        verify("no specifier");
+        verify("%s and %s", "a", "b");
+        verify("%s and %s", "a", "b", "c");
+        verify("%s", (Object) null);
+        verify("%d items", 3);
+        verify("%% %s %%", "x");
+    }
+
+    private void verify(String pattern, Object... args) {
+        eq(String.format(pattern, args), MessageCatalog.Message.compile(pattern).format(args));
+    }
+}
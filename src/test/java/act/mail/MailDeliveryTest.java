@@ -0,0 +1,242 @@
+package act.mail;
+
+import act.TestBase;
+import act.app.App;
+import act.conf.AppConfig;
+import act.metric.Metric;
+import act.metric.Timer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.*;
+
+public class MailDeliveryTest extends TestBase {
+
+    private SmtpServer server;
+    private App app;
+    private MailerConfig mailerConfig;
+    private Metric metric;
+    private MailDelivery delivery;
+
+    @Before
+    public void prepare() throws Exception {
+        server = new SmtpServer();
+        AppConfig config = mock(AppConfig.class);
+        when(config.mailSenderPoolSize()).thenReturn(2);
+        when(config.mailQueueSize()).thenReturn(100);
+        when(config.mailBatchSize()).thenReturn(10);
+        when(config.mailRetryTimes()).thenReturn(2);
+        when(config.mailRetryBackoff()).thenReturn(10L);
+        app = mock(App.class);
+        when(app.config()).thenReturn(config);
+        Map<String, String> properties = C.newMap(
+                "mailer.smtp.host", "127.0.0.1",
+                "mailer.smtp.port", String.valueOf(server.port()));
+        mailerConfig = new MailerConfig("default", properties, app);
+        metric = mock(Metric.class);
+        when(metric.startTimer(anyString())).thenReturn(mock(Timer.class));
+        delivery = new MailDelivery(app, metric);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        delivery.destroy();
+        server.close();
+    }
+
+    @Test
+    public void emailsShallBeSentOverPooledConnections() throws Exception {
+        List<Future<Boolean>> results = C.newList();
+        for (int i = 0; i < 20; ++i) {
+            results.add(delivery.submit(mailerConfig, message("mail " + i)));
+        }
+        for (Future<Boolean> result : results) {
+            yes(result.get(10, TimeUnit.SECONDS));
+        }
+        eq(20, server.messages.get());
+        yes(server.connections.get() <= 2);
+    }
+
+    @Test
+    public void emailShallBeRetriedWhenServerUnavailable() throws Exception {
+        server.rejectConnections.set(1);
+        yes(delivery.submit(mailerConfig, message("retry")).get(10, TimeUnit.SECONDS));
+        eq(1, server.messages.get());
+        eq(2, server.connections.get());
+    }
+
+    @Test
+    public void emailShallFailAfterRetries() throws Exception {
+        server.rejectConnections.set(100);
+        no(delivery.submit(mailerConfig, message("fail")).get(10, TimeUnit.SECONDS));
+        eq(0, server.messages.get());
+        // the first attempt plus 2 retries
+        eq(3, server.connections.get());
+    }
+
+    @Test
+    public void emailShallBeRetriedOnceOnRuntimeError() throws Exception {
+        final AtomicInteger failures = new AtomicInteger(1);
+        MimeMessage msg = new MimeMessage(mailerConfig.session()) {
+            @Override
+            public Address[] getAllRecipients() throws MessagingException {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("broken message");
+                }
+                return super.getAllRecipients();
+            }
+        };
+        populate(msg, "runtime error");
+        List<Future<Boolean>> results = C.newList();
+        results.add(delivery.submit(mailerConfig, msg));
+        results.add(delivery.submit(mailerConfig, message("ok")));
+        for (Future<Boolean> result : results) {
+            yes(result.get(10, TimeUnit.SECONDS));
+        }
+        // wait for a duplicated retry if there is any
+        Thread.sleep(200);
+        eq(2, server.messages.get());
+    }
+
+    @Test
+    public void pendingRetryShallFailOnDestroy() throws Exception {
+        // retry after a long delay so that the email is still waiting when destroyed
+        when(app.config().mailRetryBackoff()).thenReturn(60 * 1000L);
+        MailDelivery slow = new MailDelivery(app, metric);
+        server.rejectConnections.set(100);
+        Future<Boolean> result = slow.submit(mailerConfig, message("pending"));
+        for (int i = 0; i < 100 && 0 == slow.retryDepth(); ++i) {
+            Thread.sleep(50);
+        }
+        eq(1, slow.retryDepth());
+        no(result.isDone());
+        slow.destroy();
+        no(result.get(1, TimeUnit.SECONDS));
+        eq(0, slow.retryDepth());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void submitShallBeRejectedAfterDestroy() throws Exception {
+        delivery.destroy();
+        delivery.submit(mailerConfig, message("late"));
+    }
+
+    private MimeMessage message(String subject) throws Exception {
+        return populate(new MimeMessage(mailerConfig.session()), subject);
+    }
+
+    private MimeMessage populate(MimeMessage msg, String subject) throws Exception {
+        msg.setFrom(new InternetAddress("from@test.org"));
+        msg.setRecipient(Message.RecipientType.TO, new InternetAddress("to@test.org"));
+        msg.setSubject(subject);
+        msg.setText("hello");
+        msg.saveChanges();
+        return msg;
+    }
+
+    /**
+     * A minimum in-process SMTP server
+     */
+    private static class SmtpServer implements Runnable {
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger messages = new AtomicInteger();
+        final AtomicInteger rejectConnections = new AtomicInteger();
+        private final ServerSocket serverSocket;
+
+        SmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+            Thread thread = new Thread(this, "smtp-stand-in");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    final Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread thread = new Thread() {
+                        @Override
+                        public void run() {
+                            serve(socket);
+                        }
+                    };
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+                Writer writer = new OutputStreamWriter(socket.getOutputStream(), "US-ASCII");
+                if (rejectConnections.getAndDecrement() > 0) {
+                    reply(writer, "421 service not available");
+                    return;
+                }
+                reply(writer, "220 localhost ESMTP");
+                String line;
+                while (null != (line = reader.readLine())) {
+                    String cmd = line.length() < 4 ? line : line.substring(0, 4).toUpperCase();
+                    if ("DATA".equals(cmd)) {
+                        reply(writer, "354 end data with <CR><LF>.<CR><LF>");
+                        while (null != (line = reader.readLine()) && !".".equals(line)) {
+                            // discard the content
+                        }
+                        messages.incrementAndGet();
+                        reply(writer, "250 OK");
+                    } else if ("QUIT".equals(cmd)) {
+                        reply(writer, "221 bye");
+                        return;
+                    } else {
+                        reply(writer, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // ignore
+            } finally {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+
+        private static void reply(Writer writer, String reply) throws IOException {
+            writer.write(reply);
+            writer.write("\r\n");
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package act.security;
+
+import act.TestBase;
+import act.app.ActionContext;
+import act.conf.AppConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.osgl.http.H;
+import org.osgl.util.C;
+
+import static org.mockito.Mockito.*;
+import static org.osgl.http.H.Header.Names.*;
+
+public class CORSTest extends TestBase {
+
+    @CORS.AllowOrigin("http://abc.com")
+    @CORS.Disable
+    private static class Annotated {
+    }
+
+    private AppConfig config;
+    private ActionContext context;
+    private H.Response resp;
+
+    @Before
+    public void prepare() {
+        config = mock(AppConfig.class);
+        when(config.corsEnabled()).thenReturn(true);
+        when(config.corsAllowOrigin()).thenReturn("*");
+        when(config.corsOptionCheck()).thenReturn(true);
+        when(config.corsAllowHeaders()).thenReturn("Content-Type");
+        when(config.corsExposeHeaders()).thenReturn("X-Foo");
+        when(config.corsMaxAge()).thenReturn(1800);
+        resp = mock(H.Response.class);
+        context = mock(ActionContext.class);
+        when(context.config()).thenReturn(config);
+        when(context.resp()).thenReturn(resp);
+    }
+
+    @Test
+    public void globalSettingShallApplyWhenNoSpec() {
+        CORS.Spec.DUMB.plan(config).apply(context);
+        verify(resp).addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        verify(resp, never()).addHeaderIfNotAdded(Mockito.eq(ACCESS_CONTROL_MAX_AGE), anyString());
+    }
+
+    @Test
+    public void preflightShallContainAllHeaders() {
+        when(context.isOptionsMethod()).thenReturn(true);
+        CORS.spec(C.list(H.Method.GET, H.Method.POST)).plan(config).apply(context);
+        verify(resp).addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        verify(resp).addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_METHODS, "GET, POST");
+        verify(resp).addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_HEADERS, "Content-Type");
+        verify(resp).addHeaderIfNotAdded(ACCESS_CONTROL_EXPOSE_HEADERS, "X-Foo");
+        verify(resp).addHeaderIfNotAdded(ACCESS_CONTROL_MAX_AGE, "1800");
+    }
+
+    @Test
+    public void specShallOverwriteGlobalSetting() {
+        CORS.Spec spec = CORS.spec(C.list(H.Method.GET)).with(Annotated.class.getAnnotation(CORS.AllowOrigin.class));
+        spec.plan(config).apply(context);
+        verify(resp).addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_ORIGIN, "http://abc.com");
+        verify(resp, never()).addHeaderIfNotAdded(ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+    }
+
+    @Test
+    public void disabledSpecShallNotAddHeaders() {
+        CORS.Spec spec = CORS.spec(C.list(H.Method.GET)).with(Annotated.class.getAnnotation(CORS.Disable.class));
+        spec.plan(config).apply(context);
+        verify(context).disableCORS();
+        verifyZeroInteractions(resp);
+    }
+
+    @Test
+    public void globalSettingShallBeSkippedWhenDisabledInContext() {
+        when(context.corsDisabled()).thenReturn(true);
+        CORS.Spec.DUMB.plan(config).apply(context);
+        verifyZeroInteractions(resp);
+    }
+
+    @Test
+    public void planShallBeCachedPerConfig() {
+        CORS.Spec spec = CORS.spec(C.list(H.Method.GET));
+        same(spec.plan(config), spec.plan(config));
+        AppConfig config1 = mock(AppConfig.class);
+        yes(spec.plan(config) != spec.plan(config1));
+    }
+}
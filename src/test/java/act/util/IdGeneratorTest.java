@@ -0,0 +1,100 @@
+package act.util;
+
+import act.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class IdGeneratorTest extends TestBase {
+
+    private IdGenerator.NodeIdProvider nodeIdProvider;
+    private IdGenerator.StartIdProvider startIdProvider;
+
+    @Before
+    public void prepare() {
+        nodeIdProvider = new IdGenerator.NodeIdProvider() {
+            @Override
+            public long nodeId() {
+                return 3232235777L; // 192.168.1.1
+            }
+        };
+        startIdProvider = new IdGenerator.StartIdProvider() {
+            @Override
+            public long startId() {
+                return 25;
+            }
+        };
+    }
+
+    @Test
+    public void genIdShallBeEncodedFromNodeStartAndSequence() {
+        IdGenerator.LongEncoder encoder = IdGenerator.SAFE_ENCODER;
+        IdGenerator gen = new IdGenerator(nodeIdProvider, startIdProvider, new IdGenerator.SequenceProvider.AtomicLongSeq(), encoder);
+        String prefix = encoder.longToStr(3232235777L) + encoder.longToStr(25);
+        eq(prefix + encoder.longToStr(1), gen.genId());
+        eq(prefix + encoder.longToStr(2), gen.genId());
+    }
+
+    @Test
+    public void genIdsShallAllocateConsecutiveSequence() {
+        IdGenerator.LongEncoder encoder = IdGenerator.UNSAFE_ENCODER;
+        IdGenerator gen = new IdGenerator(nodeIdProvider, startIdProvider, new IdGenerator.SequenceProvider.AtomicLongSeq(), encoder);
+        gen.genId();
+        List<String> ids = gen.genIds(100);
+        eq(100, ids.size());
+        String prefix = encoder.longToStr(3232235777L) + encoder.longToStr(25);
+        eq(prefix + encoder.longToStr(2), ids.get(0));
+        eq(prefix + encoder.longToStr(101), ids.get(99));
+        eq(prefix + encoder.longToStr(102), gen.genId());
+    }
+
+    @Test
+    public void stripedSequenceShallBeUnique() throws Exception {
+        final IdGenerator gen = new IdGenerator(nodeIdProvider, startIdProvider, new IdGenerator.SequenceProvider.StripedSeq(3), IdGenerator.SAFE_ENCODER);
+        final int threads = 8;
+        final int perThread = 10000;
+        final Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < perThread; j += 100) {
+                            ids.addAll(gen.genIds(50));
+                            for (int k = 0; k < 50; ++k) {
+                                ids.add(gen.genId());
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        eq(threads * perThread, ids.size());
+    }
+
+    @Test
+    public void longIdShallBeTimeOrdered() {
+        IdGenerator gen = new IdGenerator(nodeIdProvider, startIdProvider, new IdGenerator.SequenceProvider.AtomicLongSeq(), IdGenerator.SAFE_ENCODER);
+        long prev = gen.genLongId();
+        for (int i = 0; i < 10000; ++i) {
+            long id = gen.genLongId();
+            yes(id > prev);
+            prev = id;
+        }
+        eq(8, gen.genBinaryId().length);
+    }
+
+}
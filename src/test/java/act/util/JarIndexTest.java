@@ -0,0 +1,106 @@
+package act.util;
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Random;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+public class JarIndexTest extends TestBase {
+
+    private File jar;
+    private byte[] classBytes;
+    private byte[] textBytes = "hello".getBytes();
+
+    @Before
+    public void prepare() throws Exception {
+        classBytes = new byte[100000];
+        new Random(1).nextBytes(classBytes);
+        jar = File.createTempFile("jar-index", ".jar");
+        writeJar("com/abc/Foo.class");
+    }
+
+    private void writeJar(String classEntry) throws Exception {
+        JarOutputStream os = new JarOutputStream(new FileOutputStream(jar));
+        os.putNextEntry(new ZipEntry(classEntry));
+        os.write(classBytes);
+        os.closeEntry();
+        ZipEntry stored = new ZipEntry("com/abc/foo.txt");
+        stored.setMethod(ZipEntry.STORED);
+        stored.setSize(textBytes.length);
+        CRC32 crc = new CRC32();
+        crc.update(textBytes);
+        stored.setCrc(crc.getValue());
+        os.putNextEntry(stored);
+        os.write(textBytes);
+        os.closeEntry();
+        os.putNextEntry(new ZipEntry("com/abc/"));
+        os.closeEntry();
+        os.setComment("jar index test");
+        os.close();
+    }
+
+    @After
+    public void cleanup() {
+        JarIndex.clear();
+        jar.delete();
+    }
+
+    @Test
+    public void itShallParseCentralDirectory() throws Exception {
+        JarIndex index = JarIndex.of(jar);
+        eq(3, index.size());
+        eq("com/abc/Foo.class", index.name(0));
+        yes(index.isDirectory(2));
+        eq(-1, index.indexOf("com/abc/Bar.class"));
+    }
+
+    @Test
+    public void itShallReadDeflatedEntry() throws Exception {
+        JarIndex index = JarIndex.of(jar);
+        assertArrayEquals(classBytes, index.classBytes("com.abc.Foo"));
+    }
+
+    @Test
+    public void itShallReadStoredEntry() throws Exception {
+        JarIndex index = JarIndex.of(jar);
+        eq(textBytes.length, index.buffer(index.indexOf("com/abc/foo.txt")).remaining());
+        eq(new String(textBytes), new String(index.bytes("com/abc/foo.txt")));
+    }
+
+    @Test
+    public void itShallShareIndex() throws Exception {
+        same(JarIndex.of(jar), JarIndex.of(jar));
+    }
+
+    @Test
+    public void itShallReopenAfterClosed() throws Exception {
+        JarIndex index = JarIndex.of(jar);
+        index.close();
+        assertArrayEquals(classBytes, index.classBytes("com.abc.Foo"));
+        JarIndex.clear();
+        eq(new String(textBytes), new String(index.bytes("com/abc/foo.txt")));
+    }
+
+    @Test
+    public void itShallReindexChangedJar() throws Exception {
+        JarIndex index = JarIndex.of(jar);
+        assertNotNull(index.classBytes("com.abc.Foo"));
+        long lastModified = jar.lastModified();
+        writeJar("com/abc/Bar.class");
+        // make sure the change is visible on file systems with coarse timestamps
+        jar.setLastModified(lastModified + 2000);
+        assertNull(index.classBytes("com.abc.Foo"));
+        assertArrayEquals(classBytes, index.classBytes("com.abc.Bar"));
+        JarIndex index2 = JarIndex.of(jar);
+        assertNotSame(index, index2);
+        assertArrayEquals(classBytes, index2.classBytes("com.abc.Bar"));
+    }
+
+}
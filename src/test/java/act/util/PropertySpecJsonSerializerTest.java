@@ -0,0 +1,52 @@
+package act.util;
+
+import act.TestBase;
+import org.junit.Test;
+import org.osgl.util.C;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+public class PropertySpecJsonSerializerTest extends TestBase {
+
+    @Test
+    public void typesOfObject() {
+        Set<Class<?>> types = PropertySpecJsonSerializer.types("foo");
+        eq(1, types.size());
+        yes(types.contains(String.class));
+    }
+
+    @Test
+    public void typesOfHomogeneousCollection() {
+        List<Object> list = C.newList();
+        list.add("foo");
+        list.add(null);
+        list.add("bar");
+        Set<Class<?>> types = PropertySpecJsonSerializer.types(list);
+        eq(1, types.size());
+        yes(types.contains(String.class));
+    }
+
+    @Test
+    public void typesOfMixedCollection() {
+        List<Object> list = C.newList();
+        list.add("foo");
+        list.add(new Date());
+        list.add(1);
+        list.add("bar");
+        Set<Class<?>> types = PropertySpecJsonSerializer.types(list);
+        eq(3, types.size());
+        yes(types.contains(String.class));
+        yes(types.contains(Date.class));
+        yes(types.contains(Integer.class));
+    }
+
+    @Test
+    public void typesOfEmptyCollection() {
+        List<Object> list = C.newList();
+        eq(1, PropertySpecJsonSerializer.types(list).size());
+        yes(List.class.isAssignableFrom(PropertySpecJsonSerializer.types(list).iterator().next()));
+    }
+
+}
@@ -7,6 +7,7 @@ import act.conf.AppConfig;
 import org.junit.Before;
 import org.junit.Test;
 import org.osgl.http.H;
+import org.osgl.util.C;
 
 import static org.mockito.Mockito.*;
 
@@ -67,4 +68,53 @@ public class SessionManagerTest extends TestBase {
         eq("bar", session1.get("foo"));
     }
 
+    @Test
+    public void testCryptoSessionWithoutGcm() {
+        AppCrypto legacyCrypto = spy(crypto);
+        when(legacyCrypto.sealSupported()).thenReturn(false);
+        when(app.crypto()).thenReturn(legacyCrypto);
+        when(config.encryptSession()).thenReturn(true);
+        resolver = new SessionManager.CookieResolver(app);
+        String content = resolver.dissolveIntoCookieContent(session, true);
+        H.Session session1 = new H.Session();
+        resolver.resolveFromCookieContent(session1, content, true);
+        eq("bar", session1.get("foo"));
+
+        // cookies issued by a JRE without AES/GCM are still read once upgraded
+        when(app.crypto()).thenReturn(crypto);
+        resolver = new SessionManager.CookieResolver(app);
+        session1 = new H.Session();
+        resolver.resolveFromCookieContent(session1, content, true);
+        eq("bar", session1.get("foo"));
+    }
+
+    @Test
+    public void testSessionIssuedWithRetiredSecret() {
+        when(config.encryptSession()).thenReturn(true);
+        resolver = new SessionManager.CookieResolver(app);
+        String content = resolver.dissolveIntoCookieContent(session, true);
+
+        AppConfig config1 = mock(AppConfig.class);
+        when(config1.secret()).thenReturn("secret1");
+        when(config1.retiredSecrets()).thenReturn(C.list("secret"));
+        when(config1.encryptSession()).thenReturn(true);
+        when(app.crypto()).thenReturn(new AppCrypto(config1));
+        resolver = new SessionManager.CookieResolver(app);
+        H.Session session1 = new H.Session();
+        resolver.resolveFromCookieContent(session1, content, true);
+        eq("bar", session1.get("foo"));
+    }
+
+    @Test
+    public void testTamperedSession() {
+        when(config.encryptSession()).thenReturn(true);
+        resolver = new SessionManager.CookieResolver(app);
+        String content = resolver.dissolveIntoCookieContent(session, true);
+        char c = content.charAt(content.length() / 2);
+        content = content.substring(0, content.length() / 2) + (c == 'A' ? 'B' : 'A') + content.substring(content.length() / 2 + 1);
+        H.Session session1 = new H.Session();
+        resolver.resolveFromCookieContent(session1, content, true);
+        no(session1.contains("foo"));
+    }
+
 }
@@ -0,0 +1,126 @@
+package act.validation;
+
+import act.BenchmarkBase;
+import act.app.ActionContext;
+import act.controller.ActionMethodParamAnnotationHandler;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.osgl.util.C;
+
+import javax.validation.constraints.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compare validating a 20 fields form with compiled {@link ValidationPlan}s
+ * against iterating the annotation handler map of each parameter
+ */
+@BenchmarkOptions(warmupRounds = 1000, benchmarkRounds = 100000, concurrency = 4)
+@Ignore
+public class ValidationPlanBenchmark extends BenchmarkBase {
+
+    private static final String NAME = "[a-zA-Z ]+";
+    private static final String EMAIL = "[a-z0-9._]+@[a-z0-9.]+";
+    private static final String PHONE = "\\+?[0-9 ]{6,20}";
+    private static final String CODE = "[A-Z0-9]{4,10}";
+
+    @SuppressWarnings("unused")
+    public static void form(
+            @NotNull @Size(min = 1, max = 50) @Pattern(regexp = NAME) String firstName,
+            @NotNull @Size(min = 1, max = 50) @Pattern(regexp = NAME) String lastName,
+            @NotNull @Size(max = 100) @Pattern(regexp = EMAIL) String email,
+            @Pattern(regexp = PHONE) String phone,
+            @Pattern(regexp = PHONE) String mobile,
+            @Min(0) @Max(150) int age,
+            @Size(max = 100) String address1,
+            @Size(max = 100) String address2,
+            @NotNull @Size(min = 1, max = 50) String city,
+            @Size(max = 50) String state,
+            @NotNull @Pattern(regexp = CODE) String postCode,
+            @NotNull @Size(min = 2, max = 2) String country,
+            @Size(max = 100) String company,
+            @Size(max = 50) String title,
+            @Min(0) @Max(1000000) long salary,
+            @Min(0) @Max(50) int experience,
+            @Size(max = 10) String[] skills,
+            @Size(max = 500) String bio,
+            @Pattern(regexp = CODE) String referral,
+            @NotNull @Size(min = 8, max = 64) String password
+    ) {
+    }
+
+    private static final Object[] VALUES = {
+            "Tom", "Cat", "tom@abc.com", "+61 2 1234 5678", "0412 345 678", 35,
+            "1 Test Street", "", "Sydney", "NSW", "2000", "AU",
+            "ABC Pty Ltd", "Developer", 100000L, 10,
+            new String[]{"java", "sql"}, "Lorem ipsum", "REF123", "secret123"
+    };
+
+    private Annotation[][] annotations;
+    private Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> handlers;
+    private Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler>[] paramHandlers;
+    private ValidationPlan[] plans;
+    private ActionContext context;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void prepare() throws Exception {
+        handlers = C.newMap();
+        for (ActionMethodParamAnnotationHandler h : new ActionMethodParamAnnotationHandler[]{
+                new NotNullHandler(), new SizeHandler(), new PatternHandler(), new MinHandler(), new MaxHandler()}) {
+            for (Class<? extends Annotation> c : h.listenTo()) {
+                handlers.put(c, h);
+            }
+        }
+        Method method = null;
+        for (Method m : ValidationPlanBenchmark.class.getMethods()) {
+            if ("form".equals(m.getName())) {
+                method = m;
+            }
+        }
+        annotations = method.getParameterAnnotations();
+        int len = annotations.length;
+        plans = new ValidationPlan[len];
+        paramHandlers = new Map[len];
+        for (int i = 0; i < len; ++i) {
+            plans[i] = ValidationPlan.of("p" + i, annotations[i], handlers);
+            Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> map = C.newMap();
+            for (Annotation a : annotations[i]) {
+                map.put(a.annotationType(), handlers.get(a.annotationType()));
+            }
+            paramHandlers[i] = map;
+        }
+        context = mock(ActionContext.class);
+    }
+
+    @Test
+    public void compiledPlan() {
+        for (int i = 0, len = plans.length; i < len; ++i) {
+            plans[i].validate(VALUES[i], context);
+        }
+    }
+
+    @Test
+    public void handlerMapIteration() {
+        for (int i = 0, len = paramHandlers.length; i < len; ++i) {
+            for (Map.Entry<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> entry : paramHandlers[i].entrySet()) {
+                Annotation ann = filter(annotations[i], entry.getKey());
+                entry.getValue().handle("p" + i, VALUES[i], ann, context);
+            }
+        }
+    }
+
+    private static Annotation filter(Annotation[] annotations, Class<? extends Annotation> type) {
+        for (Annotation annotation : annotations) {
+            if (type == annotation.annotationType()) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+}
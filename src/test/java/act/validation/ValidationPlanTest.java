@@ -0,0 +1,212 @@
+package act.validation;
+
+import act.TestBase;
+import act.app.ActionContext;
+import act.conf.AppConfig;
+import act.controller.ActionMethodParamAnnotationHandler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgl.util.C;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.MessageInterpolator;
+import javax.validation.constraints.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+public class ValidationPlanTest extends TestBase {
+
+    @SuppressWarnings("unused")
+    public static void form(
+            String noConstraint,
+            @Deprecated String unhandled,
+            @NotNull String notNull,
+            @Min(10) int min,
+            @Max(10) long max,
+            @Size(min = 2, max = 4) String size,
+            @Size(min = 1, max = 2) List<String> sizeOfList,
+            @Pattern(regexp = "[a-z]+") String pattern,
+            @Pattern(regexp = "a b c", flags = {Pattern.Flag.CASE_INSENSITIVE, Pattern.Flag.COMMENTS}) String patternWithFlags,
+            @Digits(integer = 3, fraction = 0) String digits,
+            @NotNull @Size(max = 3) String combined
+    ) {
+    }
+
+    private Annotation[][] annotations;
+    private Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> handlers;
+    private ActionContext context;
+    private List<ConstraintViolation<?>> violations;
+
+    @Before
+    public void prepare() throws Exception {
+        handlers = C.newMap();
+        for (ActionMethodParamAnnotationHandler h : new ActionMethodParamAnnotationHandler[]{
+                new NotNullHandler(), new MinHandler(), new MaxHandler(), new SizeHandler(),
+                new PatternHandler(), new DigitsHandler()}) {
+            for (Class<? extends Annotation> c : h.listenTo()) {
+                handlers.put(c, h);
+            }
+        }
+        Method method = null;
+        for (Method m : ValidationPlanTest.class.getMethods()) {
+            if ("form".equals(m.getName())) {
+                method = m;
+            }
+        }
+        annotations = method.getParameterAnnotations();
+        AppConfig config = mock(AppConfig.class);
+        when(config.validationMessageInterpolator()).thenReturn(mock(MessageInterpolator.class));
+        context = mock(ActionContext.class);
+        when(context.config()).thenReturn(config);
+        violations = C.newList();
+        when(context.addViolation(any(ConstraintViolation.class))).thenAnswer(new Answer<ActionContext>() {
+            @Override
+            public ActionContext answer(InvocationOnMock invocation) throws Throwable {
+                violations.add((ConstraintViolation<?>) invocation.getArguments()[0]);
+                return context;
+            }
+        });
+    }
+
+    @Test
+    public void itShallNotCreatePlanWithoutHandledConstraints() {
+        assertNull(plan(0));
+        assertNull(plan(1));
+    }
+
+    @Test
+    public void notNull() {
+        no(violated(2, "x"));
+        yes(violated(2, null));
+    }
+
+    @Test
+    public void min() {
+        no(violated(3, null));
+        no(violated(3, 10));
+        no(violated(3, 11L));
+        yes(violated(3, 9));
+    }
+
+    @Test
+    public void max() {
+        no(violated(4, null));
+        no(violated(4, 10L));
+        yes(violated(4, 11));
+    }
+
+    @Test
+    public void size() {
+        no(violated(5, null));
+        no(violated(5, "ab"));
+        no(violated(5, "abcd"));
+        yes(violated(5, "a"));
+        yes(violated(5, "abcde"));
+        no(violated(6, C.list("a", "b")));
+        yes(violated(6, C.list()));
+        yes(violated(6, C.list("a", "b", "c")));
+    }
+
+    @Test
+    public void pattern() {
+        no(violated(7, null));
+        no(violated(7, "abc"));
+        yes(violated(7, "ABC"));
+        yes(violated(7, "abc1"));
+    }
+
+    @Test
+    public void patternFlagsShallBeCombined() {
+        // both CASE_INSENSITIVE and COMMENTS are required to match
+        no(violated(8, "ABC"));
+        no(violated(8, "abc"));
+        yes(violated(8, "a b c"));
+    }
+
+    @Test
+    public void handlerWithoutCompiledCheckerShallBeDelegated() {
+        no(violated(9, null));
+        no(violated(9, "123"));
+        no(violated(9, "1,23"));
+        yes(violated(9, "1234"));
+        yes(violated(9, "12.3"));
+    }
+
+    @Test
+    public void allConstraintsShallBeChecked() {
+        ValidationPlan plan = plan(10);
+        plan.validate(null, context);
+        eq(1, violations.size());
+        violations.clear();
+        plan.validate("abcd", context);
+        eq(1, violations.size());
+        violations.clear();
+        plan.validate("abc", context);
+        eq(0, violations.size());
+    }
+
+    @Test
+    public void planShallBeReusable() {
+        ValidationPlan plan = plan(7);
+        for (int i = 0; i < 3; ++i) {
+            plan.validate("abc", context);
+            plan.validate("ABC", context);
+        }
+        eq(3, violations.size());
+    }
+
+    @Test
+    public void handleShallAgreeWithCompiledChecker() {
+        Object[][] values = {
+                {null, 10, 11L, 9},
+                {null, 10L, 11},
+                {null, "ab", "abcd", "a", "abcde"},
+                {C.list("a", "b"), C.list(), C.list("a", "b", "c")},
+                {null, "abc", "ABC", "abc1"},
+                {"ABC", "abc", "a b c"}
+        };
+        for (int i = 0; i < values.length; ++i) {
+            int param = i + 3;
+            for (Object value : values[i]) {
+                eq(violated(param, value), handled(param, value));
+            }
+        }
+    }
+
+    @Test
+    public void patternHandleShallBeRepeatable() {
+        for (int i = 0; i < 3; ++i) {
+            no(handled(7, "abc"));
+            yes(handled(7, "ABC"));
+            yes(handled(8, "a b c"));
+        }
+    }
+
+    private ValidationPlan plan(int param) {
+        return ValidationPlan.of("p" + param, annotations[param], handlers);
+    }
+
+    private boolean handled(int param, Object value) {
+        violations.clear();
+        for (Annotation annotation : annotations[param]) {
+            ActionMethodParamAnnotationHandler handler = handlers.get(annotation.annotationType());
+            if (null != handler) {
+                handler.handle("p" + param, value, annotation, context);
+            }
+        }
+        return !violations.isEmpty();
+    }
+
+    private boolean violated(int param, Object value) {
+        violations.clear();
+        plan(param).validate(value, context);
+        return !violations.isEmpty();
+    }
+
+}
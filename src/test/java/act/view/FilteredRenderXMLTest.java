@@ -0,0 +1,60 @@
+package act.view;
+
+import act.TestBase;
+import act.data.DataPropertyRepository;
+import act.util.PropertySpec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.http.H;
+import org.osgl.util.C;
+import testapp.model.Address;
+import testapp.model.Person;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.mockito.Mockito.*;
+
+public class FilteredRenderXMLTest extends TestBase {
+
+    private ByteArrayOutputStream out;
+    private H.Response resp;
+    private PropertySpec.MetaInfo spec;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        DataPropertyRepository repo = new DataPropertyRepository(mockApp);
+        when(mockApp.service(DataPropertyRepository.class)).thenReturn(repo);
+        out = new ByteArrayOutputStream();
+        resp = mock(H.Response.class);
+        when(resp.outputStream()).thenReturn(out);
+        spec = new PropertySpec.MetaInfo();
+        spec.onValue("firstName as Name,address.city");
+    }
+
+    @After
+    public void cleanup() {
+        PropertySpec.current.remove();
+    }
+
+    @Test
+    public void contentShallBeWrittenToResponse() throws Exception {
+        Person p = new Person("Zo\u00eb & co", "Green", new Address("1", "George St", "S\u00e3o Paulo"), 30);
+        new FilteredRenderXML(C.list(p), spec, mockActionContext).apply(mockReq, resp);
+        verify(resp).contentType(H.Format.XML.contentType());
+        String xml = out.toString("UTF-8");
+        yes(xml.startsWith("<?xml"));
+        yes(xml.endsWith("<result><item><Name>Zo\u00eb &amp; co</Name><address><city>S\u00e3o Paulo</city></address></item></result>"));
+    }
+
+    @Test
+    public void currentSpecShallBeResolvedWhenCreated() throws Exception {
+        PropertySpec.current.set("lastName");
+        FilteredRenderXML result = new FilteredRenderXML(new Person("Tom", "Green", null, 30), spec, mockActionContext);
+        PropertySpec.current.remove();
+        result.apply(mockReq, resp);
+        yes(out.toString("UTF-8").endsWith("<result><lastName>Green</lastName></result>"));
+    }
+
+}
@@ -0,0 +1,88 @@
+package act.view;
+
+import act.TestBase;
+import act.data.DataPropertyRepository;
+import act.util.PropertySpec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.util.C;
+import testapp.model.Address;
+import testapp.model.Person;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class RenderCSVTest extends TestBase {
+
+    private ByteArrayOutputStream out;
+    private H.Response resp;
+    private PropertySpec.MetaInfo spec;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        DataPropertyRepository repo = new DataPropertyRepository(mockApp);
+        when(mockApp.service(DataPropertyRepository.class)).thenReturn(repo);
+        out = new ByteArrayOutputStream();
+        resp = mock(H.Response.class);
+        when(resp.outputStream()).thenReturn(out);
+        spec = new PropertySpec.MetaInfo();
+        spec.onValue("firstName,address.city as City");
+    }
+
+    @After
+    public void cleanup() {
+        PropertySpec.current.remove();
+    }
+
+    @Test
+    public void contentShallBeWrittenToResponse() throws Exception {
+        List<Person> people = C.list(person("Tom", "Sydney"), person("Zo\u00eb", "S\u00e3o Paulo"));
+        new RenderCSV(people, spec, mockActionContext).apply(mockReq, resp);
+        verify(resp).contentType(H.Format.CSV.contentType());
+        String ln = $.OS.lineSeparator();
+        eq("firstName,City" + ln + "Tom,Sydney" + ln + "Zo\u00eb,S\u00e3o Paulo", content());
+    }
+
+    @Test
+    public void rowsShallBeIteratedWhenApplied() throws Exception {
+        final List<Person> people = C.newList();
+        Iterable<Person> iterable = new Iterable<Person>() {
+            @Override
+            public Iterator<Person> iterator() {
+                return people.iterator();
+            }
+        };
+        RenderCSV result = new RenderCSV(iterable, spec, mockActionContext);
+        // rows added after the result is created are rendered
+        people.add(person("Tom", "Sydney"));
+        result.apply(mockReq, resp);
+        eq("firstName,City" + $.OS.lineSeparator() + "Tom,Sydney", content());
+    }
+
+    @Test
+    public void currentSpecShallBeResolvedWhenCreated() throws Exception {
+        PropertySpec.current.set("address.city");
+        RenderCSV result = new RenderCSV(C.list(person("Tom", "Sydney")), spec, mockActionContext);
+        // the result might be applied after the current spec is cleared
+        PropertySpec.current.remove();
+        result.apply(mockReq, resp);
+        eq("address.city" + $.OS.lineSeparator() + "Sydney", content());
+    }
+
+    private String content() throws UnsupportedEncodingException {
+        return out.toString("UTF-8");
+    }
+
+    private static Person person(String firstName, String city) {
+        return new Person(firstName, "Green", new Address("1", "George St", city), 30);
+    }
+
+}
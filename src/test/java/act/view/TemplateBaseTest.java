@@ -0,0 +1,183 @@
+package act.view;
+
+import act.Act;
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.http.H;
+import org.osgl.util.C;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+public class TemplateBaseTest extends TestBase {
+
+    private static final int THRESHOLD = 100;
+
+    private Field modeField;
+    private Field viewManagerField;
+    private Object mode;
+    private Object viewManager;
+
+    private Map<String, Object> renderArgs;
+    private RecordingStream out;
+    private H.Response resp;
+    private TestTemplate template;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        modeField = Act.class.getDeclaredField("mode");
+        modeField.setAccessible(true);
+        mode = modeField.get(null);
+        viewManagerField = Act.class.getDeclaredField("viewManager");
+        viewManagerField.setAccessible(true);
+        viewManager = viewManagerField.get(null);
+        ViewManager mockViewManager = mock(ViewManager.class);
+        when(mockViewManager.implicitActionViewVariables()).thenReturn(C.<ActionViewVarDef>list());
+        viewManagerField.set(null, mockViewManager);
+        modeField.set(null, Act.Mode.PROD);
+
+        renderArgs = C.newMap();
+        renderArgs.put("rows", 25);
+        renderArgs.put("word", "cafe");
+        when(mockActionContext.renderArgs()).thenReturn(renderArgs);
+        out = new RecordingStream();
+        resp = mock(H.Response.class);
+        when(resp.outputStream()).thenReturn(out);
+        when(resp.characterEncoding()).thenReturn("UTF-8");
+        when(mockActionContext.resp()).thenReturn(resp);
+        when(mockAppConfig.templateStreaming()).thenReturn(true);
+        when(mockAppConfig.templateStreamingFlushThreshold()).thenReturn(THRESHOLD);
+        template = new TestTemplate(true);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        modeField.set(null, mode);
+        viewManagerField.set(null, viewManager);
+    }
+
+    @Test
+    public void streamingOutputShallBeSameAsBufferedRender() throws Exception {
+        template.merge(mockActionContext);
+        eq(1, template.streamed);
+        eq(template.render(renderArgs), out.toString("UTF-8"));
+    }
+
+    @Test
+    public void outputShallBeFlushedAtThreshold() throws Exception {
+        template.merge(mockActionContext);
+        String expected = template.render(renderArgs);
+        int fullBuffers = expected.length() / THRESHOLD;
+        // one flush per full buffer plus the final one
+        eq(fullBuffers + 1, out.flushedAt.size());
+        for (int i = 0; i < fullBuffers; ++i) {
+            // the content is ASCII, one byte per character
+            eq((i + 1) * THRESHOLD, out.flushedAt.get(i));
+        }
+        eq(expected.length(), out.flushedAt.get(fullBuffers));
+    }
+
+    @Test
+    public void devModeShallNotStream() throws Exception {
+        modeField.set(null, Act.Mode.DEV);
+        template.merge(mockActionContext);
+        eq(0, template.streamed);
+        eq(template.render(renderArgs), out.toString("UTF-8"));
+    }
+
+    @Test
+    public void streamingDisabledShallNotStream() throws Exception {
+        when(mockAppConfig.templateStreaming()).thenReturn(false);
+        template.merge(mockActionContext);
+        eq(0, template.streamed);
+        eq(template.render(renderArgs), out.toString("UTF-8"));
+    }
+
+    @Test
+    public void templateNotSupportStreamingShallNotStream() throws Exception {
+        template = new TestTemplate(false);
+        template.merge(mockActionContext);
+        eq(0, template.streamed);
+        eq(template.render(renderArgs), out.toString("UTF-8"));
+    }
+
+    @Test
+    public void responseEncodingShallBeUsed() throws Exception {
+        when(resp.characterEncoding()).thenReturn("ISO-8859-1");
+        renderArgs.put("rows", 3);
+        renderArgs.put("word", "caf\u00e9");
+        template.merge(mockActionContext);
+        eq(1, template.streamed);
+        String expected = template.render(renderArgs);
+        eq(expected, out.toString("ISO-8859-1"));
+        eq(expected.length(), out.size());
+
+        out.reset();
+        modeField.set(null, Act.Mode.DEV);
+        template.merge(mockActionContext);
+        eq(expected, out.toString("ISO-8859-1"));
+    }
+
+    private static class RecordingStream extends ByteArrayOutputStream {
+        // the number of bytes written when flush is called
+        final List<Integer> flushedAt = C.newList();
+
+        @Override
+        public void flush() throws IOException {
+            flushedAt.add(size());
+            super.flush();
+        }
+    }
+
+    private static class TestTemplate extends TemplateBase {
+        private final boolean streaming;
+        int streamed;
+
+        TestTemplate(boolean streaming) {
+            this.streaming = streaming;
+        }
+
+        @Override
+        protected String render(Map<String, Object> renderArgs) {
+            StringBuilder sb = new StringBuilder();
+            int rows = (Integer) renderArgs.get("rows");
+            for (int i = 0; i < rows; ++i) {
+                sb.append("<li>row ").append(i).append(" ").append(renderArgs.get("word")).append("</li>\n");
+            }
+            return sb.toString();
+        }
+
+        @Override
+        protected boolean supportStreaming() {
+            return streaming;
+        }
+
+        @Override
+        protected void render(Map<String, Object> renderArgs, Writer writer) {
+            streamed++;
+            int rows = (Integer) renderArgs.get("rows");
+            try {
+                for (int i = 0; i < rows; ++i) {
+                    writer.write("<li>row ");
+                    writer.write(String.valueOf(i));
+                    writer.write(" ");
+                    writer.write((String) renderArgs.get("word"));
+                    writer.write("</li>");
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+}
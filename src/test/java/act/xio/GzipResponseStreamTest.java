@@ -0,0 +1,118 @@
+package act.xio;
+
+import act.TestBase;
+import org.junit.Test;
+import org.osgl.util.IO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+public class GzipResponseStreamTest extends TestBase {
+
+    private static class Stream extends GzipResponseStream {
+        boolean compressible = true;
+        boolean compressed;
+
+        Stream(ByteArrayOutputStream os, int threshold) {
+            super(os, threshold);
+        }
+
+        @Override
+        protected boolean compressible() {
+            return compressible;
+        }
+
+        @Override
+        protected void beforeCompress() {
+            compressed = true;
+        }
+    }
+
+    @Test
+    public void smallContentShallNotBeCompressed() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Stream stream = new Stream(os, 100);
+        stream.write("hello".getBytes());
+        stream.close();
+        no(stream.compressed);
+        eq("hello", new String(os.toByteArray()));
+    }
+
+    @Test
+    public void largeContentShallBeCompressed() throws IOException {
+        String content = repeat("hello world ", 1000);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Stream stream = new Stream(os, 100);
+        stream.write(content.getBytes());
+        stream.close();
+        yes(stream.compressed);
+        yes(os.size() < content.length());
+        eq(content, gunzip(os.toByteArray()));
+    }
+
+    @Test
+    public void flushedContentShallBeCompressed() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Stream stream = new Stream(os, 100);
+        stream.write("hello ".getBytes());
+        stream.flush();
+        stream.write("world".getBytes());
+        stream.close();
+        yes(stream.compressed);
+        eq("hello world", gunzip(os.toByteArray()));
+    }
+
+    @Test
+    public void incompressibleContentShallBeWrittenRaw() throws IOException {
+        String content = repeat("x", 1000);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Stream stream = new Stream(os, 100);
+        stream.compressible = false;
+        stream.write(content.getBytes());
+        stream.close();
+        no(stream.compressed);
+        eq(content, new String(os.toByteArray()));
+    }
+
+    @Test
+    public void testAcceptGzip() {
+        yes(GzipResponseStream.acceptGzip("gzip, deflate"));
+        yes(GzipResponseStream.acceptGzip("deflate, *"));
+        no(GzipResponseStream.acceptGzip("deflate"));
+        no(GzipResponseStream.acceptGzip("gzip;q=0, *"));
+        no(GzipResponseStream.acceptGzip(null));
+    }
+
+    @Test
+    public void testCompressible() {
+        yes(GzipResponseStream.compressible("application/json; charset=utf-8"));
+        yes(GzipResponseStream.compressible("text/html"));
+        yes(GzipResponseStream.compressible("image/svg+xml"));
+        no(GzipResponseStream.compressible("image/png"));
+        no(GzipResponseStream.compressible(null));
+    }
+
+    @Test
+    public void testHasBody() {
+        yes(GzipResponseStream.hasBody(false, 200));
+        yes(GzipResponseStream.hasBody(false, 404));
+        no(GzipResponseStream.hasBody(true, 200));
+        no(GzipResponseStream.hasBody(false, 204));
+        no(GzipResponseStream.hasBody(false, 304));
+        no(GzipResponseStream.hasBody(false, 101));
+    }
+
+    private static String gunzip(byte[] ba) throws IOException {
+        return IO.readContentAsString(new GZIPInputStream(new ByteArrayInputStream(ba)));
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder(s.length() * times);
+        for (int i = 0; i < times; ++i) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+}
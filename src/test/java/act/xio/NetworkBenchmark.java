@@ -0,0 +1,113 @@
+package act.xio;
+
+import act.BenchmarkBase;
+import act.app.ActionContext;
+import act.app.App;
+import act.xio.netty4.NettyNetwork;
+import act.xio.undertow.UndertowNetwork;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.osgl.util.IO;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.Locale;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Compare the throughput of {@link UndertowNetwork} and {@link NettyNetwork}
+ * serving a plain text response over keep-alive connections
+ */
+@BenchmarkOptions(warmupRounds = 1000, benchmarkRounds = 100000, concurrency = 4)
+@Ignore
+public class NetworkBenchmark extends BenchmarkBase {
+
+    private static final String CONTENT = "Hello World";
+
+    private static Network undertow;
+    private static Network netty;
+    private static URL undertowUrl;
+    private static URL nettyUrl;
+
+    @Before
+    public void prepare() throws Exception {
+        synchronized (NetworkBenchmark.class) {
+            if (null != undertow) {
+                return;
+            }
+            setup();
+            when(mockAppConfig.encoding()).thenReturn("UTF-8");
+            when(mockAppConfig.locale()).thenReturn(Locale.getDefault());
+            when(mockAppConfig.xioIoThreads()).thenReturn(2);
+            when(mockAppConfig.xioWorkerThreads()).thenReturn(16);
+            when(mockAppConfig.xioBacklog()).thenReturn(1024);
+            when(mockAppConfig.xioBufferSize()).thenReturn(1024 * 16);
+            when(mockAppConfig.xioBufferRegionCount()).thenReturn(20);
+            when(mockAppConfig.xioBufferDirect()).thenReturn(true);
+            when(mockAppConfig.xioMaxHeaderSize()).thenReturn(1024 * 1024);
+            int port = freePort();
+            undertow = new UndertowNetwork();
+            undertow.register(port, new HelloHandler(mockApp));
+            undertow.start();
+            undertowUrl = new URL("http://localhost:" + port + "/");
+            port = freePort();
+            netty = new NettyNetwork();
+            netty.register(port, new HelloHandler(mockApp));
+            netty.start();
+            nettyUrl = new URL("http://localhost:" + port + "/");
+        }
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        if (null != undertow) {
+            undertow.shutdown();
+            netty.shutdown();
+            undertow = null;
+            netty = null;
+        }
+    }
+
+    @Test
+    public void undertow() throws Exception {
+        eq(CONTENT, get(undertowUrl));
+    }
+
+    @Test
+    public void netty() throws Exception {
+        eq(CONTENT, get(nettyUrl));
+    }
+
+    private static String get(URL url) throws Exception {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        InputStream is = conn.getInputStream();
+        // reading to the end and closing the stream keeps the connection alive
+        return IO.readContentAsString(is);
+    }
+
+    private static int freePort() throws Exception {
+        ServerSocket ss = new ServerSocket(0);
+        try {
+            return ss.getLocalPort();
+        } finally {
+            ss.close();
+        }
+    }
+
+    private static class HelloHandler extends NetworkHandler {
+        HelloHandler(App app) {
+            super(app);
+        }
+
+        @Override
+        public void handle(ActionContext ctx) {
+            ctx.resp().writeContent(CONTENT);
+        }
+    }
+}
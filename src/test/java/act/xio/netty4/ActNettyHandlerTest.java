@@ -0,0 +1,119 @@
+package act.xio.netty4;
+
+import act.TestBase;
+import act.app.ActionContext;
+import act.xio.NetworkHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgl.util.C;
+
+import java.util.List;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class ActNettyHandlerTest extends TestBase {
+
+    private static final String SEQ = "X-Seq";
+
+    private NetworkHandler client;
+    private EmbeddedChannel channel;
+    private List<Object> out;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        client = mock(NetworkHandler.class);
+        when(client.app()).thenReturn(mockApp);
+        channel = new EmbeddedChannel(new ActNettyHandler(client));
+        out = C.newList();
+    }
+
+    @After
+    public void cleanup() {
+        readOutbound();
+        for (Object o : out) {
+            ReferenceCountUtil.release(o);
+        }
+        channel.finish();
+    }
+
+    @Test
+    public void pipelinedResponsesShallBeWrittenInRequestOrder() {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ActionContext ctx = (ActionContext) invocation.getArguments()[0];
+                ctx.resp().writeContent("response-" + ctx.req().header(SEQ));
+                return null;
+            }
+        }).when(client).handle(any(ActionContext.class));
+        channel.writeInbound(request("1"), request("2"), request("3"));
+        readOutbound();
+        eq(3, out.size());
+        for (int i = 0; i < 3; ++i) {
+            FullHttpResponse resp = (FullHttpResponse) out.get(i);
+            eq(HttpResponseStatus.OK, resp.status());
+            eq("response-" + (i + 1), resp.content().toString(CharsetUtil.UTF_8));
+        }
+        yes(channel.isOpen());
+    }
+
+    @Test
+    public void errorBeforeResponseStartedShallSend500() {
+        doThrow(new RuntimeException("boom")).when(client).handle(any(ActionContext.class));
+        channel.writeInbound(request("1"));
+        readOutbound();
+        eq(1, out.size());
+        FullHttpResponse resp = (FullHttpResponse) out.get(0);
+        eq(HttpResponseStatus.INTERNAL_SERVER_ERROR, resp.status());
+        eq("0", resp.headers().get(CONTENT_LENGTH));
+        eq(HttpHeaderValues.CLOSE.toString(), resp.headers().get(CONNECTION));
+        no(channel.isOpen());
+    }
+
+    @Test
+    public void errorAfterResponseStartedShallCloseConnection() {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ActionContext ctx = (ActionContext) invocation.getArguments()[0];
+                ctx.resp().outputStream().write(new byte[NettyResponse.CHUNK_SIZE + 1]);
+                throw new RuntimeException("boom");
+            }
+        }).when(client).handle(any(ActionContext.class));
+        channel.writeInbound(request("1"));
+        readOutbound();
+        HttpResponse resp = (HttpResponse) out.get(0);
+        eq(HttpResponseStatus.OK, resp.status());
+        for (Object o : out) {
+            if (o instanceof HttpResponse) {
+                no(HttpResponseStatus.INTERNAL_SERVER_ERROR.equals(((HttpResponse) o).status()));
+            }
+            no(o instanceof LastHttpContent);
+        }
+        no(channel.isOpen());
+    }
+
+    private void readOutbound() {
+        Object o;
+        while (null != (o = channel.readOutbound())) {
+            out.add(o);
+        }
+    }
+
+    private static FullHttpRequest request(String seq) {
+        FullHttpRequest req = NettyResponseTest.request(HttpVersion.HTTP_1_1, HttpMethod.GET);
+        req.headers().set(SEQ, seq);
+        return req;
+    }
+
+}
@@ -0,0 +1,243 @@
+package act.xio.netty4;
+
+import act.TestBase;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+import static org.mockito.Mockito.when;
+
+public class NettyResponseTest extends TestBase {
+
+    private EmbeddedChannel channel;
+    private ChannelHandlerContext nc;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        when(mockAppConfig.httpGzipThreshold()).thenReturn(100);
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        nc = channel.pipeline().firstContext();
+    }
+
+    @After
+    public void cleanup() {
+        for (Object o : outbound()) {
+            ReferenceCountUtil.release(o);
+        }
+        channel.finish();
+    }
+
+    @Test
+    public void smallContentShallBeSentInFullResponse() {
+        NettyResponse resp = response(HttpVersion.HTTP_1_1, HttpMethod.GET);
+        resp.writeContent("hello");
+        resp.commit();
+        List<Object> out = outbound();
+        eq(1, out.size());
+        FullHttpResponse full = (FullHttpResponse) out.get(0);
+        eq(HttpResponseStatus.OK, full.status());
+        eq("5", full.headers().get(CONTENT_LENGTH));
+        eq("hello", full.content().toString(CharsetUtil.UTF_8));
+        no(full.headers().contains(CONNECTION));
+        yes(channel.isOpen());
+        release(out);
+    }
+
+    @Test
+    public void contentBelowChunkSizeShallNotBeChunked() throws Exception {
+        NettyResponse resp = response(HttpVersion.HTTP_1_1, HttpMethod.GET);
+        resp.outputStream().write(new byte[NettyResponse.CHUNK_SIZE - 1]);
+        resp.commit();
+        List<Object> out = outbound();
+        eq(1, out.size());
+        FullHttpResponse full = (FullHttpResponse) out.get(0);
+        eq(NettyResponse.CHUNK_SIZE - 1, full.content().readableBytes());
+        release(out);
+    }
+
+    @Test
+    public void largeContentShallBeChunked() throws Exception {
+        NettyResponse resp = response(HttpVersion.HTTP_1_1, HttpMethod.GET);
+        int len = NettyResponse.CHUNK_SIZE * 2 + 10;
+        resp.outputStream().write(new byte[len]);
+        resp.commit();
+        List<Object> out = outbound();
+        HttpResponse head = (HttpResponse) out.get(0);
+        no(head instanceof FullHttpResponse);
+        eq(HttpHeaderValues.CHUNKED.toString(), head.headers().get(TRANSFER_ENCODING));
+        no(head.headers().contains(CONTENT_LENGTH));
+        yes(out.get(out.size() - 1) instanceof LastHttpContent);
+        eq(len, contentLength(out.subList(1, out.size())));
+        yes(channel.isOpen());
+        release(out);
+    }
+
+    @Test
+    public void http10ShallCloseConnectionByDefault() {
+        NettyResponse resp = response(HttpVersion.HTTP_1_0, HttpMethod.GET);
+        resp.writeContent("hello");
+        resp.commit();
+        List<Object> out = outbound();
+        FullHttpResponse full = (FullHttpResponse) out.get(0);
+        eq(HttpHeaderValues.CLOSE.toString(), full.headers().get(CONNECTION));
+        no(channel.isOpen());
+        release(out);
+    }
+
+    @Test
+    public void http10KeepAliveShallBeKept() {
+        FullHttpRequest req = request(HttpVersion.HTTP_1_0, HttpMethod.GET);
+        req.headers().set(CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+        NettyResponse resp = new NettyResponse(req, nc, mockAppConfig);
+        resp.writeContent("hello");
+        resp.commit();
+        List<Object> out = outbound();
+        FullHttpResponse full = (FullHttpResponse) out.get(0);
+        eq(HttpHeaderValues.KEEP_ALIVE.toString(), full.headers().get(CONNECTION));
+        yes(channel.isOpen());
+        release(out);
+    }
+
+    @Test
+    public void chunkedHttp10ResponseShallCloseConnection() throws Exception {
+        FullHttpRequest req = request(HttpVersion.HTTP_1_0, HttpMethod.GET);
+        req.headers().set(CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+        NettyResponse resp = new NettyResponse(req, nc, mockAppConfig);
+        resp.outputStream().write(new byte[NettyResponse.CHUNK_SIZE + 1]);
+        resp.commit();
+        List<Object> out = outbound();
+        HttpResponse head = (HttpResponse) out.get(0);
+        // HTTP/1.0 client reads the content until the connection is closed
+        no(head.headers().contains(TRANSFER_ENCODING));
+        eq(HttpHeaderValues.CLOSE.toString(), head.headers().get(CONNECTION));
+        no(channel.isOpen());
+        release(out);
+    }
+
+    @Test
+    public void connectionCloseHeaderShallCloseConnection() {
+        NettyResponse resp = response(HttpVersion.HTTP_1_1, HttpMethod.GET);
+        resp.header(CONNECTION.toString(), HttpHeaderValues.CLOSE.toString());
+        resp.writeContent("bye");
+        resp.commit();
+        release(outbound());
+        no(channel.isOpen());
+    }
+
+    @Test
+    public void contentShallBeGzippedOnCommit() throws Exception {
+        when(mockAppConfig.httpGzip()).thenReturn(true);
+        NettyResponse resp = gzipResponse(HttpMethod.GET);
+        String content = text();
+        resp.writeContent(content);
+        resp.commit();
+        List<Object> out = outbound();
+        FullHttpResponse full = (FullHttpResponse) out.get(0);
+        eq(HttpHeaderValues.GZIP.toString(), full.headers().get(CONTENT_ENCODING));
+        eq(String.valueOf(full.content().readableBytes()), full.headers().get(CONTENT_LENGTH));
+        eq(content, IO.readContentAsString(new GZIPInputStream(new ByteBufInputStream(full.content().duplicate()))));
+        release(out);
+    }
+
+    @Test
+    public void headResponseShallNotBeGzipped() {
+        when(mockAppConfig.httpGzip()).thenReturn(true);
+        NettyResponse resp = gzipResponse(HttpMethod.HEAD);
+        resp.writeContent(text());
+        resp.commit();
+        List<Object> out = outbound();
+        FullHttpResponse full = (FullHttpResponse) out.get(0);
+        no(full.headers().contains(CONTENT_ENCODING));
+        release(out);
+    }
+
+    @Test
+    public void notModifiedResponseShallNotBeGzipped() {
+        when(mockAppConfig.httpGzip()).thenReturn(true);
+        NettyResponse resp = gzipResponse(HttpMethod.GET);
+        resp.status(304);
+        resp.writeContent(text());
+        resp.commit();
+        List<Object> out = outbound();
+        FullHttpResponse full = (FullHttpResponse) out.get(0);
+        eq(HttpResponseStatus.NOT_MODIFIED, full.status());
+        no(full.headers().contains(CONTENT_ENCODING));
+        release(out);
+    }
+
+    @Test
+    public void writeAfterCommitShallFail() {
+        NettyResponse resp = response(HttpVersion.HTTP_1_1, HttpMethod.GET);
+        resp.writeContent("hello");
+        resp.commit();
+        try {
+            resp.writeContent("again");
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        release(outbound());
+    }
+
+    private NettyResponse gzipResponse(HttpMethod method) {
+        FullHttpRequest req = request(HttpVersion.HTTP_1_1, method);
+        req.headers().set(ACCEPT_ENCODING, "gzip, deflate");
+        NettyResponse resp = new NettyResponse(req, nc, mockAppConfig);
+        resp.contentType("text/plain");
+        return resp;
+    }
+
+    private NettyResponse response(HttpVersion version, HttpMethod method) {
+        return new NettyResponse(request(version, method), nc, mockAppConfig);
+    }
+
+    static FullHttpRequest request(HttpVersion version, HttpMethod method) {
+        return new DefaultFullHttpRequest(version, method, "/", Unpooled.EMPTY_BUFFER);
+    }
+
+    private List<Object> outbound() {
+        List<Object> list = C.newList();
+        Object o;
+        while (null != (o = channel.readOutbound())) {
+            list.add(o);
+        }
+        return list;
+    }
+
+    private static int contentLength(List<Object> chunks) {
+        int len = 0;
+        for (Object o : chunks) {
+            len += ((HttpContent) o).content().readableBytes();
+        }
+        return len;
+    }
+
+    private static void release(List<Object> out) {
+        for (Object o : out) {
+            ReferenceCountUtil.release(o);
+        }
+    }
+
+    private static String text() {
+        char[] ca = new char[1000];
+        Arrays.fill(ca, 'a');
+        return new String(ca);
+    }
+
+}
@@ -0,0 +1,89 @@
+package act.xio.undertow;
+
+import act.TestBase;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import org.junit.Before;
+import org.junit.Test;
+import org.xnio.BufferAllocator;
+import org.xnio.ByteBufferSlicePool;
+import org.xnio.Pooled;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class MonitoredBufferPoolTest extends TestBase {
+
+    private Metric metric;
+    private UndertowNetwork.MonitoredBufferPool pool;
+
+    @Before
+    public void prepare() {
+        metric = mock(Metric.class);
+        pool = new UndertowNetwork.MonitoredBufferPool(new ByteBufferSlicePool(BufferAllocator.BYTE_BUFFER_ALLOCATOR, 16, 16 * 4), 4, metric);
+    }
+
+    @Test
+    public void buffersInUseShallBeCounted() {
+        List<Pooled<ByteBuffer>> list = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            list.add(pool.allocate());
+        }
+        eq(3, pool.inUse());
+        list.get(0).free();
+        // free twice shall not be counted again
+        list.get(0).free();
+        list.get(1).discard();
+        eq(1, pool.inUse());
+        eq(3, pool.peak());
+        eq(3L, pool.allocations());
+    }
+
+    @Test
+    public void regionAllocationShallBeCounted() {
+        for (int i = 0; i < 5; ++i) {
+            pool.allocate();
+        }
+        verify(metric, times(2)).countOnce(MetricInfo.XIO_BUFFER_REGION);
+    }
+
+    @Test
+    public void regionOfSingleBufferShallBeCounted() {
+        pool = new UndertowNetwork.MonitoredBufferPool(new ByteBufferSlicePool(BufferAllocator.BYTE_BUFFER_ALLOCATOR, 16, 16), 1, metric);
+        List<Pooled<ByteBuffer>> list = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            list.add(pool.allocate());
+        }
+        verify(metric, times(3)).countOnce(MetricInfo.XIO_BUFFER_REGION);
+        // buffers returned are reused, no new region needed below the peak
+        list.get(0).free();
+        pool.allocate();
+        verify(metric, times(3)).countOnce(MetricInfo.XIO_BUFFER_REGION);
+    }
+
+    @Test
+    public void regionsShallBeCountedUnderConcurrentAllocation() throws Exception {
+        final int threads = 8, perThread = 100;
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < perThread; ++j) {
+                        pool.allocate();
+                    }
+                }
+            };
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        eq(threads * perThread, pool.peak());
+        // 4 buffers per region
+        verify(metric, times(threads * perThread / 4)).countOnce(MetricInfo.XIO_BUFFER_REGION);
+    }
+}